@@ -0,0 +1,107 @@
+package colectivo.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import colectivo.conexion.Factory;
+import colectivo.dao.secuencial.LineaDAOArchivo;
+import colectivo.dao.secuencial.ParadaDAOArchivo;
+import colectivo.dao.secuencial.TramoDAOArchivo;
+import colectivo.logica.CiudadLoaderService;
+import colectivo.modelo.Ciudad;
+
+/**
+ * Paths of the four data files of a dataset, read by the sequential file DAOs:
+ * either the bundled ones configured in config.properties or those of a
+ * directory written by {@code GeneradorCiudad.ArchivosCiudad}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class ArchivosDatos {
+
+	/** Path of the stop data file. */
+	private final String paradas;
+
+	/** Path of the line data file. */
+	private final String lineas;
+
+	/** Path of the segment data file. */
+	private final String tramos;
+
+	/** Path of the frequency data file. */
+	private final String frecuencias;
+
+	/**
+	 * Private constructor, instances are obtained through {@code de}.
+	 */
+	private ArchivosDatos(String paradas, String lineas, String tramos, String frecuencias) {
+		this.paradas = paradas;
+		this.lineas = lineas;
+		this.tramos = tramos;
+		this.frecuencias = frecuencias;
+	}
+
+	/**
+	 * Returns the files of a dataset.
+	 * 
+	 * @param directorio The directory of a generated dataset, or null or empty
+	 *                   for the files configured in config.properties.
+	 * @return The paths of the four files.
+	 */
+	public static ArchivosDatos de(String directorio) {
+		if (directorio != null && !directorio.isBlank()) {
+			Path base = Path.of(directorio);
+			return new ArchivosDatos(base.resolve("parada.txt").toString(), base.resolve("linea.txt").toString(),
+					base.resolve("tramo.txt").toString(), base.resolve("frecuencia.txt").toString());
+		}
+
+		Properties prop = new Properties();
+		try (InputStream input = ArchivosDatos.class.getClassLoader().getResourceAsStream("config.properties")) {
+			if (input == null)
+				throw new IOException("Archivo config.properties no encontrado en classpath.");
+			prop.load(input);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("No se pudo leer config.properties.", ex);
+		}
+		return new ArchivosDatos(prop.getProperty("parada"), prop.getProperty("linea"), prop.getProperty("tramo"),
+				prop.getProperty("frecuencia"));
+	}
+
+	/**
+	 * Loads the city of the dataset with new sequential DAOs. The stop DAO is
+	 * registered in the {@code Factory}, which the line and segment DAOs use.
+	 * 
+	 * @return The loaded city.
+	 */
+	public Ciudad cargarCiudad() {
+		ParadaDAOArchivo paradaDAO = new ParadaDAOArchivo(paradas);
+		Factory.registrarInstancia("PARADA", paradaDAO);
+		return new CiudadLoaderService(paradaDAO, new LineaDAOArchivo(lineas, frecuencias),
+				new TramoDAOArchivo(tramos)).cargarCiudad();
+	}
+
+	/** @return The path of the stop data file. */
+	public String getParadas() {
+		return paradas;
+	}
+
+	/** @return The path of the line data file. */
+	public String getLineas() {
+		return lineas;
+	}
+
+	/** @return The path of the segment data file. */
+	public String getTramos() {
+		return tramos;
+	}
+
+	/** @return The path of the frequency data file. */
+	public String getFrecuencias() {
+		return frecuencias;
+	}
+}
\ No newline at end of file
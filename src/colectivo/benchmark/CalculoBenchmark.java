@@ -0,0 +1,70 @@
+package colectivo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import colectivo.logica.Calculo;
+
+/**
+ * Benchmark of the whole {@code Calculo} service, with its default strategies,
+ * over the fixed query set of {@code DatosBenchmark}. Each operation is one
+ * query; run with the gc profiler ({@code EjecutarBenchmarks} adds it) to also
+ * get the bytes allocated per query.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculoBenchmark {
+
+	/** Maximum number of journeys kept by each query. */
+	private static final int MAX_RESULTADOS = 10;
+
+	/** The route calculation service with the default strategies. */
+	private Calculo calculo;
+
+	/**
+	 * Creates the service and builds its network, so that it is not measured.
+	 * 
+	 * @param datos The city and the query set.
+	 */
+	@Setup(Level.Trial)
+	public void preparar(DatosBenchmark datos) {
+		calculo = new Calculo(datos.lineas, MAX_RESULTADOS);
+		calculo.calcularRecorrido(datos.origenes[0], datos.destinos[0], datos.dias[0], datos.horas[0], datos.tramos);
+	}
+
+	/**
+	 * Runs every query of the set through {@code Calculo.calcularRecorrido}.
+	 * 
+	 * @param datos   The city and the query set.
+	 * @param agujero Consumes the results.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(DatosBenchmark.CANTIDAD_CONSULTAS)
+	public void calcularRecorrido(DatosBenchmark datos, Blackhole agujero) {
+		for (int i = 0; i < DatosBenchmark.CANTIDAD_CONSULTAS; i++) {
+			agujero.consume(calculo.calcularRecorrido(datos.origenes[i], datos.destinos[i], datos.dias[i],
+					datos.horas[i], datos.tramos));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package colectivo.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import colectivo.conexion.Factory;
+import colectivo.dao.secuencial.LineaDAOArchivo;
+import colectivo.dao.secuencial.ParadaDAOArchivo;
+import colectivo.dao.secuencial.TramoDAOArchivo;
+import colectivo.logica.RedTransporte;
+import colectivo.modelo.Ciudad;
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Benchmarks of the load path, one per phase: parsing each data file with a new
+ * sequential DAO, the whole {@code CiudadLoaderService.cargarCiudad} (the three
+ * DAOs plus {@code establecerRelaciones}), and building the
+ * {@code RedTransporte} snapshot with its indexes from a loaded city. The
+ * dataset is the bundled one, or a directory written by
+ * {@code GeneradorCiudad} given in {@code directorio} (e.g.
+ * {@code -p directorio=ciudad}). Each operation is one load; the gc profiler
+ * adds the bytes allocated per load. The retained heap of each phase is
+ * reported by {@code MedirCarga}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CargaBenchmark {
+
+	/** Directory of a generated dataset, or empty for the bundled data. */
+	@Param({ "" })
+	public String directorio;
+
+	/** The files of the dataset. */
+	private ArchivosDatos archivos;
+
+	/** The city, loaded once for the phases that start from it. */
+	private Ciudad ciudad;
+
+	/**
+	 * Registers the stop DAO of the dataset in the {@code Factory}, which the
+	 * line and segment DAOs use, and loads the city once.
+	 */
+	@Setup(Level.Trial)
+	public void preparar() {
+		archivos = ArchivosDatos.de(directorio);
+		Factory.registrarInstancia("PARADA", new ParadaDAOArchivo(archivos.getParadas()));
+		ciudad = cargarCiudad();
+	}
+
+	/** @return The stops parsed from the stop file. */
+	@Benchmark
+	public Map<Integer, Parada> leerParadas() {
+		return new ParadaDAOArchivo(archivos.getParadas()).buscarTodos();
+	}
+
+	/** @return The lines and timetables parsed from the line and frequency files. */
+	@Benchmark
+	public Map<String, Linea> leerLineas() {
+		return new LineaDAOArchivo(archivos.getLineas(), archivos.getFrecuencias()).buscarTodos();
+	}
+
+	/** @return The segments parsed from the segment file. */
+	@Benchmark
+	public Map<String, Tramo> leerTramos() {
+		return new TramoDAOArchivo(archivos.getTramos()).buscarTodos();
+	}
+
+	/** @return The city loaded by {@code CiudadLoaderService} with new DAOs. */
+	@Benchmark
+	public Ciudad cargarCiudad() {
+		return archivos.cargarCiudad();
+	}
+
+	/** @return The network snapshot of the loaded city. */
+	@Benchmark
+	public RedTransporte construirRed() {
+		return RedTransporte.construir(ciudad.getLineas(), ciudad.getMapaTramos());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,379 @@
+package colectivo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import colectivo.logica.Calculo;
+import colectivo.logica.EstadisticasAgregadas;
+import colectivo.logica.EstadisticasConsulta;
+import colectivo.logica.Recorrido;
+import colectivo.modelo.Ciudad;
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.MapaTramos;
+import colectivo.modelo.Parada;
+
+/**
+ * Differential test of two routing configurations. Every ordered pair of
+ * distinct stops is queried on every day of the week at a sample of times
+ * through a reference {@code Calculo} and a candidate one, and the earliest
+ * journey of each is compared: its arrival, its number of transfers and its
+ * number of legs. A candidate may answer better (an earlier arrival, fewer
+ * transfers, or a journey where the reference finds none) but must never
+ * answer worse; if it does, the first differences are printed and the exit
+ * status is 1.
+ * 
+ * The origins are split among the threads of the common pool. Each query runs
+ * through both configurations, alternating which goes first, and the time of
+ * each is added up, so the throughput of both is measured on the same queries.
+ * The queries also fill in their {@code EstadisticasConsulta}, so the bytes
+ * allocated and the stops settled per query are printed for both.
+ * The per-query summary log is turned off during the run.
+ * 
+ * Arguments: the directory of a generated dataset (or "-" for the bundled
+ * data), the reference and the candidate as comma-separated strategy names of
+ * {@code Estrategias} (e.g. {@code directo,busBus,caminando} and
+ * {@code viajes}), and optionally the number of times sampled per day (6 by
+ * default).
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class CompararMotores {
+
+	/** Maximum number of journeys kept by each query. */
+	private static final int MAX_RESULTADOS = 10;
+
+	/** Default number of times sampled per day. */
+	private static final int HORAS_POR_DEFECTO = 6;
+
+	/** Seed of the sampled times, fixed so runs are comparable. */
+	private static final long SEMILLA = 42;
+
+	/** Maximum number of worse answers printed. */
+	private static final int MAX_EJEMPLOS = 20;
+
+	/** Both found the same earliest arrival, transfers and legs. */
+	private static final int IGUALES = 0;
+
+	/** Same arrival and transfers, different number of legs. */
+	private static final int OTROS_TRAMOS = 1;
+
+	/** Only the candidate found a journey. */
+	private static final int SOLO_CANDIDATA = 2;
+
+	/** The candidate arrives earlier. */
+	private static final int LLEGADA_MEJOR = 3;
+
+	/** Same arrival, the candidate has fewer transfers. */
+	private static final int MENOS_TRANSBORDOS = 4;
+
+	/** Only the reference found a journey. */
+	private static final int SIN_RESULTADO = 5;
+
+	/** The candidate arrives later. */
+	private static final int LLEGADA_PEOR = 6;
+
+	/** Same arrival, the candidate has more transfers. */
+	private static final int MAS_TRANSBORDOS = 7;
+
+	/** First kind of difference where the candidate answers worse. */
+	private static final int PRIMERA_PEOR = SIN_RESULTADO;
+
+	/** Names of the kinds of difference, by constant. */
+	private static final String[] DIFERENCIAS = { "iguales", "otros tramos", "solo candidata", "llegada mejor",
+			"menos transbordos", "sin resultado", "llegada peor", "más transbordos" };
+
+	/** Private constructor to prevent instantiation. */
+	private CompararMotores() {
+		throw new AssertionError("No instanciable");
+	}
+
+	/**
+	 * Runs the comparison.
+	 * 
+	 * @param args The dataset directory (or "-"), the reference, the candidate
+	 *             and, optionally, the number of times per day.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3) {
+			System.out.println("Uso: CompararMotores <directorio|-> <referencia> <candidata> [horasPorDia]");
+			System.out.println("Ejemplo: CompararMotores - " + Estrategias.POR_DEFECTO + " viajes");
+			return;
+		}
+		String directorio = "-".equals(args[0]) ? null : args[0];
+		int horasPorDia = args.length > 3 ? Integer.parseInt(args[3]) : HORAS_POR_DEFECTO;
+
+		Configurator.setLevel("colectivo.consultas", Level.OFF);
+		Ciudad ciudad = ArchivosDatos.de(directorio).cargarCiudad();
+		Comparacion comparacion = new Comparacion(ciudad, args[1], args[2], horasPorDia);
+		comparacion.ejecutar();
+		comparacion.imprimir();
+		if (comparacion.getPeores() > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Returns the earliest journey of a query: its arrival, its transfers and its
+	 * legs. Ties in arrival are broken by fewer transfers, then fewer legs.
+	 * 
+	 * @param viajes The journeys returned by {@code Calculo}.
+	 * @return {arrival, transfers, legs}, or null if there are no journeys.
+	 */
+	private static int[] mejorViaje(List<List<Recorrido>> viajes) {
+		int[] mejor = null;
+		for (List<Recorrido> viaje : viajes) {
+			int colectivos = 0;
+			for (Recorrido tramo : viaje)
+				if (tramo.getLinea() != null)
+					colectivos++;
+			int[] actual = { viaje.get(viaje.size() - 1).getLlegada(), Math.max(0, colectivos - 1), viaje.size() };
+			if (mejor == null || actual[0] < mejor[0] || actual[0] == mejor[0]
+					&& (actual[1] < mejor[1] || actual[1] == mejor[1] && actual[2] < mejor[2]))
+				mejor = actual;
+		}
+		return mejor;
+	}
+
+	/**
+	 * Classifies the answer of the candidate against the reference.
+	 * 
+	 * @param referencia The earliest journey of the reference, or null.
+	 * @param candidata  The earliest journey of the candidate, or null.
+	 * @return The kind of difference.
+	 */
+	private static int clasificar(int[] referencia, int[] candidata) {
+		if (referencia == null)
+			return candidata == null ? IGUALES : SOLO_CANDIDATA;
+		if (candidata == null)
+			return SIN_RESULTADO;
+		if (candidata[0] != referencia[0])
+			return candidata[0] < referencia[0] ? LLEGADA_MEJOR : LLEGADA_PEOR;
+		if (candidata[1] != referencia[1])
+			return candidata[1] < referencia[1] ? MENOS_TRANSBORDOS : MAS_TRANSBORDOS;
+		return candidata[2] == referencia[2] ? IGUALES : OTROS_TRAMOS;
+	}
+
+	/**
+	 * Describes the earliest journey of a query.
+	 * 
+	 * @param viaje {arrival, transfers, legs}, or null.
+	 * @return The description.
+	 */
+	private static String describir(int[] viaje) {
+		if (viaje == null)
+			return "sin viaje";
+		return String.format(Locale.ROOT, "llega %s, %d transbordos, %d tramos", HoraServicio.formatear(viaje[0]),
+				viaje[1], viaje[2]);
+	}
+
+	/**
+	 * A run of the comparison over a city.
+	 */
+	private static final class Comparacion {
+
+		/** Names of the reference strategies. */
+		private final String nombresReferencia;
+
+		/** Names of the candidate strategies. */
+		private final String nombresCandidata;
+
+		/** The reference configuration. */
+		private final Calculo referencia;
+
+		/** The candidate configuration. */
+		private final Calculo candidata;
+
+		/** The stops of the city. */
+		private final List<Parada> paradas;
+
+		/** The segments of the city. */
+		private final MapaTramos tramos;
+
+		/** The sampled times of each day, in service-day seconds, by day - 1. */
+		private final int[][] horas;
+
+		/** Number of queries of each kind of difference. */
+		private final LongAdder[] diferencias = new LongAdder[DIFERENCIAS.length];
+
+		/** Total query time of the reference, in nanoseconds. */
+		private final LongAdder nanosReferencia = new LongAdder();
+
+		/** Total query time of the candidate, in nanoseconds. */
+		private final LongAdder nanosCandidata = new LongAdder();
+
+		/** The first worse answers, described. */
+		private final Queue<String> ejemplos = new ConcurrentLinkedQueue<>();
+
+		/** Number of worse answers described so far. */
+		private final AtomicInteger cantidadEjemplos = new AtomicInteger();
+
+		/** Wall time of the run, in nanoseconds. */
+		private long nanosTotales;
+
+		/**
+		 * Constructor that creates both configurations, builds their networks and
+		 * samples the times.
+		 * 
+		 * @param ciudad            The city.
+		 * @param nombresReferencia The reference strategies.
+		 * @param nombresCandidata  The candidate strategies.
+		 * @param horasPorDia       The number of times sampled per day.
+		 */
+		private Comparacion(Ciudad ciudad, String nombresReferencia, String nombresCandidata, int horasPorDia) {
+			this.nombresReferencia = nombresReferencia;
+			this.nombresCandidata = nombresCandidata;
+			this.referencia = new Calculo(ciudad.getLineas(), MAX_RESULTADOS,
+					Estrategias.crearLista(nombresReferencia, ciudad.getLineas()));
+			this.candidata = new Calculo(ciudad.getLineas(), MAX_RESULTADOS,
+					Estrategias.crearLista(nombresCandidata, ciudad.getLineas()));
+			this.paradas = new ArrayList<>(ciudad.getParadas().values());
+			this.tramos = ciudad.getMapaTramos();
+			for (int i = 0; i < diferencias.length; i++)
+				diferencias[i] = new LongAdder();
+
+			Random azar = new Random(SEMILLA);
+			int franja = HoraServicio.SEGUNDOS_DIA / horasPorDia;
+			this.horas = new int[HoraServicio.DIAS_SEMANA][horasPorDia];
+			for (int[] horasDia : horas)
+				for (int h = 0; h < horasPorDia; h++)
+					horasDia[h] = h * franja + azar.nextInt(franja) / 60 * 60;
+
+			// The first query builds the network and any precalculation of the strategies
+			if (paradas.size() > 1) {
+				referencia.calcularRecorrido(paradas.get(0), paradas.get(1), 1, horas[0][0], tramos, null);
+				candidata.calcularRecorrido(paradas.get(0), paradas.get(1), 1, horas[0][0], tramos, null);
+			}
+		}
+
+		/** Runs every query through both configurations, origins in parallel. */
+		private void ejecutar() {
+			long inicio = System.nanoTime();
+			IntStream.range(0, paradas.size()).parallel().forEach(this::compararOrigen);
+			nanosTotales = System.nanoTime() - inicio;
+		}
+
+		/**
+		 * Runs the queries of one origin.
+		 * 
+		 * @param o The position of the origin in {@code paradas}.
+		 */
+		private void compararOrigen(int o) {
+			Parada origen = paradas.get(o);
+			long nanosR = 0;
+			long nanosC = 0;
+			int n = 0;
+			for (Parada destino : paradas) {
+				if (destino == origen)
+					continue;
+				for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+					for (int hora : horas[dia - 1]) {
+						List<List<Recorrido>> viajesR;
+						List<List<Recorrido>> viajesC;
+						long t0 = System.nanoTime();
+						if ((n++ & 1) == 0) {
+							viajesR = referencia.calcularRecorrido(origen, destino, dia, hora, tramos,
+									new EstadisticasConsulta());
+							long t1 = System.nanoTime();
+							viajesC = candidata.calcularRecorrido(origen, destino, dia, hora, tramos,
+									new EstadisticasConsulta());
+							nanosR += t1 - t0;
+							nanosC += System.nanoTime() - t1;
+						} else {
+							viajesC = candidata.calcularRecorrido(origen, destino, dia, hora, tramos,
+									new EstadisticasConsulta());
+							long t1 = System.nanoTime();
+							viajesR = referencia.calcularRecorrido(origen, destino, dia, hora, tramos,
+									new EstadisticasConsulta());
+							nanosC += t1 - t0;
+							nanosR += System.nanoTime() - t1;
+						}
+						registrar(origen, destino, dia, hora, mejorViaje(viajesR), mejorViaje(viajesC));
+					}
+				}
+			}
+			nanosReferencia.add(nanosR);
+			nanosCandidata.add(nanosC);
+		}
+
+		/**
+		 * Counts the outcome of a query and describes it if it is one of the
+		 * first worse answers.
+		 * 
+		 * @param origen  The origin stop.
+		 * @param destino The destination stop.
+		 * @param dia     The day of the week.
+		 * @param hora    The time of the query, in service-day seconds.
+		 * @param mejorR  The earliest journey of the reference, or null.
+		 * @param mejorC  The earliest journey of the candidate, or null.
+		 */
+		private void registrar(Parada origen, Parada destino, int dia, int hora, int[] mejorR, int[] mejorC) {
+			int diferencia = clasificar(mejorR, mejorC);
+			diferencias[diferencia].increment();
+			if (diferencia >= PRIMERA_PEOR && cantidadEjemplos.getAndIncrement() < MAX_EJEMPLOS)
+				ejemplos.add(String.format(Locale.ROOT, "%s: %d -> %d día %d %s: referencia %s; candidata %s",
+						DIFERENCIAS[diferencia], origen.getCodigo(), destino.getCodigo(), dia,
+						HoraServicio.formatear(hora), describir(mejorR), describir(mejorC)));
+		}
+
+		/** @return The number of queries where the candidate answered worse. */
+		private long getPeores() {
+			long peores = 0;
+			for (int i = PRIMERA_PEOR; i < diferencias.length; i++)
+				peores += diferencias[i].sum();
+			return peores;
+		}
+
+		/** Prints the throughput of both configurations and the differences. */
+		private void imprimir() {
+			long consultas = 0;
+			for (LongAdder diferencia : diferencias)
+				consultas += diferencia.sum();
+			System.out.printf(Locale.ROOT, "%d consultas (%d paradas, %d días, %d horas por día) en %.1f s con %d hilos%n",
+					consultas, paradas.size(), HoraServicio.DIAS_SEMANA, horas[0].length, nanosTotales / 1e9,
+					ForkJoinPool.getCommonPoolParallelism());
+			imprimirRendimiento("referencia", nombresReferencia, consultas, nanosReferencia.sum(),
+					referencia.getEstadisticasAgregadas());
+			imprimirRendimiento("candidata", nombresCandidata, consultas, nanosCandidata.sum(),
+					candidata.getEstadisticasAgregadas());
+
+			for (int i = 0; i < DIFERENCIAS.length; i++)
+				System.out.printf(Locale.ROOT, "%-18s %12d%s%n", DIFERENCIAS[i], diferencias[i].sum(),
+						i >= PRIMERA_PEOR ? "  (peor)" : "");
+			ejemplos.forEach(System.out::println);
+			long peores = getPeores();
+			System.out.println(peores == 0 ? "OK: la candidata nunca responde peor que la referencia."
+					: "FALLA: la candidata responde peor en " + peores + " consultas.");
+		}
+
+		/**
+		 * Prints the throughput of a configuration, with the bytes allocated and
+		 * the stops settled per query.
+		 * 
+		 * @param rol          "referencia" or "candidata".
+		 * @param nombres      Its strategies.
+		 * @param consultas    The number of queries.
+		 * @param nanos        Its total query time, in nanoseconds.
+		 * @param estadisticas The totals of its queries.
+		 */
+		private static void imprimirRendimiento(String rol, String nombres, long consultas, long nanos,
+				EstadisticasAgregadas estadisticas) {
+			long n = Math.max(1, estadisticas.getConsultas());
+			System.out.printf(Locale.ROOT,
+					"%-10s %-28s %10.0f consultas/s por hilo, media %8.2f µs, %8.0f bytes, %6.1f asentados%n", rol,
+					nombres, consultas / Math.max(1e-9, nanos / 1e9), nanos / 1e3 / Math.max(1, consultas),
+					estadisticas.getBytesAsignados() / (double) n, estadisticas.getNodosAsentados() / (double) n);
+		}
+	}
+}
\ No newline at end of file
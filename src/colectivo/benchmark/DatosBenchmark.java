@@ -0,0 +1,106 @@
+package colectivo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import colectivo.conexion.Factory;
+import colectivo.dao.LineaDAO;
+import colectivo.dao.ParadaDAO;
+import colectivo.dao.TramoDAO;
+import colectivo.dao.secuencial.LineaDAOArchivo;
+import colectivo.dao.secuencial.ParadaDAOArchivo;
+import colectivo.dao.secuencial.TramoDAOArchivo;
+import colectivo.modelo.Linea;
+import colectivo.modelo.MapaTramos;
+import colectivo.modelo.Parada;
+
+/**
+ * Shared state of the routing benchmarks: the city data bundled with the
+ * project (the files configured in config.properties), loaded once per trial
+ * through the sequential file DAOs, and a fixed set of queries. The queries
+ * are drawn with a fixed seed, so every run and every benchmark measures the
+ * same origin/destination pairs, days and times.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@State(Scope.Benchmark)
+public class DatosBenchmark {
+
+	/** Number of queries of the set. */
+	public static final int CANTIDAD_CONSULTAS = 512;
+
+	/** Seed of the query set. */
+	private static final long SEMILLA = 20_251_019L;
+
+	/** Earliest time of the queries, in seconds since the start of the service day. */
+	private static final int HORA_DESDE = 6 * 3600;
+
+	/** Latest time of the queries, in seconds since the start of the service day. */
+	private static final int HORA_HASTA = 23 * 3600;
+
+	/** Map containing all available stops, keyed by their integer code. */
+	public Map<Integer, Parada> paradas;
+
+	/** Map containing all available lines, keyed by their string code. */
+	public Map<String, Linea> lineas;
+
+	/** Map containing all available route segments. */
+	public MapaTramos tramos;
+
+	/** Origin stop of each query. */
+	public Parada[] origenes;
+
+	/** Destination stop of each query. */
+	public Parada[] destinos;
+
+	/** Day of the week of each query. */
+	public int[] dias;
+
+	/** Time of each query, in seconds since the start of the service day. */
+	public int[] horas;
+
+	/** Loads the city and draws the query set. */
+	@Setup(Level.Trial)
+	public void cargar() {
+		cargarArchivos();
+		paradas = Factory.getInstancia("PARADA", ParadaDAO.class).buscarTodos();
+		tramos = MapaTramos.de(Factory.getInstancia("TRAMO", TramoDAO.class).buscarTodos());
+		lineas = Factory.getInstancia("LINEA", LineaDAO.class).buscarTodos();
+
+		List<Parada> lista = new ArrayList<>(paradas.values());
+		lista.sort((a, b) -> Integer.compare(a.getCodigo(), b.getCodigo()));
+		Random random = new Random(SEMILLA);
+		origenes = new Parada[CANTIDAD_CONSULTAS];
+		destinos = new Parada[CANTIDAD_CONSULTAS];
+		dias = new int[CANTIDAD_CONSULTAS];
+		horas = new int[CANTIDAD_CONSULTAS];
+		for (int i = 0; i < CANTIDAD_CONSULTAS; i++) {
+			origenes[i] = lista.get(random.nextInt(lista.size()));
+			do {
+				destinos[i] = lista.get(random.nextInt(lista.size()));
+			} while (destinos[i] == origenes[i]);
+			dias[i] = 1 + random.nextInt(7);
+			horas[i] = HORA_DESDE + random.nextInt(HORA_HASTA - HORA_DESDE);
+		}
+	}
+
+	/**
+	 * Registers the sequential file DAOs in the {@code Factory}, whatever
+	 * "factory.properties" selects. The stop DAO is registered first, since the
+	 * other two look it up while they are created.
+	 */
+	public static void cargarArchivos() {
+		Factory.registrarInstancia("PARADA", new ParadaDAOArchivo());
+		Factory.registrarInstancia("TRAMO", new TramoDAOArchivo());
+		Factory.registrarInstancia("LINEA", new LineaDAOArchivo());
+	}
+}
\ No newline at end of file
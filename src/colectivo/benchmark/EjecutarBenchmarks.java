@@ -0,0 +1,43 @@
+package colectivo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks. It runs every benchmark of this package, or
+ * only those whose name matches the regular expression given as the first
+ * argument (e.g. {@code EstrategiaBenchmark}), always with the gc profiler, so
+ * the results report the allocation rate and the bytes allocated per
+ * operation ({@code gc.alloc.rate.norm}) next to the throughput.
+ * 
+ * The benchmarks need the JMH library (jmh-core and
+ * jmh-generator-annprocess) on the classpath, with annotation processing
+ * enabled so that the benchmark list is generated, and the working directory
+ * must be the project root, where the data files are.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class EjecutarBenchmarks {
+
+	/** Private constructor to prevent instantiation. */
+	private EjecutarBenchmarks() {
+		throw new AssertionError("No instanciable");
+	}
+
+	/**
+	 * Runs the benchmarks.
+	 * 
+	 * @param args Optionally, a regular expression selecting the benchmarks.
+	 * @throws RunnerException If JMH cannot run them.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String incluir = args.length > 0 ? args[0] : EjecutarBenchmarks.class.getPackageName() + ".*";
+		Options opciones = new OptionsBuilder().include(incluir).addProfiler(GCProfiler.class).build();
+		new Runner(opciones).run();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package colectivo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import colectivo.logica.CalculoEstrategia;
+import colectivo.logica.CalculoPatronesService;
+import colectivo.logica.CalculoTiempoExpandidoService;
+import colectivo.logica.RedTransporte;
+import colectivo.logica.ResultadosAcotados;
+
+/**
+ * Benchmark of each {@code CalculoEstrategia} in isolation over the fixed query
+ * set of {@code DatosBenchmark}: {@code buscar} is called directly on a network
+ * built beforehand, without the reachability check and the sorting of
+ * {@code Calculo}. Each operation is one query; run with the gc profiler
+ * ({@code EjecutarBenchmarks} adds it) to also get the bytes allocated per
+ * query.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstrategiaBenchmark {
+
+	/** Maximum number of journeys kept by each query. */
+	private static final int MAX_RESULTADOS = 10;
+
+	/** Strategy measured by {@code estrategia}. */
+	@Param({ "directo", "busBus", "caminando", "aEstrella", "viajes", "patrones", "tiempoExpandido" })
+	public String nombreEstrategia;
+
+	/** The strategy measured in isolation. */
+	private CalculoEstrategia estrategia;
+
+	/** The network searched by the strategy. */
+	private RedTransporte red;
+
+	/** Collector of the journeys found by the strategy, reused by every query. */
+	private ResultadosAcotados resultados;
+
+	/**
+	 * Creates the strategy and runs any precalculation it needs, so that it is
+	 * not measured.
+	 * 
+	 * @param datos The city and the query set.
+	 */
+	@Setup(Level.Trial)
+	public void preparar(DatosBenchmark datos) {
+		red = RedTransporte.construir(datos.lineas, datos.tramos);
+		resultados = new ResultadosAcotados(MAX_RESULTADOS);
+		estrategia = Estrategias.crear(nombreEstrategia, datos.lineas);
+		if (estrategia instanceof CalculoPatronesService patrones)
+			patrones.obtenerPatrones(red);
+		else if (estrategia instanceof CalculoTiempoExpandidoService expandido)
+			expandido.obtenerGrafo(red);
+	}
+
+	/**
+	 * Runs every query of the set through the {@code buscar} of the strategy.
+	 * 
+	 * @param datos   The city and the query set.
+	 * @param agujero Consumes the results.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(DatosBenchmark.CANTIDAD_CONSULTAS)
+	public void estrategia(DatosBenchmark datos, Blackhole agujero) {
+		for (int i = 0; i < DatosBenchmark.CANTIDAD_CONSULTAS; i++) {
+			resultados.limpiar();
+			agujero.consume(estrategia.buscar(datos.origenes[i], datos.destinos[i], datos.dias[i], datos.horas[i],
+					red, resultados));
+			agujero.consume(resultados.size());
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package colectivo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import colectivo.logica.CalculoAEstrellaService;
+import colectivo.logica.CalculoBusBusService;
+import colectivo.logica.CalculoCaminandoService;
+import colectivo.logica.CalculoDirectoService;
+import colectivo.logica.CalculoEstrategia;
+import colectivo.logica.CalculoPatronesService;
+import colectivo.logica.CalculoTiempoExpandidoService;
+import colectivo.logica.CalculoViajesService;
+import colectivo.modelo.Linea;
+
+/**
+ * The strategies by the short names used by the benchmarks and by
+ * {@code CompararMotores}: "directo", "busBus", "caminando", "aEstrella",
+ * "viajes", "patrones" and "tiempoExpandido".
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class Estrategias {
+
+	/** Names of the default strategies of {@code Calculo}, in priority order. */
+	public static final String POR_DEFECTO = "directo,busBus,caminando";
+
+	/** Private constructor to prevent instantiation. */
+	private Estrategias() {
+		throw new AssertionError("No instanciable");
+	}
+
+	/**
+	 * Creates a strategy. The transfer patterns of "patrones" are computed in
+	 * memory, without reading or writing the patterns file.
+	 * 
+	 * @param nombre The short name of the strategy.
+	 * @param lineas The lines of the city.
+	 * @return The new strategy.
+	 * @throws IllegalArgumentException if the name is not known.
+	 */
+	public static CalculoEstrategia crear(String nombre, Map<String, Linea> lineas) {
+		return switch (nombre) {
+		case "directo" -> new CalculoDirectoService(lineas);
+		case "busBus" -> new CalculoBusBusService(lineas);
+		case "caminando" -> new CalculoCaminandoService(lineas);
+		case "aEstrella" -> new CalculoAEstrellaService(lineas);
+		case "viajes" -> new CalculoViajesService(lineas);
+		case "patrones" -> new CalculoPatronesService(lineas, null);
+		case "tiempoExpandido" -> new CalculoTiempoExpandidoService(lineas);
+		default -> throw new IllegalArgumentException("Estrategia desconocida: " + nombre);
+		};
+	}
+
+	/**
+	 * Creates the strategies of a comma-separated list of names, in order.
+	 * 
+	 * @param nombres The names, e.g. {@code POR_DEFECTO}.
+	 * @param lineas  The lines of the city.
+	 * @return The new strategies.
+	 * @throws IllegalArgumentException if a name is not known.
+	 */
+	public static List<CalculoEstrategia> crearLista(String nombres, Map<String, Linea> lineas) {
+		List<CalculoEstrategia> estrategias = new ArrayList<>();
+		for (String nombre : nombres.split(","))
+			estrategias.add(crear(nombre.trim(), lineas));
+		return estrategias;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,654 @@
+package colectivo.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import colectivo.conexion.BDConexion;
+import colectivo.controlador.Constantes;
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Horario;
+import colectivo.modelo.MapaTramos;
+
+/**
+ * Generator of synthetic cities for scale and stress tests. The stops are laid
+ * on a jittered square grid. Each line is a walk across the grid that, with the
+ * configured overlap probability, starts at and moves to stops already served
+ * by other lines, so that transfer points and corridors shared by several lines
+ * appear. Bus segments join the consecutive stops of
+ * each line, walking segments join neighbouring stops of the grid with the
+ * configured density, and every line runs at a fixed headway, longer on
+ * Saturday and Sunday. With the late-night profile the lines also run after
+ * 23:00, at twice their headway, until 02:00 of the next morning, so that the
+ * city has departures written past 24:00 and trips that cross midnight.
+ * 
+ * The same rows can be written as the four data files read by the sequential
+ * DAOs ({@code ArchivosCiudad}) or inserted into the database schema read by
+ * the database DAOs ({@code BaseDatosCiudad}). Rows are written while they are
+ * generated; only the stops of the lines and the keys of the segments are kept
+ * in memory. Two runs with the same parameters and seed produce the same city.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class GeneradorCiudad {
+
+	/** Logger instance for logging events, errors and exceptions. */
+	private static final Logger LOGGER = LogManager.getLogger(GeneradorCiudad.class);
+
+	/** Latitude of the first stop of the grid. */
+	private static final double LATITUD_BASE = -35.66;
+
+	/** Longitude of the first stop of the grid. */
+	private static final double LONGITUD_BASE = -63.75;
+
+	/** Meters per degree of latitude. */
+	private static final double METROS_POR_GRADO = 111_320;
+
+	/** Bus speed used for the bus segments, in meters per second. */
+	private static final double VELOCIDAD_COLECTIVO = 6.0;
+
+	/** Walking speed used for the walking segments, in meters per second. */
+	private static final double VELOCIDAD_CAMINATA = 1.2;
+
+	/** First departure of every line, in seconds since the start of the service day. */
+	private static final int PRIMERA_SALIDA = 5 * 3600;
+
+	/** Last departure of every line, in seconds since the start of the service day. */
+	private static final int ULTIMA_SALIDA = 23 * 3600;
+
+	/** Last departure of the late-night profile, in seconds since the start of the service day. */
+	private static final int ULTIMA_SALIDA_NOCTURNA = 26 * 3600;
+
+	/** Offsets of the four grid neighbours, as (row, column). */
+	private static final int[][] VECINOS = { { 0, 1 }, { 1, 0 }, { 0, -1 }, { -1, 0 } };
+
+	/** Number of stops. */
+	private int cantidadParadas = 1_000;
+
+	/** Number of lines. */
+	private int cantidadLineas = 20;
+
+	/** Number of stops of each line. */
+	private int largoLinea = 40;
+
+	/** Probability of starting at or moving to a stop already served by another line. */
+	private double solapamiento = 0.5;
+
+	/** Headway of the lines from Monday to Friday, in minutes. */
+	private int intervaloMinutos = 15;
+
+	/** Probability of a walking segment between two neighbouring stops. */
+	private double densidadCaminata = 0.3;
+
+	/** Distance between neighbouring stops of the grid, in meters. */
+	private int separacionMetros = 300;
+
+	/** Seed of the generator. */
+	private long semilla = 1;
+
+	/** Whether the lines also run after 23:00 and past midnight. */
+	private boolean nocturno;
+
+	/**
+	 * Receives the rows of the generated city.
+	 */
+	public interface DestinoCiudad extends AutoCloseable {
+
+		/**
+		 * Writes a stop.
+		 * 
+		 * @param codigo    The stop code.
+		 * @param direccion The address.
+		 * @param latitud   The latitude.
+		 * @param longitud  The longitude.
+		 * @throws Exception If the row cannot be written.
+		 */
+		void parada(int codigo, String direccion, double latitud, double longitud) throws Exception;
+
+		/**
+		 * Writes a line with its stops.
+		 * 
+		 * @param codigo  The line code.
+		 * @param nombre  The line name.
+		 * @param paradas The codes of its stops, in order.
+		 * @param largo   The number of stops used from {@code paradas}.
+		 * @throws Exception If the row cannot be written.
+		 */
+		void linea(String codigo, String nombre, int[] paradas, int largo) throws Exception;
+
+		/**
+		 * Writes a segment.
+		 * 
+		 * @param inicio The code of the start stop.
+		 * @param fin    The code of the end stop.
+		 * @param tiempo The time of the segment, in seconds.
+		 * @param tipo   {@code Constantes.COLECTIVO} or {@code Constantes.CAMINANDO}.
+		 * @throws Exception If the row cannot be written.
+		 */
+		void tramo(int inicio, int fin, int tiempo, int tipo) throws Exception;
+
+		/**
+		 * Writes the departures of a line on a day.
+		 * 
+		 * @param linea     The line code.
+		 * @param diaSemana The day of the week (1 to 7).
+		 * @param salidas   The departures, in the syntax of
+		 *                  {@code Horario.Acumulador.agregar}.
+		 * @throws Exception If the row cannot be written.
+		 */
+		void frecuencia(String linea, int diaSemana, String salidas) throws Exception;
+
+		/**
+		 * Flushes the rows and releases the destination. Narrowed from
+		 * {@code AutoCloseable} so that closing cannot throw
+		 * {@code InterruptedException}.
+		 * 
+		 * @throws IOException  If the files cannot be written.
+		 * @throws SQLException If the rows cannot be committed.
+		 */
+		@Override
+		void close() throws IOException, SQLException;
+	}
+
+	/**
+	 * Generates the city into a destination, closing it at the end.
+	 * 
+	 * @param destino The destination of the rows.
+	 * @throws Exception If a row cannot be written.
+	 */
+	public void generar(DestinoCiudad destino) throws Exception {
+		long inicio = System.nanoTime();
+		Random random = new Random(semilla);
+		int lado = (int) Math.ceil(Math.sqrt(cantidadParadas));
+		double separacionLatitud = separacionMetros / METROS_POR_GRADO;
+		double separacionLongitud = separacionLatitud / Math.cos(Math.toRadians(LATITUD_BASE));
+
+		try (destino) {
+			double[] latitudes = new double[cantidadParadas];
+			double[] longitudes = new double[cantidadParadas];
+			for (int k = 0; k < cantidadParadas; k++) {
+				int fila = k / lado;
+				int columna = k % lado;
+				latitudes[k] = LATITUD_BASE - (fila + 0.4 * (random.nextDouble() - 0.5)) * separacionLatitud;
+				longitudes[k] = LONGITUD_BASE + (columna + 0.4 * (random.nextDouble() - 0.5)) * separacionLongitud;
+				destino.parada(k + 1, "Calle " + (fila + 1) + ", " + (columna + 1) * 100, latitudes[k], longitudes[k]);
+			}
+
+			Set<Long> tramos = new HashSet<>();
+			boolean[] servidas = new boolean[cantidadParadas];
+			boolean[] enLinea = new boolean[cantidadParadas];
+			int[] listaServidas = new int[cantidadParadas];
+			int[] cantidadServidas = new int[1];
+			int[] paradas = new int[largoLinea];
+			int cantidadTramos = 0;
+			for (int l = 1; l <= cantidadLineas; l++) {
+				int largo = trazarLinea(random, lado, servidas, enLinea, paradas, listaServidas, cantidadServidas);
+				String codigo = "L" + l;
+				destino.linea(codigo, "Línea " + l, paradas, largo);
+				for (int i = 0; i + 1 < largo; i++) {
+					int p = paradas[i] - 1;
+					int q = paradas[i + 1] - 1;
+					if (tramos.add(MapaTramos.clave(p + 1, q + 1))) {
+						destino.tramo(p + 1, q + 1, tiempo(latitudes, longitudes, p, q, VELOCIDAD_COLECTIVO, 10),
+								Constantes.COLECTIVO);
+						cantidadTramos++;
+					}
+				}
+
+				int desfase = random.nextInt(intervaloMinutos) * 60;
+				for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++)
+					destino.frecuencia(codigo, dia, salidas(desfase, intervaloMinutos * (dia <= 5 ? 1 : dia - 4)));
+			}
+
+			for (int k = 0; k < cantidadParadas; k++) {
+				for (int v = 0; v < 2; v++) {
+					int vecino = vecino(k, v, lado);
+					if (vecino < 0 || random.nextDouble() >= densidadCaminata)
+						continue;
+					int tiempo = tiempo(latitudes, longitudes, k, vecino, VELOCIDAD_CAMINATA, 1);
+					if (tramos.add(MapaTramos.clave(k + 1, vecino + 1))) {
+						destino.tramo(k + 1, vecino + 1, tiempo, Constantes.CAMINANDO);
+						cantidadTramos++;
+					}
+					if (tramos.add(MapaTramos.clave(vecino + 1, k + 1))) {
+						destino.tramo(vecino + 1, k + 1, tiempo, Constantes.CAMINANDO);
+						cantidadTramos++;
+					}
+				}
+			}
+			LOGGER.info("Ciudad generada en {} ms: {} paradas, {} líneas, {} tramos.",
+					(System.nanoTime() - inicio) / 1_000_000, cantidadParadas, cantidadLineas, cantidadTramos);
+		}
+	}
+
+	/**
+	 * Writes the departures of a line on a day: a run from 05:00 to 23:00 and,
+	 * with the late-night profile, a run at twice the headway from then until
+	 * 02:00 of the next morning.
+	 * 
+	 * @param desfase   The offset of the line's departures, in seconds.
+	 * @param intervalo The headway of the day, in minutes.
+	 * @return The departures, in the syntax of {@code Horario.Acumulador.agregar}.
+	 */
+	private String salidas(int desfase, int intervalo) {
+		String salidas = hora(PRIMERA_SALIDA + desfase) + "-" + hora(ULTIMA_SALIDA + desfase) + "/" + intervalo + ";";
+		if (nocturno)
+			salidas += hora(ULTIMA_SALIDA + desfase + 2 * intervalo * 60) + "-"
+					+ hora(ULTIMA_SALIDA_NOCTURNA + desfase) + "/" + 2 * intervalo + ";";
+		return salidas;
+	}
+
+	/**
+	 * Writes a service-day time as {@code HH:mm}. Unlike
+	 * {@code HoraServicio.formatear}, the hour goes on past 23 after midnight, as
+	 * {@code HoraServicio.parsear} expects.
+	 * 
+	 * @param segundos The time, a whole minute, in seconds since the start of the
+	 *                 service day.
+	 * @return The time as text.
+	 */
+	private static String hora(int segundos) {
+		return String.format(Locale.ROOT, "%02d:%02d", segundos / 3600, segundos / 60 % 60);
+	}
+
+	/**
+	 * Draws the stops of a line. The line keeps a main direction, drawn at
+	 * random, and never moves against it, so it crosses the city instead of
+	 * winding around its first stop.
+	 * 
+	 * @param random           The random generator.
+	 * @param lado             The side of the grid.
+	 * @param servidas         Whether each stop is served by a previous line;
+	 *                         updated.
+	 * @param enLinea          Scratch flags of the stops of the line; left
+	 *                         cleared.
+	 * @param paradas          Receives the stop codes of the line.
+	 * @param listaServidas    The stops served by previous lines; updated.
+	 * @param cantidadServidas The number of stops in {@code listaServidas}, in
+	 *                         its first element; updated.
+	 * @return The number of stops of the line.
+	 */
+	private int trazarLinea(Random random, int lado, boolean[] servidas, boolean[] enLinea, int[] paradas,
+			int[] listaServidas, int[] cantidadServidas) {
+		int actual = cantidadServidas[0] > 0 && random.nextDouble() < solapamiento
+				? listaServidas[random.nextInt(cantidadServidas[0])]
+				: random.nextInt(cantidadParadas);
+		int principal = random.nextInt(VECINOS.length);
+		int[] direcciones = { principal, principal, principal, (principal + 1) % 4, (principal + 3) % 4 };
+		int[] candidatos = new int[direcciones.length];
+		int largo = 0;
+		while (true) {
+			paradas[largo++] = actual + 1;
+			enLinea[actual] = true;
+			if (largo == largoLinea)
+				break;
+
+			int cantidad = 0;
+			int compartido = -1;
+			for (int v : direcciones) {
+				int vecino = vecino(actual, v, lado);
+				if (vecino < 0 || enLinea[vecino])
+					continue;
+				candidatos[cantidad++] = vecino;
+				if (servidas[vecino])
+					compartido = vecino;
+			}
+			if (cantidad == 0)
+				break;
+			actual = compartido >= 0 && random.nextDouble() < solapamiento ? compartido
+					: candidatos[random.nextInt(cantidad)];
+		}
+
+		for (int i = 0; i < largo; i++) {
+			int p = paradas[i] - 1;
+			enLinea[p] = false;
+			if (!servidas[p]) {
+				servidas[p] = true;
+				listaServidas[cantidadServidas[0]++] = p;
+			}
+		}
+		return largo;
+	}
+
+	/**
+	 * Returns a grid neighbour of a stop.
+	 * 
+	 * @param k    The stop index.
+	 * @param v    The neighbour (0 right, 1 down, 2 left, 3 up).
+	 * @param lado The side of the grid.
+	 * @return The neighbour index, or -1 if it is outside the grid.
+	 */
+	private int vecino(int k, int v, int lado) {
+		int fila = k / lado + VECINOS[v][0];
+		int columna = k % lado + VECINOS[v][1];
+		if (fila < 0 || columna < 0 || columna >= lado)
+			return -1;
+		int vecino = fila * lado + columna;
+		return vecino < cantidadParadas ? vecino : -1;
+	}
+
+	/**
+	 * Calculates the time between two stops at a speed.
+	 * 
+	 * @param latitudes  The latitude of each stop.
+	 * @param longitudes The longitude of each stop.
+	 * @param p          The start stop index.
+	 * @param q          The end stop index.
+	 * @param velocidad  The speed, in meters per second.
+	 * @param redondeo   The time is rounded up to a multiple of this, in seconds.
+	 * @return The time, in seconds.
+	 */
+	private static int tiempo(double[] latitudes, double[] longitudes, int p, int q, double velocidad,
+			int redondeo) {
+		double dy = (latitudes[p] - latitudes[q]) * METROS_POR_GRADO;
+		double dx = (longitudes[p] - longitudes[q]) * METROS_POR_GRADO * Math.cos(Math.toRadians(latitudes[p]));
+		int segundos = (int) Math.ceil(Math.sqrt(dx * dx + dy * dy) / velocidad);
+		return Math.max(redondeo, (segundos + redondeo - 1) / redondeo * redondeo);
+	}
+
+	/**
+	 * Writes the city as the four data files of the sequential DAOs.
+	 */
+	public static final class ArchivosCiudad implements DestinoCiudad {
+
+		/** Line separator of the bundled data files. */
+		private static final String FIN_LINEA = "\r\n";
+
+		/** Writers of parada.txt, linea.txt, tramo.txt and frecuencia.txt. */
+		private final BufferedWriter paradas, lineas, tramos, frecuencias;
+
+		/**
+		 * Constructor that creates the files in a directory, replacing them if they
+		 * exist.
+		 * 
+		 * @param directorio The directory, created if missing.
+		 * @throws IOException If a file cannot be created.
+		 */
+		public ArchivosCiudad(Path directorio) throws IOException {
+			Files.createDirectories(directorio);
+			this.paradas = Files.newBufferedWriter(directorio.resolve("parada.txt"), StandardCharsets.UTF_8);
+			this.lineas = Files.newBufferedWriter(directorio.resolve("linea.txt"), StandardCharsets.UTF_8);
+			this.tramos = Files.newBufferedWriter(directorio.resolve("tramo.txt"), StandardCharsets.UTF_8);
+			this.frecuencias = Files.newBufferedWriter(directorio.resolve("frecuencia.txt"), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void parada(int codigo, String direccion, double latitud, double longitud) throws IOException {
+			paradas.write(String.format(Locale.ROOT, "%d;%s;%.7f;%.7f;%s", codigo, direccion, latitud, longitud,
+					FIN_LINEA));
+		}
+
+		@Override
+		public void linea(String codigo, String nombre, int[] paradasLinea, int largo) throws IOException {
+			lineas.write(codigo);
+			lineas.write(';');
+			lineas.write(nombre);
+			lineas.write(';');
+			for (int i = 0; i < largo; i++) {
+				lineas.write(Integer.toString(paradasLinea[i]));
+				lineas.write(';');
+			}
+			lineas.write(FIN_LINEA);
+		}
+
+		@Override
+		public void tramo(int inicio, int fin, int tiempo, int tipo) throws IOException {
+			tramos.write(inicio + ";" + fin + ";" + tiempo + ";" + tipo + ";" + FIN_LINEA);
+		}
+
+		@Override
+		public void frecuencia(String linea, int diaSemana, String salidas) throws IOException {
+			frecuencias.write(linea + ";" + diaSemana + ";" + salidas + FIN_LINEA);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try (paradas; lineas; tramos; frecuencias) {
+				// the writers are flushed and closed by the try-with-resources
+			}
+		}
+	}
+
+	/**
+	 * Inserts the city into the database schema of the database DAOs, through
+	 * the connection of {@code BDConexion}. Rows are sent in batches and
+	 * committed when the destination is closed.
+	 * 
+	 * The {@code hora} column of {@code linea_frecuencia} is a {@code TIME}, so
+	 * the departures of each day are expanded and inserted one per row. A
+	 * departure at 24:00 or later, which {@code TIME} cannot hold, is inserted
+	 * on the next day at its clock time; the search reaches it the same way, as
+	 * a departure of the query's day or of the previous service day.
+	 */
+	public static final class BaseDatosCiudad implements DestinoCiudad {
+
+		/** Number of rows sent in each batch. */
+		private static final int TAMANO_LOTE = 1_000;
+
+		/** The connection. */
+		private final Connection conexion;
+
+		/** Statements of the tables parada, linea, linea_parada, tramo and linea_frecuencia. */
+		private final PreparedStatement paradas, lineas, lineasParadas, tramos, frecuencias;
+
+		/** Rows added to each statement since its last batch, in the same order. */
+		private final int[] pendientes = new int[5];
+
+		/**
+		 * Constructor that prepares the insert statements.
+		 * 
+		 * @throws SQLException If the statements cannot be prepared.
+		 */
+		public BaseDatosCiudad() throws SQLException {
+			this.conexion = BDConexion.getConnection();
+			conexion.setAutoCommit(false);
+			this.paradas = conexion
+					.prepareStatement("INSERT INTO parada (codigo, direccion, latitud, longitud) VALUES (?, ?, ?, ?)");
+			this.lineas = conexion.prepareStatement("INSERT INTO linea (codigo, nombre) VALUES (?, ?)");
+			this.lineasParadas = conexion
+					.prepareStatement("INSERT INTO linea_parada (linea, parada, secuencia) VALUES (?, ?, ?)");
+			this.tramos = conexion.prepareStatement("INSERT INTO tramo (inicio, fin, tiempo, tipo) VALUES (?, ?, ?, ?)");
+			this.frecuencias = conexion
+					.prepareStatement("INSERT INTO linea_frecuencia (linea, diasemana, hora) VALUES (?, ?, ?)");
+		}
+
+		@Override
+		public void parada(int codigo, String direccion, double latitud, double longitud) throws SQLException {
+			paradas.setInt(1, codigo);
+			paradas.setString(2, direccion);
+			paradas.setDouble(3, latitud);
+			paradas.setDouble(4, longitud);
+			agregar(paradas, 0);
+		}
+
+		@Override
+		public void linea(String codigo, String nombre, int[] paradasLinea, int largo) throws SQLException {
+			lineas.setString(1, codigo);
+			lineas.setString(2, nombre);
+			agregar(lineas, 1);
+			enviar(paradas, 0);
+			enviar(lineas, 1);
+			for (int i = 0; i < largo; i++) {
+				lineasParadas.setString(1, codigo);
+				lineasParadas.setInt(2, paradasLinea[i]);
+				lineasParadas.setInt(3, i + 1);
+				agregar(lineasParadas, 2);
+			}
+		}
+
+		@Override
+		public void tramo(int inicio, int fin, int tiempo, int tipo) throws SQLException {
+			tramos.setInt(1, inicio);
+			tramos.setInt(2, fin);
+			tramos.setInt(3, tiempo);
+			tramos.setInt(4, tipo);
+			agregar(tramos, 3);
+		}
+
+		@Override
+		public void frecuencia(String linea, int diaSemana, String salidas) throws SQLException {
+			Horario.Acumulador acumulador = new Horario.Acumulador();
+			for (String entrada : salidas.split(";"))
+				acumulador.agregar(entrada);
+
+			for (int salida : acumulador.construir().salidas()) {
+				frecuencias.setString(1, linea);
+				frecuencias.setInt(2, HoraServicio.desplazarDia(diaSemana, salida / HoraServicio.SEGUNDOS_DIA));
+				frecuencias.setTime(3, Time.valueOf(HoraServicio.aLocalTime(salida)));
+				agregar(frecuencias, 4);
+			}
+		}
+
+		/**
+		 * Adds the current row of a statement to its batch, sending the batch
+		 * when it is full.
+		 */
+		private void agregar(PreparedStatement sentencia, int indice) throws SQLException {
+			sentencia.addBatch();
+			if (++pendientes[indice] == TAMANO_LOTE)
+				enviar(sentencia, indice);
+		}
+
+		/** Sends the pending rows of a statement. */
+		private void enviar(PreparedStatement sentencia, int indice) throws SQLException {
+			if (pendientes[indice] > 0) {
+				sentencia.executeBatch();
+				pendientes[indice] = 0;
+			}
+		}
+
+		@Override
+		public void close() throws SQLException {
+			try (paradas; lineas; lineasParadas; tramos; frecuencias) {
+				enviar(paradas, 0);
+				enviar(lineas, 1);
+				enviar(lineasParadas, 2);
+				enviar(tramos, 3);
+				enviar(frecuencias, 4);
+				conexion.commit();
+			} catch (SQLException ex) {
+				conexion.rollback();
+				throw ex;
+			} finally {
+				conexion.setAutoCommit(true);
+			}
+		}
+	}
+
+	/** @param cantidadParadas The number of stops. */
+	public void setCantidadParadas(int cantidadParadas) {
+		if (cantidadParadas < 2)
+			throw new IllegalArgumentException("La ciudad debe tener al menos 2 paradas.");
+		this.cantidadParadas = cantidadParadas;
+	}
+
+	/** @param cantidadLineas The number of lines. */
+	public void setCantidadLineas(int cantidadLineas) {
+		if (cantidadLineas < 1)
+			throw new IllegalArgumentException("La ciudad debe tener al menos una línea.");
+		this.cantidadLineas = cantidadLineas;
+	}
+
+	/** @param largoLinea The number of stops of each line. */
+	public void setLargoLinea(int largoLinea) {
+		if (largoLinea < 2)
+			throw new IllegalArgumentException("Las líneas deben tener al menos 2 paradas.");
+		this.largoLinea = largoLinea;
+	}
+
+	/**
+	 * @param solapamiento The probability (0 to 1) of starting at or moving to a
+	 *                     stop already served by another line.
+	 */
+	public void setSolapamiento(double solapamiento) {
+		if (solapamiento < 0 || solapamiento > 1)
+			throw new IllegalArgumentException("El solapamiento debe estar entre 0 y 1.");
+		this.solapamiento = solapamiento;
+	}
+
+	/** @param intervaloMinutos The headway of the lines from Monday to Friday, in minutes. */
+	public void setIntervaloMinutos(int intervaloMinutos) {
+		if (intervaloMinutos < 1)
+			throw new IllegalArgumentException("El intervalo entre salidas debe ser de al menos un minuto.");
+		this.intervaloMinutos = intervaloMinutos;
+	}
+
+	/** @param densidadCaminata The probability (0 to 1) of a walking segment between neighbouring stops. */
+	public void setDensidadCaminata(double densidadCaminata) {
+		if (densidadCaminata < 0 || densidadCaminata > 1)
+			throw new IllegalArgumentException("La densidad de caminatas debe estar entre 0 y 1.");
+		this.densidadCaminata = densidadCaminata;
+	}
+
+	/** @param separacionMetros The distance between neighbouring stops of the grid, in meters. */
+	public void setSeparacionMetros(int separacionMetros) {
+		if (separacionMetros < 1)
+			throw new IllegalArgumentException("La separación entre paradas debe ser positiva.");
+		this.separacionMetros = separacionMetros;
+	}
+
+	/** @param semilla The seed of the generator. */
+	public void setSemilla(long semilla) {
+		this.semilla = semilla;
+	}
+
+	/**
+	 * @param nocturno Whether the lines also run after 23:00 and past midnight,
+	 *                 at twice their headway, until 02:00.
+	 */
+	public void setNocturno(boolean nocturno) {
+		this.nocturno = nocturno;
+	}
+
+	/**
+	 * Generates a city from the command line. The arguments are
+	 * {@code clave=valor} pairs: {@code paradas}, {@code lineas}, {@code largo},
+	 * {@code solapamiento}, {@code intervalo}, {@code caminatas},
+	 * {@code separacion}, {@code semilla}, {@code nocturno} ({@code true} for the
+	 * late-night profile), and {@code destino}, which is a directory for the data
+	 * files (the default is "ciudad") or {@code bd} to insert the rows into the
+	 * database configured in jdbc.properties.
+	 * 
+	 * @param args The parameters.
+	 * @throws Exception If the city cannot be written.
+	 */
+	public static void main(String[] args) throws Exception {
+		GeneradorCiudad generador = new GeneradorCiudad();
+		String destino = "ciudad";
+		for (String arg : args) {
+			int igual = arg.indexOf('=');
+			if (igual < 0)
+				throw new IllegalArgumentException("Argumento inválido, se esperaba clave=valor: " + arg);
+			String valor = arg.substring(igual + 1).trim();
+			switch (arg.substring(0, igual).trim()) {
+			case "paradas" -> generador.setCantidadParadas(Integer.parseInt(valor));
+			case "lineas" -> generador.setCantidadLineas(Integer.parseInt(valor));
+			case "largo" -> generador.setLargoLinea(Integer.parseInt(valor));
+			case "solapamiento" -> generador.setSolapamiento(Double.parseDouble(valor));
+			case "intervalo" -> generador.setIntervaloMinutos(Integer.parseInt(valor));
+			case "caminatas" -> generador.setDensidadCaminata(Double.parseDouble(valor));
+			case "separacion" -> generador.setSeparacionMetros(Integer.parseInt(valor));
+			case "semilla" -> generador.setSemilla(Long.parseLong(valor));
+			case "nocturno" -> generador.setNocturno(Boolean.parseBoolean(valor));
+			case "destino" -> destino = valor;
+			default -> throw new IllegalArgumentException("Parámetro desconocido: " + arg);
+			}
+		}
+		generador.generar("bd".equals(destino) ? new BaseDatosCiudad() : new ArchivosCiudad(Path.of(destino)));
+	}
+}
\ No newline at end of file
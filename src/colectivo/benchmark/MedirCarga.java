@@ -0,0 +1,138 @@
+package colectivo.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import colectivo.conexion.Factory;
+import colectivo.dao.secuencial.LineaDAOArchivo;
+import colectivo.dao.secuencial.ParadaDAOArchivo;
+import colectivo.dao.secuencial.TramoDAOArchivo;
+import colectivo.logica.RedTransporte;
+import colectivo.modelo.Ciudad;
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * One-shot measurement of the load path, for the cold numbers that JMH averages
+ * away. Each repetition runs the phases in order (parsing the stop, line and
+ * segment files, the whole {@code CiudadLoaderService.cargarCiudad}, the
+ * {@code RedTransporte} snapshot, and the structures the snapshot builds on
+ * first use: the line graph, the landmarks and the trips) and prints, for each
+ * one, its time, the bytes allocated by all threads while it ran, and its
+ * retained heap: the growth of the used heap, measured after a full collection
+ * before and after the phase, while its result is still referenced.
+ * 
+ * Arguments: the directory of a generated dataset (or "-" for the bundled
+ * data) and the number of repetitions (3 by default). The first repetition
+ * includes class loading and runs in the interpreter.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class MedirCarga {
+
+	/** JVM thread bean, used to measure the allocated bytes. */
+	private static final ThreadMXBean HILOS = ManagementFactory.getThreadMXBean();
+
+	/** JVM memory bean, used to measure the used heap. */
+	private static final MemoryMXBean MEMORIA = ManagementFactory.getMemoryMXBean();
+
+	/** Number of bytes in a mebibyte. */
+	private static final double MB = 1024.0 * 1024.0;
+
+	/** Private constructor to prevent instantiation. */
+	private MedirCarga() {
+		throw new AssertionError("No instanciable");
+	}
+
+	/**
+	 * Runs the measurement.
+	 * 
+	 * @param args The dataset directory (or "-") and the number of repetitions.
+	 */
+	public static void main(String[] args) {
+		String directorio = args.length > 0 && !"-".equals(args[0]) ? args[0] : null;
+		int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		ArchivosDatos archivos = ArchivosDatos.de(directorio);
+
+		System.out.printf("%-4s %-14s %10s %14s %14s%n", "rep", "fase", "ms", "MB asignados", "MB retenidos");
+		for (int rep = 1; rep <= repeticiones; rep++) {
+			ParadaDAOArchivo paradaDAO = new ParadaDAOArchivo(archivos.getParadas());
+			Map<Integer, Parada> paradas = medir(rep, "paradas", paradaDAO::buscarTodos);
+			Factory.registrarInstancia("PARADA", paradaDAO);
+			Map<String, Linea> lineas = medir(rep, "lineas",
+					() -> new LineaDAOArchivo(archivos.getLineas(), archivos.getFrecuencias()).buscarTodos());
+			Map<String, Tramo> tramos = medir(rep, "tramos",
+					() -> new TramoDAOArchivo(archivos.getTramos()).buscarTodos());
+
+			Ciudad ciudad = medir(rep, "cargarCiudad", archivos::cargarCiudad);
+			RedTransporte red = medir(rep, "red",
+					() -> RedTransporte.construir(ciudad.getLineas(), ciudad.getMapaTramos()));
+			medir(rep, "red.lineas", red::getGrafoLineas);
+			medir(rep, "red.marcas", red::getPuntosReferencia);
+			medir(rep, "red.viajes", red::getRedViajes);
+
+			System.out.printf("%-4d %d paradas, %d líneas, %d tramos, %d paradas en la red%n", rep, paradas.size(),
+					lineas.size(), tramos.size(), red.getCantidadParadas());
+		}
+	}
+
+	/**
+	 * Runs a phase and prints its measurements.
+	 * 
+	 * @param rep    The repetition.
+	 * @param fase   The name of the phase.
+	 * @param accion The phase.
+	 * @return The result of the phase.
+	 */
+	private static <T> T medir(int rep, String fase, Supplier<T> accion) {
+		long heapAntes = heapUsadoTrasGc();
+		long asignadosAntes = bytesAsignados();
+		long inicio = System.nanoTime();
+		T resultado = accion.get();
+		long nanos = System.nanoTime() - inicio;
+		long asignados = bytesAsignados() - asignadosAntes;
+		long retenidos = heapUsadoTrasGc() - heapAntes;
+
+		System.out.printf(Locale.ROOT, "%-4d %-14s %10.1f %14.2f %14.2f%n", rep, fase, nanos / 1e6,
+				asignados < 0 ? Double.NaN : asignados / MB, retenidos / MB);
+		return resultado;
+	}
+
+	/**
+	 * Returns the bytes allocated so far by all the threads of the JVM, so the
+	 * parallel phases are fully counted.
+	 * 
+	 * @return The allocated bytes, or a negative value if the JVM cannot
+	 *         measure them.
+	 */
+	private static long bytesAsignados() {
+		if (HILOS instanceof com.sun.management.ThreadMXBean hilos && hilos.isThreadAllocatedMemorySupported()
+				&& hilos.isThreadAllocatedMemoryEnabled())
+			return hilos.getTotalThreadAllocatedBytes();
+		return -1;
+	}
+
+	/**
+	 * Returns the used heap after asking for full collections until it stops
+	 * shrinking.
+	 * 
+	 * @return The used heap, in bytes.
+	 */
+	private static long heapUsadoTrasGc() {
+		long anterior = Long.MAX_VALUE;
+		long usado = MEMORIA.getHeapMemoryUsage().getUsed();
+		for (int i = 0; i < 5 && usado < anterior; i++) {
+			anterior = usado;
+			System.gc();
+			usado = MEMORIA.getHeapMemoryUsage().getUsed();
+		}
+		return usado;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package colectivo.benchmark;
+
+import colectivo.logica.HuellaCiudad;
+import colectivo.logica.RedTransporte;
+import colectivo.modelo.Ciudad;
+
+/**
+ * Prints the estimated memory footprint of a city, by structure, as computed by
+ * {@code HuellaCiudad}. The running application publishes the same report as
+ * the {@code colectivo:type=Huella,name=ciudad} MBean.
+ * 
+ * Arguments: the directory of a generated dataset (or "-" for the bundled
+ * data) and, optionally, "red" to also build and measure the
+ * {@code RedTransporte}, which takes long on large datasets.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class MedirHuella {
+
+	/** Private constructor to prevent instantiation. */
+	private MedirHuella() {
+		throw new AssertionError("No instanciable");
+	}
+
+	/**
+	 * Runs the measurement.
+	 * 
+	 * @param args The dataset directory (or "-") and, optionally, "red".
+	 */
+	public static void main(String[] args) {
+		String directorio = args.length > 0 && !"-".equals(args[0]) ? args[0] : null;
+		boolean conRed = args.length > 1 && "red".equals(args[1]);
+		Ciudad ciudad = ArchivosDatos.de(directorio).cargarCiudad();
+		RedTransporte red = conRed ? RedTransporte.construir(ciudad.getLineas(), ciudad.getMapaTramos()) : null;
+
+		System.out.println(HuellaCiudad.medir(ciudad, red));
+	}
+}
\ No newline at end of file
@@ -5,6 +5,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import colectivo.metricas.CronologiaArranque;
+import colectivo.metricas.RazonAciertos;
+import colectivo.metricas.RegistroMetricas;
+
 /**
  * Factory pattern implementation. This final class acts as a central factory
  * for creating and managing object instances.
@@ -21,6 +25,9 @@ public final class Factory {
 	/** Logger instance for logging events, errors and exceptions. */
 	private static final Logger LOGGER = LogManager.getLogger(Factory.class);
 
+	/** Hit ratio of the instance cache, published as "cache.factory". */
+	private static final RazonAciertos CACHE = RegistroMetricas.razonAciertos("cache.factory");
+
 	/** Private constructor to prevent instantiation. */
 	private Factory() {
 		throw new AssertionError("No instanciable");
@@ -40,7 +47,13 @@ public final class Factory {
 	@SuppressWarnings("unchecked")
 	public static <T> T getInstancia(String objName, Class<T> expectedType) {
 
-		Object instance = INSTANCIAS.computeIfAbsent(objName, Factory::crearInstancia);
+		Object instance = INSTANCIAS.get(objName);
+		if (instance != null) {
+			CACHE.acierto();
+		} else {
+			CACHE.fallo();
+			instance = INSTANCIAS.computeIfAbsent(objName, Factory::crearInstancia);
+		}
 
 		if (!expectedType.isInstance(instance)) {
 			String error = String.format("ERROR DE CONFIGURACIÓN: %s. Esperado: %s, Obtenido: %s", objName,
@@ -60,6 +73,7 @@ public final class Factory {
 	 * @throws RuntimeException if the key is not found.
 	 */
 	private static Object crearInstancia(String clave) {
+		CronologiaArranque.Fase fase = CronologiaArranque.getInstancia().iniciar("factory." + clave);
 		try {
 			LOGGER.info("Creando instancia para: {}", clave);
 			ResourceBundle rb = ResourceBundle.getBundle("factory");
@@ -78,6 +92,8 @@ public final class Factory {
 		} catch (Exception ex) {
 			LOGGER.fatal("Error creando instancia para: {}", clave, ex);
 			throw new RuntimeException("Error Factory al crear: " + clave, ex);
+		} finally {
+			fase.close();
 		}
 	}
 
@@ -90,6 +106,19 @@ public final class Factory {
 		LOGGER.info("Cache de Factory limpiado");
 	}
 
+	/**
+	 * Registers an already created instance under a key, replacing the cached
+	 * one. It lets tools such as the benchmarks use a specific implementation
+	 * (e.g. the file DAOs) regardless of "factory.properties".
+	 * 
+	 * @param objName   The key name of the object.
+	 * @param instancia The instance to return for that key.
+	 */
+	public static void registrarInstancia(String objName, Object instancia) {
+		INSTANCIAS.put(objName, instancia);
+		LOGGER.info("Instancia registrada para: {} -> {}", objName, instancia.getClass().getName());
+	}
+
 	/**
 	 * Forces the creation of a new instance for a specific object, replacing the
 	 * cached one.
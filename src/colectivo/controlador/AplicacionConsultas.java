@@ -3,6 +3,8 @@ package colectivo.controlador;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import colectivo.metricas.CronologiaArranque;
+
 /**
  * Main application entry point. This class serves as the initial entry point
  * for launching the application. It is responsible for initializing the
@@ -22,11 +24,13 @@ public class AplicacionConsultas {
 	 * Launches the application and delegates control. 1. Logs the application start
 	 * event. 2. Creates the main controller {@code Coordinador}. 3. Calls
 	 * {@code iniciarSistema()} on the coordinator to begin the application's
-	 * execution logic.
+	 * execution logic. The steps are recorded in the startup timeline.
 	 */
 	public static void main(String[] args) {
+		CronologiaArranque cronologia = CronologiaArranque.getInstancia();
+		cronologia.marcar("main");
 		LOGGER.info("Iniciando la aplicación de consultas de colectivos.");
-		Coordinador coordinador = new Coordinador();
+		Coordinador coordinador = cronologia.medir("coordinador", () -> new Coordinador());
 		coordinador.iniciarSistema();
 	}
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package colectivo.controlador;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Properties;
 import java.util.ResourceBundle;
 
 import colectivo.conexion.Factory;
@@ -13,7 +16,12 @@ import colectivo.dao.TramoDAO;
 import colectivo.interfaz.InterfazInicializador;
 import colectivo.logica.Calculo;
 import colectivo.logica.CiudadLoaderService;
+import colectivo.logica.EstadisticasAgregadas;
+import colectivo.logica.EstadisticasConsulta;
+import colectivo.logica.HuellaCiudad;
 import colectivo.logica.Recorrido;
+import colectivo.metricas.CronologiaArranque;
+import colectivo.metricas.RegistroMetricas;
 import colectivo.modelo.Ciudad;
 import colectivo.modelo.Parada;
 
@@ -58,6 +66,9 @@ public class Coordinador {
 	 */
 	private Ciudad ciudad;
 
+	/** Cost counters of the last route query, or null before the first one. */
+	private volatile EstadisticasConsulta ultimasEstadisticas;
+
 	/** Logger instance for logging events, errors and exceptions. */
 	private static final Logger LOGGER = LogManager.getLogger(Coordinador.class);
 
@@ -73,15 +84,43 @@ public class Coordinador {
 			LineaDAO lineaDAO = Factory.getInstancia("LINEA", LineaDAO.class);
 
 			CiudadLoaderService loader = new CiudadLoaderService(paradaDAO, lineaDAO, tramoDAO);
-			this.ciudad = loader.cargarCiudad();
+			Ciudad cargada = loader.cargarCiudad();
+			this.ciudad = cargada;
 
-			this.calculo = new Calculo(this.ciudad.getLineas());
+			int maxResultados = leerMaxResultados();
+			this.calculo = CronologiaArranque.getInstancia().medir("calculo", () -> new Calculo(cargada, maxResultados));
 
 		} catch (RuntimeException e) {
 			LOGGER.fatal("Error crítico: Falló la inicialización del Modelo (DAO/Factory).", e);
 		}
 	}
 
+	/**
+	 * Reads the maximum number of journeys returned by a query from the
+	 * "maxResultados" key in config.properties. Falls back to
+	 * {@code Calculo.MAX_RESULTADOS_POR_DEFECTO} when the key is missing or
+	 * invalid.
+	 * 
+	 * @return The configured maximum number of journeys per query.
+	 */
+	private int leerMaxResultados() {
+		Properties prop = new Properties();
+		try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
+			if (input != null) {
+				prop.load(input);
+				String valor = prop.getProperty("maxResultados");
+				if (valor != null) {
+					int maxResultados = Integer.parseInt(valor.trim());
+					if (maxResultados > 0)
+						return maxResultados;
+				}
+			}
+		} catch (IOException | NumberFormatException ex) {
+			LOGGER.warn("No se pudo leer 'maxResultados' de config.properties. Se usa el valor por defecto.", ex);
+		}
+		return Calculo.MAX_RESULTADOS_POR_DEFECTO;
+	}
+
 	/**
 	 * Sets the {@code Calculo} service instance.
 	 * 
@@ -103,7 +142,8 @@ public class Coordinador {
 
 	/**
 	 * Calls the method responsible for calculating possible routes between two bus
-	 * stops given the day and time.
+	 * stops given the day and time. The cost counters of the query are kept and
+	 * can be read with {@code getUltimasEstadisticas}.
 	 * 
 	 * @param origen    The origin bus stop
 	 * @param destino   The destination bus stop
@@ -113,7 +153,71 @@ public class Coordinador {
 	 *         represented as lists of {@code Recorrido} segments.
 	 */
 	public List<List<Recorrido>> calcularRecorrido(Parada origen, Parada destino, int diaSemana, LocalTime hora) {
-		return calculo.calcularRecorrido(origen, destino, diaSemana, hora, this.ciudad.getTramos());
+		EstadisticasConsulta estadisticas = new EstadisticasConsulta();
+		List<List<Recorrido>> recorridos = calcularRecorrido(origen, destino, diaSemana, hora, estadisticas);
+		this.ultimasEstadisticas = estadisticas;
+		return recorridos;
+	}
+
+	/**
+	 * Calculates the possible routes between two bus stops, filling in the cost
+	 * counters of the query. When they are collected, the duration of the query
+	 * is recorded in the "consulta" histogram of {@code RegistroMetricas} and in
+	 * the one of the strategy whose journeys were returned.
+	 * 
+	 * @param origen       The origin bus stop
+	 * @param destino      The destination bus stop
+	 * @param diaSemana    The day of the week
+	 * @param hora         The departure time
+	 * @param estadisticas A new {@code EstadisticasConsulta} to fill in, or null.
+	 * @return a list of all the possible routes, represented as lists of
+	 *         {@code Recorrido} segments.
+	 */
+	public List<List<Recorrido>> calcularRecorrido(Parada origen, Parada destino, int diaSemana, LocalTime hora,
+			EstadisticasConsulta estadisticas) {
+		List<List<Recorrido>> recorridos = calculo.calcularRecorrido(origen, destino, diaSemana, hora,
+				this.ciudad.getMapaTramos(), estadisticas);
+		if (estadisticas != null) {
+			String estrategia = estadisticas.getEstrategiaExitosa();
+			RegistroMetricas.histograma("consulta").registrar(estadisticas.getNanosTotales());
+			RegistroMetricas.histograma("consulta." + (estrategia == null ? "sinResultados" : estrategia))
+					.registrar(estadisticas.getNanosTotales());
+		}
+		return recorridos;
+	}
+
+	/**
+	 * Returns the cost counters of the last route query.
+	 * 
+	 * @return The counters, or null if no query has been made.
+	 */
+	public EstadisticasConsulta getUltimasEstadisticas() {
+		return ultimasEstadisticas;
+	}
+
+	/**
+	 * Returns the totals of the cost counters of the route queries, for
+	 * monitoring.
+	 * 
+	 * @return The running totals of the {@code Calculo} in use.
+	 */
+	public EstadisticasAgregadas getEstadisticasAgregadas() {
+		return calculo.getEstadisticasAgregadas();
+	}
+
+	/**
+	 * Calculates the routes between two stops that need the fewest changes of bus.
+	 * 
+	 * @param origen    The starting bus stop.
+	 * @param destino   The destination bus stop.
+	 * @param diaSemana The day of the week.
+	 * @param hora      The time of arrival at the origin stop.
+	 * @return The journeys with the fewest transfers, sorted by arrival.
+	 */
+	public List<List<Recorrido>> calcularRecorridoMenosTransbordos(Parada origen, Parada destino, int diaSemana,
+			LocalTime hora) {
+		return calculo.calcularRecorridoMenosTransbordos(origen, destino, diaSemana, hora,
+				this.ciudad.getMapaTramos());
 	}
 
 	/**
@@ -177,9 +281,24 @@ public class Coordinador {
 
 	/**
 	 * Initiates the graphical user interface (GUI) of the application. This method
-	 * delegates the startup process to the {@code InterfazInicializador}.
+	 * first publishes the memory footprint of the city and its network as the
+	 * {@code colectivo:type=Huella,name=ciudad} MBean, and then delegates the
+	 * startup process to the {@code InterfazInicializador}.
 	 */
 	public void iniciarSistema() {
+		publicarHuella();
 		InterfazInicializador.lanzar(this);
 	}
+
+	/**
+	 * Publishes the memory footprint of the loaded city and its network. It is
+	 * called once the coordinator is fully built, so the MBean never sees a
+	 * partially initialized coordinator. Nothing is published if the model could
+	 * not be loaded.
+	 */
+	private void publicarHuella() {
+		if (calculo == null)
+			return;
+		RegistroMetricas.publicar("Huella", "ciudad", new HuellaCiudad(this::getCiudad, () -> calculo.getRed()));
+	}
 }
\ No newline at end of file
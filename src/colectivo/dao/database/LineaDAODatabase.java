@@ -4,7 +4,6 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.time.LocalTime;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -16,6 +15,9 @@ import colectivo.conexion.BDConexion;
 import colectivo.conexion.Factory;
 import colectivo.dao.LineaDAO;
 import colectivo.dao.ParadaDAO;
+import colectivo.eventos.CargaDAOEvento;
+import colectivo.modelo.CargaHorarios;
+import colectivo.modelo.CatalogoHorarios;
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
 
@@ -72,18 +74,30 @@ public class LineaDAODatabase implements LineaDAO {
 	 */
 	@Override
 	public Map<String, Linea> buscarTodos() {
-		return cargarDesdeBD();
+		CargaDAOEvento evento = new CargaDAOEvento();
+		evento.begin();
+		Map<String, Linea> lineas = cargarDesdeBD();
+		evento.terminar(this, "linea, linea_parada, linea_frecuencia", lineas.size());
+		return lineas;
 	}
 
 	/**
 	 * Reads data drom the database tables to fully populate the {@code Linea}
-	 * objects.
+	 * objects. The {@code hora} column of {@code linea_frecuencia} is read as
+	 * text: it may hold a single departure or, if it is a text column, the compact
+	 * timetable syntax, such as {@code 05:00-22:00/30;!12:30} for a bus every 30
+	 * minutes except 12:30 (see {@code Horario.Acumulador.agregar}). The entries
+	 * are collected with {@code CargaHorarios}, and identical day timetables are
+	 * stored once in a {@code CatalogoHorarios} shared by all the lines read. A
+	 * frequency row that cannot be parsed is logged and skipped; the other rows
+	 * are still loaded.
 	 * 
 	 * @return A map containing {@code Linea} objects.
 	 * @throws SQLException if a database access error occurs.
 	 */
 	private Map<String, Linea> cargarDesdeBD() {
 		Map<String, Linea> lineas = new LinkedHashMap<>();
+		CatalogoHorarios catalogo = new CatalogoHorarios();
 		Connection conn = null;
 
 		if (this.paradasDisponibles == null || this.paradasDisponibles.isEmpty()) {
@@ -100,7 +114,7 @@ public class LineaDAODatabase implements LineaDAO {
 				while (rsLineas.next()) {
 					String codigo = rsLineas.getString("codigo");
 					String nombre = rsLineas.getString("nombre");
-					Linea linea = new Linea(codigo, nombre);
+					Linea linea = new Linea(codigo, nombre, catalogo);
 					lineas.put(codigo, linea);
 				}
 			}
@@ -125,21 +139,31 @@ public class LineaDAODatabase implements LineaDAO {
 				}
 			}
 
+			CargaHorarios horarios = new CargaHorarios();
 			String sqlFrecuencias = "SELECT linea, diasemana, hora FROM linea_frecuencia";
 			try (Statement stmt = conn.createStatement(); ResultSet rsFrec = stmt.executeQuery(sqlFrecuencias)) {
 
 				while (rsFrec.next()) {
 					String codigoLinea = rsFrec.getString("linea");
 					int diaSemana = rsFrec.getInt("diasemana");
-					LocalTime hora = rsFrec.getTime("hora").toLocalTime();
+					String hora = rsFrec.getString("hora");
 
 					Linea lineaExistente = lineas.get(codigoLinea);
-					if (lineaExistente != null) {
-						lineaExistente.agregarFrecuencia(diaSemana, hora);
+					if (lineaExistente == null || hora == null)
+						continue;
+
+					try {
+						horarios.agregar(lineaExistente, diaSemana, hora.split(";"));
+					} catch (IllegalArgumentException e) {
+						LOGGER.warn("Frecuencia omitida: Línea {}, día {}, hora '{}' inválida. {}", codigoLinea,
+								diaSemana, hora, e.getMessage());
 					}
 				}
 			}
 
+			horarios.asignar();
+			LOGGER.debug("Horarios distintos compartidos entre líneas y días: {}.", catalogo.size() - 1);
+
 		} catch (SQLException e) {
 			LOGGER.fatal("Error al cargar datos de líneas desde la BD: ", e);
 			return Collections.emptyMap();
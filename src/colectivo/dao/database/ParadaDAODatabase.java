@@ -13,6 +13,7 @@ import org.apache.logging.log4j.Logger;
 
 import colectivo.conexion.BDConexion;
 import colectivo.dao.ParadaDAO;
+import colectivo.eventos.CargaDAOEvento;
 import colectivo.modelo.Parada;
 
 /**
@@ -54,6 +55,8 @@ public class ParadaDAODatabase implements ParadaDAO {
 	 */
 	@Override
 	public Map<Integer, Parada> buscarTodos() {
+		CargaDAOEvento evento = new CargaDAOEvento();
+		evento.begin();
 		Map<Integer, Parada> paradas = new LinkedHashMap<>();
 		String sql = "SELECT codigo, direccion, latitud, longitud FROM parada";
 		Connection conn = null;
@@ -73,8 +76,10 @@ public class ParadaDAODatabase implements ParadaDAO {
 			}
 		} catch (SQLException e) {
 			LOGGER.fatal("Error al buscar todas las paradas en la BD: ", e);
+			evento.terminar(this, "parada", 0);
 			return Collections.emptyMap();
 		}
+		evento.terminar(this, "parada", paradas.size());
 		return paradas;
 	}
 }
\ No newline at end of file
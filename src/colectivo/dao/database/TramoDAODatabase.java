@@ -5,7 +5,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
@@ -15,6 +14,8 @@ import colectivo.conexion.BDConexion;
 import colectivo.conexion.Factory;
 import colectivo.dao.ParadaDAO;
 import colectivo.dao.TramoDAO;
+import colectivo.eventos.CargaDAOEvento;
+import colectivo.modelo.MapaTramos;
 import colectivo.modelo.Parada;
 import colectivo.modelo.Tramo;
 
@@ -67,18 +68,23 @@ public class TramoDAODatabase implements TramoDAO {
 	 */
 	@Override
 	public Map<String, Tramo> buscarTodos() {
-		return cargarDesdeBD();
+		CargaDAOEvento evento = new CargaDAOEvento();
+		evento.begin();
+		Map<String, Tramo> tramos = cargarDesdeBD();
+		evento.terminar(this, "tramo", tramos.size());
+		return tramos;
 	}
 
 	/**
 	 * Reads segment data from the 'tramo' table. Converts the integer stop IDs
 	 * ('codigoInicio', 'codigoFin') into their corresponding {@code Parada} objects
-	 * using the cached {@code paradasDisponibles} map.
+	 * using the cached {@code paradasDisponibles} map. The segments are stored in a
+	 * {@code MapaTramos}, keyed by the packed codes of their stops.
 	 * 
 	 * @return A map containing {@code Tramo} objects.
 	 */
 	private Map<String, Tramo> cargarDesdeBD() {
-		Map<String, Tramo> tramos = new LinkedHashMap<>();
+		MapaTramos tramos = new MapaTramos();
 		String sql = "SELECT inicio, fin, tiempo, tipo FROM tramo";
 		Connection conn = null;
 
@@ -102,8 +108,7 @@ public class TramoDAODatabase implements TramoDAO {
 
 					if (paradaInicio != null && paradaFin != null) {
 						Tramo tramo = new Tramo(paradaInicio, paradaFin, tiempo, tipo);
-						String clave = codigoInicio + "-" + codigoFin;
-						tramos.put(clave, tramo);
+						tramos.agregar(tramo);
 					} else {
 						LOGGER.warn(
 								"Advertencia: Tramo con paradas huérfanas omitido: " + codigoInicio + "->" + codigoFin);
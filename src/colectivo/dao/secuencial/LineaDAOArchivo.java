@@ -3,6 +3,9 @@ package colectivo.dao.secuencial;
 import colectivo.conexion.Factory;
 import colectivo.dao.LineaDAO;
 import colectivo.dao.ParadaDAO;
+import colectivo.eventos.CargaDAOEvento;
+import colectivo.modelo.CargaHorarios;
+import colectivo.modelo.CatalogoHorarios;
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
 
@@ -16,7 +19,7 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.time.LocalTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 
@@ -91,6 +94,23 @@ public class LineaDAOArchivo implements LineaDAO {
 		this.actualizar = true;
 	}
 
+	/**
+	 * Constructor that reads the lines and their frequencies from the given files
+	 * instead of the ones configured in config.properties (e.g. a generated
+	 * dataset). The stops are still obtained from the {@code ParadaDAO} of the
+	 * {@code Factory}.
+	 * 
+	 * @param rutaArchivo            The path of the line data file.
+	 * @param rutaArchivoFrecuencias The path of the frequency data file.
+	 */
+	public LineaDAOArchivo(String rutaArchivo, String rutaArchivoFrecuencias) {
+		this.rutaArchivo = rutaArchivo;
+		this.rutaArchivoFrecuencias = rutaArchivoFrecuencias;
+		this.paradasDisponibles = cargarParadas();
+		this.lineasMap = new LinkedHashMap<>();
+		this.actualizar = true;
+	}
+
 	/** Method not implemented in the current version. */
 	@Override
 	public void insertar(Linea linea) {
@@ -122,7 +142,10 @@ public class LineaDAOArchivo implements LineaDAO {
 			return Collections.emptyMap();
 		}
 		if (actualizar) {
+			CargaDAOEvento evento = new CargaDAOEvento();
+			evento.begin();
 			this.lineasMap = leerDelArchivo();
+			evento.terminar(this, this.rutaArchivo + ", " + this.rutaArchivoFrecuencias, this.lineasMap.size());
 			this.actualizar = false;
 			LOGGER.info("Carga de líneas finalizada con éxito. Líneas cargadas: {}", this.lineasMap.size());
 		}
@@ -131,13 +154,22 @@ public class LineaDAOArchivo implements LineaDAO {
 
 	/**
 	 * Private method responsible for reading the lines, stops and frequencies from
-	 * their files.
+	 * their files. Each row of the frequency file holds a line code, a day of the
+	 * week and one or more timetable entries separated by ";". Besides single
+	 * departures ({@code L1;1;05:00;}) an entry can describe a whole run, for
+	 * example {@code L1;1;05:00-22:00/30;!12:30;23:15;} for a bus every 30 minutes
+	 * from 05:00 to 22:00 except 12:30, plus one at 23:15 (see
+	 * {@code Horario.Acumulador.agregar}), collected with {@code CargaHorarios}.
+	 * Identical day timetables are stored once in a {@code CatalogoHorarios}
+	 * shared by all the lines read. A frequency row that cannot be parsed is
+	 * logged and skipped; the other rows are still loaded.
 	 * 
 	 * @return a map containing all {@code Linea} objects with their associated
 	 *         stops and frequencies.
 	 */
 	private Map<String, Linea> leerDelArchivo() {
 		Map<String, Linea> lineas = new LinkedHashMap<>();
+		CatalogoHorarios catalogo = new CatalogoHorarios();
 
 		if (this.paradasDisponibles == null || this.paradasDisponibles.isEmpty()) {
 			LOGGER.error("Error: No se pudieron cargar las paradas necesarias para leer las líneas.");
@@ -153,7 +185,7 @@ public class LineaDAOArchivo implements LineaDAO {
 				String[] partes = lineaTexto.split(";");
 				String codigo = partes[0].trim();
 				String nombre = partes[1].trim();
-				Linea linea = new Linea(codigo, nombre);
+				Linea linea = new Linea(codigo, nombre, catalogo);
 
 				for (int i = 2; i < partes.length; i++) {
 					int codigoParada = Integer.parseInt(partes[i].trim());
@@ -168,6 +200,7 @@ public class LineaDAOArchivo implements LineaDAO {
 			LOGGER.error("Error al leer o procesar el archivo de líneas: {}.", this.rutaArchivo, e);
 		}
 
+		CargaHorarios horarios = new CargaHorarios();
 		try (BufferedReader br = new BufferedReader(new FileReader(rutaArchivoFrecuencias))) {
 			String lineaTexto;
 			while ((lineaTexto = br.readLine()) != null) {
@@ -175,19 +208,26 @@ public class LineaDAOArchivo implements LineaDAO {
 					continue;
 
 				String[] partes = lineaTexto.split(";");
-				String codigoLinea = partes[0].trim();
-				int diaSemana = Integer.parseInt(partes[1].trim());
-				LocalTime hora = LocalTime.parse(partes[2].trim());
-
-				Linea lineaExistente = lineas.get(codigoLinea);
-				if (lineaExistente != null) {
-					lineaExistente.agregarFrecuencia(diaSemana, hora);
+				try {
+					if (partes.length < 2)
+						throw new IllegalArgumentException("Falta el día de la semana.");
+					Linea lineaExistente = lineas.get(partes[0].trim());
+					if (lineaExistente == null)
+						continue;
+
+					int diaSemana = Integer.parseInt(partes[1].trim());
+					horarios.agregar(lineaExistente, diaSemana, Arrays.copyOfRange(partes, 2, partes.length));
+				} catch (IllegalArgumentException e) {
+					LOGGER.warn("Frecuencia omitida: Fila '{}' inválida. {}", lineaTexto, e.getMessage());
 				}
 			}
-		} catch (IOException | RuntimeException e) {
+		} catch (IOException e) {
 			LOGGER.error("Error al leer o procesar el archivo de frecuencias: {}.", this.rutaArchivoFrecuencias, e);
 		}
 
+		horarios.asignar();
+		LOGGER.debug("Horarios distintos compartidos entre líneas y días: {}.", catalogo.size() - 1);
+
 		return lineas;
 	}
 
@@ -1,6 +1,7 @@
 package colectivo.dao.secuencial;
 
 import colectivo.dao.ParadaDAO;
+import colectivo.eventos.CargaDAOEvento;
 import colectivo.modelo.Parada;
 import java.util.Map;
 import java.io.BufferedReader;
@@ -73,6 +74,18 @@ public class ParadaDAOArchivo implements ParadaDAO {
 		this.actualizar = true;
 	}
 
+	/**
+	 * Constructor that reads the stops from the given file instead of the one
+	 * configured in config.properties (e.g. a generated dataset).
+	 * 
+	 * @param rutaArchivo The path of the stop data file.
+	 */
+	public ParadaDAOArchivo(String rutaArchivo) {
+		this.rutaArchivo = rutaArchivo;
+		this.paradasMap = new LinkedHashMap<>();
+		this.actualizar = true;
+	}
+
 	/** Method not implemented in the current version. */
 	@Override
 	public void insertar(Parada parada) {
@@ -102,7 +115,10 @@ public class ParadaDAOArchivo implements ParadaDAO {
 	@Override
 	public Map<Integer, Parada> buscarTodos() {
 		if (actualizar) {
+			CargaDAOEvento evento = new CargaDAOEvento();
+			evento.begin();
 			this.paradasMap = leerDelArchivo(this.rutaArchivo);
+			evento.terminar(this, this.rutaArchivo, this.paradasMap.size());
 			this.actualizar = false;
 		}
 		return this.paradasMap;
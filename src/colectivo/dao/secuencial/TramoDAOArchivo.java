@@ -3,6 +3,8 @@ package colectivo.dao.secuencial;
 import colectivo.conexion.Factory;
 import colectivo.dao.ParadaDAO;
 import colectivo.dao.TramoDAO;
+import colectivo.eventos.CargaDAOEvento;
+import colectivo.modelo.MapaTramos;
 import colectivo.modelo.Parada;
 import colectivo.modelo.Tramo;
 import java.util.Map;
@@ -16,7 +18,6 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 
 /**
  * Concrete implementation of {@code TramoDAO} using sequential files. This
@@ -78,7 +79,21 @@ public class TramoDAOArchivo implements TramoDAO {
 		}
 
 		this.paradasDisponibles = cargarParadas();
-		this.tramosMap = new LinkedHashMap<>();
+		this.tramosMap = new MapaTramos();
+		this.actualizar = true;
+	}
+
+	/**
+	 * Constructor that reads the segments from the given file instead of the one
+	 * configured in config.properties (e.g. a generated dataset). The stops are
+	 * still obtained from the {@code ParadaDAO} of the {@code Factory}.
+	 * 
+	 * @param rutaArchivo The path of the segment data file.
+	 */
+	public TramoDAOArchivo(String rutaArchivo) {
+		this.rutaArchivo = rutaArchivo;
+		this.paradasDisponibles = cargarParadas();
+		this.tramosMap = new MapaTramos();
 		this.actualizar = true;
 	}
 
@@ -113,7 +128,10 @@ public class TramoDAOArchivo implements TramoDAO {
 			return Collections.emptyMap();
 		}
 		if (actualizar) {
+			CargaDAOEvento evento = new CargaDAOEvento();
+			evento.begin();
 			this.tramosMap = leerDelArchivo(this.rutaArchivo);
+			evento.terminar(this, this.rutaArchivo, this.tramosMap.size());
 			this.actualizar = false;
 			LOGGER.info("Carga de tramos finalizada con éxito. Tramos cargados: {}", this.tramosMap.size());
 		}
@@ -124,13 +142,15 @@ public class TramoDAOArchivo implements TramoDAO {
 	 * Private method that contains the logic required to read and process the file.
 	 * Reads line by line, parses segment attributes (start/end IDs, time, type).
 	 * Looks up the start and end IDs in {@code paradasDisponibles} to obtain the
-	 * actual {@code Parada} objects, establishing the object reference.
+	 * actual {@code Parada} objects, establishing the object reference. The
+	 * segments are stored in a {@code MapaTramos}, keyed by the packed codes of
+	 * their stops.
 	 * 
 	 * @param ruta The path of the file to be read.
 	 * @return A map loaded with the segments (Tramo).
 	 */
 	private Map<String, Tramo> leerDelArchivo(String ruta) {
-		Map<String, Tramo> tramos = new LinkedHashMap<>();
+		MapaTramos tramos = new MapaTramos();
 
 		if (paradasDisponibles == null || paradasDisponibles.isEmpty()) {
 			LOGGER.error("Error: No se pueden cargar los tramos sin las paradas. El mapa de paradas está vacío.");
@@ -154,8 +174,7 @@ public class TramoDAOArchivo implements TramoDAO {
 
 				if (paradaInicio != null && paradaFin != null) {
 					Tramo tramo = new Tramo(paradaInicio, paradaFin, tiempo, tipo);
-					String clave = codigoInicio + "-" + codigoFin;
-					tramos.put(clave, tramo);
+					tramos.agregar(tramo);
 				} else {
 					LOGGER.warn("Tramo omitido: Parada {} o parada {} no encontrada en el sistema.", codigoInicio,
 							codigoFin);
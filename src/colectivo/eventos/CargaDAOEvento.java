@@ -0,0 +1,53 @@
+package colectivo.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a DAO reading its data from a file or from the database. Calls
+ * answered from the DAO's cache do not produce it.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@Name("colectivo.CargaDAO")
+@Label("Carga de DAO")
+@Category({ "Colectivo", "Carga" })
+@Description("Read of the data of a DAO from its file or from the database")
+@StackTrace(false)
+public final class CargaDAOEvento extends Event {
+
+	/** Simple class name of the DAO. */
+	@Label("DAO")
+	String dao;
+
+	/** The file read, or the table queried. */
+	@Label("Origen")
+	String origen;
+
+	/** Number of objects loaded. */
+	@Label("Cantidad")
+	int cantidad;
+
+	/**
+	 * Ends the event and commits it if a recording enabled it.
+	 * 
+	 * @param dao      The DAO.
+	 * @param origen   The file read, or the table queried.
+	 * @param cantidad The number of objects loaded.
+	 */
+	public void terminar(Object dao, String origen, int cantidad) {
+		end();
+		if (shouldCommit()) {
+			this.dao = dao.getClass().getSimpleName();
+			this.origen = origen;
+			this.cantidad = cantidad;
+			commit();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package colectivo.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a route query of {@code Calculo}, from the moment it is received
+ * until its journeys are returned. Like every event of this package it costs
+ * almost nothing while no recording enables it.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@Name("colectivo.Consulta")
+@Label("Consulta de recorrido")
+@Category({ "Colectivo", "Cálculo" })
+@Description("Route query, from the origin and destination stops to the journeys returned")
+@StackTrace(false)
+public final class ConsultaEvento extends Event {
+
+	/** Code of the origin stop. */
+	@Label("Origen")
+	int origen;
+
+	/** Code of the destination stop. */
+	@Label("Destino")
+	int destino;
+
+	/** Day of the week of the query. */
+	@Label("Día")
+	int diaSemana;
+
+	/** Time of arrival at the origin stop, in service-day seconds. */
+	@Label("Hora (s)")
+	int horaMinima;
+
+	/** Strategy whose journeys were returned, empty if none found any. */
+	@Label("Estrategia")
+	String estrategia;
+
+	/** Number of journeys returned. */
+	@Label("Resultados")
+	int resultados;
+
+	/** Whether the reachability summaries rejected the query. */
+	@Label("Descartada por alcance")
+	boolean descartadaPorAlcance;
+
+	/**
+	 * Ends the event and commits it if a recording enabled it.
+	 * 
+	 * @param origen               The code of the origin stop.
+	 * @param destino              The code of the destination stop.
+	 * @param diaSemana            The day of the week.
+	 * @param horaMinima           The time of the query, in service-day seconds.
+	 * @param estrategia           The strategy whose journeys were returned, or
+	 *                             null.
+	 * @param resultados           The number of journeys returned.
+	 * @param descartadaPorAlcance Whether the reachability summaries rejected the
+	 *                             query.
+	 */
+	public void terminar(int origen, int destino, int diaSemana, int horaMinima, String estrategia, int resultados,
+			boolean descartadaPorAlcance) {
+		end();
+		if (shouldCommit()) {
+			this.origen = origen;
+			this.destino = destino;
+			this.diaSemana = diaSemana;
+			this.horaMinima = horaMinima;
+			this.estrategia = estrategia == null ? "" : estrategia;
+			this.resultados = resultados;
+			this.descartadaPorAlcance = descartadaPorAlcance;
+			commit();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package colectivo.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of the run of one strategy within a route query.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@Name("colectivo.Estrategia")
+@Label("Estrategia de cálculo")
+@Category({ "Colectivo", "Cálculo" })
+@Description("Run of one route calculation strategy within a query")
+@StackTrace(false)
+public final class EstrategiaEvento extends Event {
+
+	/** Simple class name of the strategy. */
+	@Label("Estrategia")
+	String estrategia;
+
+	/** Whether the strategy found at least one journey. */
+	@Label("Encontrado")
+	boolean encontrado;
+
+	/** Number of journeys kept after the run. */
+	@Label("Resultados")
+	int resultados;
+
+	/**
+	 * Ends the event and commits it if a recording enabled it.
+	 * 
+	 * @param estrategia The simple class name of the strategy.
+	 * @param encontrado Whether the strategy found a journey.
+	 * @param resultados The number of journeys kept after the run.
+	 */
+	public void terminar(String estrategia, boolean encontrado, int resultados) {
+		end();
+		if (shouldCommit()) {
+			this.estrategia = estrategia;
+			this.encontrado = encontrado;
+			this.resultados = resultados;
+			commit();
+		}
+	}
+}
\ No newline at end of file
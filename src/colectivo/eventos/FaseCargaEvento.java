@@ -0,0 +1,48 @@
+package colectivo.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a phase of the model load: each step of
+ * {@code CiudadLoaderService.cargarCiudad} and the build of the
+ * {@code RedTransporte} snapshot.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@Name("colectivo.FaseCarga")
+@Label("Fase de carga")
+@Category({ "Colectivo", "Carga" })
+@Description("Phase of the load of the city model")
+@StackTrace(false)
+public final class FaseCargaEvento extends Event {
+
+	/** Name of the phase. */
+	@Label("Fase")
+	String fase;
+
+	/** Number of elements produced by the phase. */
+	@Label("Cantidad")
+	int cantidad;
+
+	/**
+	 * Ends the event and commits it if a recording enabled it.
+	 * 
+	 * @param fase     The name of the phase.
+	 * @param cantidad The number of elements produced.
+	 */
+	public void terminar(String fase, int cantidad) {
+		end();
+		if (shouldCommit()) {
+			this.fase = fase;
+			this.cantidad = cantidad;
+			commit();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package colectivo.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a JavaScript call run on the map's {@code WebEngine}. Only the
+ * name of the function called and the length of the script are recorded, not
+ * its arguments.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@Name("colectivo.ScriptMapa")
+@Label("Script del mapa")
+@Category({ "Colectivo", "Interfaz" })
+@Description("JavaScript call run on the map WebView")
+@StackTrace(false)
+public final class ScriptMapaEvento extends Event {
+
+	/** Name of the function called. */
+	@Label("Función")
+	String funcion;
+
+	/** Length of the script, in characters. */
+	@Label("Longitud")
+	int longitud;
+
+	/**
+	 * Ends the event and commits it if a recording enabled it.
+	 * 
+	 * @param script The script run.
+	 */
+	public void terminar(String script) {
+		end();
+		if (shouldCommit()) {
+			int parentesis = script.indexOf('(');
+			this.funcion = parentesis < 0 ? script : script.substring(0, parentesis);
+			this.longitud = script.length();
+			commit();
+		}
+	}
+}
\ No newline at end of file
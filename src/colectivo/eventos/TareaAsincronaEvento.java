@@ -0,0 +1,50 @@
+package colectivo.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a task run by {@code AsyncService}. The event covers the run on
+ * the background thread; the time the task waited for a thread is recorded in
+ * {@code espera}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+@Name("colectivo.TareaAsincrona")
+@Label("Tarea asíncrona")
+@Category({ "Colectivo", "Interfaz" })
+@Description("Background task of the user interface, with its queue time")
+@StackTrace(false)
+public final class TareaAsincronaEvento extends Event {
+
+	/** Time between the submission of the task and the start of its run. */
+	@Label("Espera en cola")
+	@Timespan(Timespan.NANOSECONDS)
+	long espera;
+
+	/** Whether the task ended without throwing. */
+	@Label("Exitosa")
+	boolean exitosa;
+
+	/**
+	 * Ends the event and commits it if a recording enabled it.
+	 * 
+	 * @param espera  The queue time, in nanoseconds.
+	 * @param exitosa Whether the task ended without throwing.
+	 */
+	public void terminar(long espera, boolean exitosa) {
+		end();
+		if (shouldCommit()) {
+			this.espera = espera;
+			this.exitosa = exitosa;
+			commit();
+		}
+	}
+}
\ No newline at end of file
@@ -2,12 +2,16 @@ package colectivo.interfaz;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import colectivo.eventos.TareaAsincronaEvento;
+import colectivo.metricas.HistogramaLatencia;
+import colectivo.metricas.RegistroMetricas;
 import javafx.application.Platform;
 import java.util.concurrent.CompletableFuture;
 
@@ -25,6 +29,18 @@ public class AsyncService {
 	/** Logger instance for logging events, errors and exceptions. */
 	private static final Logger LOGGER = LogManager.getLogger(AsyncService.class);
 
+	/** Time tasks wait for a thread, published as "asincrono.espera". */
+	private static final HistogramaLatencia ESPERA = RegistroMetricas.histograma("asincrono.espera");
+
+	/** Run time of the tasks, published as "asincrono.ejecucion". */
+	private static final HistogramaLatencia EJECUCION = RegistroMetricas.histograma("asincrono.ejecucion");
+
+	/** Tasks submitted that have not started yet. */
+	private final AtomicInteger enCola = new AtomicInteger();
+
+	/** Tasks running. */
+	private final AtomicInteger activas = new AtomicInteger();
+
 	/**
 	 * A thread pool that executes tasks asynchronously. Using
 	 * {@code newCachedThreadPool} dynamically creates new threads as needed and
@@ -36,9 +52,19 @@ public class AsyncService {
 		return thread;
 	});
 
+	/**
+	 * Constructor that publishes the queue depth and the running tasks of the
+	 * service as the "asincrono.enCola" and "asincrono.activas" gauges.
+	 */
+	public AsyncService() {
+		RegistroMetricas.medidor("asincrono.enCola", enCola::get);
+		RegistroMetricas.medidor("asincrono.activas", activas::get);
+	}
+
 	/**
 	 * Executes a task asynchronously and handles the result on the JavaFX UI
-	 * thread.
+	 * thread. The run of the task and the time it waited for a thread are
+	 * recorded as a {@code TareaAsincronaEvento}.
 	 * 
 	 * @param tarea   The background task to execute, a {@code Supplier} that
 	 *                returns a result of type T.
@@ -50,7 +76,9 @@ public class AsyncService {
 	 */
 	public <T> void ejecutarAsync(Supplier<T> tarea, Consumer<T> onExito, Consumer<Exception> onError) {
 
-		CompletableFuture.supplyAsync(tarea, executor).whenComplete((resultado, error) -> {
+		long encolada = System.nanoTime();
+		enCola.incrementAndGet();
+		CompletableFuture.supplyAsync(() -> ejecutarRegistrando(tarea, encolada), executor).whenComplete((resultado, error) -> {
 			Platform.runLater(() -> {
 				if (error != null) {
 					LOGGER.error("Error en tarea asíncrona: {}", error.getCause().getMessage(), error.getCause());
@@ -62,6 +90,34 @@ public class AsyncService {
 		});
 	}
 
+	/**
+	 * Runs a task on the current thread, recording it as a
+	 * {@code TareaAsincronaEvento} and in the metrics of the service.
+	 * 
+	 * @param tarea    The task.
+	 * @param encolada The {@code System.nanoTime} at which it was submitted.
+	 * @return The result of the task.
+	 */
+	private <T> T ejecutarRegistrando(Supplier<T> tarea, long encolada) {
+		TareaAsincronaEvento evento = new TareaAsincronaEvento();
+		evento.begin();
+		long inicio = System.nanoTime();
+		long espera = inicio - encolada;
+		enCola.decrementAndGet();
+		activas.incrementAndGet();
+		ESPERA.registrar(espera);
+		boolean exitosa = false;
+		try {
+			T resultado = tarea.get();
+			exitosa = true;
+			return resultado;
+		} finally {
+			activas.decrementAndGet();
+			EJECUCION.registrar(System.nanoTime() - inicio);
+			evento.terminar(espera, exitosa);
+		}
+	}
+
 	/**
 	 * Initiates an orderly shutdown of the thread pool. Attempts to stop all
 	 * actively executing tasks and halts the processing of waiting tasks.
@@ -11,8 +11,11 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import colectivo.controlador.Coordinador;
+import colectivo.eventos.ScriptMapaEvento;
 import colectivo.logica.Recorrido;
+import colectivo.metricas.CronologiaArranque;
 import colectivo.modelo.Parada;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
@@ -194,8 +197,12 @@ public class ControladorInterfaz {
 
 		menuIdioma.getItems().setAll(itemEs, itemEn, itemPt, itemFr);
 
-		// Map (WebView setup)
+		// Map (WebView setup); the startup ends when the map page is loaded
 		this.webEngine = webViewMapa.getEngine();
+		webEngine.getLoadWorker().stateProperty().addListener((obs, anterior, estado) -> {
+			if (estado == Worker.State.SUCCEEDED || estado == Worker.State.FAILED)
+				CronologiaArranque.getInstancia().finalizar("mapa.html " + estado);
+		});
 		String mapaHtmlUrl = getClass().getResource("mapa.html").toExternalForm();
 		webEngine.load(mapaHtmlUrl);
 
@@ -293,7 +300,7 @@ public class ControladorInterfaz {
 		accordionResultados.getPanes().clear();
 
 		if (webEngine != null) {
-			webEngine.executeScript("limpiarRecorrido()");
+			ejecutarScript("limpiarRecorrido()");
 		}
 	}
 
@@ -306,7 +313,7 @@ public class ControladorInterfaz {
 		accordionResultados.getPanes().clear();
 
 		if (webEngine != null)
-			webEngine.executeScript("limpiarRecorrido()");
+			ejecutarScript("limpiarRecorrido()");
 
 		if (listaRecorridos == null || listaRecorridos.isEmpty()) {
 			LOGGER.info("No se encontraron resultados disponibles.");
@@ -349,7 +356,20 @@ public class ControladorInterfaz {
 		String jsonRuta = utilidad.generarJsonRuta(opcion);
 
 		String jsDraw = String.format("dibujarRecorridoSegmentado(%s);", jsonRuta);
-		webEngine.executeScript(jsDraw);
+		ejecutarScript(jsDraw);
+	}
+
+	/**
+	 * Runs a JavaScript call on the map, recording it as a
+	 * {@code ScriptMapaEvento}.
+	 * 
+	 * @param script The script to run.
+	 */
+	private void ejecutarScript(String script) {
+		ScriptMapaEvento evento = new ScriptMapaEvento();
+		evento.begin();
+		webEngine.executeScript(script);
+		evento.terminar(script);
 	}
 
 	/**
@@ -380,7 +400,7 @@ public class ControladorInterfaz {
 			String jsCall = String.format(Locale.ROOT, "marcarParada(%f, %f, '%s', '%s');", parada.getLatitud(),
 					parada.getLongitud(), parada.getDireccion(), tipo);
 
-			webEngine.executeScript(jsCall);
+			ejecutarScript(jsCall);
 		}
 	}
 
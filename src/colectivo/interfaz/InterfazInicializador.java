@@ -5,6 +5,7 @@ import java.util.Locale;
 import java.util.ResourceBundle;
 
 import colectivo.controlador.Coordinador;
+import colectivo.metricas.CronologiaArranque;
 import colectivo.modelo.Parada;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -47,6 +48,7 @@ public class InterfazInicializador extends Application {
 	 */
 	public static void lanzar(Coordinador coord) {
 		coordinador = coord;
+		CronologiaArranque.getInstancia().marcar("javafx.lanzar");
 		launch();
 	}
 
@@ -77,11 +79,14 @@ public class InterfazInicializador extends Application {
 	}
 
 	/**
-	 * Core method for loading the FXML file and initializing the view.
+	 * Core method for loading the FXML file and initializing the view. The FXML
+	 * load, the controller initialization and the first display of the window
+	 * are recorded in the startup timeline.
 	 * 
 	 * @throws Exception If FXML loading or dependency injection fails.
 	 */
 	public void cargarInterfaz() throws Exception {
+		CronologiaArranque cronologia = CronologiaArranque.getInstancia();
 		try {
 			Locale locale = Coordinador.getLocaleActual();
 			ResourceBundle resources = ResourceBundle.getBundle("colectivo.interfaz.messages", locale);
@@ -89,7 +94,13 @@ public class InterfazInicializador extends Application {
 			FXMLLoader loader = new FXMLLoader(getClass().getResource("/colectivo/interfaz/ControladorInterfaz.fxml"),
 					resources);
 			List<Parada> paradasDisponibles = coordinador.getParadas();
-			Parent root = loader.load();
+			Parent root;
+			CronologiaArranque.Fase faseFxml = cronologia.iniciar("fxml");
+			try {
+				root = loader.load();
+			} finally {
+				faseFxml.close();
+			}
 
 			Scene scene = primaryStage.getScene();
 			if (scene == null) {
@@ -102,10 +113,13 @@ public class InterfazInicializador extends Application {
 			scene.getStylesheets().add(getClass().getResource("/colectivo/interfaz/estilos.css").toExternalForm());
 
 			ControladorInterfaz controller = loader.getController();
-			controller.init(coordinador, paradasDisponibles, resources, primaryStage);
+			cronologia.ejecutar("controlador.init",
+					() -> controller.init(coordinador, paradasDisponibles, resources, primaryStage));
 
-			primaryStage.setMaximized(true);
-			primaryStage.show();
+			cronologia.ejecutar("ventana", () -> {
+				primaryStage.setMaximized(true);
+				primaryStage.show();
+			});
 
 		} catch (Exception e) {
 			LOGGER.error("No se pudo cargar el FXML de la interfaz. La aplicación no es funcional.", e);
@@ -121,6 +135,7 @@ public class InterfazInicializador extends Application {
 	 */
 	@Override
 	public void start(Stage stage) throws Exception {
+		CronologiaArranque.getInstancia().marcar("javafx.start");
 		this.primaryStage = stage;
 		coordinador.setInterfazInicializador(this);
 		cargarInterfaz();
@@ -129,11 +144,14 @@ public class InterfazInicializador extends Application {
 
 	/**
 	 * Called automatically by JavaFX when the main window is closed. Used to
-	 * perform final cleanup tasks before the application exits.
+	 * perform final cleanup tasks before the application exits. The startup
+	 * timeline is logged here.
 	 */
 	@Override
 	public void stop() throws Exception {
 		LOGGER.info("Aplicación cerrándose. Apagando servicios...");
+		LOGGER.info("Cronología de arranque:{}{}", System.lineSeparator(),
+				CronologiaArranque.getInstancia().getInforme());
 		super.stop();
 	}
 }
\ No newline at end of file
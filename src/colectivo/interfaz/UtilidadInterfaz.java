@@ -10,6 +10,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import colectivo.logica.Recorrido;
+import colectivo.modelo.HoraServicio;
 import colectivo.modelo.Parada;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
@@ -131,12 +132,12 @@ public class UtilidadInterfaz {
 			jsonBuilder.append("\"tipo\":\"").append(tipo).append("\",");
 
 			jsonBuilder.append("\"paradas\":[");
-			List<Parada> paradasSegmento = r.getParadas();
-			for (int j = 0; j < paradasSegmento.size(); j++) {
-				Parada p = paradasSegmento.get(j);
+			int cantidadParadas = r.getCantidadParadas();
+			for (int j = 0; j < cantidadParadas; j++) {
+				Parada p = r.getParada(j);
 				jsonBuilder.append(
 						String.format(Locale.ROOT, "{\"lat\":%f, \"lon\":%f}", p.getLatitud(), p.getLongitud()));
-				if (j < paradasSegmento.size() - 1)
+				if (j < cantidadParadas - 1)
 					jsonBuilder.append(",");
 			}
 			jsonBuilder.append("]");
@@ -183,15 +184,14 @@ public class UtilidadInterfaz {
 			} else {
 				sbContenido.append(resources.getString("tramoCaminando")).append("\n");
 			}
-			var ps = r.getParadas();
-			if (!ps.isEmpty()) {
+			if (r.getCantidadParadas() > 0) {
 				sbContenido.append("     ").append(resources.getString("desde")).append(" ")
-						.append(ps.get(0).getDireccion()).append("\n");
+						.append(r.getParadaInicio().getDireccion()).append("\n");
 				sbContenido.append("     ").append(resources.getString("hasta")).append(" ")
-						.append(ps.get(ps.size() - 1).getDireccion()).append("\n");
+						.append(r.getParadaFin().getDireccion()).append("\n");
 			}
-			sbContenido.append("     ").append(resources.getObject("sale")).append("  ").append(r.getHoraSalida())
-					.append("\n");
+			sbContenido.append("     ").append(resources.getObject("sale")).append("  ")
+					.append(HoraServicio.formatear(r.getSalida())).append("\n");
 			int totalSeg = r.getDuracion();
 			int min = totalSeg / 60;
 			int seg = totalSeg % 60;
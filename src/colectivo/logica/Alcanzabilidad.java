@@ -0,0 +1,306 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Tramo;
+
+/**
+ * Per-day reachability summaries of a {@code RedTransporte}, used to reject
+ * queries that cannot have an answer before running any strategy.
+ * 
+ * For every day and every line, the summary holds a bitset over stops with the
+ * stops reachable after boarding that line with at most 0, 1 or 2 transfers.
+ * A transfer is a change between lines at a shared stop or through one walking
+ * segment, and at most one walking segment is used in the whole journey. Only
+ * the lines running on the day are considered, but the time of day and the
+ * order of the stops on each line are ignored, so the summaries over-estimate
+ * what can be reached: a stop missing from them is never reachable, while a
+ * stop present in them may still have no route.
+ * 
+ * Besides the lines with service on the day, the lines of the previous day
+ * whose last trip runs past midnight are considered, and the lines of the next
+ * day when some trip of the day can reach midnight. Days with the same set of
+ * lines share one table.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class Alcanzabilidad {
+
+	/** Maximum number of transfers summarized. */
+	public static final int MAX_TRANSBORDOS = 2;
+
+	/** The network summarized. */
+	private final RedTransporte red;
+
+	/** Number of lines of the network. */
+	private final int cantidadLineas;
+
+	/** Number of {@code long} words of a bitset over stops. */
+	private final int palabrasParadas;
+
+	/** Number of {@code long} words of a bitset over lines. */
+	private final int palabrasLineas;
+
+	/** Stops of each line, as consecutive bitsets over stops. */
+	private final long[] paradasPorLinea;
+
+	/** Lines sharing a stop with each line, as bitsets over lines. */
+	private final long[][] compartidas;
+
+	/** Lines reachable from each line through one walking segment. */
+	private final long[][] caminables;
+
+	/**
+	 * Reachable stops of each table, indexed by
+	 * {@code ((transbordos * cantidadLineas) + linea) * palabrasParadas}.
+	 */
+	private final long[][] tablas;
+
+	/** Table used by each day of the week (1 to 7 at index 0 to 6). */
+	private final int[] tablaPorDia = new int[HoraServicio.DIAS_SEMANA];
+
+	/**
+	 * Constructor that builds the summaries of a network. The lines of each table
+	 * are processed in parallel.
+	 * 
+	 * @param red The network, with its lines, stops and walking segments already
+	 *            indexed.
+	 */
+	Alcanzabilidad(RedTransporte red) {
+		this.red = red;
+		this.cantidadLineas = red.getCantidadLineas();
+		this.palabrasParadas = (red.getCantidadParadas() + 63) >>> 6;
+		this.palabrasLineas = (cantidadLineas + 63) >>> 6;
+
+		this.paradasPorLinea = new long[cantidadLineas * palabrasParadas];
+		for (int l = 0; l < cantidadLineas; l++) {
+			for (int p : red.paradasDeLinea(l))
+				marcar(paradasPorLinea, l * palabrasParadas, p);
+		}
+
+		this.compartidas = new long[cantidadLineas][palabrasLineas];
+		this.caminables = new long[cantidadLineas][palabrasLineas];
+		int caminataMaxima = 0;
+		for (int p = 0; p < red.getCantidadParadas(); p++) {
+			int[] lineasAqui = red.lineasDeParada(p);
+			for (int a : lineasAqui) {
+				for (int b : lineasAqui) {
+					if (a != b)
+						marcar(compartidas[a], 0, b);
+				}
+			}
+
+			Tramo[] caminatas = red.caminatasDesde(p);
+			if (caminatas == null)
+				continue;
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int k = 0; k < caminatas.length; k++) {
+				caminataMaxima = Math.max(caminataMaxima, caminatas[k].getTiempo());
+				for (int a : lineasAqui) {
+					for (int c : red.lineasDeParada(destinos[k]))
+						marcar(caminables[a], 0, c);
+				}
+			}
+		}
+
+		List<long[]> activasPorTabla = new ArrayList<>();
+		for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+			long[] activas = lineasActivas(dia, caminataMaxima);
+			int tabla = 0;
+			while (tabla < activasPorTabla.size() && !Arrays.equals(activasPorTabla.get(tabla), activas))
+				tabla++;
+			if (tabla == activasPorTabla.size())
+				activasPorTabla.add(activas);
+			tablaPorDia[dia - 1] = tabla;
+		}
+
+		this.tablas = new long[activasPorTabla.size()][];
+		for (int t = 0; t < tablas.length; t++) {
+			long[] activas = activasPorTabla.get(t);
+			long[] tabla = new long[(MAX_TRANSBORDOS + 1) * cantidadLineas * palabrasParadas];
+			IntStream.range(0, cantidadLineas).parallel().forEach(l -> completarLinea(tabla, activas, l));
+			tablas[t] = tabla;
+		}
+	}
+
+	/**
+	 * Returns the lines that may be used on a day, ignoring the time of day.
+	 * 
+	 * @param diaSemana      The day of the week (1 to 7).
+	 * @param caminataMaxima The longest walking segment, in seconds.
+	 * @return The lines as a bitset over line indexes.
+	 */
+	private long[] lineasActivas(int diaSemana, int caminataMaxima) {
+		int anterior = HoraServicio.desplazarDia(diaSemana, -1);
+		int siguiente = HoraServicio.desplazarDia(diaSemana, 1);
+		long[] activas = new long[palabrasLineas];
+		boolean llegaAMedianoche = false;
+
+		for (int l = 0; l < cantidadLineas; l++) {
+			int duracion = red.tiempoEntre(l, 0, Math.max(0, red.paradasDeLinea(l).length - 1));
+			int ultima = red.ultimaSalida(l, diaSemana);
+			if (ultima >= 0) {
+				marcar(activas, 0, l);
+				if (ultima + duracion + caminataMaxima >= HoraServicio.SEGUNDOS_DIA)
+					llegaAMedianoche = true;
+			}
+			int ultimaAnterior = red.ultimaSalida(l, anterior);
+			if (ultimaAnterior >= 0 && ultimaAnterior + duracion >= HoraServicio.SEGUNDOS_DIA)
+				marcar(activas, 0, l);
+		}
+
+		if (llegaAMedianoche) {
+			for (int l = 0; l < cantidadLineas; l++) {
+				if (red.ultimaSalida(l, siguiente) >= 0)
+					marcar(activas, 0, l);
+			}
+		}
+		return activas;
+	}
+
+	/**
+	 * Fills the reachable stops of one starting line, for every number of
+	 * transfers, with a breadth-first expansion over the lines. Lines reached
+	 * without walking and lines reached after the walking segment are tracked
+	 * separately, since only the former may still walk.
+	 * 
+	 * @param tabla   The table to fill.
+	 * @param activas The lines that may be used after the first one.
+	 * @param l       The starting line index.
+	 */
+	private void completarLinea(long[] tabla, long[] activas, int l) {
+		long[] sinCaminar = new long[palabrasLineas];
+		long[] caminando = new long[palabrasLineas];
+		marcar(sinCaminar, 0, l);
+
+		for (int transbordos = 0; transbordos <= MAX_TRANSBORDOS; transbordos++) {
+			if (transbordos > 0) {
+				long[] nuevasSinCaminar = sinCaminar.clone();
+				long[] nuevasCaminando = caminando.clone();
+				for (int b = 0; b < cantidadLineas; b++) {
+					if (estaMarcado(sinCaminar, 0, b)) {
+						agregar(nuevasSinCaminar, compartidas[b], activas);
+						agregar(nuevasCaminando, caminables[b], activas);
+					}
+					if (estaMarcado(caminando, 0, b))
+						agregar(nuevasCaminando, compartidas[b], activas);
+				}
+				sinCaminar = nuevasSinCaminar;
+				caminando = nuevasCaminando;
+			}
+
+			int base = (transbordos * cantidadLineas + l) * palabrasParadas;
+			for (int b = 0; b < cantidadLineas; b++) {
+				if (estaMarcado(sinCaminar, 0, b) || estaMarcado(caminando, 0, b)) {
+					for (int w = 0; w < palabrasParadas; w++)
+						tabla[base + w] |= paradasPorLinea[b * palabrasParadas + w];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a destination may be reached from an origin on a day, with
+	 * at most {@code MAX_TRANSBORDOS} transfers.
+	 * 
+	 * @param origen     The origin stop index.
+	 * @param destino    The destination stop index.
+	 * @param diaSemana  The day of the week (1 to 7).
+	 * @param horaMinima The time of arrival at the origin stop, in service-day
+	 *                   seconds.
+	 * @return false if the destination cannot be reached.
+	 * @see #esAlcanzable(int, int, int, int, int)
+	 */
+	public boolean esAlcanzable(int origen, int destino, int diaSemana, int horaMinima) {
+		return esAlcanzable(origen, destino, diaSemana, horaMinima, MAX_TRANSBORDOS);
+	}
+
+	/**
+	 * Checks whether a destination may be reached from an origin on a day. The
+	 * origin must be served by a line whose last departure of the day (or a trip
+	 * of the previous day running past midnight) still passes through it at or
+	 * after {@code horaMinima}, and the destination must be in the summary of one
+	 * of those lines. A false result means that no route exists; a true result
+	 * does not guarantee one.
+	 * 
+	 * @param origen      The origin stop index.
+	 * @param destino     The destination stop index.
+	 * @param diaSemana   The day of the week (1 to 7).
+	 * @param horaMinima  The time of arrival at the origin stop, in seconds since
+	 *                    the start of the service day. Times outside the first
+	 *                    24 hours are not checked.
+	 * @param transbordos The maximum number of transfers, from 0 to
+	 *                    {@code MAX_TRANSBORDOS}.
+	 * @return false if the destination cannot be reached.
+	 */
+	public boolean esAlcanzable(int origen, int destino, int diaSemana, int horaMinima, int transbordos) {
+		if (horaMinima < 0 || horaMinima >= HoraServicio.SEGUNDOS_DIA)
+			return true;
+
+		long[] tabla = tablas[tablaPorDia[diaSemana - 1]];
+		int anterior = HoraServicio.desplazarDia(diaSemana, -1);
+		int[] lineasOrigen = red.lineasDeParada(origen);
+		int[] posiciones = red.posicionesDeParada(origen);
+
+		for (int k = 0; k < lineasOrigen.length; k++) {
+			int l = lineasOrigen[k];
+			int tiempoHastaOrigen = red.tiempoEntre(l, 0, posiciones[k]);
+			int ultima = red.ultimaSalida(l, diaSemana);
+			int ultimaAnterior = red.ultimaSalida(l, anterior);
+
+			boolean pasaHoy = ultima >= 0 && ultima + tiempoHastaOrigen >= horaMinima;
+			boolean pasaDesdeAyer = ultimaAnterior >= 0
+					&& ultimaAnterior + tiempoHastaOrigen >= horaMinima + HoraServicio.SEGUNDOS_DIA;
+			if ((pasaHoy || pasaDesdeAyer)
+					&& estaMarcado(tabla, (transbordos * cantidadLineas + l) * palabrasParadas, destino))
+				return true;
+		}
+		return false;
+	}
+
+	/** @return The number of distinct tables (days with the same lines share one). */
+	public int getCantidadTablas() {
+		return tablas.length;
+	}
+
+	/**
+	 * Adds to a bitset over lines the active lines of another one.
+	 * 
+	 * @param destino The bitset to update.
+	 * @param lineas  The lines to add.
+	 * @param activas The lines that may be added.
+	 */
+	private static void agregar(long[] destino, long[] lineas, long[] activas) {
+		for (int w = 0; w < destino.length; w++)
+			destino[w] |= lineas[w] & activas[w];
+	}
+
+	/**
+	 * Sets a bit of a bitset stored in a {@code long} array.
+	 * 
+	 * @param bits   The array.
+	 * @param base   The first word of the bitset.
+	 * @param indice The bit to set.
+	 */
+	private static void marcar(long[] bits, int base, int indice) {
+		bits[base + (indice >>> 6)] |= 1L << indice;
+	}
+
+	/**
+	 * Checks a bit of a bitset stored in a {@code long} array.
+	 * 
+	 * @param bits   The array.
+	 * @param base   The first word of the bitset.
+	 * @param indice The bit to check.
+	 * @return true if the bit is set.
+	 */
+	private static boolean estaMarcado(long[] bits, int base, int indice) {
+		return (bits[base + (indice >>> 6)] & (1L << indice)) != 0;
+	}
+}
\ No newline at end of file
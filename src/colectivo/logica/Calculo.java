@@ -2,7 +2,6 @@ package colectivo.logica;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -10,7 +9,16 @@ import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import colectivo.eventos.ConsultaEvento;
+import colectivo.eventos.EstrategiaEvento;
+import colectivo.eventos.FaseCargaEvento;
+import colectivo.metricas.HistogramaLatencia;
+import colectivo.metricas.RazonAciertos;
+import colectivo.metricas.RegistroMetricas;
+import colectivo.modelo.Ciudad;
+import colectivo.modelo.HoraServicio;
 import colectivo.modelo.Linea;
+import colectivo.modelo.MapaTramos;
 import colectivo.modelo.Parada;
 import colectivo.modelo.Tramo;
 
@@ -28,12 +36,58 @@ public class Calculo {
 	/** Logger instance for logging events, errors and exceptions. */
 	private static final Logger LOGGER = LogManager.getLogger(Calculo.class);
 
+	/**
+	 * Logger of the one-line summary of each route query, separate so it can be
+	 * turned off without silencing the rest of {@code Calculo}.
+	 */
+	private static final Logger RESUMEN = LogManager.getLogger("colectivo.consultas");
+
+	/** Sampled trace of the route queries. */
+	private static final TrazaConsultas TRAZA = TrazaConsultas.getInstancia();
+
+	/** Hit ratio of the precalculated network, published as "cache.red". */
+	private static final RazonAciertos CACHE_RED = RegistroMetricas.razonAciertos("cache.red");
+
+	/** Build time of the network, published as "carga.red". */
+	private static final HistogramaLatencia CARGA_RED = RegistroMetricas.histograma("carga.red");
+
+	/** Default maximum number of journeys returned by a single query. */
+	public static final int MAX_RESULTADOS_POR_DEFECTO = 10;
+
+	/** Maximum number of journeys returned by a single query. */
+	private final int maxResultados;
+
 	/**
 	 * A prioritized list of route calculation strategies (Direct, Transfer,
 	 * Walking).
 	 */
 	private final List<CalculoEstrategia> estrategias = new ArrayList<>();
 
+	/**
+	 * Number of transfers used to reject impossible queries with
+	 * {@code Alcanzabilidad}, or {@code CalculoEstrategia.SIN_LIMITE} if some
+	 * strategy may build journeys the summaries do not model.
+	 */
+	private final int transbordosAlcance;
+
+	/** Strategy used by "fewest changes" queries. */
+	private final CalculoEstrategia menosTransbordos;
+
+	/** Map of all available lines in the system. */
+	private final Map<String, Linea> lineasDelSistema;
+
+	/** The network precalculated from the last segment map received. */
+	private volatile RedTransporte red;
+
+	/** The last segment map received that was not already a {@code MapaTramos}. */
+	private Map<String, Tramo> fuenteTramos;
+
+	/** The {@code MapaTramos} copy of {@code fuenteTramos}. */
+	private MapaTramos mapaTramos;
+
+	/** Totals of the cost counters of the queries that collected them. */
+	private final EstadisticasAgregadas estadisticasAgregadas = new EstadisticasAgregadas();
+
 	/**
 	 * Constructor that initializes the route calculation service. It populates the
 	 * internal list of calculation strategies, injecting the system's available
@@ -45,21 +99,112 @@ public class Calculo {
 	 *                                  empty.
 	 */
 	public Calculo(Map<String, Linea> lineasDelSistema) {
+		this(lineasDelSistema, MAX_RESULTADOS_POR_DEFECTO);
+	}
+
+	/**
+	 * Constructor that initializes the route calculation service, limiting the
+	 * number of journeys returned by each query.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects in the
+	 *                         system, keyed by their code.
+	 * @param maxResultados    The maximum number of journeys returned by a query.
+	 * @throws IllegalArgumentException if the provided map of lines is null or
+	 *                                  empty, or if {@code maxResultados} is not
+	 *                                  positive.
+	 */
+	public Calculo(Map<String, Linea> lineasDelSistema, int maxResultados) {
+		this(lineasDelSistema, maxResultados, estrategiasPorDefecto(lineasDelSistema));
+	}
+
+	/**
+	 * Constructor that initializes the route calculation service with a custom
+	 * list of strategies, tried in the given order. It allows alternative engines
+	 * (e.g. {@code CalculoAEstrellaService} or {@code CalculoViajesService}) to be
+	 * used instead of, or before, the default ones.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects in the
+	 *                         system, keyed by their code.
+	 * @param maxResultados    The maximum number of journeys returned by a query.
+	 * @param estrategias      The strategies, in priority order. They must have
+	 *                         been created for the same lines.
+	 * @throws IllegalArgumentException if the provided map of lines is null or
+	 *                                  empty, if {@code maxResultados} is not
+	 *                                  positive, or if no strategy is given.
+	 */
+	public Calculo(Map<String, Linea> lineasDelSistema, int maxResultados, List<CalculoEstrategia> estrategias) {
 		if (lineasDelSistema == null || lineasDelSistema.isEmpty())
 			throw new IllegalArgumentException("El mapa de líneas del sistema no puede ser nulo o estar vacío.");
+		if (maxResultados <= 0)
+			throw new IllegalArgumentException("La cantidad máxima de resultados debe ser positiva.");
+		if (estrategias == null || estrategias.isEmpty())
+			throw new IllegalArgumentException("Debe indicarse al menos una estrategia de cálculo.");
+
+		this.maxResultados = maxResultados;
+		this.lineasDelSistema = lineasDelSistema;
 
-		LOGGER.info("Mapa de líneas actualizado con {} líneas.", lineasDelSistema);
+		LOGGER.info("Cálculo inicializado con {} líneas y {} estrategias.", lineasDelSistema.size(),
+				estrategias.size());
 
-		this.estrategias.add(new CalculoDirectoService(lineasDelSistema));
-		this.estrategias.add(new CalculoBusBusService(lineasDelSistema));
-		this.estrategias.add(new CalculoCaminandoService(lineasDelSistema));
+		this.estrategias.addAll(estrategias);
+		this.transbordosAlcance = transbordosAlcance(estrategias);
+		this.menosTransbordos = new CalculoMenosTransbordosService(lineasDelSistema);
 	}
 
 	/**
-	 * Calculates all possible routes between two stops based on a prioritized
-	 * strategy. The search order follows business priority: 1. Direct Bus, 2.
-	 * Bus-Bus Transfer, 3. Walking. The process stops immediately once the first
-	 * successful strategy finds results.
+	 * Creates the default strategies, in business priority order: direct bus,
+	 * bus-bus transfer and bus-walk-bus.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 * @return The default strategies.
+	 */
+	public static List<CalculoEstrategia> estrategiasPorDefecto(Map<String, Linea> lineasDelSistema) {
+		return List.of(new CalculoDirectoService(lineasDelSistema), new CalculoBusBusService(lineasDelSistema),
+				new CalculoCaminandoService(lineasDelSistema));
+	}
+
+	/**
+	 * Returns the number of transfers that the reachability check must allow so
+	 * that no journey of the given strategies is rejected.
+	 * 
+	 * @param estrategias The strategies.
+	 * @return The largest {@code transbordosMaximos} of the strategies, or
+	 *         {@code CalculoEstrategia.SIN_LIMITE} if some strategy is not bounded
+	 *         or exceeds {@code Alcanzabilidad.MAX_TRANSBORDOS}.
+	 */
+	private static int transbordosAlcance(List<CalculoEstrategia> estrategias) {
+		int maximo = 0;
+		for (CalculoEstrategia estrategia : estrategias) {
+			int transbordos = estrategia.transbordosMaximos();
+			if (transbordos < 0 || transbordos > Alcanzabilidad.MAX_TRANSBORDOS)
+				return CalculoEstrategia.SIN_LIMITE;
+			maximo = Math.max(maximo, transbordos);
+		}
+		return maximo;
+	}
+
+	/**
+	 * Constructor that initializes the route calculation service for a loaded
+	 * city. The part of the transportation network read by the default
+	 * strategies (the stop and line indexes, the direct-connection index and the
+	 * reachability summaries) is precalculated here, at load time, instead of on
+	 * the first query. The structures of the other engines are built by their
+	 * first query.
+	 * 
+	 * @param ciudad        The city whose lines and segments are searched.
+	 * @param maxResultados The maximum number of journeys returned by a query.
+	 * @throws IllegalArgumentException if the city has no lines, or if
+	 *                                  {@code maxResultados} is not positive.
+	 */
+	public Calculo(Ciudad ciudad, int maxResultados) {
+		this(ciudad.getLineas(), maxResultados);
+		obtenerRed(ciudad.getMapaTramos());
+	}
+
+	/**
+	 * Calculates the best routes between two stops based on a prioritized
+	 * strategy. This is the entry point used by the user interface; the time is
+	 * converted once to the service-day seconds used by the routing layer.
 	 * 
 	 * @param paradaOrigen    The starting bus stop.
 	 * @param paradaDestino   The destination bus stop.
@@ -72,30 +217,292 @@ public class Calculo {
 	 * @return A list of lists, where each inner list represents a complete route
 	 *         composed of {@code Recorrido} segments. Returns an empty list if no
 	 *         route is found.
+	 * @see #calcularRecorrido(Parada, Parada, int, int, Map)
 	 */
 	public List<List<Recorrido>> calcularRecorrido(Parada paradaOrigen, Parada paradaDestino, int diaSemana,
 			LocalTime horaLlegaParada, Map<String, Tramo> tramos) {
+		return calcularRecorrido(paradaOrigen, paradaDestino, diaSemana, HoraServicio.desde(horaLlegaParada), tramos,
+				null);
+	}
+
+	/**
+	 * Calculates the best routes between two stops, filling in the cost counters
+	 * of the query. The counters are also added to the totals returned by
+	 * {@code getEstadisticasAgregadas}.
+	 * 
+	 * @param paradaOrigen    The starting bus stop.
+	 * @param paradaDestino   The destination bus stop.
+	 * @param diaSemana       The day of the week (integer code) for scheduling
+	 *                        lookup.
+	 * @param horaLlegaParada The time of arrival at the origin stop.
+	 * @param tramos          A map of all available {@code Tramo} objects, keyed by
+	 *                        their composite code.
+	 * @param estadisticas    A new {@code EstadisticasConsulta} to fill in, or
+	 *                        null to skip the counting.
+	 * @return The journeys found, as in
+	 *         {@link #calcularRecorrido(Parada, Parada, int, LocalTime, Map)}.
+	 */
+	public List<List<Recorrido>> calcularRecorrido(Parada paradaOrigen, Parada paradaDestino, int diaSemana,
+			LocalTime horaLlegaParada, Map<String, Tramo> tramos, EstadisticasConsulta estadisticas) {
+		return calcularRecorrido(paradaOrigen, paradaDestino, diaSemana, HoraServicio.desde(horaLlegaParada), tramos,
+				estadisticas);
+	}
+
+	/**
+	 * Calculates the best routes between two stops based on a prioritized
+	 * strategy. The search order follows business priority: 1. Direct Bus, 2.
+	 * Bus-Bus Transfer, 3. Walking. The process stops immediately once the first
+	 * successful strategy finds results. Only the {@code maxResultados} journeys
+	 * with the earliest arrival are kept.
+	 * 
+	 * @param paradaOrigen  The starting bus stop.
+	 * @param paradaDestino The destination bus stop.
+	 * @param diaSemana     The day of the week (integer code) for scheduling
+	 *                      lookup.
+	 * @param horaMinima    The time of arrival at the origin stop, in seconds since
+	 *                      the start of the service day of {@code diaSemana}.
+	 * @param tramos        A map of all available {@code Tramo} objects, keyed by
+	 *                      their composite code.
+	 * @return A list of lists, where each inner list represents a complete route
+	 *         composed of {@code Recorrido} segments, whose times use the same
+	 *         service-day reference and may go past 24:00. Returns an empty list if
+	 *         no route is found.
+	 */
+	public List<List<Recorrido>> calcularRecorrido(Parada paradaOrigen, Parada paradaDestino, int diaSemana,
+			int horaMinima, Map<String, Tramo> tramos) {
+		return calcularRecorrido(paradaOrigen, paradaDestino, diaSemana, horaMinima, tramos, null);
+	}
+
+	/**
+	 * Calculates the best routes between two stops, filling in the cost counters
+	 * of the query when {@code estadisticas} is given: the strategies run and
+	 * their wall time, the work done by the strategies that count it, and the
+	 * bytes the thread allocated during the query. The counters are then added to
+	 * the totals returned by {@code getEstadisticasAgregadas}.
+	 * 
+	 * @param paradaOrigen  The starting bus stop.
+	 * @param paradaDestino The destination bus stop.
+	 * @param diaSemana     The day of the week (integer code) for scheduling
+	 *                      lookup.
+	 * @param horaMinima    The time of arrival at the origin stop, in seconds since
+	 *                      the start of the service day of {@code diaSemana}.
+	 * @param tramos        A map of all available {@code Tramo} objects, keyed by
+	 *                      their composite code.
+	 * @param estadisticas  A new {@code EstadisticasConsulta} to fill in, or null
+	 *                      to skip the counting.
+	 * @return The journeys found, as in
+	 *         {@link #calcularRecorrido(Parada, Parada, int, int, Map)}.
+	 */
+	public List<List<Recorrido>> calcularRecorrido(Parada paradaOrigen, Parada paradaDestino, int diaSemana,
+			int horaMinima, Map<String, Tramo> tramos, EstadisticasConsulta estadisticas) {
+		ConsultaEvento evento = new ConsultaEvento();
+		evento.begin();
+		long inicio = System.nanoTime();
+		boolean trazada = TRAZA.muestrear();
+		if (estadisticas == null && trazada)
+			estadisticas = new EstadisticasConsulta();
+		long bytesInicio = estadisticas != null ? EspacioConsulta.bytesAsignadosHiloActual() : -1;
+
+		ResultadosAcotados resultados = new ResultadosAcotados(maxResultados);
+		resultados.setEstadisticas(estadisticas);
+		RedTransporte red = obtenerRed(convertirTramos(tramos));
+
+		boolean descartada = transbordosAlcance != CalculoEstrategia.SIN_LIMITE
+				&& !esPosible(red, paradaOrigen, paradaDestino, diaSemana, horaMinima, transbordosAlcance);
+		CalculoEstrategia exitosa = descartada ? null
+				: ejecutarEstrategias(paradaOrigen, paradaDestino, diaSemana, horaMinima, red, resultados);
+
 		List<List<Recorrido>> todosLosResultados = new ArrayList<>();
+		String nombreExitosa = null;
+		if (exitosa != null) {
+			nombreExitosa = exitosa.getClass().getSimpleName();
+			todosLosResultados = resultados.ordenadosPorLlegada();
+			if (exitosa instanceof CalculoDirectoService) {
+				todosLosResultados.sort(Comparator.comparing(viaje -> viaje.get(0).getLinea().getCodigo()));
+			}
+		}
+		long nanos = System.nanoTime() - inicio;
 
+		if (estadisticas != null) {
+			if (descartada)
+				estadisticas.descartarPorAlcance();
+			long bytes = bytesInicio < 0 ? -1 : EspacioConsulta.bytesAsignadosHiloActual() - bytesInicio;
+			estadisticas.finalizar(nombreExitosa, nanos, bytes, resultados);
+			estadisticasAgregadas.registrar(estadisticas);
+			if (trazada)
+				TRAZA.registrar(paradaOrigen.getCodigo(), paradaDestino.getCodigo(), diaSemana, horaMinima,
+						todosLosResultados.size(), estadisticas);
+		}
+		evento.terminar(paradaOrigen.getCodigo(), paradaDestino.getCodigo(), diaSemana, horaMinima, nombreExitosa,
+				todosLosResultados.size(), descartada);
+		if (RESUMEN.isInfoEnabled()) {
+			RESUMEN.info("Consulta {} -> {} día {} {}: {} resultados ({}) en {} µs.", paradaOrigen.getCodigo(),
+					paradaDestino.getCodigo(), diaSemana, HoraServicio.formatear(horaMinima),
+					todosLosResultados.size(),
+					descartada ? "descartada por alcance" : nombreExitosa == null ? "sin resultados" : nombreExitosa,
+					nanos / 1000);
+		}
+		return todosLosResultados;
+	}
+
+	/**
+	 * Runs the strategies in priority order until one of them finds a journey.
+	 * 
+	 * @param paradaOrigen  The starting bus stop.
+	 * @param paradaDestino The destination bus stop.
+	 * @param diaSemana     The day of the week.
+	 * @param horaMinima    The time of arrival at the origin stop, in service-day
+	 *                      seconds.
+	 * @param red           The precalculated network.
+	 * @param resultados    The results collector of the query, with its cost
+	 *                      counters if they are collected.
+	 * @return The strategy that found journeys, or null if none did.
+	 */
+	private CalculoEstrategia ejecutarEstrategias(Parada paradaOrigen, Parada paradaDestino, int diaSemana,
+			int horaMinima, RedTransporte red, ResultadosAcotados resultados) {
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
 		for (CalculoEstrategia estrategia : estrategias) {
-			boolean encontrado = estrategia.buscar(paradaOrigen, paradaDestino, diaSemana, horaLlegaParada, tramos,
-					todosLosResultados);
+			long inicio = estadisticas == null ? 0 : System.nanoTime();
+			EstrategiaEvento evento = new EstrategiaEvento();
+			evento.begin();
+			boolean encontrado = estrategia.buscar(paradaOrigen, paradaDestino, diaSemana, horaMinima, red,
+					resultados);
+			evento.terminar(estrategia.getClass().getSimpleName(), encontrado, resultados.size());
+			if (estadisticas != null)
+				estadisticas.registrarEstrategia(estrategia.getClass().getSimpleName(), System.nanoTime() - inicio);
+
+			if (encontrado)
+				return estrategia;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the segment map as a {@code MapaTramos}. The maps loaded by the DAOs
+	 * already are one; any other map is copied once and the copy is reused while
+	 * the same map keeps being received.
+	 * 
+	 * @param tramos The segment map received.
+	 * @return The segments keyed by the packed codes of their stops.
+	 */
+	private MapaTramos convertirTramos(Map<String, Tramo> tramos) {
+		if (tramos instanceof MapaTramos)
+			return (MapaTramos) tramos;
+
+		synchronized (this) {
+			if (fuenteTramos != tramos) {
+				mapaTramos = MapaTramos.de(tramos);
+				fuenteTramos = tramos;
+			}
+			return mapaTramos;
+		}
+	}
 
-			if (encontrado) {
-				LOGGER.info("Cálculo finalizado. Estrategia '{}' encontró {} resultados.",
-						estrategia.getClass().getSimpleName(), todosLosResultados.size());
+	/**
+	 * Calculates the routes between two stops that need the fewest changes of
+	 * bus, with up to {@code CalculoMenosTransbordosService.MAX_TRAMOS} bus
+	 * segments. Unlike {@code calcularRecorrido}, journeys with more than one
+	 * transfer are found. Only the {@code maxResultados} journeys with the
+	 * earliest arrival are kept.
+	 * 
+	 * @param paradaOrigen    The starting bus stop.
+	 * @param paradaDestino   The destination bus stop.
+	 * @param diaSemana       The day of the week (integer code) for scheduling
+	 *                        lookup.
+	 * @param horaLlegaParada The time of arrival at the origin stop.
+	 * @param tramos          A map of all available {@code Tramo} objects, keyed by
+	 *                        their composite code.
+	 * @return The journeys with the fewest transfers, sorted by arrival. Returns
+	 *         an empty list if no route is found.
+	 */
+	public List<List<Recorrido>> calcularRecorridoMenosTransbordos(Parada paradaOrigen, Parada paradaDestino,
+			int diaSemana, LocalTime horaLlegaParada, Map<String, Tramo> tramos) {
+		ResultadosAcotados resultados = new ResultadosAcotados(maxResultados);
+		RedTransporte red = obtenerRed(convertirTramos(tramos));
+
+		if (menosTransbordos.buscar(paradaOrigen, paradaDestino, diaSemana, HoraServicio.desde(horaLlegaParada), red,
+				resultados)) {
+			LOGGER.debug("Cálculo con menos transbordos finalizado con {} resultados.", resultados.size());
+			return resultados.ordenadosPorLlegada();
+		}
+		return new ArrayList<>();
+	}
 
-				if (estrategia instanceof CalculoDirectoService) {
-					Collections.sort(todosLosResultados,
-							Comparator.comparing(viaje -> viaje.get(0).getLinea().getCodigo()));
-				} else {
+	/**
+	 * Checks the reachability summaries of the network before running the
+	 * strategies. Queries rejected here cannot be answered by any strategy, e.g.
+	 * because no line serving the origin runs later that day, or because the
+	 * destination needs more transfers than the strategies make.
+	 * 
+	 * @param red           The precalculated network.
+	 * @param paradaOrigen  The starting bus stop.
+	 * @param paradaDestino The destination bus stop.
+	 * @param diaSemana     The day of the week.
+	 * @param horaMinima    The time of arrival at the origin stop, in service-day
+	 *                      seconds.
+	 * @param transbordos   The maximum number of transfers of the strategies.
+	 * @return false if the query has no possible route.
+	 */
+	private static boolean esPosible(RedTransporte red, Parada paradaOrigen, Parada paradaDestino, int diaSemana,
+			int horaMinima, int transbordos) {
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		return origen >= 0 && destino >= 0
+				&& red.getAlcanzabilidad().esAlcanzable(origen, destino, diaSemana, horaMinima, transbordos);
+	}
 
-					Collections.sort(todosLosResultados, Comparator.comparing(viaje -> viaje.get(viaje.size() - 1)
-							.getHoraSalida().plusSeconds(viaje.get(viaje.size() - 1).getDuracion())));
+	/**
+	 * Returns the network precalculated from the given segment map, building it
+	 * the first time the map is seen. Queries normally receive the same map, so
+	 * the work is done once and shared by every thread.
+	 * 
+	 * @param tramos The segment map.
+	 * @return The precalculated network for {@code tramos}.
+	 */
+	private RedTransporte obtenerRed(MapaTramos tramos) {
+		RedTransporte actual = this.red;
+		if (actual == null || actual.getTramos() != tramos) {
+			synchronized (this) {
+				actual = this.red;
+				if (actual == null || actual.getTramos() != tramos) {
+					CACHE_RED.fallo();
+					FaseCargaEvento evento = new FaseCargaEvento();
+					evento.begin();
+					long inicio = System.nanoTime();
+					actual = RedTransporte.construir(lineasDelSistema, tramos);
+					CARGA_RED.registrar(System.nanoTime() - inicio);
+					evento.terminar("red", actual.getCantidadParadas());
+					this.red = actual;
+					return actual;
 				}
-				return todosLosResultados;
 			}
 		}
-		return todosLosResultados;
+		CACHE_RED.acierto();
+		return actual;
+	}
+
+	/** @return The maximum number of journeys returned by a single query. */
+	public int getMaxResultados() {
+		return maxResultados;
+	}
+
+	/**
+	 * Returns the totals of the cost counters of every query that collected
+	 * them, for monitoring.
+	 * 
+	 * @return The running totals.
+	 */
+	public EstadisticasAgregadas getEstadisticasAgregadas() {
+		return estadisticasAgregadas;
+	}
+
+	/**
+	 * Returns the network precalculated from the last segment map received, e.g.
+	 * to measure its memory footprint.
+	 * 
+	 * @return The network, or null if it has not been built yet.
+	 */
+	public RedTransporte getRed() {
+		return red;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Time-dependent A* strategy over the stop graph of the network. The nodes are
+ * the stops; each stop has one bus edge to the next stop of every line serving
+ * it, whose cost is the wait for the next bus plus the ride, and one walking
+ * edge for every walking segment leaving it. Since buses of a line keep their
+ * order, staying on the bus is the same as taking the next edge at the time it
+ * arrives, and consecutive edges of the same bus are joined into one segment
+ * when the journey is built.
+ * 
+ * The search is guided by a lower bound of the remaining time: the
+ * great-circle distance to the destination covered at the fastest speed
+ * observed in the network, or the landmark bound of {@code PuntosReferencia}
+ * when it is larger. The open set is a primitive {@code ColaPrioridad}
+ * and the per-stop labels live in the thread's {@code EspacioConsulta}, which
+ * also records the number of stops settled, for tuning.
+ * 
+ * Unlike the enumerating strategies, it returns a single journey with the
+ * earliest arrival, and the journey may have any number of transfers.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class CalculoAEstrellaService extends EstrategiaCalculoBase {
+
+	/** Label of a stop not reached yet. */
+	private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+	/** Edge type of a walking segment. */
+	private static final int CAMINANDO = -1;
+
+	/**
+	 * Constructor that injects the system's available lines.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 */
+	public CalculoAEstrellaService(Map<String, Linea> lineasDelSistema) {
+		super(lineasDelSistema);
+	}
+
+	/**
+	 * Searches for the journey with the earliest arrival between the origin and
+	 * destination stops.
+	 * 
+	 * @param paradaOrigen  The starting stop of the trip.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week for schedule lookup.
+	 * @param horaMinima    The time the passenger arrives at the origin stop, in
+	 *                      seconds since the start of the service day.
+	 * @param red           The precalculated transportation network.
+	 * @param resultados    The bounded collector where the found route
+	 *                      (List<Recorrido>) is offered.
+	 * @return true if a route was found, false otherwise.
+	 */
+	@Override
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
+
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		if (origen < 0 || destino < 0 || origen == destino)
+			return false;
+
+		int cantidad = red.getCantidadParadas();
+		EspacioConsulta espacio = EspacioConsulta.actual();
+		int[] llegadas = espacio.enteros(0, cantidad);
+		int[] previos = espacio.enteros(1, cantidad);
+		int[] medios = espacio.enteros(2, cantidad);
+		int[] posiciones = espacio.enteros(3, cantidad);
+		int[] salidas = espacio.enteros(4, cantidad);
+		int[] asentados = espacio.enteros(5, cantidad);
+		Arrays.fill(llegadas, 0, cantidad, SIN_LLEGADA);
+		Arrays.fill(asentados, 0, cantidad, 0);
+
+		ColaPrioridad abiertos = espacio.cola();
+		llegadas[origen] = horaMinima;
+		previos[origen] = -1;
+		abiertos.agregar(horaMinima + cota(red, origen, destino), origen);
+		int cantidadAsentados = 0;
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+
+		while (!abiertos.isEmpty()) {
+			long entrada = abiertos.quitar();
+			int p = ColaPrioridad.elemento(entrada);
+			if (asentados[p] != 0)
+				continue;
+			if (!resultados.admite(ColaPrioridad.prioridad(entrada)))
+				break;
+
+			asentados[p] = 1;
+			cantidadAsentados++;
+			if (p == destino)
+				break;
+
+			int hora = llegadas[p];
+			int[] lineasAqui = red.lineasDeParada(p);
+			int[] posicionesAqui = red.posicionesDeParada(p);
+			if (estadisticas != null)
+				estadisticas.sumarLineas(lineasAqui.length);
+			for (int k = 0; k < lineasAqui.length; k++) {
+				int l = lineasAqui[k];
+				int i = posicionesAqui[k];
+				int[] ids = red.paradasDeLinea(l);
+				if (i + 1 >= ids.length)
+					continue;
+
+				int salida = buscarSalida(l, diaSemana, red.tiempoEntre(l, 0, i), hora, red, estadisticas);
+				if (salida < 0)
+					continue;
+
+				int q = ids[i + 1];
+				int llegada = salida + red.tiempoEntre(l, i, i + 1);
+				if (asentados[q] == 0 && llegada < llegadas[q]) {
+					llegadas[q] = llegada;
+					previos[q] = p;
+					medios[q] = l;
+					posiciones[q] = i;
+					salidas[q] = salida;
+					abiertos.agregar(llegada + cota(red, q, destino), q);
+				}
+			}
+
+			Tramo[] caminatas = red.caminatasDesde(p);
+			if (caminatas == null)
+				continue;
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int k = 0; k < caminatas.length; k++) {
+				int q = destinos[k];
+				int llegada = hora + caminatas[k].getTiempo();
+				if (asentados[q] == 0 && llegada < llegadas[q]) {
+					llegadas[q] = llegada;
+					previos[q] = p;
+					medios[q] = CAMINANDO;
+					posiciones[q] = k;
+					salidas[q] = hora;
+					abiertos.agregar(llegada + cota(red, q, destino), q);
+				}
+			}
+		}
+
+		if (estadisticas != null)
+			estadisticas.sumarNodosAsentados(cantidadAsentados);
+
+		if (asentados[destino] == 0)
+			return false;
+
+		int llegada = llegadas[destino];
+		if (resultados.admite(llegada))
+			resultados.agregar(armarViaje(red, destino, previos, medios, posiciones, salidas, llegadas), llegada);
+		return true;
+	}
+
+	/**
+	 * Returns the lower bound of the remaining time used to guide the search: the
+	 * largest of the geographic bound and the landmark (ALT) bound.
+	 * 
+	 * @param red     The network.
+	 * @param p       The current stop index.
+	 * @param destino The destination stop index.
+	 * @return The lower bound in seconds.
+	 */
+	protected int cota(RedTransporte red, int p, int destino) {
+		return Math.max(red.cotaGeografica(p, destino), red.getPuntosReferencia().cota(p, destino));
+	}
+
+	/**
+	 * Builds the segments of the journey by following the labels back from the
+	 * destination. Consecutive edges ridden on the same bus are joined.
+	 * 
+	 * @param red        The network.
+	 * @param destino    The destination stop index.
+	 * @param previos    The previous stop of each stop.
+	 * @param medios     The line of the edge reaching each stop, or
+	 *                   {@code CAMINANDO}.
+	 * @param posiciones The position of the previous stop on the line, or the
+	 *                   index of the walking segment.
+	 * @param salidas    The departure time of the edge reaching each stop.
+	 * @param llegadas   The arrival time at each stop.
+	 * @return The segments of the journey, in order.
+	 */
+	private List<Recorrido> armarViaje(RedTransporte red, int destino, int[] previos, int[] medios,
+			int[] posiciones, int[] salidas, int[] llegadas) {
+		List<Recorrido> viaje = new ArrayList<>();
+		int q = destino;
+		while (previos[q] >= 0) {
+			int p = previos[q];
+			if (medios[q] == CAMINANDO) {
+				Tramo caminata = red.caminatasDesde(p)[posiciones[q]];
+				viaje.add(new Recorrido(null, List.of(caminata.getInicio(), caminata.getFin()), salidas[q],
+						caminata.getTiempo()));
+				q = p;
+				continue;
+			}
+
+			int l = medios[q];
+			int idxFin = posiciones[q] + 1;
+			int llegada = llegadas[q];
+			while (previos[p] >= 0 && medios[p] == l && posiciones[p] + 1 == posiciones[q]
+					&& llegadas[p] == salidas[q]) {
+				q = p;
+				p = previos[q];
+			}
+			viaje.add(crearRecorrido(lineas[l], posiciones[q], idxFin, salidas[q], llegada - salidas[q]));
+			q = p;
+		}
+		Collections.reverse(viaje);
+		return viaje;
+	}
+}
\ No newline at end of file
@@ -1,14 +1,10 @@
 package colectivo.logica;
 
-import java.time.LocalTime;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
-import colectivo.modelo.Tramo;
 
 /**
  * This class implements a specific strategy (part of the Strategy Pattern)
@@ -32,186 +28,206 @@ public class CalculoBusBusService extends EstrategiaCalculoBase {
 	}
 
 	/**
-	 * Searches for all valid two-segment routes involving a bus transfer.
+	 * Searches for all valid two-segment routes involving a bus transfer. The
+	 * line combinations already found are tracked in the bitset of the thread's
+	 * {@code EspacioConsulta}.
 	 * 
-	 * @param paradaOrigen       The starting stop of the trip.
-	 * @param paradaDestino      The final destination stop.
-	 * @param diaSemana          The day of the week for schedule lookup.
-	 * @param horaLlegaParada    The initial departure time from the origin.
-	 * @param tramos             Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados The list where all found routes (List<Recorrido>)
-	 *                           are added.
+	 * @param paradaOrigen    The starting stop of the trip.
+	 * @param paradaDestino   The final destination stop.
+	 * @param diaSemana       The day of the week for schedule lookup.
+	 * @param horaMinima      The time the passenger arrives at the origin stop, in
+	 *                        seconds since the start of the service day.
+	 * @param red             The precalculated transportation network.
+	 * @param resultados      The bounded collector where all found routes
+	 *                        (List<Recorrido>) are offered.
 	 * @return true if at least one two-segment route was found, false otherwise.
 	 */
 	@Override
-	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, LocalTime horaLlegaParada,
-			Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados) {
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
 
-		LOGGER.debug("Buscando viajes con conexión de {} a {}.", paradaOrigen.getCodigo(), paradaDestino.getCodigo());
-		Set<String> combinacionesEncontradas = new HashSet<>();
+		int origen = red.indiceDe(paradaOrigen);
+		if (origen < 0)
+			return false;
 
-		for (Linea lineaA : lineasDelSistema.values()) {
-			int idxOrigenA = lineaA.getParadas().indexOf(paradaOrigen);
+		EspacioConsulta espacio = EspacioConsulta.actual();
+		espacio.prepararCombinaciones(lineas.length * lineas.length);
 
-			if (idxOrigenA != -1) {
-				buscarConexionesDesdeLinea(lineaA, idxOrigenA, paradaDestino, diaSemana, horaLlegaParada, tramos,
-						todosLosResultados, combinacionesEncontradas);
+		boolean seEncontroAlgo = false;
+		int[] lineasOrigen = red.lineasDeParada(origen);
+		int[] posicionesOrigen = red.posicionesDeParada(origen);
+
+		for (int k = 0; k < lineasOrigen.length; k++) {
+			if (buscarConexionesDesdeLinea(lineasOrigen[k], posicionesOrigen[k], paradaDestino, diaSemana, horaMinima,
+					red, espacio, resultados)) {
+				seEncontroAlgo = true;
 			}
 		}
-		return !combinacionesEncontradas.isEmpty();
+
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		if (estadisticas != null) {
+			estadisticas.sumarLineas(lineasOrigen.length);
+			estadisticas.sumarBusquedas(1);
+		}
+		return seEncontroAlgo;
 	}
 
 	/**
-	 * Iterates over all stops on {@code lineaA} that are after the origin to
-	 * identify them as potential transfer points.
+	 * Iterates over all stops on Line A that are after the origin to identify them
+	 * as potential transfer points.
 	 * 
-	 * @param lineaA                   The starting line.
-	 * @param idxOrigenA               The index of the origin stop on Line A.
-	 * @param paradaDestino            The final destination stop.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param tramos                   Map of all available segments.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique Line A -> Line B
-	 *                                 combinations.
+	 * @param a             The position of the starting line in {@code lineas}.
+	 * @param idxOrigenA    The index of the origin stop on Line A.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week.
+	 * @param horaMinima    The initial departure time, in service-day seconds.
+	 * @param red           The precalculated transportation network.
+	 * @param espacio       The workspace tracking the combinations found.
+	 * @param resultados    Bounded collector to accumulate results.
+	 * @return true if at least one route starting on Line A was found.
 	 */
-	private void buscarConexionesDesdeLinea(Linea lineaA, int idxOrigenA, Parada paradaDestino, int diaSemana,
-			LocalTime horaLlegaParada, Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados,
-			Set<String> combinacionesEncontradas) {
+	private boolean buscarConexionesDesdeLinea(int a, int idxOrigenA, Parada paradaDestino, int diaSemana,
+			int horaMinima, RedTransporte red, EspacioConsulta espacio, ResultadosAcotados resultados) {
 
-		List<Parada> paradasA = lineaA.getParadas();
+		List<Parada> paradasA = lineas[a].getParadas();
+		boolean seEncontroAlgo = false;
 
 		for (int i = idxOrigenA + 1; i < paradasA.size(); i++) {
 			Parada paradaTransbordo = paradasA.get(i);
 
-			buscarSegundaLineaDesdeTransbordo(lineaA, paradaTransbordo, paradaDestino, diaSemana, horaLlegaParada,
-					idxOrigenA, i, tramos, todosLosResultados, combinacionesEncontradas);
+			if (buscarSegundaLineaDesdeTransbordo(a, paradaTransbordo, paradaDestino, diaSemana, horaMinima,
+					idxOrigenA, i, red, espacio, resultados)) {
+				seEncontroAlgo = true;
+			}
 		}
+		return seEncontroAlgo;
 	}
 
 	/**
 	 * Iterates through all other lines (Line B) to find a valid continuation from
-	 * the transfer stop to the final destination.
+	 * the transfer stop to the final destination. The lines that serve the
+	 * transfer stop and, after it, the destination stop are read from the
+	 * direct-connection index of the network.
 	 * 
-	 * @param lineaA                   The first line (used to ensure the two lines
-	 *                                 are different).
-	 * @param paradaTransbordo         The stop where the transfer occurs.
-	 * @param paradaDestino            The final destination stop.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param idxOrigenA               The index of the origin stop on Line A.
-	 * @param idxTransbordoA           The index of the transfer stop on Line A.
-	 * @param tramos                   Map of all available segments.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique combinations.
+	 * @param a                The position of the first line in {@code lineas}.
+	 * @param paradaTransbordo The stop where the transfer occurs.
+	 * @param paradaDestino    The final destination stop.
+	 * @param diaSemana        The day of the week.
+	 * @param horaMinima       The initial departure time, in service-day seconds.
+	 * @param idxOrigenA       The index of the origin stop on Line A.
+	 * @param idxTransbordoA   The index of the transfer stop on Line A.
+	 * @param red              The precalculated transportation network.
+	 * @param espacio          The workspace tracking the combinations found.
+	 * @param resultados       Bounded collector to accumulate results.
+	 * @return true if at least one new combination was found.
 	 */
-	private void buscarSegundaLineaDesdeTransbordo(Linea lineaA, Parada paradaTransbordo, Parada paradaDestino,
-			int diaSemana, LocalTime horaLlegaParada, int idxOrigenA, int idxTransbordoA, Map<String, Tramo> tramos,
-			List<List<Recorrido>> todosLosResultados, Set<String> combinacionesEncontradas) {
+	private boolean buscarSegundaLineaDesdeTransbordo(int a, Parada paradaTransbordo, Parada paradaDestino,
+			int diaSemana, int horaMinima, int idxOrigenA, int idxTransbordoA, RedTransporte red,
+			EspacioConsulta espacio, ResultadosAcotados resultados) {
+
+		int transbordo = red.indiceDe(paradaTransbordo);
+		int destino = red.indiceDe(paradaDestino);
+		if (transbordo < 0 || destino < 0)
+			return false;
+
+		boolean seEncontroAlgo = false;
+		int inicio = red.inicioDirectas(transbordo, destino);
+		int fin = red.finDirectas(transbordo, destino, inicio);
+
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		if (estadisticas != null) {
+			estadisticas.sumarBusquedas(3);
+			estadisticas.sumarLineas(fin - inicio);
+		}
 
-		for (Linea lineaB : lineasDelSistema.values()) {
-			if (lineaA.equals(lineaB)) {
+		for (int k = inicio; k < fin; k++) {
+			int b = red.lineaDirecta(k);
+			if (a == b) {
 				continue;
 			}
-			ConexionValida conexion = validarConexion(lineaB, paradaTransbordo, paradaDestino);
 
-			if (conexion.esValida()) {
-				intentarAgregarConexion(lineaA, lineaB, diaSemana, horaLlegaParada, idxOrigenA, idxTransbordoA,
-						conexion, tramos, todosLosResultados, combinacionesEncontradas);
+			if (intentarAgregarConexion(a, b, diaSemana, horaMinima, idxOrigenA, idxTransbordoA, red.origenDirecto(k),
+					red.destinoDirecto(k), red, espacio, resultados)) {
+				seEncontroAlgo = true;
 			}
 		}
+		return seEncontroAlgo;
 	}
 
 	/**
-	 * Checks if Line B starts at the transfer stop and contains the destination
-	 * stop *after* the transfer stop in its route sequence.
+	 * Calculates the schedule and duration for both segments (Line A and Line B)
+	 * and offers the complete route to the results collector. * Prevents adding
+	 * duplicate line combinations (A->B) to keep results clean. * Skips the second
+	 * segment when the arrival at the transfer stop is already too late to enter
+	 * the results; the combination is marked in that case too, so that the other
+	 * transfer stops of the same pair of lines are not tried again. * Only creates
+	 * the {@code Recorrido} objects if the route is kept.
 	 * 
-	 * @param lineaB           The second line.
-	 * @param paradaTransbordo The required starting stop for Line B.
-	 * @param paradaDestino    The required destination stop for Line B.
-	 * @return A {@code ConexionValida} object detailing the result and relevant
-	 *         indices on Line B.
+	 * @param a              The position of the starting line.
+	 * @param b              The position of the connecting line.
+	 * @param diaSemana      The day of the week.
+	 * @param horaMinima     The initial departure time, in service-day seconds.
+	 * @param idxOrigenA     Index of the origin stop on Line A.
+	 * @param idxTransbordoA Index of the transfer stop on Line A.
+	 * @param idxTransbordoB Index of the transfer stop on Line B.
+	 * @param idxDestinoB    Index of the destination stop on Line B.
+	 * @param red            The precalculated transportation network.
+	 * @param espacio        The workspace tracking the combinations found.
+	 * @param resultados     Bounded collector to accumulate results.
+	 * @return true if the combination was found by this call.
 	 */
-	private ConexionValida validarConexion(Linea lineaB, Parada paradaTransbordo, Parada paradaDestino) {
-		List<Parada> paradasB = lineaB.getParadas();
-		int idxTransbordoB = paradasB.indexOf(paradaTransbordo);
-		int idxDestinoB = paradasB.indexOf(paradaDestino);
+	private boolean intentarAgregarConexion(int a, int b, int diaSemana, int horaMinima, int idxOrigenA,
+			int idxTransbordoA, int idxTransbordoB, int idxDestinoB, RedTransporte red, EspacioConsulta espacio,
+			ResultadosAcotados resultados) {
 
-		boolean esValida = idxTransbordoB != -1 && idxDestinoB != -1 && idxTransbordoB < idxDestinoB;
-		return new ConexionValida(esValida, idxTransbordoB, idxDestinoB);
-	}
+		int combinacion = a * lineas.length + b;
 
-	/**
-	 * Calculates the schedule and duration for both segments (Line A and Line B)
-	 * and adds the complete, valid route to the results list. * Utilizes
-	 * {@code calcularTramoDeViaje} (inherited from base class) to find a valid
-	 * departure time for each segment. * Prevents adding duplicate line
-	 * combinations (A->B) to keep results clean.
-	 * 
-	 * @param lineaA                   The starting line.
-	 * @param lineaB                   The connecting line.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param idxOrigenA               Index of the origin stop on Line A.
-	 * @param idxTransbordoA           Index of the transfer stop on Line A.
-	 * @param conexion                 The validated connection object containing
-	 *                                 Line B indices.
-	 * @param tramos                   Map of all available segments.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique combinations.
-	 */
-	private void intentarAgregarConexion(Linea lineaA, Linea lineaB, int diaSemana, LocalTime horaLlegaParada,
-			int idxOrigenA, int idxTransbordoA, ConexionValida conexion, Map<String, Tramo> tramos,
-			List<List<Recorrido>> todosLosResultados, Set<String> combinacionesEncontradas) {
+		if (espacio.estaMarcada(combinacion)) {
+			return false;
+		}
 
-		String combinacion = lineaA.getCodigo() + "->" + lineaB.getCodigo();
+		Linea lineaA = lineas[a];
+		int salida1 = buscarSalida(a, diaSemana, red.tiempoEntre(a, 0, idxOrigenA), horaMinima, red,
+				resultados.getEstadisticas());
 
-		if (combinacionesEncontradas.contains(combinacion)) {
-			return;
+		if (salida1 < 0) {
+			return false;
 		}
 
-		Recorrido tramo1 = calcularTramoDeViaje(lineaA, diaSemana, idxOrigenA, idxTransbordoA, horaLlegaParada, tramos);
+		int duracion1 = red.tiempoEntre(a, idxOrigenA, idxTransbordoA);
+		if (!resultados.admite(salida1 + duracion1)) {
+			espacio.marcar(combinacion);
+			return true;
+		}
 
-		if (tramo1 == null) {
-			return;
+		Linea lineaB = lineas[b];
+		int horaLlegadaTransbordo = salida1 + duracion1;
+		int salida2 = buscarSalida(b, diaSemana, red.tiempoEntre(b, 0, idxTransbordoB), horaLlegadaTransbordo,
+				red, resultados.getEstadisticas());
+
+		if (salida2 < 0) {
+			return false;
 		}
 
-		LocalTime horaLlegadaTransbordo = tramo1.getHoraSalida().plusSeconds(tramo1.getDuracion());
-		Recorrido tramo2 = calcularTramoDeViaje(lineaB, diaSemana, conexion.idxTransbordo, conexion.idxDestino,
-				horaLlegadaTransbordo, tramos);
+		int duracion2 = red.tiempoEntre(b, idxTransbordoB, idxDestinoB);
+		int llegada = salida2 + duracion2;
+		espacio.marcar(combinacion);
 
-		if (tramo2 != null) {
-			todosLosResultados.add(List.of(tramo1, tramo2));
-			combinacionesEncontradas.add(combinacion);
+		if (resultados.admite(llegada)) {
+			Recorrido tramo1 = crearRecorrido(lineaA, idxOrigenA, idxTransbordoA, salida1, duracion1);
+			Recorrido tramo2 = crearRecorrido(lineaB, idxTransbordoB, idxDestinoB, salida2, duracion2);
+			resultados.agregar(List.of(tramo1, tramo2), llegada);
 		}
+		return true;
 	}
 
 	/**
-	 * Inner utility class to encapsulate the validity and indexes of a bus
-	 * connection.
+	 * Journeys change bus once, at a stop served by both lines.
+	 * 
+	 * @return 1
 	 */
-	private static class ConexionValida {
-
-		private final boolean valida;
-		private final int idxTransbordo;
-		private final int idxDestino;
-
-		/**
-		 * Constructor
-		 * 
-		 * @param valida        True if the connection is geographically valid.
-		 * @param idxTransbordo The index of the transfer stop on the second line.
-		 * @param idxDestino    The index of the destination stop on the second line.
-		 */
-		public ConexionValida(boolean valida, int idxTransbordo, int idxDestino) {
-			this.valida = valida;
-			this.idxTransbordo = idxTransbordo;
-			this.idxDestino = idxDestino;
-		}
-
-		/** @return True if the connection is valid. */
-		public boolean esValida() {
-			return valida;
-		}
+	@Override
+	public int transbordosMaximos() {
+		return 1;
 	}
 }
\ No newline at end of file
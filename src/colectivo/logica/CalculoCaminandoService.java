@@ -1,12 +1,8 @@
 package colectivo.logica;
 
-import java.time.LocalTime;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import colectivo.controlador.Constantes;
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
 import colectivo.modelo.Tramo;
@@ -34,246 +30,206 @@ public class CalculoCaminandoService extends EstrategiaCalculoBase {
 	/**
 	 * Searches for all valid three-segment routes involving a walking transfer. The
 	 * route is structured as: {@code ParadaOrigen} -> Bus (Line A) -> Walk -> Bus
-	 * (Line C) -> {@code ParadaDestino}.
+	 * (Line C) -> {@code ParadaDestino}. The line combinations already found are
+	 * tracked in the bitset of the thread's {@code EspacioConsulta}.
 	 * 
-	 * @param paradaOrigen       The starting stop of the trip.
-	 * @param paradaDestino      The final destination stop.
-	 * @param diaSemana          The day of the week for schedule lookup.
-	 * @param horaLlegaParada    The initial departure time from the origin.
-	 * @param tramos             Map of all available {@code Tramo} objects
-	 *                           (including walking segments).
-	 * @param todosLosResultados The list where all found routes (List<Recorrido>)
-	 *                           are added.
+	 * @param paradaOrigen    The starting stop of the trip.
+	 * @param paradaDestino   The final destination stop.
+	 * @param diaSemana       The day of the week for schedule lookup.
+	 * @param horaMinima      The time the passenger arrives at the origin stop, in
+	 *                        seconds since the start of the service day.
+	 * @param red             The precalculated transportation network,
+	 *                        including the walking segments.
+	 * @param resultados      The bounded collector where all found routes
+	 *                        (List<Recorrido>) are offered.
 	 * @return true if at least one three-segment route was found, false otherwise.
 	 */
 	@Override
-	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, LocalTime horaLlegaParada,
-			Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados) {
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
 
-		LOGGER.debug("Buscando viajes con conexión caminando de {} a {}.", paradaOrigen.getCodigo(),
-				paradaDestino.getCodigo());
+		int origen = red.indiceDe(paradaOrigen);
+		if (origen < 0)
+			return false;
 
-		Set<String> combinacionesEncontradas = new HashSet<>();
+		EspacioConsulta espacio = EspacioConsulta.actual();
+		espacio.prepararCombinaciones(lineas.length * lineas.length);
 
-		for (Linea lineaA : lineasDelSistema.values()) {
-			int idxOrigenA = lineaA.getParadas().indexOf(paradaOrigen);
+		boolean seEncontroAlgo = false;
+		int[] lineasOrigen = red.lineasDeParada(origen);
+		int[] posicionesOrigen = red.posicionesDeParada(origen);
 
-			if (idxOrigenA != -1) {
-				buscarConexionesDesdeLineaInicial(lineaA, idxOrigenA, paradaDestino, diaSemana, horaLlegaParada, tramos,
-						todosLosResultados, combinacionesEncontradas);
+		for (int k = 0; k < lineasOrigen.length; k++) {
+			if (buscarConexionesDesdeLineaInicial(lineasOrigen[k], posicionesOrigen[k], paradaDestino, diaSemana,
+					horaMinima, red, espacio, resultados)) {
+				seEncontroAlgo = true;
 			}
 		}
-		return !combinacionesEncontradas.isEmpty();
-	}
 
-	/**
-	 * Iterates over all stops on {@code lineaA} that are after the origin to
-	 * identify them as potential drop-off points before the walk segment.
-	 * 
-	 * @param lineaA                   The starting line.
-	 * @param idxOrigenA               The index of the origin stop on Line A.
-	 * @param paradaDestino            The final destination stop.
-	 * @param diaSemana                The day of the week for schedule lookup.
-	 * @param horaLlegaParada          The initial departure time from the origin.
-	 * @param tramos                   Map of all available {@code Tramo} objects
-	 *                                 (including walking segments).
-	 * @param todosLosResultados       The list where all found routes
-	 *                                 (List<Recorrido>) are added.
-	 * @param combinacionesEncontradas Set used to track unique line combinations (A
-	 *                                 -> Walk -> C).
-	 */
-	private void buscarConexionesDesdeLineaInicial(Linea lineaA, int idxOrigenA, Parada paradaDestino, int diaSemana,
-			LocalTime horaLlegaParada, Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados,
-			Set<String> combinacionesEncontradas) {
-
-		List<Parada> paradasA = lineaA.getParadas();
-
-		for (int i = idxOrigenA + 1; i < paradasA.size(); i++) {
-			Parada paradaBajada = paradasA.get(i);
-
-			buscarTramosCaminandoDesdeParada(lineaA, paradaBajada, paradaDestino, diaSemana, horaLlegaParada,
-					idxOrigenA, i, tramos, todosLosResultados, combinacionesEncontradas);
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		if (estadisticas != null) {
+			estadisticas.sumarLineas(lineasOrigen.length);
+			estadisticas.sumarBusquedas(1);
 		}
+		return seEncontroAlgo;
 	}
 
 	/**
-	 * Iterates through all available {@code Tramo} objects to find a valid walking
-	 * segment starting at the specified drop-off stop.
+	 * Iterates over all stops on Line A that are after the origin to identify them
+	 * as potential drop-off points before the walk segment, and over the walking
+	 * segments that start at each of them.
 	 * 
-	 * @param lineaA                   The starting line.
-	 * @param paradaBajada             The stop where the passenger gets off Line A.
-	 * @param paradaDestino            The final destination stop.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param idxOrigenA               Index of the origin stop on Line A.
-	 * @param idxBajada                Index of the drop-off stop on Line A.
-	 * @param tramos                   Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique line combinations.
+	 * @param a             The position of the starting line in {@code lineas}.
+	 * @param idxOrigenA    The index of the origin stop on Line A.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week for schedule lookup.
+	 * @param horaMinima    The initial departure time, in service-day seconds.
+	 * @param red           The precalculated transportation network.
+	 * @param espacio       The workspace tracking the combinations found.
+	 * @param resultados    The bounded collector where all found routes
+	 *                      (List<Recorrido>) are offered.
+	 * @return true if at least one route starting on Line A was found.
 	 */
-	private void buscarTramosCaminandoDesdeParada(Linea lineaA, Parada paradaBajada, Parada paradaDestino,
-			int diaSemana, LocalTime horaLlegaParada, int idxOrigenA, int idxBajada, Map<String, Tramo> tramos,
-			List<List<Recorrido>> todosLosResultados, Set<String> combinacionesEncontradas) {
+	private boolean buscarConexionesDesdeLineaInicial(int a, int idxOrigenA, Parada paradaDestino, int diaSemana,
+			int horaMinima, RedTransporte red, EspacioConsulta espacio, ResultadosAcotados resultados) {
 
-		for (Tramo tramoCaminando : tramos.values()) {
-			if (esTramoValidoParaCaminar(tramoCaminando, paradaBajada)) {
-				Parada paradaFinCaminata = tramoCaminando.getFin();
+		List<Parada> paradasA = lineas[a].getParadas();
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		boolean seEncontroAlgo = false;
 
-				buscarLineaFinalDesdeFinCaminata(lineaA, paradaFinCaminata, paradaDestino, diaSemana, horaLlegaParada,
-						idxOrigenA, idxBajada, tramoCaminando, tramos, todosLosResultados, combinacionesEncontradas);
+		for (int i = idxOrigenA + 1; i < paradasA.size(); i++) {
+			Tramo[] caminatas = red.caminatasDesde(paradasA.get(i));
+			if (estadisticas != null) {
+				estadisticas.sumarBusquedas(1);
+				estadisticas.sumarTramos(caminatas == null ? 0 : caminatas.length);
+			}
+			if (caminatas == null)
+				continue;
+
+			for (Tramo tramoCaminando : caminatas) {
+				if (buscarLineaFinalDesdeFinCaminata(a, tramoCaminando, paradaDestino, diaSemana, horaMinima,
+						idxOrigenA, i, red, espacio, resultados)) {
+					seEncontroAlgo = true;
+				}
 			}
 		}
+		return seEncontroAlgo;
 	}
 
 	/**
-	 * Checks if the given segment is a valid walking segment starting at the
-	 * specified stop.
+	 * Iterates through the lines that serve the end of the walking segment and,
+	 * after it, the destination stop (Line C), as listed by the direct-connection
+	 * index of the network.
 	 * 
-	 * @param tramo        The segment to validate.
-	 * @param paradaBajada The required starting stop for the walk.
-	 * @return true if the segment starts at {@code paradaBajada} and is of type
-	 *         {@code Constantes.CAMINANDO}.
+	 * @param a              The position of the initial line (Line A).
+	 * @param tramoCaminando The valid walking segment.
+	 * @param paradaDestino  The final destination stop.
+	 * @param diaSemana      The day of the week.
+	 * @param horaMinima     The initial departure time, in service-day seconds.
+	 * @param idxOrigenA     Index of the origin stop on Line A.
+	 * @param idxBajada      Index of the drop-off stop on Line A.
+	 * @param red            The precalculated transportation network.
+	 * @param espacio        The workspace tracking the combinations found.
+	 * @param resultados     Bounded collector to accumulate results.
+	 * @return true if at least one new combination was found.
 	 */
-	private boolean esTramoValidoParaCaminar(Tramo tramo, Parada paradaBajada) {
-		return tramo.getInicio().equals(paradaBajada) && tramo.getTipo() == Constantes.CAMINANDO;
-	}
-
-	/**
-	 * Iterates through all lines in the system to find a final connecting line
-	 * (Line C) that serves the end of the walking segment.
-	 * 
-	 * @param lineaA                   The initial line (Line A).
-	 * @param paradaFinCaminata        The stop where the walking segment ends.
-	 * @param paradaDestino            The final destination stop.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param idxOrigenA               Index of the origin stop on Line A.
-	 * @param idxBajada                Index of the drop-off stop on Line A.
-	 * @param tramoCaminando           The valid walking segment.
-	 * @param tramos                   Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique line combinations.
-	 */
-	private void buscarLineaFinalDesdeFinCaminata(Linea lineaA, Parada paradaFinCaminata, Parada paradaDestino,
-			int diaSemana, LocalTime horaLlegaParada, int idxOrigenA, int idxBajada, Tramo tramoCaminando,
-			Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados, Set<String> combinacionesEncontradas) {
-
-		for (Linea lineaC : lineasDelSistema.values()) {
-			procesarLineaFinal(lineaA, lineaC, paradaFinCaminata, paradaDestino, diaSemana, horaLlegaParada, idxOrigenA,
-					idxBajada, tramoCaminando, tramos, todosLosResultados, combinacionesEncontradas);
+	private boolean buscarLineaFinalDesdeFinCaminata(int a, Tramo tramoCaminando, Parada paradaDestino,
+			int diaSemana, int horaMinima, int idxOrigenA, int idxBajada, RedTransporte red, EspacioConsulta espacio,
+			ResultadosAcotados resultados) {
+
+		int finCaminata = red.indiceDe(tramoCaminando.getFin());
+		int destino = red.indiceDe(paradaDestino);
+		if (finCaminata < 0 || destino < 0)
+			return false;
+
+		boolean seEncontroAlgo = false;
+		int inicio = red.inicioDirectas(finCaminata, destino);
+		int fin = red.finDirectas(finCaminata, destino, inicio);
+
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		if (estadisticas != null) {
+			estadisticas.sumarBusquedas(3);
+			estadisticas.sumarLineas(fin - inicio);
 		}
-	}
-
-	/**
-	 * Checks the geographical validity of the final bus segment (Line C) and
-	 * attempts to calculate the full route schedule if valid.
-	 * 
-	 * @param lineaA                   The initial line.
-	 * @param lineaC                   The final line.
-	 * @param paradaFinCaminata        The start stop of Line C (end of walk).
-	 * @param paradaDestino            The final destination stop.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param idxOrigenA               Index of the origin stop on Line A.
-	 * @param idxBajada                Index of the drop-off stop on Line A.
-	 * @param tramoCaminando           The valid walking segment.
-	 * @param tramos                   Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique line combinations.
-	 */
-	private void procesarLineaFinal(Linea lineaA, Linea lineaC, Parada paradaFinCaminata, Parada paradaDestino,
-			int diaSemana, LocalTime horaLlegaParada, int idxOrigenA, int idxBajada, Tramo tramoCaminando,
-			Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados, Set<String> combinacionesEncontradas) {
-
-		IndicesLineaFinal indices = obtenerIndicesLineaFinal(lineaC, paradaFinCaminata, paradaDestino);
 
-		if (indices.esValida()) {
-			intentarAgregarConexionCaminando(lineaA, lineaC, diaSemana, horaLlegaParada, idxOrigenA, idxBajada, indices,
-					tramoCaminando, tramos, todosLosResultados, combinacionesEncontradas);
+		for (int k = inicio; k < fin; k++) {
+			if (intentarAgregarConexionCaminando(a, red.lineaDirecta(k), diaSemana, horaMinima, idxOrigenA, idxBajada,
+					red.origenDirecto(k), red.destinoDirecto(k), tramoCaminando, red, espacio, resultados)) {
+				seEncontroAlgo = true;
+			}
 		}
-	}
-
-	/**
-	 * Finds the indices of the start and end stops of the final bus segment (Line
-	 * C).
-	 * 
-	 * @param lineaC            The final bus line.
-	 * @param paradaFinCaminata The stop where the walk ends (start of Line C).
-	 * @param paradaDestino     The final destination stop.
-	 * @return A {@code IndicesLineaFinal} object detailing the result and relevant
-	 *         indices on Line C.
-	 */
-	private IndicesLineaFinal obtenerIndicesLineaFinal(Linea lineaC, Parada paradaFinCaminata, Parada paradaDestino) {
-		List<Parada> paradasC = lineaC.getParadas();
-		int idxOrigenC = paradasC.indexOf(paradaFinCaminata);
-		int idxDestinoC = paradasC.indexOf(paradaDestino);
-
-		return new IndicesLineaFinal(idxOrigenC, idxDestinoC);
+		return seEncontroAlgo;
 	}
 
 	/**
 	 * Calculates schedules for the three segments (Bus A, Walk, Bus C) and, if
-	 * valid, adds the complete route to the results list.
+	 * valid, offers the complete route to the results collector. The last bus
+	 * segment is not calculated when the end of the walk is already too late to
+	 * enter the results, and the {@code Recorrido} objects are only created if the
+	 * route is kept. As in {@code CalculoBusBusService}, the combination is marked
+	 * before the results are checked, also when the route is skipped early, so
+	 * that the other stops of the same pair of lines are not tried again.
 	 * 
-	 * @param lineaA                   The initial line.
-	 * @param lineaC                   The final line.
-	 * @param diaSemana                The day of the week.
-	 * @param horaLlegaParada          The initial departure time.
-	 * @param idxOrigenA               Index of the origin stop on Line A.
-	 * @param idxBajada                Index of the drop-off stop on Line A.
-	 * @param indices                  The indices for the final segment (Line C).
-	 * @param tramoCaminando           The valid walking segment.
-	 * @param tramos                   Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique line combinations.
+	 * @param a              The position of the initial line.
+	 * @param c              The position of the final line.
+	 * @param diaSemana      The day of the week.
+	 * @param horaMinima     The initial departure time, in service-day seconds.
+	 * @param idxOrigenA     Index of the origin stop on Line A.
+	 * @param idxBajada      Index of the drop-off stop on Line A.
+	 * @param idxOrigenC     Index of the start stop (end of walk) on Line C.
+	 * @param idxDestinoC    Index of the destination stop on Line C.
+	 * @param tramoCaminando The valid walking segment.
+	 * @param red            The precalculated transportation network.
+	 * @param espacio        The workspace tracking the combinations found.
+	 * @param resultados     Bounded collector to accumulate results.
+	 * @return true if the combination was found by this call.
 	 */
-	private void intentarAgregarConexionCaminando(Linea lineaA, Linea lineaC, int diaSemana, LocalTime horaLlegaParada,
-			int idxOrigenA, int idxBajada, IndicesLineaFinal indices, Tramo tramoCaminando, Map<String, Tramo> tramos,
-			List<List<Recorrido>> todosLosResultados, Set<String> combinacionesEncontradas) {
+	private boolean intentarAgregarConexionCaminando(int a, int c, int diaSemana, int horaMinima, int idxOrigenA,
+			int idxBajada, int idxOrigenC, int idxDestinoC, Tramo tramoCaminando, RedTransporte red,
+			EspacioConsulta espacio, ResultadosAcotados resultados) {
 
-		String combinacion = lineaA.getCodigo() + "->CAMINANDO->" + lineaC.getCodigo();
+		int combinacion = a * lineas.length + c;
 
-		if (!combinacionesEncontradas.contains(combinacion)) {
-			Recorrido tramo1 = calcularTramoDeViaje(lineaA, diaSemana, idxOrigenA, idxBajada, horaLlegaParada, tramos);
+		if (espacio.estaMarcada(combinacion)) {
+			return false;
+		}
 
-			if (tramo1 != null) {
-				construirYAgregarRecorridoCompleto(lineaC, diaSemana, indices, tramo1, tramoCaminando, tramos,
-						todosLosResultados, combinacionesEncontradas, combinacion);
-			}
+		Linea lineaA = lineas[a];
+		int salida1 = buscarSalida(a, diaSemana, red.tiempoEntre(a, 0, idxOrigenA), horaMinima, red,
+				resultados.getEstadisticas());
+
+		if (salida1 < 0) {
+			return false;
 		}
-	}
 
-	/**
-	 * Finalizes the route construction, calculates the second and third segment
-	 * schedules, and records the result.
-	 * 
-	 * @param lineaC                   The final bus line.
-	 * @param diaSemana                The day of the week.
-	 * @param indices                  The indices for the final segment (Line C).
-	 * @param tramo1                   The first segment (Bus A).
-	 * @param tramoCaminando           The walking segment geometry and duration.
-	 * @param tramos                   Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados       List to accumulate results.
-	 * @param combinacionesEncontradas Set to track unique line combinations.
-	 * @param combinacion              The string representation of the route
-	 *                                 combination (A->Walk->C).
-	 */
-	private void construirYAgregarRecorridoCompleto(Linea lineaC, int diaSemana, IndicesLineaFinal indices,
-			Recorrido tramo1, Tramo tramoCaminando, Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados,
-			Set<String> combinacionesEncontradas, String combinacion) {
+		int duracion1 = red.tiempoEntre(a, idxOrigenA, idxBajada);
+		int tiempoCaminata = tramoCaminando.getTiempo();
+		if (!resultados.admite(salida1 + duracion1 + tiempoCaminata)) {
+			espacio.marcar(combinacion);
+			return true;
+		}
 
-		LocalTime horaLlegadaBajada = tramo1.getHoraSalida().plusSeconds(tramo1.getDuracion());
+		Linea lineaC = lineas[c];
+		int horaLlegadaBajada = salida1 + duracion1;
+		int horaFinCaminata = horaLlegadaBajada + tiempoCaminata;
+		int salida3 = buscarSalida(c, diaSemana, red.tiempoEntre(c, 0, idxOrigenC), horaFinCaminata, red,
+				resultados.getEstadisticas());
 
-		Recorrido tramoCaminata = crearRecorridoCaminata(tramoCaminando, horaLlegadaBajada);
-		LocalTime horaFinCaminata = horaLlegadaBajada.plusSeconds(tramoCaminando.getTiempo());
+		if (salida3 < 0) {
+			return false;
+		}
 
-		Recorrido tramo3 = calcularTramoDeViaje(lineaC, diaSemana, indices.getIdxOrigen(), indices.getIdxDestino(),
-				horaFinCaminata, tramos);
+		int duracion3 = red.tiempoEntre(c, idxOrigenC, idxDestinoC);
+		int llegada = salida3 + duracion3;
+		espacio.marcar(combinacion);
 
-		if (tramo3 != null) {
-			todosLosResultados.add(List.of(tramo1, tramoCaminata, tramo3));
-			combinacionesEncontradas.add(combinacion);
+		if (resultados.admite(llegada)) {
+			Recorrido tramo1 = crearRecorrido(lineaA, idxOrigenA, idxBajada, salida1, duracion1);
+			Recorrido tramoCaminata = crearRecorridoCaminata(tramoCaminando, horaLlegadaBajada);
+			Recorrido tramo3 = crearRecorrido(lineaC, idxOrigenC, idxDestinoC, salida3, duracion3);
+			resultados.agregar(List.of(tramo1, tramoCaminata, tramo3), llegada);
 		}
+		return true;
 	}
 
 	/**
@@ -283,51 +239,22 @@ public class CalculoCaminandoService extends EstrategiaCalculoBase {
 	 * 
 	 * @param tramoCaminando The {@code Tramo} object defining the walk's geometry
 	 *                       and duration.
-	 * @param horaInicio     The time the passenger starts walking.
+	 * @param horaInicio     The time the passenger starts walking, in service-day
+	 *                       seconds.
 	 * @return The completed {@code Recorrido} object for the walk.
 	 */
-	private Recorrido crearRecorridoCaminata(Tramo tramoCaminando, LocalTime horaInicio) {
+	private Recorrido crearRecorridoCaminata(Tramo tramoCaminando, int horaInicio) {
 		return new Recorrido(null, List.of(tramoCaminando.getInicio(), tramoCaminando.getFin()), horaInicio,
 				tramoCaminando.getTiempo());
 	}
 
 	/**
-	 * Inner utility class to encapsulate the validity and indexes of the final bus
-	 * connection.
+	 * Journeys change bus once, walking one walking segment between the lines.
+	 * 
+	 * @return 1
 	 */
-	private static class IndicesLineaFinal {
-
-		private final int idxOrigen;
-		private final int idxDestino;
-
-		/**
-		 * Constructor.
-		 * 
-		 * @param idxOrigen  The index of the start stop (end of walk) on the final line
-		 *                   (C).
-		 * @param idxDestino The index of the final destination stop on Line C.
-		 */
-		public IndicesLineaFinal(int idxOrigen, int idxDestino) {
-			this.idxOrigen = idxOrigen;
-			this.idxDestino = idxDestino;
-		}
-
-		/**
-		 * @return True if both stops exist on the line and the origin index precedes
-		 *         the destination index, meaning the trip is forward.
-		 */
-		public boolean esValida() {
-			return idxOrigen != -1 && idxDestino != -1 && idxOrigen < idxDestino;
-		}
-
-		/** @return The index of the start stop on the final line. */
-		public int getIdxOrigen() {
-			return idxOrigen;
-		}
-
-		/** @return The index of the destination stop on the final line. */
-		public int getIdxDestino() {
-			return idxDestino;
-		}
+	@Override
+	public int transbordosMaximos() {
+		return 1;
 	}
 }
\ No newline at end of file
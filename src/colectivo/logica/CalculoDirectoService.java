@@ -1,15 +1,10 @@
 package colectivo.logica;
 
-import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
-import colectivo.modelo.Tramo;
 
 /**
  * This class implements the highest priority strategy within the
@@ -34,235 +29,90 @@ public class CalculoDirectoService extends EstrategiaCalculoBase {
 
 	/**
 	 * Searches for all valid direct routes between the origin and destination
-	 * stops. It iterates through every available line and checks if that line
-	 * serves both the origin and the destination in the correct sequence.
+	 * stops. The lines serving both stops in the correct sequence are read from
+	 * the direct-connection index of the network, in line order, so only their
+	 * timetables are consulted.
 	 * 
-	 * @param paradaOrigen       The starting stop of the trip.
-	 * @param paradaDestino      The final destination stop.
-	 * @param diaSemana          The day of the week for schedule lookup.
-	 * @param horaLlegaParada    The initial time the passenger arrives at the
-	 *                           origin stop.
-	 * @param tramos             Map of all available {@code Tramo} objects.
-	 * @param todosLosResultados The list where all found routes (List<Recorrido>)
-	 *                           are added.
+	 * @param paradaOrigen    The starting stop of the trip.
+	 * @param paradaDestino   The final destination stop.
+	 * @param diaSemana       The day of the week for schedule lookup.
+	 * @param horaMinima      The time the passenger arrives at the origin stop, in
+	 *                        seconds since the start of the service day.
+	 * @param red             The precalculated transportation network.
+	 * @param resultados      The bounded collector where all found routes
+	 *                        (List<Recorrido>) are offered.
 	 * @return true if at least one direct route was found, false otherwise.
 	 */
 	@Override
-	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, LocalTime horaLlegaParada,
-			Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados) {
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
+
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		if (origen < 0 || destino < 0)
+			return false;
 
-		LOGGER.debug("Buscando viajes directos de {} a {}.", paradaOrigen.getCodigo(), paradaDestino.getCodigo());
 		boolean seEncontroAlgo = false;
+		int inicio = red.inicioDirectas(origen, destino);
+		int fin = red.finDirectas(origen, destino, inicio);
 
-		for (Linea linea : lineasDelSistema.values()) {
-			Optional<Recorrido> recorrido = buscarRecorridoEnLinea(linea, paradaOrigen, paradaDestino, diaSemana,
-					horaLlegaParada, tramos);
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		if (estadisticas != null) {
+			estadisticas.sumarBusquedas(3);
+			estadisticas.sumarLineas(fin - inicio);
+		}
 
-			if (recorrido.isPresent()) {
-				todosLosResultados.add(Collections.singletonList(recorrido.get()));
+		for (int k = inicio; k < fin; k++) {
+			if (buscarRecorridoEnLinea(red.lineaDirecta(k), red.origenDirecto(k), red.destinoDirecto(k), diaSemana,
+					horaMinima, red, resultados))
 				seEncontroAlgo = true;
-			}
 		}
 
 		return seEncontroAlgo;
 	}
 
 	/**
-	 * Attempts to find a valid direct route on a specific line by checking
-	 * geographical viability and matching the time schedule.
+	 * Attempts to find a valid direct route on a specific line by matching the
+	 * time schedule. The route is only materialized if the bounded collector keeps
+	 * it.
 	 * 
-	 * @param linea           The bus line to check.
-	 * @param paradaOrigen    The starting stop.
-	 * @param paradaDestino   The final destination stop.
-	 * @param diaSemana       The day of the week.
-	 * @param horaLlegaParada The passenger's arrival time at the origin.
-	 * @param tramos          Map of all available {@code Tramo} objects.
-	 * @return An {@code Optional} containing the valid {@code Recorrido} if found,
-	 *         or an empty {@code Optional} otherwise.
+	 * @param idxLinea   The position of the bus line in {@code lineas}.
+	 * @param idxOrigen  The index of the origin stop on the line.
+	 * @param idxDestino The index of the destination stop on the line.
+	 * @param diaSemana  The day of the week.
+	 * @param horaMinima The passenger's arrival time at the origin, in service-day
+	 *                   seconds.
+	 * @param red        The precalculated transportation network.
+	 * @param resultados The bounded collector for the found routes.
+	 * @return true if the line offers a valid direct route, false otherwise.
 	 */
-	private Optional<Recorrido> buscarRecorridoEnLinea(Linea linea, Parada paradaOrigen, Parada paradaDestino,
-			int diaSemana, LocalTime horaLlegaParada, Map<String, Tramo> tramos) {
-
-		IndicesParadas indices = obtenerIndicesParadas(linea, paradaOrigen, paradaDestino);
-
-		if (!indices.esValida())
-			return Optional.empty();
-
-		int tiempoHastaOrigen = calcularTiempoEntreParadas(linea.getParadas(), 0, indices.getIdxOrigen(), tramos);
+	private boolean buscarRecorridoEnLinea(int idxLinea, int idxOrigen, int idxDestino, int diaSemana,
+			int horaMinima, RedTransporte red, ResultadosAcotados resultados) {
 
-		return buscarPrimeraFrecuenciaValida(linea, diaSemana, horaLlegaParada, tiempoHastaOrigen, indices, tramos);
-	}
+		int tiempoHastaOrigen = red.tiempoEntre(idxLinea, 0, idxOrigen);
+		int salida = buscarSalida(idxLinea, diaSemana, tiempoHastaOrigen, horaMinima, red,
+				resultados.getEstadisticas());
 
-	/**
-	 * Fiinds the indexes of the origin and destination stops within the given
-	 * line's route.
-	 * 
-	 * @param linea         The bus line route list.
-	 * @param paradaOrigen  The starting stop.
-	 * @param paradaDestino The final destination stop.
-	 * @return An {@code IndicesParadas} object containing the indexes.
-	 */
-	private IndicesParadas obtenerIndicesParadas(Linea linea, Parada paradaOrigen, Parada paradaDestino) {
-		List<Parada> paradasDeLaLinea = linea.getParadas();
-		int idxOrigen = paradasDeLaLinea.indexOf(paradaOrigen);
-		int idxDestino = paradasDeLaLinea.indexOf(paradaDestino);
+		if (salida < 0)
+			return false;
 
-		return new IndicesParadas(idxOrigen, idxDestino);
-	}
+		int duracionTrayecto = red.tiempoEntre(idxLinea, idxOrigen, idxDestino);
+		int llegada = salida + duracionTrayecto;
 
-	/**
-	 * Iterates through the line's schedules to find the first frequency that is
-	 * available for the given day and departs at or after the passenger's arrival
-	 * time.
-	 * 
-	 * @param linea             The bus line.
-	 * @param diaSemana         The required day of the week.
-	 * @param horaLlegaParada   The passenger's arrival time at the origin stop.
-	 * @param tiempoHastaOrigen The time elapsed from the start of the route to the
-	 *                          origin stop.
-	 * @param indices           The origin and destination indices.
-	 * @param tramos            Map of all available {@code Tramo} objects.
-	 * @return An {@code Optional} containing the valid {@code Recorrido}, or empty
-	 *         if none is found.
-	 */
-	private Optional<Recorrido> buscarPrimeraFrecuenciaValida(Linea linea, int diaSemana, LocalTime horaLlegaParada,
-			int tiempoHastaOrigen, IndicesParadas indices, Map<String, Tramo> tramos) {
-
-		for (Linea.Frecuencia frecuencia : linea.getFrecuencias()) {
-			Optional<Recorrido> recorrido = procesarFrecuencia(linea, frecuencia, diaSemana, horaLlegaParada,
-					tiempoHastaOrigen, indices, tramos);
-
-			if (recorrido.isPresent())
-				return recorrido;
+		if (resultados.admite(llegada)) {
+			Recorrido recorrido = crearRecorrido(lineas[idxLinea], idxOrigen, idxDestino, salida, duracionTrayecto);
+			resultados.agregar(Collections.singletonList(recorrido), llegada);
 		}
-		return Optional.empty();
-	}
-
-	/**
-	 * Checks a single frequency for validity and constructs the {@code Recorrido}
-	 * if valid.
-	 * 
-	 * @param linea             The bus line.
-	 * @param frecuencia        The specific schedule frequency to check.
-	 * @param diaSemana         The required day of the week.
-	 * @param horaLlegaParada   The passenger's arrival time.
-	 * @param tiempoHastaOrigen The time from the start of the route to the origin
-	 *                          stop.
-	 * @param indices           The origin and destination indices.
-	 * @param tramos            Map of all available {@code Tramo} objects.
-	 * @return An {@code Optional} containing the valid {@code Recorrido}, or empty
-	 *         otherwise.
-	 */
-	private Optional<Recorrido> procesarFrecuencia(Linea linea, Linea.Frecuencia frecuencia, int diaSemana,
-			LocalTime horaLlegaParada, int tiempoHastaOrigen, IndicesParadas indices, Map<String, Tramo> tramos) {
-
-		if (!esFrecuenciaValida(frecuencia, diaSemana, horaLlegaParada, tiempoHastaOrigen))
-			return Optional.empty();
-
-		return crearRecorrido(linea, frecuencia, tiempoHastaOrigen, indices, tramos);
-	}
-
-	/**
-	 * Determines if a specific schedule frequency is valid for the requested day
-	 * and time. Validity requires the schedule day to match the request day, and
-	 * the estimated bus arrival time at the origin must be at or after the
-	 * passenger's arrival time.
-	 * 
-	 * @param frecuencia        The schedule frequency being checked.
-	 * @param diaSemana         The required day of the week.
-	 * @param horaLlegaParada   The passenger's arrival time.
-	 * @param tiempoHastaOrigen The time from the start of the route to the origin
-	 *                          stop.
-	 * @return true if the frequency is available and on time for the passenger,
-	 *         false otherwise.
-	 */
-	private boolean esFrecuenciaValida(Linea.Frecuencia frecuencia, int diaSemana, LocalTime horaLlegaParada,
-			int tiempoHastaOrigen) {
-
-		boolean mismoDia = frecuencia.getDiaSemana() == diaSemana;
-		LocalTime horaPasoPorOrigen = frecuencia.getHora().plusSeconds(tiempoHastaOrigen);
-		boolean horaValida = !horaPasoPorOrigen.isBefore(horaLlegaParada);
-
-		return mismoDia && horaValida;
+		return true;
 	}
 
 	/**
-	 * Constructs the final {@code Recorrido} object from a valid frequency.
-	 * Calculates the segment duration between the origin and destination stops.
+	 * Direct journeys have no transfers.
 	 * 
-	 * @param linea             The bus line.
-	 * @param frecuencia        The valid schedule frequency.
-	 * @param tiempoHastaOrigen The time from the start of the route to the origin
-	 *                          stop.
-	 * @param indices           The origin and destination indices.
-	 * @param tramos            Map of all available {@code Tramo} objects.
-	 * @return An {@code Optional} containing the constructed {@code Recorrido}
-	 *         object.
+	 * @return 0
 	 */
-	private Optional<Recorrido> crearRecorrido(Linea linea, Linea.Frecuencia frecuencia, int tiempoHastaOrigen,
-			IndicesParadas indices, Map<String, Tramo> tramos) {
-
-		List<Parada> paradasDeLaLinea = linea.getParadas();
-
-		if (indices.getIdxDestino() + 1 > paradasDeLaLinea.size()) {
-			LOGGER.error("Error: Índice fuera de rango (Directo) para línea {}", linea.getCodigo());
-			return Optional.empty();
-		}
-
-		List<Parada> paradasDelRecorrido = paradasDeLaLinea.subList(indices.getIdxOrigen(),
-				indices.getIdxDestino() + 1);
-
-		int duracionTrayecto = calcularTiempoEntreParadas(paradasDeLaLinea, indices.getIdxOrigen(),
-				indices.getIdxDestino(), tramos);
-
-		LocalTime horaPasoPorOrigen = frecuencia.getHora().plusSeconds(tiempoHastaOrigen);
-
-		Recorrido recorrido = new Recorrido(linea, new ArrayList<>(paradasDelRecorrido), horaPasoPorOrigen,
-				duracionTrayecto);
-
-		return Optional.of(recorrido);
-	}
-
-	/**
-	 * Inner utility class to encapsulate the indexes and validity of the stops on
-	 * the line.
-	 */
-	private static class IndicesParadas {
-
-		/** The index of the origin stop. */
-		private final int idxOrigen;
-
-		/** The index of the destination stop. */
-		private final int idxDestino;
-
-		/**
-		 * Constructor.
-		 * 
-		 * @param idxOrigen  The index of the origin stop.
-		 * @param idxDestino The index of the destination stop.
-		 */
-		public IndicesParadas(int idxOrigen, int idxDestino) {
-			this.idxOrigen = idxOrigen;
-			this.idxDestino = idxDestino;
-		}
-
-		/**
-		 * @return true if both stops exist on the line (index != -1) and the origin
-		 *         precedes the destination (idxOrigen < idxDestino), meaning the trip
-		 *         is possible.
-		 */
-		public boolean esValida() {
-			return idxOrigen != -1 && idxDestino != -1 && idxOrigen < idxDestino;
-		}
-
-		/** @return The index of the origin stop. */
-		public int getIdxOrigen() {
-			return idxOrigen;
-		}
-
-		/** @return The index of the destination stop. */
-		public int getIdxDestino() {
-			return idxDestino;
-		}
+	@Override
+	public int transbordosMaximos() {
+		return 0;
 	}
 }
\ No newline at end of file
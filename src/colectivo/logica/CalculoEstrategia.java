@@ -1,11 +1,8 @@
 package colectivo.logica;
 
-import java.time.LocalTime;
 import java.util.List;
-import java.util.Map;
 
 import colectivo.modelo.Parada;
-import colectivo.modelo.Tramo;
 
 /**
  * This interface defines the contract for all route calculation algorithms.
@@ -16,25 +13,51 @@ import colectivo.modelo.Tramo;
  * @author Nerea Toledo
  * */
 public interface CalculoEstrategia {
+
+	/**
+	 * Value of {@code transbordosMaximos} for strategies whose journeys are not
+	 * bounded by the reachability summaries of {@code Alcanzabilidad}.
+	 */
+	int SIN_LIMITE = -1;
 	
 	/**
 	 * Attempts to find all possible routes between two stops based on this
-	 * strategy. Implementations must add any found routes to the
-	 * {@code todosLosResultados} list.
+	 * strategy. Implementations must offer any found routes to the
+	 * {@code resultados} collector, and may use its current arrival bound
+	 * ({@code ResultadosAcotados.admite}) to prune partial routes that can no
+	 * longer be kept.
 	 * 
 	 * @param paradaOrigen       The starting stop of the trip.
 	 * @param paradaDestino      The final destination stop.
 	 * @param diaSemana          The day of the week (integer code) for schedule
 	 *                           lookup.
-	 * @param horaLlegaParada    The time of arrival at the origin stop (departure
-	 *                           time for the route).
-	 * @param tramos             Map of all available {@code Tramo} objects
-	 *                           (including walking segments).
-	 * @param todosLosResultados The accumulated list where all found routes
-	 *                           (List<Recorrido>) are added.
+	 * @param horaMinima         The time of arrival at the origin stop, in seconds
+	 *                           since the start of the service day of
+	 *                           {@code diaSemana}. Times found by the strategy use
+	 *                           the same reference and may go past 24:00.
+	 * @param red                The transportation network precalculated from
+	 *                           the system's lines and segments (including
+	 *                           walking segments).
+	 * @param resultados         The bounded collector where all found routes
+	 *                           (List<Recorrido>) are offered.
 	 * @return true if at least one route was found by this specific strategy, false
 	 *         otherwise.
 	 */
-	boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, LocalTime horaLlegaParada,
-			Map<String, Tramo> tramos, List<List<Recorrido>> todosLosResultados);
+	boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados);
+
+	/**
+	 * Returns the maximum number of transfers of the journeys this strategy
+	 * builds, when they only combine bus segments joined at a shared stop or by a
+	 * single walking segment, as modelled by {@code Alcanzabilidad}. Queries that
+	 * the summaries reject for that number of transfers are then skipped without
+	 * running the strategy. Strategies that may build other journeys (more
+	 * transfers, or walking at the start or the end) must not be skipped and keep
+	 * the default.
+	 * 
+	 * @return The maximum number of transfers, or {@code SIN_LIMITE}.
+	 */
+	default int transbordosMaximos() {
+		return SIN_LIMITE;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,362 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Strategy for "fewest changes" queries. Instead of nesting loops over lines
+ * and stops, it works on the {@code GrafoLineas} of the network: a
+ * breadth-first search over lines gives the minimum number of transfers from
+ * each line to the destination, and only the chains of lines with that number
+ * of transfers are expanded against the timetables. If none of them has a
+ * departure left, chains with one more transfer are tried, up to
+ * {@code MAX_TRAMOS} bus segments.
+ * 
+ * Each chain contributes at most one journey: the one with the earliest
+ * arrival, found by following the chain line by line and keeping, for every
+ * stop where the current line can be boarded, the earliest bus passing there.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class CalculoMenosTransbordosService extends EstrategiaCalculoBase {
+
+	/** Maximum number of bus segments of a journey. */
+	public static final int MAX_TRAMOS = 4;
+
+	/** Maximum number of chains of lines expanded for each number of transfers. */
+	private static final int MAX_CADENAS = 1000;
+
+	/**
+	 * Constructor that injects the system's available lines.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 */
+	public CalculoMenosTransbordosService(Map<String, Linea> lineasDelSistema) {
+		super(lineasDelSistema);
+	}
+
+	/**
+	 * Searches for the journeys with the fewest transfers between the origin and
+	 * destination stops.
+	 * 
+	 * @param paradaOrigen  The starting stop of the trip.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week for schedule lookup.
+	 * @param horaMinima    The time the passenger arrives at the origin stop, in
+	 *                      seconds since the start of the service day.
+	 * @param red           The precalculated transportation network.
+	 * @param resultados    The bounded collector where all found routes
+	 *                      (List<Recorrido>) are offered.
+	 * @return true if at least one route was found, false otherwise.
+	 */
+	@Override
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
+
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		if (origen < 0 || destino < 0 || origen == destino)
+			return false;
+
+		GrafoLineas grafo = red.getGrafoLineas();
+		int[] distancias = grafo.transbordosHasta(red, destino);
+
+		int minimo = Integer.MAX_VALUE;
+		for (int l : red.lineasDeParada(origen)) {
+			if (distancias[l] >= 0)
+				minimo = Math.min(minimo, distancias[l]);
+		}
+
+		Busqueda busqueda = new Busqueda(red, grafo, distancias, origen, destino, diaSemana, horaMinima, resultados);
+		for (int transbordos = minimo; transbordos < MAX_TRAMOS; transbordos++) {
+			if (busqueda.buscarCadenas(transbordos))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * State of one query: enumerates the chains of lines and expands them against
+	 * the timetables.
+	 */
+	private final class Busqueda {
+
+		/** The network. */
+		private final RedTransporte red;
+
+		/** The line graph of the network. */
+		private final GrafoLineas grafo;
+
+		/** Minimum number of transfers from each line to the destination. */
+		private final int[] distancias;
+
+		/** The origin stop index. */
+		private final int origen;
+
+		/** The destination stop index. */
+		private final int destino;
+
+		/** The day of the week. */
+		private final int diaSemana;
+
+		/** The passenger's arrival time at the origin, in service-day seconds. */
+		private final int horaMinima;
+
+		/** The bounded collector for the found routes. */
+		private final ResultadosAcotados resultados;
+
+		/** The chain of lines being built. */
+		private final int[] cadena = new int[MAX_TRAMOS];
+
+		/** The edge used to reach each line of {@code cadena} from the previous one. */
+		private final int[] aristas = new int[MAX_TRAMOS];
+
+		/** Number of chains expanded for the current number of transfers. */
+		private int cadenasExpandidas;
+
+		/** Whether a journey was found for the current number of transfers. */
+		private boolean seEncontroAlgo;
+
+		/**
+		 * Constructor for the state of a query.
+		 * 
+		 * @param red        The network.
+		 * @param grafo      The line graph.
+		 * @param distancias Minimum transfers from each line to the destination.
+		 * @param origen     The origin stop index.
+		 * @param destino    The destination stop index.
+		 * @param diaSemana  The day of the week.
+		 * @param horaMinima The arrival time at the origin.
+		 * @param resultados The bounded collector.
+		 */
+		private Busqueda(RedTransporte red, GrafoLineas grafo, int[] distancias, int origen, int destino,
+				int diaSemana, int horaMinima, ResultadosAcotados resultados) {
+			this.red = red;
+			this.grafo = grafo;
+			this.distancias = distancias;
+			this.origen = origen;
+			this.destino = destino;
+			this.diaSemana = diaSemana;
+			this.horaMinima = horaMinima;
+			this.resultados = resultados;
+		}
+
+		/**
+		 * Expands every chain of lines with exactly the given number of transfers
+		 * that starts at the origin and can end at the destination.
+		 * 
+		 * @param transbordos The number of transfers.
+		 * @return true if at least one journey was found.
+		 */
+		private boolean buscarCadenas(int transbordos) {
+			cadenasExpandidas = 0;
+			seEncontroAlgo = false;
+			for (int l : red.lineasDeParada(origen)) {
+				if (distancias[l] >= 0 && distancias[l] <= transbordos) {
+					cadena[0] = l;
+					extender(1, transbordos);
+				}
+			}
+			return seEncontroAlgo;
+		}
+
+		/**
+		 * Adds lines to the chain depth-first, only through lines that can still
+		 * reach the destination with the transfers left.
+		 * 
+		 * @param largo       The number of lines already in the chain.
+		 * @param transbordos The number of transfers of the chains built.
+		 */
+		private void extender(int largo, int transbordos) {
+			if (cadenasExpandidas >= MAX_CADENAS)
+				return;
+			if (largo == transbordos + 1) {
+				cadenasExpandidas++;
+				expandir(largo);
+				return;
+			}
+
+			int restantes = transbordos + 1 - largo;
+			int actual = cadena[largo - 1];
+			for (int e = grafo.inicioAristas(actual); e < grafo.finAristas(actual); e++) {
+				int siguiente = grafo.vecino(e);
+				if (distancias[siguiente] < 0 || distancias[siguiente] > restantes - 1)
+					continue;
+				cadena[largo] = siguiente;
+				aristas[largo] = e;
+				extender(largo + 1, transbordos);
+			}
+		}
+
+		/**
+		 * Expands a chain of lines against the timetables and offers its earliest
+		 * journey to the results.
+		 * 
+		 * @param largo The number of lines in the chain.
+		 */
+		private void expandir(int largo) {
+			int primera = cadena[0];
+			int posicionOrigen = GrafoLineas.posicionEn(red, origen, primera);
+			int salida = buscarSalida(primera, diaSemana, red.tiempoEntre(primera, 0, posicionOrigen), horaMinima,
+					red, resultados.getEstadisticas());
+			if (salida < 0)
+				return;
+
+			List<Abordaje> abordajes = new ArrayList<>();
+			abordajes.add(new Abordaje(posicionOrigen, salida, null, 0, null, 0));
+
+			for (int k = 1; k < largo && !abordajes.isEmpty(); k++)
+				abordajes = transbordar(cadena[k - 1], cadena[k], aristas[k], abordajes);
+
+			int ultima = cadena[largo - 1];
+			int posicionDestino = GrafoLineas.posicionEn(red, destino, ultima);
+			Abordaje mejor = mejorAbordajeAntesDe(ultima, abordajes, posicionDestino);
+			if (mejor == null)
+				return;
+
+			int llegada = mejor.salida + red.tiempoEntre(ultima, mejor.posicion, posicionDestino);
+			seEncontroAlgo = true;
+			if (resultados.admite(llegada))
+				resultados.agregar(armarViaje(largo, mejor, posicionDestino), llegada);
+		}
+
+		/**
+		 * Moves from one line of the chain to the next one through the connections
+		 * of the edge between them.
+		 * 
+		 * @param desde     The line being left.
+		 * @param hacia     The line being boarded.
+		 * @param arista    The edge between both lines.
+		 * @param abordajes The ways the line being left was boarded.
+		 * @return The ways the next line can be boarded.
+		 */
+		private List<Abordaje> transbordar(int desde, int hacia, int arista, List<Abordaje> abordajes) {
+			List<Abordaje> siguientes = new ArrayList<>();
+			for (int c = grafo.inicioConexiones(arista); c < grafo.finConexiones(arista); c++) {
+				int bajada = grafo.bajada(c);
+				Abordaje previo = mejorAbordajeAntesDe(desde, abordajes, bajada);
+				if (previo == null)
+					continue;
+
+				int llegadaBajada = previo.salida + red.tiempoEntre(desde, previo.posicion, bajada);
+				Tramo caminata = grafo.caminata(c);
+				int disponible = llegadaBajada + (caminata == null ? 0 : caminata.getTiempo());
+				if (!resultados.admite(disponible))
+					continue;
+
+				int subida = grafo.subida(c);
+				int salida = buscarSalida(hacia, diaSemana, red.tiempoEntre(hacia, 0, subida), disponible, red,
+						resultados.getEstadisticas());
+				if (salida >= 0)
+					siguientes.add(new Abordaje(subida, salida, previo, bajada, caminata, llegadaBajada));
+			}
+			return siguientes;
+		}
+
+		/**
+		 * Returns the boarding of a line that reaches a later stop earliest. A bus
+		 * boarded at an earlier stop of the same line always keeps its order, so the
+		 * best boarding is the one whose bus left the start of the line first.
+		 * 
+		 * @param linea     The line index.
+		 * @param abordajes The boardings of the line.
+		 * @param posicion  The position of the later stop.
+		 * @return The best boarding before {@code posicion}, or null if none.
+		 */
+		private Abordaje mejorAbordajeAntesDe(int linea, List<Abordaje> abordajes, int posicion) {
+			Abordaje mejor = null;
+			int mejorInicio = Integer.MAX_VALUE;
+			for (Abordaje abordaje : abordajes) {
+				if (abordaje.posicion >= posicion)
+					continue;
+				int inicio = abordaje.salida - red.tiempoEntre(linea, 0, abordaje.posicion);
+				if (inicio < mejorInicio) {
+					mejor = abordaje;
+					mejorInicio = inicio;
+				}
+			}
+			return mejor;
+		}
+
+		/**
+		 * Builds the segments of a journey from its last boarding.
+		 * 
+		 * @param largo           The number of lines in the chain.
+		 * @param ultimo          The boarding of the last line.
+		 * @param posicionDestino The position of the destination on the last line.
+		 * @return The segments of the journey, in order.
+		 */
+		private List<Recorrido> armarViaje(int largo, Abordaje ultimo, int posicionDestino) {
+			List<Recorrido> viaje = new ArrayList<>(largo * 2);
+			Abordaje abordaje = ultimo;
+			int fin = posicionDestino;
+			for (int k = largo - 1; k >= 0; k--) {
+				int l = cadena[k];
+				viaje.add(crearRecorrido(lineas[l], abordaje.posicion, fin, abordaje.salida,
+						red.tiempoEntre(l, abordaje.posicion, fin)));
+				if (abordaje.caminata != null) {
+					Tramo caminata = abordaje.caminata;
+					viaje.add(new Recorrido(null, List.of(caminata.getInicio(), caminata.getFin()),
+							abordaje.llegadaBajada, caminata.getTiempo()));
+				}
+				fin = abordaje.bajadaPrevia;
+				abordaje = abordaje.previo;
+			}
+			Collections.reverse(viaje);
+			return viaje;
+		}
+	}
+
+	/**
+	 * A way of boarding a line of the chain: where and when, and how the
+	 * passenger got there from the previous line.
+	 */
+	private static final class Abordaje {
+
+		/** Position of the boarding stop on the line. */
+		private final int posicion;
+
+		/** Time the bus passes through the boarding stop. */
+		private final int salida;
+
+		/** The boarding of the previous line, or null for the first one. */
+		private final Abordaje previo;
+
+		/** Position on the previous line of the stop where it was left. */
+		private final int bajadaPrevia;
+
+		/** The walking segment from the previous line, or null. */
+		private final Tramo caminata;
+
+		/** Time the previous line reached the stop where it was left. */
+		private final int llegadaBajada;
+
+		/**
+		 * Constructor for a new boarding.
+		 * 
+		 * @param posicion      Position of the boarding stop.
+		 * @param salida        Time the bus passes through it.
+		 * @param previo        The boarding of the previous line, or null.
+		 * @param bajadaPrevia  Position where the previous line was left.
+		 * @param caminata      The walking segment, or null.
+		 * @param llegadaBajada Time the previous line reached that stop.
+		 */
+		private Abordaje(int posicion, int salida, Abordaje previo, int bajadaPrevia, Tramo caminata,
+				int llegadaBajada) {
+			this.posicion = posicion;
+			this.salida = salida;
+			this.previo = previo;
+			this.bajadaPrevia = bajadaPrevia;
+			this.caminata = caminata;
+			this.llegadaBajada = llegadaBajada;
+		}
+	}
+}
\ No newline at end of file
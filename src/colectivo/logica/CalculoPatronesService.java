@@ -0,0 +1,312 @@
+package colectivo.logica;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Strategy that answers queries with the precalculated
+ * {@code PatronesTransbordo}. Only the stop sequences of the patterns from the
+ * origin to the destination are evaluated: each step between two consecutive
+ * stops of a pattern is resolved with the direct-connection index and the
+ * timetables (the earliest bus of any line joining both stops) or with the
+ * walking segment between them. Steps shared by several patterns are evaluated
+ * once, and every pattern that reaches the destination is offered.
+ * 
+ * The patterns are loaded from the file given to the constructor the first time
+ * a network is searched, or calculated and saved there if the file is missing or
+ * belongs to another network. Since the calculation takes seconds, it is meant
+ * for networks that rarely change. Nothing is precalculated for the patterns
+ * when the network is built: loading them only reads the network's index, and
+ * the trips of {@code RedViajes} are only expanded when the patterns must be
+ * calculated.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class CalculoPatronesService extends EstrategiaCalculoBase {
+
+	/** Key of config.properties with the file of the transfer patterns. */
+	public static final String CLAVE_ARCHIVO = "patrones";
+
+	/** Label of a node whose arrival has not been evaluated. */
+	private static final int SIN_EVALUAR = -2;
+
+	/** Label of a node that cannot be reached. */
+	private static final int INALCANZABLE = -1;
+
+	/** Step type of a walking segment. */
+	private static final int CAMINANDO = -1;
+
+	/** File where the patterns are persisted, or null to keep them in memory. */
+	private final Path archivo;
+
+	/** The patterns of the last network searched. */
+	private volatile PatronesTransbordo patrones;
+
+	/**
+	 * Constructor that injects the system's available lines and uses the file
+	 * configured in config.properties under {@code CLAVE_ARCHIVO}.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 */
+	public CalculoPatronesService(Map<String, Linea> lineasDelSistema) {
+		this(lineasDelSistema, archivoConfigurado());
+	}
+
+	/**
+	 * Constructor that injects the system's available lines and the file of the
+	 * patterns.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 * @param archivo          The file where the patterns are persisted, or null
+	 *                         to calculate them in memory only.
+	 */
+	public CalculoPatronesService(Map<String, Linea> lineasDelSistema, Path archivo) {
+		super(lineasDelSistema);
+		this.archivo = archivo;
+	}
+
+	/**
+	 * Reads the file of the patterns from config.properties.
+	 * 
+	 * @return The configured file, or null if the key is missing.
+	 */
+	private static Path archivoConfigurado() {
+		Properties prop = new Properties();
+		try (InputStream input = CalculoPatronesService.class.getClassLoader()
+				.getResourceAsStream("config.properties")) {
+			if (input != null) {
+				prop.load(input);
+				String valor = prop.getProperty(CLAVE_ARCHIVO);
+				if (valor != null && !valor.isBlank())
+					return Path.of(valor.trim());
+			}
+		} catch (IOException ex) {
+			LOGGER.warn("No se pudo leer '{}' de config.properties. Los patrones no se guardarán.", CLAVE_ARCHIVO,
+					ex);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the patterns of a network, loading or calculating them the first
+	 * time it is seen.
+	 * 
+	 * @param red The network.
+	 * @return The patterns of {@code red}.
+	 */
+	public PatronesTransbordo obtenerPatrones(RedTransporte red) {
+		PatronesTransbordo actuales = this.patrones;
+		if (actuales != null && actuales.esDe(red))
+			return actuales;
+
+		synchronized (this) {
+			actuales = this.patrones;
+			if (actuales != null && actuales.esDe(red))
+				return actuales;
+
+			actuales = cargar(red);
+			if (actuales == null) {
+				actuales = PatronesTransbordo.calcular(red);
+				guardar(actuales);
+			}
+			this.patrones = actuales;
+			return actuales;
+		}
+	}
+
+	/**
+	 * Loads the patterns of a network from the file, if it has them.
+	 * 
+	 * @param red The network.
+	 * @return The patterns, or null if they must be calculated.
+	 */
+	private PatronesTransbordo cargar(RedTransporte red) {
+		if (archivo == null)
+			return null;
+		try {
+			PatronesTransbordo cargados = PatronesTransbordo.cargar(archivo, red);
+			if (cargados != null)
+				LOGGER.info("Patrones de transbordo cargados de {}.", archivo);
+			return cargados;
+		} catch (IOException ex) {
+			LOGGER.warn("No se pudo leer el archivo de patrones {}. Se calcularán de nuevo.", archivo, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Saves the patterns to the file, if one is configured.
+	 * 
+	 * @param calculados The patterns.
+	 */
+	private void guardar(PatronesTransbordo calculados) {
+		if (archivo == null)
+			return;
+		try {
+			calculados.guardar(archivo);
+			LOGGER.info("Patrones de transbordo guardados en {}.", archivo);
+		} catch (IOException ex) {
+			LOGGER.warn("No se pudo guardar el archivo de patrones {}.", archivo, ex);
+		}
+	}
+
+	/**
+	 * Evaluates the transfer patterns between the origin and destination stops.
+	 * 
+	 * @param paradaOrigen  The starting stop of the trip.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week for schedule lookup.
+	 * @param horaMinima    The time the passenger arrives at the origin stop, in
+	 *                      seconds since the start of the service day.
+	 * @param red           The precalculated transportation network.
+	 * @param resultados    The bounded collector where the found routes
+	 *                      (List<Recorrido>) are offered.
+	 * @return true if at least one pattern reaches the destination, false
+	 *         otherwise.
+	 */
+	@Override
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
+
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		if (origen < 0 || destino < 0 || origen == destino)
+			return false;
+
+		PatronesTransbordo patrones = obtenerPatrones(red);
+		int inicio = patrones.inicioPatrones(origen, destino);
+		int fin = patrones.finPatrones(origen, destino, inicio);
+		if (inicio == fin)
+			return false;
+
+		int cantidadNodos = patrones.getCantidadNodos(origen);
+		EspacioConsulta espacio = EspacioConsulta.actual();
+		int[] llegadas = espacio.enteros(0, cantidadNodos);
+		int[] medios = espacio.enteros(1, cantidadNodos);
+		int[] salidas = espacio.enteros(2, cantidadNodos);
+		Arrays.fill(llegadas, 0, cantidadNodos, SIN_EVALUAR);
+		llegadas[0] = horaMinima;
+
+		boolean encontrado = false;
+		for (int k = inicio; k < fin; k++) {
+			int nodo = patrones.nodoPatron(origen, k);
+			int llegada = evaluar(red, patrones, origen, nodo, diaSemana, llegadas, medios, salidas);
+			if (llegada == INALCANZABLE)
+				continue;
+			encontrado = true;
+			if (resultados.admite(llegada))
+				resultados.agregar(armarViaje(red, patrones, origen, nodo, medios, salidas, llegadas), llegada);
+		}
+		return encontrado;
+	}
+
+	/**
+	 * Calculates the arrival at a node of the origin's patterns, evaluating first
+	 * the ancestors not evaluated yet.
+	 * 
+	 * @param red       The network.
+	 * @param patrones  The patterns.
+	 * @param origen    The origin stop index.
+	 * @param nodo      The node.
+	 * @param diaSemana The day of the week.
+	 * @param llegadas  The arrival at each node, or a label.
+	 * @param medios    The direct entry used to reach each node, or
+	 *                  {@code CAMINANDO}.
+	 * @param salidas   The departure of the step reaching each node.
+	 * @return The arrival at the node, or {@code INALCANZABLE}.
+	 */
+	private int evaluar(RedTransporte red, PatronesTransbordo patrones, int origen, int nodo, int diaSemana,
+			int[] llegadas, int[] medios, int[] salidas) {
+		if (llegadas[nodo] != SIN_EVALUAR)
+			return llegadas[nodo];
+
+		int padre = patrones.padreNodo(origen, nodo);
+		int hora = evaluar(red, patrones, origen, padre, diaSemana, llegadas, medios, salidas);
+		if (hora == INALCANZABLE) {
+			llegadas[nodo] = INALCANZABLE;
+			return INALCANZABLE;
+		}
+
+		int desde = patrones.paradaNodo(origen, padre);
+		int hasta = patrones.paradaNodo(origen, nodo);
+		int mejor = INALCANZABLE;
+
+		Tramo[] caminatas = red.caminatasDesde(desde);
+		if (caminatas != null) {
+			int[] destinos = red.destinosCaminatasDesde(desde);
+			for (int k = 0; k < caminatas.length; k++) {
+				if (destinos[k] == hasta) {
+					mejor = hora + caminatas[k].getTiempo();
+					medios[nodo] = CAMINANDO;
+					salidas[nodo] = hora;
+					break;
+				}
+			}
+		}
+
+		int inicio = red.inicioDirectas(desde, hasta);
+		int fin = red.finDirectas(desde, hasta, inicio);
+		for (int k = inicio; k < fin; k++) {
+			int l = red.lineaDirecta(k);
+			int idxOrigen = red.origenDirecto(k);
+			int salida = buscarSalida(l, diaSemana, red.tiempoEntre(l, 0, idxOrigen), hora, red);
+			if (salida < 0)
+				continue;
+			int llegada = salida + red.tiempoEntre(l, idxOrigen, red.destinoDirecto(k));
+			if (mejor == INALCANZABLE || llegada < mejor) {
+				mejor = llegada;
+				medios[nodo] = k;
+				salidas[nodo] = salida;
+			}
+		}
+		llegadas[nodo] = mejor;
+		return mejor;
+	}
+
+	/**
+	 * Builds the segments of the journey that follows a pattern.
+	 * 
+	 * @param red      The network.
+	 * @param patrones The patterns.
+	 * @param origen   The origin stop index.
+	 * @param nodo     The node where the pattern ends.
+	 * @param medios   The direct entry used to reach each node, or
+	 *                 {@code CAMINANDO}.
+	 * @param salidas  The departure of the step reaching each node.
+	 * @param llegadas The arrival at each node.
+	 * @return The segments of the journey, in order.
+	 */
+	private List<Recorrido> armarViaje(RedTransporte red, PatronesTransbordo patrones, int origen, int nodo,
+			int[] medios, int[] salidas, int[] llegadas) {
+		List<Recorrido> viaje = new ArrayList<>();
+		while (nodo > 0) {
+			int padre = patrones.padreNodo(origen, nodo);
+			int duracion = llegadas[nodo] - salidas[nodo];
+			if (medios[nodo] == CAMINANDO) {
+				Parada inicio = red.getParada(patrones.paradaNodo(origen, padre));
+				Parada fin = red.getParada(patrones.paradaNodo(origen, nodo));
+				viaje.add(new Recorrido(null, List.of(inicio, fin), salidas[nodo], duracion));
+			} else {
+				int k = medios[nodo];
+				viaje.add(crearRecorrido(lineas[red.lineaDirecta(k)], red.origenDirecto(k), red.destinoDirecto(k),
+						salidas[nodo], duracion));
+			}
+			nodo = padre;
+		}
+		Collections.reverse(viaje);
+		return viaje;
+	}
+}
\ No newline at end of file
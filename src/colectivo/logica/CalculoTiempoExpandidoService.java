@@ -0,0 +1,334 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Routing strategy over the {@code GrafoTiempoExpandido} of the network. The
+ * passenger enters the waiting chains of the origin (or of the stops reached
+ * by walking from it) and a Dijkstra search settles the graph nodes by time
+ * with the thread's {@code ColaPrioridad}, until no node can arrive earlier
+ * than the best arrival at the destination, either on a bus or walking from the
+ * stop where the last bus was left. The earliest journey is offered.
+ * 
+ * The minimum transfer time and the walking factor are fixed when the strategy
+ * is created and are part of the graph, which is built the first time a
+ * network is searched and reused while the network does not change. Nothing is
+ * built for it with the network: the trips of {@code RedViajes} it is expanded
+ * from are also built by that first search, if no other strategy needed them
+ * before.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class CalculoTiempoExpandidoService extends EstrategiaCalculoBase {
+
+	/** Label of a node not reached by the search yet. */
+	private static final int SIN_ALCANZAR = -2;
+
+	/** Parent of the nodes reached directly from the origin. */
+	private static final int ORIGEN = -1;
+
+	/** Arrival of a search that has not reached the destination yet. */
+	private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+	/** Minimum time between alighting and boarding at the same stop, in seconds. */
+	private final int segundosTransbordo;
+
+	/** Factor applied to the time of the walking segments. */
+	private final double factorCaminata;
+
+	/** The graph of the last network searched. */
+	private volatile GrafoTiempoExpandido grafo;
+
+	/**
+	 * Constructor that injects the system's available lines, with no minimum
+	 * transfer time and the walking times as they are.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 */
+	public CalculoTiempoExpandidoService(Map<String, Linea> lineasDelSistema) {
+		this(lineasDelSistema, 0, 1.0);
+	}
+
+	/**
+	 * Constructor that injects the system's available lines and the transfer
+	 * rules of the graph.
+	 * 
+	 * @param lineasDelSistema   A map of all available {@code Linea} objects.
+	 * @param segundosTransbordo The minimum time between alighting and boarding
+	 *                           at the same stop, in seconds.
+	 * @param factorCaminata     The factor applied to the time of the walking
+	 *                           segments (1 keeps them as they are).
+	 * @throws IllegalArgumentException If the transfer time is negative or the
+	 *                                  factor is not positive.
+	 */
+	public CalculoTiempoExpandidoService(Map<String, Linea> lineasDelSistema, int segundosTransbordo,
+			double factorCaminata) {
+		super(lineasDelSistema);
+		if (segundosTransbordo < 0)
+			throw new IllegalArgumentException("El tiempo mínimo de transbordo no puede ser negativo.");
+		if (!(factorCaminata > 0))
+			throw new IllegalArgumentException("El factor de caminata debe ser positivo.");
+		this.segundosTransbordo = segundosTransbordo;
+		this.factorCaminata = factorCaminata;
+	}
+
+	/**
+	 * Returns the time-expanded graph of a network, building it the first time
+	 * it is seen.
+	 * 
+	 * @param red The network.
+	 * @return The graph of {@code red}.
+	 */
+	public GrafoTiempoExpandido obtenerGrafo(RedTransporte red) {
+		GrafoTiempoExpandido actual = this.grafo;
+		if (actual != null && actual.getViajes().getRed() == red)
+			return actual;
+
+		synchronized (this) {
+			actual = this.grafo;
+			if (actual == null || actual.getViajes().getRed() != red) {
+				long inicio = System.nanoTime();
+				actual = new GrafoTiempoExpandido(red, segundosTransbordo, factorCaminata);
+				LOGGER.info("Grafo expandido en el tiempo construido en {} ms: {} nodos, {} aristas, {} KB.",
+						(System.nanoTime() - inicio) / 1_000_000, actual.getCantidadNodos(),
+						actual.getCantidadAristas(), actual.getBytes() / 1024);
+				this.grafo = actual;
+			}
+			return actual;
+		}
+	}
+
+	/**
+	 * Searches for the journey with the earliest arrival between the origin and
+	 * destination stops.
+	 * 
+	 * @param paradaOrigen  The starting stop of the trip.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week for schedule lookup.
+	 * @param horaMinima    The time the passenger arrives at the origin stop, in
+	 *                      seconds since the start of the service day.
+	 * @param red           The precalculated transportation network.
+	 * @param resultados    The bounded collector where the found routes
+	 *                      (List<Recorrido>) are offered.
+	 * @return true if a route was found, false otherwise.
+	 */
+	@Override
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
+
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		if (origen < 0 || destino < 0 || origen == destino)
+			return false;
+
+		GrafoTiempoExpandido grafo = obtenerGrafo(red);
+		RedViajes viajes = grafo.getViajes();
+		int base = diaSemana * SEGUNDOS_DIA;
+		int inicio = base + horaMinima;
+
+		int cantidadNodos = grafo.getCantidadNodos();
+		EspacioConsulta espacio = EspacioConsulta.actual();
+		int[] padres = espacio.enteros(0, cantidadNodos);
+		Arrays.fill(padres, 0, cantidadNodos, SIN_ALCANZAR);
+		ColaPrioridad cola = espacio.cola();
+
+		int mejorLlegada = SIN_LLEGADA;
+		int mejorNodo = ORIGEN;
+		Tramo mejorCaminata = null;
+
+		entrarEnCadenas(grafo, origen, inicio, padres, cola);
+		Tramo[] caminatas = red.caminatasDesde(origen);
+		if (caminatas != null) {
+			int[] destinos = red.destinosCaminatasDesde(origen);
+			for (int k = 0; k < caminatas.length; k++) {
+				int fin = destinos[k];
+				int llegada = inicio + grafo.tiempoCaminata(caminatas[k]);
+				if (fin == destino && llegada < mejorLlegada) {
+					mejorLlegada = llegada;
+					mejorCaminata = caminatas[k];
+				}
+				entrarEnCadenas(grafo, fin, llegada, padres, cola);
+			}
+		}
+
+		int asentados = 0;
+		while (!cola.isEmpty()) {
+			long entrada = cola.quitar();
+			int hora = ColaPrioridad.prioridad(entrada);
+			if (hora >= mejorLlegada)
+				break;
+			int n = ColaPrioridad.elemento(entrada);
+			asentados++;
+
+			if (!grafo.esTransbordo(n) && !grafo.esSalida(n)) {
+				int e = grafo.eventoDe(n);
+				int t = viajes.viajeDeEvento(e);
+				int parada = red.paradasDeLinea(viajes.lineaDe(t))[e - viajes.primerEvento(t)];
+				if (parada == destino) {
+					mejorLlegada = hora;
+					mejorNodo = n;
+					mejorCaminata = null;
+					break;
+				}
+				Tramo caminata = caminataHasta(red, parada, destino);
+				if (caminata != null && hora + grafo.tiempoCaminata(caminata) < mejorLlegada) {
+					mejorLlegada = hora + grafo.tiempoCaminata(caminata);
+					mejorNodo = n;
+					mejorCaminata = caminata;
+				}
+			}
+
+			int fin = grafo.finAristas(n);
+			for (int k = grafo.inicioAristas(n); k < fin; k++) {
+				int m = grafo.destino(k);
+				if (padres[m] != SIN_ALCANZAR)
+					continue;
+				padres[m] = n;
+				cola.agregar(hora + grafo.peso(k), m);
+			}
+		}
+		EstadisticasConsulta estadisticas = resultados.getEstadisticas();
+		if (estadisticas != null)
+			estadisticas.sumarNodosAsentados(asentados);
+
+		if (mejorLlegada == SIN_LLEGADA)
+			return false;
+		int llegada = mejorLlegada - base;
+		if (resultados.admite(llegada))
+			resultados.agregar(armarViaje(red, grafo, origen, mejorNodo, mejorCaminata, padres, inicio, base),
+					llegada);
+		return true;
+	}
+
+	/**
+	 * Queues the first node of every waiting chain of a stop that the passenger
+	 * can board from the given time.
+	 * 
+	 * @param grafo  The graph.
+	 * @param p      The stop index.
+	 * @param hora   The time the passenger reaches the stop, in absolute seconds.
+	 * @param padres The parent of each reached node.
+	 * @param cola   The search queue.
+	 */
+	private static void entrarEnCadenas(GrafoTiempoExpandido grafo, int p, int hora, int[] padres,
+			ColaPrioridad cola) {
+		int ultimo = Math.min(RedViajes.BLOQUES - 1, Math.floorDiv(hora, SEGUNDOS_DIA));
+		for (int b = 0; b <= ultimo; b++) {
+			int n = grafo.primeroEnCadena(p, b, hora);
+			if (n >= 0 && padres[n] == SIN_ALCANZAR) {
+				padres[n] = ORIGEN;
+				cola.agregar(grafo.tiempo(n), n);
+			}
+		}
+	}
+
+	/**
+	 * Finds the walking segment between two stops.
+	 * 
+	 * @param red The network.
+	 * @param p   The start stop index.
+	 * @param q   The end stop index.
+	 * @return The walking segment, or null if there is none.
+	 */
+	private static Tramo caminataHasta(RedTransporte red, int p, int q) {
+		Tramo[] caminatas = red.caminatasDesde(p);
+		if (caminatas != null) {
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int k = 0; k < caminatas.length; k++) {
+				if (destinos[k] == q)
+					return caminatas[k];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Builds the segments of the journey by following the parent nodes back to
+	 * the origin.
+	 * 
+	 * @param red       The network.
+	 * @param grafo     The graph.
+	 * @param origen    The origin stop index.
+	 * @param nodo      The last node of the journey, or {@code ORIGEN} if it only
+	 *                  walks.
+	 * @param caminata  The final walking segment, or null.
+	 * @param padres    The parent of each reached node.
+	 * @param inicio    The time the passenger arrives at the origin, in absolute
+	 *                  seconds.
+	 * @param base      The start of the query's service day, in absolute seconds.
+	 * @return The segments of the journey, in order.
+	 */
+	private List<Recorrido> armarViaje(RedTransporte red, GrafoTiempoExpandido grafo, int origen, int nodo,
+			Tramo caminata, int[] padres, int inicio, int base) {
+		RedViajes viajes = grafo.getViajes();
+		List<Recorrido> viaje = new ArrayList<>();
+
+		if (caminata != null) {
+			int salida = nodo == ORIGEN ? inicio : grafo.tiempo(nodo);
+			viaje.add(new Recorrido(null, List.of(caminata.getInicio(), caminata.getFin()), salida - base,
+					grafo.tiempoCaminata(caminata)));
+		}
+
+		// Position where the bus segment being rebuilt is left, or -1.
+		int bajada = -1;
+		while (nodo != ORIGEN) {
+			int padre = padres[nodo];
+			if (grafo.esTransbordo(nodo)) {
+				int parada = grafo.paradaTransbordo(nodo);
+				if (padre == ORIGEN) {
+					agregarCaminata(viaje, red, grafo, origen, parada, inicio - base);
+				} else if (!grafo.esTransbordo(padre)) {
+					int e = grafo.eventoDe(padre);
+					int t = viajes.viajeDeEvento(e);
+					int desde = red.paradasDeLinea(viajes.lineaDe(t))[e - viajes.primerEvento(t)];
+					agregarCaminata(viaje, red, grafo, desde, parada, grafo.tiempo(padre) - base);
+				}
+			} else if (grafo.esSalida(nodo)) {
+				if (grafo.esTransbordo(padre)) {
+					int e = grafo.eventoDe(nodo);
+					int t = viajes.viajeDeEvento(e);
+					int subida = e - viajes.primerEvento(t);
+					int salida = viajes.paso(t, subida);
+					viaje.add(crearRecorrido(lineas[viajes.lineaDe(t)], subida, bajada, salida - base,
+							viajes.paso(t, bajada) - salida));
+					bajada = -1;
+				}
+			} else if (bajada < 0) {
+				int e = grafo.eventoDe(nodo);
+				bajada = e - viajes.primerEvento(viajes.viajeDeEvento(e));
+			}
+			nodo = padre;
+		}
+		Collections.reverse(viaje);
+		return viaje;
+	}
+
+	/**
+	 * Adds the walking segment between two stops, if they differ.
+	 * 
+	 * @param viaje  The segments built so far, in reverse order.
+	 * @param red    The network.
+	 * @param grafo  The graph.
+	 * @param p      The stop where the walk starts.
+	 * @param q      The stop where the walk ends.
+	 * @param salida The time the walk starts, in seconds since the start of the
+	 *               query's service day.
+	 */
+	private static void agregarCaminata(List<Recorrido> viaje, RedTransporte red, GrafoTiempoExpandido grafo, int p,
+			int q, int salida) {
+		Tramo caminata = p == q ? null : caminataHasta(red, p, q);
+		if (caminata != null)
+			viaje.add(new Recorrido(null, List.of(caminata.getInicio(), caminata.getFin()), salida,
+					grafo.tiempoCaminata(caminata)));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,442 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Trip-based routing strategy. It searches the trips expanded by
+ * {@code RedViajes} instead of the stops: a trip segment is a trip ridden from
+ * the position where it is boarded to the end of its route, and the search is
+ * a breadth-first search where level {@code n} holds the segments reached with
+ * {@code n} transfers, following the transfers precalculated for every stop
+ * event. Each trip remembers the earliest position from which it was reached,
+ * so a segment is only queued for the part of the route that no earlier
+ * segment of that trip, or of an earlier trip of the same line, already covers.
+ * 
+ * The journey may start or end with a walking segment, and walking alone is
+ * also considered. Every level that improves the earliest arrival adds a
+ * journey, so the results are the journeys that are not beaten both in arrival
+ * and in number of transfers by another one, up to {@code MAX_TRANSBORDOS}
+ * transfers. The per-trip labels and the segment queue live in the thread's
+ * {@code EspacioConsulta}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class CalculoViajesService extends EstrategiaCalculoBase {
+
+	/** Maximum number of transfers of the journeys found. */
+	public static final int MAX_TRANSBORDOS = 8;
+
+	/** Arrival of a search that has not reached the destination yet. */
+	private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+	/**
+	 * Constructor that injects the system's available lines.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 */
+	public CalculoViajesService(Map<String, Linea> lineasDelSistema) {
+		super(lineasDelSistema);
+	}
+
+	/**
+	 * Searches for the journeys with the earliest arrival for each number of
+	 * transfers between the origin and destination stops.
+	 * 
+	 * @param paradaOrigen  The starting stop of the trip.
+	 * @param paradaDestino The final destination stop.
+	 * @param diaSemana     The day of the week for schedule lookup.
+	 * @param horaMinima    The time the passenger arrives at the origin stop, in
+	 *                      seconds since the start of the service day.
+	 * @param red           The precalculated transportation network.
+	 * @param resultados    The bounded collector where the found routes
+	 *                      (List<Recorrido>) are offered.
+	 * @return true if at least one route was found, false otherwise.
+	 */
+	@Override
+	public boolean buscar(Parada paradaOrigen, Parada paradaDestino, int diaSemana, int horaMinima,
+			RedTransporte red, ResultadosAcotados resultados) {
+
+		int origen = red.indiceDe(paradaOrigen);
+		int destino = red.indiceDe(paradaDestino);
+		if (origen < 0 || destino < 0 || origen == destino)
+			return false;
+
+		Busqueda busqueda = new Busqueda(red, origen, destino, diaSemana * SEGUNDOS_DIA);
+		return busqueda.buscar(horaMinima, resultados);
+	}
+
+	/**
+	 * State of a single trip-based search.
+	 */
+	private final class Busqueda {
+
+		/** The network. */
+		private final RedTransporte red;
+
+		/** The trips of the network. */
+		private final RedViajes viajes;
+
+		/** The origin stop index. */
+		private final int origen;
+
+		/** The destination stop index. */
+		private final int destino;
+
+		/** Start of the query's service day, in absolute seconds. */
+		private final int base;
+
+		/** Earliest position from which each trip was reached. */
+		private final int[] alcanzados;
+
+		/** First target of each line, or -1. */
+		private final int[] objetivosLinea;
+
+		/** Next target of the same line, or -1. */
+		private int[] siguientesObjetivo;
+
+		/** Position on the line of the stop of each target. */
+		private int[] posicionesObjetivo;
+
+		/** The walking segment from the stop of each target to the destination, or null. */
+		private Tramo[] caminatasObjetivo;
+
+		/** Trip of each queued segment. */
+		private int[] viajesSegmento;
+
+		/** Boarding position of each queued segment. */
+		private int[] iniciosSegmento;
+
+		/** Position after the last one covered by each queued segment. */
+		private int[] finesSegmento;
+
+		/** Segment whose trip was left to board each segment, or -1. */
+		private int[] padresSegmento;
+
+		/** Position where the parent segment's trip was left. */
+		private int[] bajadasSegmento;
+
+		/** Number of queued segments. */
+		private int cantidadSegmentos;
+
+		/** Time the passenger is at the origin, in absolute seconds. */
+		private int inicio;
+
+		/** The earliest arrival found so far, in absolute seconds. */
+		private int mejorLlegada = SIN_LLEGADA;
+
+		/** Segment of the best journey, or -1 if it only walks. */
+		private int mejorSegmento = -1;
+
+		/** Position where the best journey leaves its last trip. */
+		private int mejorPosicion;
+
+		/** Final walking segment of the best journey, or null. */
+		private Tramo mejorCaminata;
+
+		/**
+		 * Constructor for a new search.
+		 * 
+		 * @param red     The network.
+		 * @param origen  The origin stop index.
+		 * @param destino The destination stop index.
+		 * @param base    Start of the query's service day, in absolute seconds.
+		 */
+		private Busqueda(RedTransporte red, int origen, int destino, int base) {
+			this.red = red;
+			this.viajes = red.getRedViajes();
+			this.origen = origen;
+			this.destino = destino;
+			this.base = base;
+
+			EspacioConsulta espacio = EspacioConsulta.actual();
+			this.alcanzados = espacio.enteros(0, viajes.getCantidadViajes());
+			Arrays.fill(alcanzados, 0, viajes.getCantidadViajes(), Integer.MAX_VALUE);
+			this.objetivosLinea = espacio.enteros(1, red.getCantidadLineas());
+			Arrays.fill(objetivosLinea, 0, red.getCantidadLineas(), -1);
+			this.viajesSegmento = espacio.enteros(2, 64);
+			this.iniciosSegmento = espacio.enteros(3, 64);
+			this.finesSegmento = espacio.enteros(4, 64);
+			this.padresSegmento = espacio.enteros(5, 64);
+			this.bajadasSegmento = espacio.enteros(6, 64);
+		}
+
+		/**
+		 * Runs the search level by level.
+		 * 
+		 * @param horaMinima The time the passenger arrives at the origin stop, in
+		 *                   service-day seconds.
+		 * @param resultados The collector where the journeys are offered.
+		 * @return true if at least one journey was found.
+		 */
+		private boolean buscar(int horaMinima, ResultadosAcotados resultados) {
+			this.inicio = base + horaMinima;
+			prepararObjetivos();
+			boolean encontrado = false;
+
+			Tramo[] caminatas = red.caminatasDesde(origen);
+			int[] destinos = red.destinosCaminatasDesde(origen);
+			if (caminatas != null) {
+				for (int k = 0; k < caminatas.length; k++) {
+					if (destinos[k] == destino && inicio + caminatas[k].getTiempo() < mejorLlegada) {
+						mejorLlegada = inicio + caminatas[k].getTiempo();
+						mejorCaminata = caminatas[k];
+					}
+				}
+			}
+			if (mejorLlegada != SIN_LLEGADA)
+				encontrado = ofrecer(resultados);
+
+			abordar(origen, inicio, -1, -1);
+			if (caminatas != null) {
+				for (int k = 0; k < caminatas.length; k++)
+					abordar(destinos[k], inicio + caminatas[k].getTiempo(), -1, -1);
+			}
+
+			int desde = 0;
+			for (int nivel = 0; nivel <= MAX_TRANSBORDOS && desde < cantidadSegmentos; nivel++) {
+				int hasta = cantidadSegmentos;
+				int anterior = mejorLlegada;
+				for (int s = desde; s < hasta; s++)
+					revisarObjetivos(s);
+				if (mejorLlegada < anterior)
+					encontrado |= ofrecer(resultados);
+
+				if (nivel < MAX_TRANSBORDOS) {
+					for (int s = desde; s < hasta; s++)
+						expandir(s);
+				}
+				desde = hasta;
+			}
+			return encontrado;
+		}
+
+		/**
+		 * Lists the positions where each line reaches the destination, directly or
+		 * by walking a final walking segment.
+		 */
+		private void prepararObjetivos() {
+			Tramo[] hacia = viajes.caminatasHacia(destino);
+			int cantidad = red.lineasDeParada(destino).length;
+			if (hacia != null) {
+				for (Tramo caminata : hacia)
+					cantidad += red.lineasDeParada(red.indiceDe(caminata.getInicio())).length;
+			}
+			siguientesObjetivo = new int[cantidad];
+			posicionesObjetivo = new int[cantidad];
+			caminatasObjetivo = new Tramo[cantidad];
+
+			int k = agregarObjetivos(destino, null, 0);
+			if (hacia != null) {
+				for (Tramo caminata : hacia)
+					k = agregarObjetivos(red.indiceDe(caminata.getInicio()), caminata, k);
+			}
+		}
+
+		/**
+		 * Adds the targets of the lines serving a stop.
+		 * 
+		 * @param p        The stop index.
+		 * @param caminata The walking segment from the stop to the destination, or
+		 *                 null if the stop is the destination.
+		 * @param k        The next free target.
+		 * @return The next free target after the ones added.
+		 */
+		private int agregarObjetivos(int p, Tramo caminata, int k) {
+			int[] lineasAqui = red.lineasDeParada(p);
+			int[] posicionesAqui = red.posicionesDeParada(p);
+			for (int m = 0; m < lineasAqui.length; m++) {
+				int l = lineasAqui[m];
+				posicionesObjetivo[k] = posicionesAqui[m];
+				caminatasObjetivo[k] = caminata;
+				siguientesObjetivo[k] = objetivosLinea[l];
+				objetivosLinea[l] = k++;
+			}
+			return k;
+		}
+
+		/**
+		 * Boards the earliest trip of every line serving a stop.
+		 * 
+		 * @param p      The stop index.
+		 * @param hora   The time the passenger is at the stop, in absolute seconds.
+		 * @param padre  The segment left to reach the stop, or -1.
+		 * @param bajada The position where the parent segment's trip was left.
+		 */
+		private void abordar(int p, int hora, int padre, int bajada) {
+			int[] lineasAqui = red.lineasDeParada(p);
+			int[] posicionesAqui = red.posicionesDeParada(p);
+			for (int k = 0; k < lineasAqui.length; k++) {
+				int l = lineasAqui[k];
+				int j = posicionesAqui[k];
+				if (j + 1 >= red.paradasDeLinea(l).length)
+					continue;
+				int u = viajes.primerViaje(l, j, hora);
+				if (u >= 0)
+					encolar(u, j, padre, bajada);
+			}
+		}
+
+		/**
+		 * Queues the segment of a trip from a position, unless that part of the
+		 * route is already covered, and marks the trip and the later trips of its
+		 * line as reached from that position.
+		 * 
+		 * @param u      The trip.
+		 * @param j      The boarding position.
+		 * @param padre  The segment left to board it, or -1.
+		 * @param bajada The position where the parent segment's trip was left.
+		 */
+		private void encolar(int u, int j, int padre, int bajada) {
+			if (j >= alcanzados[u])
+				return;
+
+			if (cantidadSegmentos == viajesSegmento.length) {
+				EspacioConsulta espacio = EspacioConsulta.actual();
+				int tamano = cantidadSegmentos * 2;
+				viajesSegmento = espacio.ampliar(2, tamano);
+				iniciosSegmento = espacio.ampliar(3, tamano);
+				finesSegmento = espacio.ampliar(4, tamano);
+				padresSegmento = espacio.ampliar(5, tamano);
+				bajadasSegmento = espacio.ampliar(6, tamano);
+			}
+			int l = viajes.lineaDe(u);
+			int s = cantidadSegmentos++;
+			viajesSegmento[s] = u;
+			iniciosSegmento[s] = j;
+			finesSegmento[s] = Math.min(alcanzados[u], red.paradasDeLinea(l).length);
+			padresSegmento[s] = padre;
+			bajadasSegmento[s] = bajada;
+
+			int fin = viajes.finViajesDeLinea(l);
+			for (int v = u; v < fin && alcanzados[v] > j; v++)
+				alcanzados[v] = j;
+		}
+
+		/**
+		 * Checks whether a segment reaches the destination earlier than the best
+		 * journey found.
+		 * 
+		 * @param s The segment.
+		 */
+		private void revisarObjetivos(int s) {
+			int t = viajesSegmento[s];
+			for (int k = objetivosLinea[viajes.lineaDe(t)]; k >= 0; k = siguientesObjetivo[k]) {
+				int j = posicionesObjetivo[k];
+				if (j <= iniciosSegmento[s] || j >= finesSegmento[s])
+					continue;
+				Tramo caminata = caminatasObjetivo[k];
+				int llegada = viajes.paso(t, j) + (caminata == null ? 0 : caminata.getTiempo());
+				if (llegada < mejorLlegada) {
+					mejorLlegada = llegada;
+					mejorSegmento = s;
+					mejorPosicion = j;
+					mejorCaminata = caminata;
+				}
+			}
+		}
+
+		/**
+		 * Follows the transfers of the stop events of a segment that are reached
+		 * before the best arrival found.
+		 * 
+		 * @param s The segment.
+		 */
+		private void expandir(int s) {
+			int t = viajesSegmento[s];
+			for (int i = iniciosSegmento[s] + 1; i < finesSegmento[s]; i++) {
+				if (viajes.paso(t, i) >= mejorLlegada)
+					break;
+				int fin = viajes.finTransbordos(t, i);
+				for (int k = viajes.inicioTransbordos(t, i); k < fin; k++)
+					encolar(viajes.viajeTransbordo(k), viajes.posicionTransbordo(k), s, i);
+			}
+		}
+
+		/**
+		 * Offers the best journey found to the collector.
+		 * 
+		 * @param resultados The collector.
+		 * @return true, since a journey was found.
+		 */
+		private boolean ofrecer(ResultadosAcotados resultados) {
+			int llegada = mejorLlegada - base;
+			if (resultados.admite(llegada))
+				resultados.agregar(armarViaje(), llegada);
+			return true;
+		}
+
+		/**
+		 * Builds the segments of the best journey by following the parent segments
+		 * back to the origin.
+		 * 
+		 * @return The segments of the journey, in order.
+		 */
+		private List<Recorrido> armarViaje() {
+			List<Recorrido> viaje = new ArrayList<>();
+			int s = mejorSegmento;
+			int posicion = mejorPosicion;
+
+			if (mejorCaminata != null) {
+				int salida = s < 0 ? inicio : viajes.paso(viajesSegmento[s], posicion);
+				viaje.add(new Recorrido(null, List.of(mejorCaminata.getInicio(), mejorCaminata.getFin()),
+						salida - base, mejorCaminata.getTiempo()));
+			}
+
+			while (s >= 0) {
+				int t = viajesSegmento[s];
+				int l = viajes.lineaDe(t);
+				int subida = iniciosSegmento[s];
+				int salida = viajes.paso(t, subida);
+				viaje.add(crearRecorrido(lineas[l], subida, posicion, salida - base,
+						viajes.paso(t, posicion) - salida));
+
+				int parada = red.paradasDeLinea(l)[subida];
+				int padre = padresSegmento[s];
+				if (padre < 0) {
+					agregarCaminata(viaje, origen, parada, inicio);
+				} else {
+					int anterior = viajesSegmento[padre];
+					int bajada = bajadasSegmento[s];
+					agregarCaminata(viaje, red.paradasDeLinea(viajes.lineaDe(anterior))[bajada], parada,
+							viajes.paso(anterior, bajada));
+					posicion = bajada;
+				}
+				s = padre;
+			}
+			Collections.reverse(viaje);
+			return viaje;
+		}
+
+		/**
+		 * Adds the walking segment between two stops, if they differ.
+		 * 
+		 * @param viaje  The segments built so far, in reverse order.
+		 * @param p      The stop where the walk starts.
+		 * @param q      The stop where the walk ends.
+		 * @param salida The time the walk starts, in absolute seconds.
+		 */
+		private void agregarCaminata(List<Recorrido> viaje, int p, int q, int salida) {
+			if (p == q)
+				return;
+			Tramo[] caminatas = red.caminatasDesde(p);
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int k = 0; k < caminatas.length; k++) {
+				if (destinos[k] == q) {
+					viaje.add(new Recorrido(null, List.of(caminatas[k].getInicio(), caminatas[k].getFin()),
+							salida - base, caminatas[k].getTiempo()));
+					return;
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package colectivo.logica;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,6 +11,9 @@ import org.apache.logging.log4j.Logger;
 import colectivo.dao.LineaDAO;
 import colectivo.dao.ParadaDAO;
 import colectivo.dao.TramoDAO;
+import colectivo.eventos.FaseCargaEvento;
+import colectivo.metricas.CronologiaArranque;
+import colectivo.metricas.RegistroMetricas;
 import colectivo.modelo.Ciudad;
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
@@ -53,18 +57,21 @@ public class CiudadLoaderService {
 
 	/**
 	 * Loads all necessary data and assembles the complete {@code Ciudad} domain
-	 * model.
+	 * model. Each phase is recorded as a {@code FaseCargaEvento} and in the
+	 * "carga.<fase>" histogram of {@code RegistroMetricas}.
 	 * 
 	 * @return The {@code Ciudad} object containing all system data.
 	 */
 	public Ciudad cargarCiudad() {
 		LOGGER.info("Iniciando carga de datos del sistema...");
 
-		Map<Integer, Parada> paradas = paradaDAO.buscarTodos();
-		Map<String, Linea> lineas = lineaDAO.buscarTodos();
-		Map<String, Tramo> tramos = tramoDAO.buscarTodos();
-
-		establecerRelaciones(paradas, lineas);
+		Map<Integer, Parada> paradas = medirFase("paradas", paradaDAO::buscarTodos);
+		Map<String, Linea> lineas = medirFase("lineas", lineaDAO::buscarTodos);
+		Map<String, Tramo> tramos = medirFase("tramos", tramoDAO::buscarTodos);
+		medirFase("relaciones", () -> {
+			establecerRelaciones(paradas, lineas);
+			return lineas;
+		});
 
 		LOGGER.info("Carga de datos completa. Paradas: {}, Líneas: {}, Tramos: {}", paradas.size(), lineas.size(),
 				tramos.size());
@@ -72,6 +79,24 @@ public class CiudadLoaderService {
 		return new Ciudad(paradas, lineas, tramos);
 	}
 
+	/**
+	 * Runs a phase of the load, recording its duration and its place in the
+	 * startup timeline.
+	 * 
+	 * @param fase   The name of the phase.
+	 * @param accion The phase, which returns the map it produced.
+	 * @return The map produced by the phase.
+	 */
+	private static <T extends Map<?, ?>> T medirFase(String fase, Supplier<T> accion) {
+		FaseCargaEvento evento = new FaseCargaEvento();
+		evento.begin();
+		long inicio = System.nanoTime();
+		T resultado = CronologiaArranque.getInstancia().medir("carga." + fase, accion);
+		RegistroMetricas.histograma("carga." + fase).registrar(System.nanoTime() - inicio);
+		evento.terminar(fase, resultado.size());
+		return resultado;
+	}
+
 	/**
 	 * Establishes bidirectional object relationships between stops and lines.
 	 * 
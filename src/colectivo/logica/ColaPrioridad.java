@@ -0,0 +1,116 @@
+package colectivo.logica;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of {@code int} elements with {@code int} priorities, stored
+ * in a single {@code long[]} so that pushing and popping never allocate. Each
+ * entry packs the priority in the high 32 bits and the element in the low 32
+ * bits. There is no decrease-key: searches push an element again with its new
+ * priority and skip the stale entries when they are popped.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class ColaPrioridad {
+
+	/** The heap entries. */
+	private long[] entradas;
+
+	/** Number of entries in the heap. */
+	private int cantidad;
+
+	/** Constructor for an empty queue. */
+	public ColaPrioridad() {
+		this(64);
+	}
+
+	/**
+	 * Constructor for an empty queue with the given initial capacity.
+	 * 
+	 * @param capacidad The initial number of entries.
+	 */
+	public ColaPrioridad(int capacidad) {
+		this.entradas = new long[Math.max(1, capacidad)];
+	}
+
+	/**
+	 * Adds an element.
+	 * 
+	 * @param prioridad The priority (non-negative); lower values are popped first.
+	 * @param elemento  The element (non-negative).
+	 */
+	public void agregar(int prioridad, int elemento) {
+		if (cantidad == entradas.length)
+			entradas = Arrays.copyOf(entradas, cantidad * 2);
+
+		long entrada = (long) prioridad << 32 | elemento;
+		int i = cantidad++;
+		while (i > 0) {
+			int padre = (i - 1) >>> 1;
+			if (entradas[padre] <= entrada)
+				break;
+			entradas[i] = entradas[padre];
+			i = padre;
+		}
+		entradas[i] = entrada;
+	}
+
+	/**
+	 * Removes the entry with the lowest priority.
+	 * 
+	 * @return The entry, with the priority in the high 32 bits and the element in
+	 *         the low 32 bits; see {@code prioridad} and {@code elemento}.
+	 */
+	public long quitar() {
+		long minimo = entradas[0];
+		long ultima = entradas[--cantidad];
+		int i = 0;
+		while (true) {
+			int hijo = 2 * i + 1;
+			if (hijo >= cantidad)
+				break;
+			if (hijo + 1 < cantidad && entradas[hijo + 1] < entradas[hijo])
+				hijo++;
+			if (ultima <= entradas[hijo])
+				break;
+			entradas[i] = entradas[hijo];
+			i = hijo;
+		}
+		if (cantidad > 0)
+			entradas[i] = ultima;
+		return minimo;
+	}
+
+	/**
+	 * @param entrada An entry returned by {@code quitar}.
+	 * @return The priority of the entry.
+	 */
+	public static int prioridad(long entrada) {
+		return (int) (entrada >>> 32);
+	}
+
+	/**
+	 * @param entrada An entry returned by {@code quitar}.
+	 * @return The element of the entry.
+	 */
+	public static int elemento(long entrada) {
+		return (int) entrada;
+	}
+
+	/** @return true if the queue has no entries. */
+	public boolean isEmpty() {
+		return cantidad == 0;
+	}
+
+	/** @return The number of entries. */
+	public int size() {
+		return cantidad;
+	}
+
+	/** Removes every entry, keeping the allocated capacity. */
+	public void limpiar() {
+		cantidad = 0;
+	}
+}
\ No newline at end of file
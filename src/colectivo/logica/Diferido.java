@@ -0,0 +1,59 @@
+package colectivo.logica;
+
+import java.util.function.Supplier;
+
+/**
+ * Value of a {@code RedTransporte} that is built the first time it is
+ * requested, so that the precalculations only some strategies read are not
+ * paid for by every network. The value is built once, by the first thread that
+ * requests it, and then shared by every thread.
+ * 
+ * @param <T> The type of the value.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+final class Diferido<T> {
+
+	/** Builds the value; released once it has been built. */
+	private Supplier<T> constructor;
+
+	/** The value, or null if it has not been built yet. */
+	private volatile T valor;
+
+	/**
+	 * Constructor that keeps how to build the value.
+	 * 
+	 * @param constructor Builds the value.
+	 */
+	Diferido(Supplier<T> constructor) {
+		this.constructor = constructor;
+	}
+
+	/**
+	 * Returns the value, building it if it is the first request.
+	 * 
+	 * @return The value.
+	 */
+	T obtener() {
+		T actual = valor;
+		if (actual != null)
+			return actual;
+
+		synchronized (this) {
+			actual = valor;
+			if (actual == null) {
+				actual = constructor.get();
+				valor = actual;
+				constructor = null;
+			}
+			return actual;
+		}
+	}
+
+	/** @return The value, or null if it has not been built yet. */
+	T siConstruido() {
+		return valor;
+	}
+}
\ No newline at end of file
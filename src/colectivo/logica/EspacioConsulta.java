@@ -0,0 +1,145 @@
+package colectivo.logica;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for the route calculation strategies. Each thread
+ * (platform or virtual) gets its own instance through {@code actual()}, so a
+ * query can run its whole search on primitive arrays and bitsets without
+ * allocating new objects. Only the journeys that are finally kept are
+ * materialized as {@code Recorrido} objects.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class EspacioConsulta {
+
+	/** One workspace per thread. */
+	private static final ThreadLocal<EspacioConsulta> ESPACIOS = ThreadLocal.withInitial(EspacioConsulta::new);
+
+	/** JVM thread bean, used to measure the bytes allocated by a query. */
+	private static final ThreadMXBean HILOS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Bitset of the line combinations (A -> B) already found by the current
+	 * search, indexed by {@code idxLineaA * cantidadLineas + idxLineaB}.
+	 */
+	private long[] combinaciones = new long[1];
+
+	/** Number of words of {@code combinaciones} in use by the current search. */
+	private int palabrasEnUso;
+
+	/** Priority queue of the goal-directed searches. */
+	private final ColaPrioridad cola = new ColaPrioridad();
+
+	/** Integer arrays of the goal-directed searches, by slot. */
+	private final int[][] enteros = new int[8][];
+
+	/** Private constructor, instances are obtained through {@code actual()}. */
+	private EspacioConsulta() {
+	}
+
+	/**
+	 * Returns the workspace of the current thread.
+	 * 
+	 * @return The workspace bound to the calling thread.
+	 */
+	public static EspacioConsulta actual() {
+		return ESPACIOS.get();
+	}
+
+	/**
+	 * Clears the combination bitset and makes sure it can hold the given number
+	 * of bits. Only the words in use are cleared.
+	 * 
+	 * @param cantidad The number of combinations the search may mark.
+	 */
+	public void prepararCombinaciones(int cantidad) {
+		int palabras = (cantidad + 63) >>> 6;
+		if (palabras > combinaciones.length) {
+			combinaciones = new long[palabras];
+		} else {
+			Arrays.fill(combinaciones, 0, palabrasEnUso, 0L);
+		}
+		palabrasEnUso = palabras;
+	}
+
+	/**
+	 * Checks whether a combination was already marked by the current search.
+	 * 
+	 * @param combinacion The combination index.
+	 * @return true if the combination is marked.
+	 */
+	public boolean estaMarcada(int combinacion) {
+		return (combinaciones[combinacion >>> 6] & (1L << combinacion)) != 0;
+	}
+
+	/**
+	 * Marks a combination as found by the current search.
+	 * 
+	 * @param combinacion The combination index.
+	 */
+	public void marcar(int combinacion) {
+		combinaciones[combinacion >>> 6] |= 1L << combinacion;
+	}
+
+	/**
+	 * Returns the priority queue of the thread, emptied.
+	 * 
+	 * @return The empty queue.
+	 */
+	public ColaPrioridad cola() {
+		cola.limpiar();
+		return cola;
+	}
+
+	/**
+	 * Returns an integer array of the thread with at least the given length. The
+	 * contents are whatever the previous search left, so callers must initialize
+	 * the part they use.
+	 * 
+	 * @param ranura The slot (0 to 7); each slot holds a different array.
+	 * @param tamano The minimum length.
+	 * @return The array of the slot.
+	 */
+	public int[] enteros(int ranura, int tamano) {
+		if (enteros[ranura] == null || enteros[ranura].length < tamano)
+			enteros[ranura] = new int[tamano];
+		return enteros[ranura];
+	}
+
+	/**
+	 * Enlarges the integer array of a slot to at least the given length, keeping
+	 * its contents, for searches whose queues grow while they run.
+	 * 
+	 * @param ranura The slot (0 to 7).
+	 * @param tamano The minimum length.
+	 * @return The array of the slot.
+	 */
+	public int[] ampliar(int ranura, int tamano) {
+		if (enteros[ranura] == null)
+			enteros[ranura] = new int[tamano];
+		else if (enteros[ranura].length < tamano)
+			enteros[ranura] = Arrays.copyOf(enteros[ranura], Math.max(tamano, enteros[ranura].length * 2));
+		return enteros[ranura];
+	}
+
+	/**
+	 * Returns the number of bytes allocated so far by the current thread, so the
+	 * allocation of a query can be measured as the difference between two calls.
+	 * {@code Calculo} uses it to fill in {@code EstadisticasConsulta}.
+	 * 
+	 * @return The allocated bytes, or -1 if the JVM cannot measure them.
+	 */
+	public static long bytesAsignadosHiloActual() {
+		if (HILOS instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) HILOS;
+			if (hilos.isThreadAllocatedMemorySupported() && hilos.isThreadAllocatedMemoryEnabled())
+				return hilos.getCurrentThreadAllocatedBytes();
+		}
+		return -1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,231 @@
+package colectivo.logica;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the {@code EstadisticasConsulta} of many queries, for
+ * monitoring. Queries running on different threads can be registered at the
+ * same time; the totals use {@code LongAdder} so registering does not contend
+ * on a single counter.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class EstadisticasAgregadas {
+
+	/** Number of queries registered. */
+	private final LongAdder consultas = new LongAdder();
+
+	/** Number of queries rejected by the reachability summaries. */
+	private final LongAdder descartadasPorAlcance = new LongAdder();
+
+	/** Number of queries that returned no journey. */
+	private final LongAdder sinResultados = new LongAdder();
+
+	/** Total wall time of the queries, in nanoseconds. */
+	private final LongAdder nanosTotales = new LongAdder();
+
+	/** Longest wall time of a query, in nanoseconds. */
+	private final LongAccumulator nanosMaximo = new LongAccumulator(Math::max, 0);
+
+	/** Total lines scanned. */
+	private final LongAdder lineasRecorridas = new LongAdder();
+
+	/** Total index lookups. */
+	private final LongAdder busquedasIndice = new LongAdder();
+
+	/** Total timetable lookups. */
+	private final LongAdder frecuenciasExaminadas = new LongAdder();
+
+	/** Total walking segments examined. */
+	private final LongAdder tramosExaminados = new LongAdder();
+
+	/** Total journeys offered to the results. */
+	private final LongAdder candidatosGenerados = new LongAdder();
+
+	/** Total journeys kept. */
+	private final LongAdder candidatosConservados = new LongAdder();
+
+	/** Total stops settled by the goal-directed searches. */
+	private final LongAdder nodosAsentados = new LongAdder();
+
+	/** Total bytes allocated by the queries that could measure them. */
+	private final LongAdder bytesAsignados = new LongAdder();
+
+	/** Totals of each strategy, by name. */
+	private final ConcurrentHashMap<String, TotalEstrategia> estrategias = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds the counters of a finished query.
+	 * 
+	 * @param estadisticas The counters of the query.
+	 */
+	public void registrar(EstadisticasConsulta estadisticas) {
+		consultas.increment();
+		if (estadisticas.isDescartadaPorAlcance())
+			descartadasPorAlcance.increment();
+		if (estadisticas.getEstrategiaExitosa() == null)
+			sinResultados.increment();
+		nanosTotales.add(estadisticas.getNanosTotales());
+		nanosMaximo.accumulate(estadisticas.getNanosTotales());
+		lineasRecorridas.add(estadisticas.getLineasRecorridas());
+		busquedasIndice.add(estadisticas.getBusquedasIndice());
+		frecuenciasExaminadas.add(estadisticas.getFrecuenciasExaminadas());
+		tramosExaminados.add(estadisticas.getTramosExaminados());
+		candidatosGenerados.add(estadisticas.getCandidatosGenerados());
+		candidatosConservados.add(estadisticas.getCandidatosConservados());
+		nodosAsentados.add(estadisticas.getNodosAsentados());
+		if (estadisticas.getBytesAsignados() > 0)
+			bytesAsignados.add(estadisticas.getBytesAsignados());
+
+		for (int i = 0; i < estadisticas.getEstrategias().size(); i++) {
+			String nombre = estadisticas.getEstrategias().get(i);
+			TotalEstrategia total = estrategias.computeIfAbsent(nombre, n -> new TotalEstrategia());
+			total.ejecuciones.increment();
+			total.nanos.add(estadisticas.getNanosEstrategia(i));
+			if (nombre.equals(estadisticas.getEstrategiaExitosa()))
+				total.exitos.increment();
+		}
+	}
+
+	/** @return The number of queries registered. */
+	public long getConsultas() {
+		return consultas.sum();
+	}
+
+	/** @return The number of queries rejected by the reachability summaries. */
+	public long getDescartadasPorAlcance() {
+		return descartadasPorAlcance.sum();
+	}
+
+	/** @return The number of queries that returned no journey. */
+	public long getSinResultados() {
+		return sinResultados.sum();
+	}
+
+	/** @return The total wall time of the queries, in nanoseconds. */
+	public long getNanosTotales() {
+		return nanosTotales.sum();
+	}
+
+	/** @return The longest wall time of a query, in nanoseconds. */
+	public long getNanosMaximo() {
+		return nanosMaximo.get();
+	}
+
+	/** @return The total lines scanned. */
+	public long getLineasRecorridas() {
+		return lineasRecorridas.sum();
+	}
+
+	/** @return The total index lookups. */
+	public long getBusquedasIndice() {
+		return busquedasIndice.sum();
+	}
+
+	/** @return The total timetable lookups. */
+	public long getFrecuenciasExaminadas() {
+		return frecuenciasExaminadas.sum();
+	}
+
+	/** @return The total walking segments examined. */
+	public long getTramosExaminados() {
+		return tramosExaminados.sum();
+	}
+
+	/** @return The total journeys offered to the results. */
+	public long getCandidatosGenerados() {
+		return candidatosGenerados.sum();
+	}
+
+	/** @return The total journeys kept. */
+	public long getCandidatosConservados() {
+		return candidatosConservados.sum();
+	}
+
+	/** @return The total stops settled by the goal-directed searches. */
+	public long getNodosAsentados() {
+		return nodosAsentados.sum();
+	}
+
+	/**
+	 * Returns the total bytes allocated by the queries. The queries run on a JVM
+	 * that cannot measure them add nothing.
+	 * 
+	 * @return The total allocated bytes.
+	 */
+	public long getBytesAsignados() {
+		return bytesAsignados.sum();
+	}
+
+	/**
+	 * Returns, for each strategy, how many times it ran, how many of those runs
+	 * returned the journeys of the query, and its total wall time.
+	 * 
+	 * @return The strategy names, sorted, mapped to {runs, successes, nanos}.
+	 */
+	public Map<String, long[]> getEstrategias() {
+		Map<String, long[]> copia = new TreeMap<>();
+		estrategias.forEach((nombre, total) -> copia.put(nombre,
+				new long[] { total.ejecuciones.sum(), total.exitos.sum(), total.nanos.sum() }));
+		return Collections.unmodifiableMap(copia);
+	}
+
+	/** Sets every total back to zero. */
+	public void reiniciar() {
+		consultas.reset();
+		descartadasPorAlcance.reset();
+		sinResultados.reset();
+		nanosTotales.reset();
+		nanosMaximo.reset();
+		lineasRecorridas.reset();
+		busquedasIndice.reset();
+		frecuenciasExaminadas.reset();
+		tramosExaminados.reset();
+		candidatosGenerados.reset();
+		candidatosConservados.reset();
+		nodosAsentados.reset();
+		bytesAsignados.reset();
+		estrategias.clear();
+	}
+
+	@Override
+	public String toString() {
+		long n = Math.max(1, getConsultas());
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(
+				"%d consultas (%d descartadas por alcance, %d sin resultados), media %.3f ms, máximo %.3f ms",
+				getConsultas(), getDescartadasPorAlcance(), getSinResultados(), getNanosTotales() / 1e6 / n,
+				getNanosMaximo() / 1e6));
+		sb.append(String.format(
+				"%npor consulta: lineas=%.1f, indices=%.1f, frecuencias=%.1f, caminatas=%.1f, candidatos=%.1f/%.1f, "
+						+ "asentados=%.1f, bytes=%.0f",
+				getLineasRecorridas() / (double) n, getBusquedasIndice() / (double) n,
+				getFrecuenciasExaminadas() / (double) n, getTramosExaminados() / (double) n,
+				getCandidatosGenerados() / (double) n, getCandidatosConservados() / (double) n,
+				getNodosAsentados() / (double) n, getBytesAsignados() / (double) n));
+		getEstrategias().forEach((nombre, total) -> sb.append(String.format(
+				"%n%s: %d ejecuciones, %d exitosas, media %.3f ms", nombre, total[0], total[1],
+				total[2] / 1e6 / Math.max(1, total[0]))));
+		return sb.toString();
+	}
+
+	/** Totals of one strategy. */
+	private static final class TotalEstrategia {
+
+		/** Number of runs. */
+		private final LongAdder ejecuciones = new LongAdder();
+
+		/** Number of runs whose journeys were returned. */
+		private final LongAdder exitos = new LongAdder();
+
+		/** Total wall time, in nanoseconds. */
+		private final LongAdder nanos = new LongAdder();
+	}
+}
\ No newline at end of file
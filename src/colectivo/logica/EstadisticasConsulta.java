@@ -0,0 +1,249 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cost counters of a single route query, filled in when the caller of
+ * {@code Calculo} asks for them. They tell why a query was slow: which
+ * strategies ran and for how long, and how much work they did (lines scanned,
+ * index lookups, timetables consulted, walking segments examined, stops settled
+ * by the goal-directed searches, and journeys offered to the results versus
+ * those finally kept) and how many bytes the query allocated.
+ * 
+ * The counters are plain fields written by the thread running the query, so an
+ * instance must not be shared by concurrent queries. They are reached through
+ * the query's {@code ResultadosAcotados}; when no instance is attached the
+ * strategies skip the counting.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class EstadisticasConsulta {
+
+	/** Names of the strategies run, in order. */
+	private final List<String> estrategias = new ArrayList<>(4);
+
+	/** Wall time of each strategy run, in nanoseconds, by position. */
+	private long[] nanosEstrategias = new long[4];
+
+	/** Name of the strategy whose journeys were returned, or null. */
+	private String estrategiaExitosa;
+
+	/** Whether the reachability summaries rejected the query. */
+	private boolean descartadaPorAlcance;
+
+	/** Wall time of the whole query, in nanoseconds. */
+	private long nanosTotales;
+
+	/** Number of lines whose stops or timetables were scanned. */
+	private long lineasRecorridas;
+
+	/** Number of lookups of a stop in a line or in the network indexes. */
+	private long busquedasIndice;
+
+	/** Number of timetable lookups, one per service day consulted. */
+	private long frecuenciasExaminadas;
+
+	/** Number of walking segments examined. */
+	private long tramosExaminados;
+
+	/** Number of complete journeys offered to the results. */
+	private long candidatosGenerados;
+
+	/** Number of journeys kept in the results. */
+	private long candidatosConservados;
+
+	/** Number of arrival checks that pruned a journey or partial journey. */
+	private long podas;
+
+	/** Number of stops settled by the goal-directed searches. */
+	private long nodosAsentados;
+
+	/** Bytes allocated by the thread during the query, or -1 if not measured. */
+	private long bytesAsignados = -1;
+
+	/**
+	 * Records the run of a strategy.
+	 * 
+	 * @param nombre The name of the strategy.
+	 * @param nanos  The wall time of the run, in nanoseconds.
+	 */
+	void registrarEstrategia(String nombre, long nanos) {
+		int n = estrategias.size();
+		if (n == nanosEstrategias.length)
+			nanosEstrategias = Arrays.copyOf(nanosEstrategias, n * 2);
+		estrategias.add(nombre);
+		nanosEstrategias[n] = nanos;
+	}
+
+	/**
+	 * Records the end of the query.
+	 * 
+	 * @param exitosa    The name of the strategy whose journeys were returned,
+	 *                   or null if none found any.
+	 * @param nanos      The wall time of the query, in nanoseconds.
+	 * @param bytes      The bytes allocated during the query, or -1 if the JVM
+	 *                   cannot measure them.
+	 * @param resultados The results collector of the query.
+	 */
+	void finalizar(String exitosa, long nanos, long bytes, ResultadosAcotados resultados) {
+		this.estrategiaExitosa = exitosa;
+		this.nanosTotales = nanos;
+		this.bytesAsignados = bytes;
+		this.candidatosGenerados = resultados.getCantidadOfrecidos();
+		this.candidatosConservados = resultados.size();
+		this.podas = resultados.getCantidadPodas();
+	}
+
+	/** Marks the query as rejected by the reachability summaries. */
+	void descartarPorAlcance() {
+		this.descartadaPorAlcance = true;
+	}
+
+	/**
+	 * Adds lines scanned.
+	 * 
+	 * @param cantidad The number of lines.
+	 */
+	void sumarLineas(int cantidad) {
+		lineasRecorridas += cantidad;
+	}
+
+	/**
+	 * Adds index lookups.
+	 * 
+	 * @param cantidad The number of lookups.
+	 */
+	void sumarBusquedas(int cantidad) {
+		busquedasIndice += cantidad;
+	}
+
+	/**
+	 * Adds timetable lookups.
+	 * 
+	 * @param cantidad The number of lookups.
+	 */
+	void sumarFrecuencias(int cantidad) {
+		frecuenciasExaminadas += cantidad;
+	}
+
+	/**
+	 * Adds walking segments examined.
+	 * 
+	 * @param cantidad The number of segments.
+	 */
+	void sumarTramos(int cantidad) {
+		tramosExaminados += cantidad;
+	}
+
+	/**
+	 * Adds stops settled by a goal-directed search.
+	 * 
+	 * @param cantidad The number of stops.
+	 */
+	void sumarNodosAsentados(int cantidad) {
+		nodosAsentados += cantidad;
+	}
+
+	/** @return The names of the strategies run, in order. */
+	public List<String> getEstrategias() {
+		return Collections.unmodifiableList(estrategias);
+	}
+
+	/**
+	 * Returns the wall time of a strategy run.
+	 * 
+	 * @param posicion The position of the run in {@code getEstrategias()}.
+	 * @return The wall time, in nanoseconds.
+	 */
+	public long getNanosEstrategia(int posicion) {
+		if (posicion < 0 || posicion >= estrategias.size())
+			throw new IndexOutOfBoundsException(posicion);
+		return nanosEstrategias[posicion];
+	}
+
+	/** @return The name of the strategy whose journeys were returned, or null. */
+	public String getEstrategiaExitosa() {
+		return estrategiaExitosa;
+	}
+
+	/** @return true if the reachability summaries rejected the query. */
+	public boolean isDescartadaPorAlcance() {
+		return descartadaPorAlcance;
+	}
+
+	/** @return The wall time of the whole query, in nanoseconds. */
+	public long getNanosTotales() {
+		return nanosTotales;
+	}
+
+	/** @return The number of lines whose stops or timetables were scanned. */
+	public long getLineasRecorridas() {
+		return lineasRecorridas;
+	}
+
+	/** @return The number of lookups of a stop in a line or network index. */
+	public long getBusquedasIndice() {
+		return busquedasIndice;
+	}
+
+	/** @return The number of timetable lookups. */
+	public long getFrecuenciasExaminadas() {
+		return frecuenciasExaminadas;
+	}
+
+	/** @return The number of walking segments examined. */
+	public long getTramosExaminados() {
+		return tramosExaminados;
+	}
+
+	/** @return The number of complete journeys offered to the results. */
+	public long getCandidatosGenerados() {
+		return candidatosGenerados;
+	}
+
+	/** @return The number of journeys kept in the results. */
+	public long getCandidatosConservados() {
+		return candidatosConservados;
+	}
+
+	/** @return The number of arrival checks that pruned a journey. */
+	public long getPodas() {
+		return podas;
+	}
+
+	/** @return The number of stops settled by the goal-directed searches. */
+	public long getNodosAsentados() {
+		return nodosAsentados;
+	}
+
+	/** @return The bytes allocated during the query, or -1 if not measured. */
+	public long getBytesAsignados() {
+		return bytesAsignados;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%.3f ms", nanosTotales / 1e6));
+		if (descartadaPorAlcance)
+			sb.append(", descartada por alcance");
+		for (int i = 0; i < estrategias.size(); i++)
+			sb.append(String.format(", %s %.3f ms", estrategias.get(i), nanosEstrategias[i] / 1e6));
+		sb.append(", exitosa=").append(estrategiaExitosa);
+		sb.append(", lineas=").append(lineasRecorridas);
+		sb.append(", indices=").append(busquedasIndice);
+		sb.append(", frecuencias=").append(frecuenciasExaminadas);
+		sb.append(", caminatas=").append(tramosExaminados);
+		sb.append(", candidatos=").append(candidatosGenerados).append('/').append(candidatosConservados);
+		sb.append(", podas=").append(podas);
+		sb.append(", asentados=").append(nodosAsentados);
+		if (bytesAsignados >= 0)
+			sb.append(", bytes=").append(bytesAsignados);
+		return sb.toString();
+	}
+}
\ No newline at end of file
@@ -1,32 +1,39 @@
 package colectivo.logica;
 
-import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import colectivo.controlador.Constantes;
+import colectivo.modelo.HoraServicio;
 import colectivo.modelo.Linea;
-import colectivo.modelo.Parada;
-import colectivo.modelo.Tramo;
 
 /**
  * Abstract class for route calculation strategies. This class provides common,
  * reusable logic for all route finding strategies (e.g., direct, bus-bus)
  * 
+ * The search itself works on primitive values: lines are addressed by their
+ * position in {@code lineas}, times are seconds since the start of the query's
+ * service day (see {@code HoraServicio}), and travel times between stops,
+ * walking segments and direct connections come from the {@code RedTransporte}
+ * precalculated once per segment map. Strategies only create {@code Recorrido}
+ * objects for the journeys that are kept.
+ * 
  * @author Juliana Martin
  * @author Ezequiel Ramos
  * @author Nerea Toledo
  */
 public abstract class EstrategiaCalculoBase implements CalculoEstrategia {
 
+	/** Number of seconds in a day. */
+	protected static final int SEGUNDOS_DIA = HoraServicio.SEGUNDOS_DIA;
+
 	/** Map of all available lines in the system. */
 	protected final Map<String, Linea> lineasDelSistema;
 
+	/** The system's lines, in the iteration order of {@code lineasDelSistema}. */
+	protected final Linea[] lineas;
+
 	/** Logger instance for logging events, errors and exceptions. */
 	protected static final Logger LOGGER = LogManager.getLogger(EstrategiaCalculoBase.class);
 
@@ -37,84 +44,113 @@ public abstract class EstrategiaCalculoBase implements CalculoEstrategia {
 	 */
 	public EstrategiaCalculoBase(Map<String, Linea> lineasDelSistema) {
 		this.lineasDelSistema = lineasDelSistema;
+		this.lineas = lineasDelSistema.values().toArray(new Linea[0]);
 	}
 
 	/**
-	 * Calculates the accumulated travel time (in seconds) between two stop indexes.
-	 * It iterates through all intermediate segments and sums up the time, only
-	 * considering segments marked as bus segments (type
-	 * {@code Constantes.COLECTIVO}).
+	 * Finds the earliest bus of the given line that passes through the segment's
+	 * origin stop at or after the required minimum time. Besides the service of
+	 * {@code diaSemana}, the trips of the previous service day that run past
+	 * midnight are considered, and, once the journey itself has gone past
+	 * midnight, the trips of the following service day. Each day is looked up in
+	 * the line's compressed {@code Horario}.
 	 * 
-	 * @param paradas   List containing all stops of the current line's route.
-	 * @param idxInicio Index of the start stop (inclusive).
-	 * @param idxFin    Index of the end stop (exclusive for segment search,
-	 *                  inclusive for stops).
-	 * @param tramos    Map containing all available segments for time lookup.
-	 * @return The total travel time in seconds between the two indexes.
+	 * @param idxLinea               The position of the bus line in
+	 *                               {@code lineas}.
+	 * @param diaSemana              The day of the week of the query.
+	 * @param tiempoHastaInicioTramo The travel time from the start of the route to
+	 *                               the segment's origin stop, in seconds.
+	 * @param horaMinima             The minimum departure time required
+	 *                               (passenger's arrival time), in seconds since
+	 *                               the start of the query's service day.
+	 * @param red                    The precalculated transportation network.
+	 * @return The time the bus passes through the segment's origin stop, in
+	 *         seconds since the start of the query's service day, or -1 if no
+	 *         valid schedule exists.
 	 */
-	protected int calcularTiempoEntreParadas(List<Parada> paradas, int idxInicio, int idxFin,
-			Map<String, Tramo> tramos) {
-
-		LOGGER.debug("Calculando tiempo de {} ({}) a {} ({})", paradas.get(idxInicio).getCodigo(), idxInicio,
-				paradas.get(idxFin).getCodigo(), idxFin);
-		int tiempo = 0;
-		for (int i = idxInicio; i < idxFin; i++) {
-			if (i + 1 < paradas.size()) {
-				String clave = paradas.get(i).getCodigo() + "-" + paradas.get(i + 1).getCodigo();
-				Tramo tramo = tramos.get(clave);
-
-				if (tramo != null && tramo.getTipo() == Constantes.COLECTIVO) {
-					tiempo += tramo.getTiempo();
-					LOGGER.debug(" -> Sumo tramo: {} ({}s). Total: {}s", clave, tramo.getTiempo(), tiempo);
-				}
-			} else {
-				LOGGER.error("Error: Índice fuera de rango en calcularTiempoEntreParadas.");
-				break;
-			}
-		}
-		LOGGER.info("Duración final calculada: {} segundos.", tiempo);
-		return tiempo;
+	protected int buscarSalida(int idxLinea, int diaSemana, int tiempoHastaInicioTramo, int horaMinima,
+			RedTransporte red) {
+		return buscarSalida(idxLinea, diaSemana, tiempoHastaInicioTramo, horaMinima, red, null);
 	}
 
 	/**
-	 * Helper method to calculate a single travel segment. Finds the earliest
-	 * available bus schedule (frequency) for the given line that departs at or
-	 * after the required minimum time.
+	 * Finds the earliest bus of the given line that passes through the segment's
+	 * origin stop at or after the required minimum time, counting the timetable
+	 * lookups in the query's cost counters.
 	 * 
-	 * @param linea      The bus line to search within.
-	 * @param diaSemana  The day of the week for schedule matching.
-	 * @param idxInicio  Index of the segment's origin stop.
-	 * @param idxFin     Index of the segment's destination stop.
-	 * @param horaMinima The minimum departure time required (passenger's arrival
-	 *                   time).
-	 * @param tramos     Map containing all available segments for time lookup.
-	 * @return The found {@code Recorrido} object if a valid schedule exists, or
-	 *         null otherwise.
+	 * @param idxLinea               The position of the bus line in
+	 *                               {@code lineas}.
+	 * @param diaSemana              The day of the week of the query.
+	 * @param tiempoHastaInicioTramo The travel time from the start of the route to
+	 *                               the segment's origin stop, in seconds.
+	 * @param horaMinima             The minimum departure time required, in
+	 *                               seconds since the start of the query's service
+	 *                               day.
+	 * @param red                    The precalculated transportation network.
+	 * @param estadisticas           The cost counters of the query, or null.
+	 * @return The time the bus passes through the segment's origin stop, or -1 if
+	 *         no valid schedule exists.
+	 * @see #buscarSalida(int, int, int, int, RedTransporte)
 	 */
-	protected Recorrido calcularTramoDeViaje(Linea linea, int diaSemana, int idxInicio, int idxFin,
-			LocalTime horaMinima, Map<String, Tramo> tramos) {
-
-		LOGGER.debug("Calculando tramo de viaje con conexión caminando de {} a {}.", idxInicio, idxFin);
-		int tiempoHastaInicioTramo = calcularTiempoEntreParadas(linea.getParadas(), 0, idxInicio, tramos);
-
-		Iterator<Linea.Frecuencia> iter = linea.getFrecuencias().iterator();
-		Recorrido recorridoEncontrado = null;
-
-		while (iter.hasNext() && recorridoEncontrado == null) {
-			Linea.Frecuencia frecuencia = iter.next();
-			if (frecuencia.getDiaSemana() == diaSemana) {
-				LocalTime horaPasoPorInicio = frecuencia.getHora().plusSeconds(tiempoHastaInicioTramo);
-				if (!horaPasoPorInicio.isBefore(horaMinima)) {
-					int duracionTramo = calcularTiempoEntreParadas(linea.getParadas(), idxInicio, idxFin, tramos);
-					if (idxFin + 1 <= linea.getParadas().size()) {
-						List<Parada> paradasTramo = linea.getParadas().subList(idxInicio, idxFin + 1);
-						recorridoEncontrado = new Recorrido(linea, new ArrayList<>(paradasTramo), horaPasoPorInicio,
-								duracionTramo);
-					}
-				}
-			}
+	protected int buscarSalida(int idxLinea, int diaSemana, int tiempoHastaInicioTramo, int horaMinima,
+			RedTransporte red, EstadisticasConsulta estadisticas) {
+		Linea linea = lineas[idxLinea];
+		int salida = buscarSalidaEnDia(linea, diaSemana, tiempoHastaInicioTramo, horaMinima);
+		int dias = 1;
+
+		if (horaMinima + SEGUNDOS_DIA <= red.ultimaFrecuencia(idxLinea) + tiempoHastaInicioTramo) {
+			dias++;
+			int anterior = buscarSalidaEnDia(linea, HoraServicio.desplazarDia(diaSemana, -1), tiempoHastaInicioTramo,
+					horaMinima + SEGUNDOS_DIA);
+			if (anterior >= 0 && (salida < 0 || anterior - SEGUNDOS_DIA < salida))
+				salida = anterior - SEGUNDOS_DIA;
 		}
 
-		return recorridoEncontrado;
+		if (horaMinima >= SEGUNDOS_DIA) {
+			dias++;
+			int siguiente = buscarSalidaEnDia(linea, HoraServicio.desplazarDia(diaSemana, 1), tiempoHastaInicioTramo,
+					horaMinima - SEGUNDOS_DIA);
+			if (siguiente >= 0 && (salida < 0 || siguiente + SEGUNDOS_DIA < salida))
+				salida = siguiente + SEGUNDOS_DIA;
+		}
+
+		if (estadisticas != null)
+			estadisticas.sumarFrecuencias(dias);
+		return salida;
+	}
+
+	/**
+	 * Finds the first departure of a single service day whose bus passes through
+	 * the segment's origin stop at or after the minimum time.
+	 * 
+	 * @param linea                  The bus line to search within.
+	 * @param diaSemana              The service day to search.
+	 * @param tiempoHastaInicioTramo The travel time from the start of the route to
+	 *                               the segment's origin stop, in seconds.
+	 * @param horaMinima             The minimum time, in seconds since the start
+	 *                               of that service day.
+	 * @return The pass time in seconds since the start of that service day, or -1
+	 *         if no valid schedule exists.
+	 */
+	private static int buscarSalidaEnDia(Linea linea, int diaSemana, int tiempoHastaInicioTramo, int horaMinima) {
+		int salida = linea.getHorario(diaSemana).siguienteSalida(horaMinima - tiempoHastaInicioTramo);
+		return salida < 0 ? -1 : salida + tiempoHastaInicioTramo;
+	}
+
+	/**
+	 * Builds the {@code Recorrido} for a bus segment that has been kept as part of
+	 * a result. The segment references the line's route by index range, so no
+	 * list of stops is copied.
+	 * 
+	 * @param linea     The bus line.
+	 * @param idxInicio Index of the segment's origin stop.
+	 * @param idxFin    Index of the segment's destination stop.
+	 * @param salida    The time the bus passes through the origin stop, in
+	 *                  service-day seconds.
+	 * @param duracion  The duration of the segment in seconds.
+	 * @return The new {@code Recorrido}.
+	 */
+	protected Recorrido crearRecorrido(Linea linea, int idxInicio, int idxFin, int salida, int duracion) {
+		return new Recorrido(linea, idxInicio, idxFin, salida, duracion);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import colectivo.modelo.Tramo;
+
+/**
+ * Transfer graph of a {@code RedTransporte} whose nodes are the lines. There is
+ * an edge from line A to line B when a passenger can get off A and board B,
+ * either at a stop served by both or by walking one walking segment from a stop
+ * of A to a stop of B. Walking segments may also lead back to the same line, so
+ * a line can have an edge to itself. Each edge keeps the list of its
+ * connections: the position of the stop where A is left, the position of the
+ * stop where B is boarded and the walking segment, if any.
+ * 
+ * Edges and connections are stored in CSR form: the edges of line {@code a}
+ * are the positions {@code filas[a]} to {@code filas[a + 1] - 1}, sorted by
+ * destination line, and the connections of edge {@code e} are the positions
+ * {@code filasConexiones[e]} to {@code filasConexiones[e + 1] - 1}, sorted by
+ * the position where A is left. Searches over this graph cost in terms of lines
+ * and edges, not of stops.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class GrafoLineas {
+
+	/** Number of lines (nodes). */
+	private final int cantidadLineas;
+
+	/** Start of the edges of each line. */
+	private final int[] filas;
+
+	/** Destination line of each edge. */
+	private final int[] vecinos;
+
+	/** Start of the connections of each edge. */
+	private final int[] filasConexiones;
+
+	/** Position on the source line of the stop where it is left. */
+	private final int[] bajadas;
+
+	/** Position on the destination line of the stop where it is boarded. */
+	private final int[] subidas;
+
+	/** Walking segment of each connection, or null for a shared stop. */
+	private final Tramo[] caminatas;
+
+	/** Start of the incoming edges of each line. */
+	private final int[] filasEntrantes;
+
+	/** Source line of each incoming edge. */
+	private final int[] origenesEntrantes;
+
+	/**
+	 * Constructor that builds the graph of a network. The connections of each
+	 * line are gathered in parallel.
+	 * 
+	 * @param red The network, with its lines, stops and walking segments already
+	 *            indexed.
+	 */
+	GrafoLineas(RedTransporte red) {
+		this.cantidadLineas = red.getCantidadLineas();
+
+		Conexion[][] porLinea = new Conexion[cantidadLineas][];
+		IntStream.range(0, cantidadLineas).parallel().forEach(a -> porLinea[a] = conexionesDe(red, a));
+
+		this.filas = new int[cantidadLineas + 1];
+		int cantidadAristas = 0;
+		int cantidadConexiones = 0;
+		for (int a = 0; a < cantidadLineas; a++) {
+			Conexion[] conexiones = porLinea[a];
+			for (int k = 0; k < conexiones.length; k++) {
+				if (k == 0 || conexiones[k].linea != conexiones[k - 1].linea)
+					cantidadAristas++;
+			}
+			cantidadConexiones += conexiones.length;
+			filas[a + 1] = cantidadAristas;
+		}
+
+		this.vecinos = new int[cantidadAristas];
+		this.filasConexiones = new int[cantidadAristas + 1];
+		this.bajadas = new int[cantidadConexiones];
+		this.subidas = new int[cantidadConexiones];
+		this.caminatas = new Tramo[cantidadConexiones];
+
+		int[] entrantes = new int[cantidadLineas + 1];
+		int arista = 0;
+		int pos = 0;
+		for (int a = 0; a < cantidadLineas; a++) {
+			Conexion[] conexiones = porLinea[a];
+			for (int k = 0; k < conexiones.length; k++) {
+				Conexion conexion = conexiones[k];
+				if (k == 0 || conexion.linea != conexiones[k - 1].linea) {
+					vecinos[arista] = conexion.linea;
+					filasConexiones[arista++] = pos;
+					entrantes[conexion.linea + 1]++;
+				}
+				bajadas[pos] = conexion.bajada;
+				subidas[pos] = conexion.subida;
+				caminatas[pos++] = conexion.caminata;
+			}
+		}
+		filasConexiones[cantidadAristas] = pos;
+
+		for (int l = 0; l < cantidadLineas; l++)
+			entrantes[l + 1] += entrantes[l];
+		this.filasEntrantes = entrantes.clone();
+		this.origenesEntrantes = new int[cantidadAristas];
+		for (int a = 0; a < cantidadLineas; a++) {
+			for (int e = filas[a]; e < filas[a + 1]; e++)
+				origenesEntrantes[entrantes[vecinos[e]]++] = a;
+		}
+	}
+
+	/**
+	 * Gathers the connections leaving a line, considering the first occurrence of
+	 * each of its stops.
+	 * 
+	 * @param red The network.
+	 * @param a   The line index.
+	 * @return The connections, sorted by destination line, position where the
+	 *         line is left and position where the other line is boarded.
+	 */
+	private static Conexion[] conexionesDe(RedTransporte red, int a) {
+		List<Conexion> conexiones = new ArrayList<>();
+		int[] ids = red.paradasDeLinea(a);
+
+		for (int i = 0; i < ids.length; i++) {
+			int p = ids[i];
+			if (posicionEn(red, p, a) != i)
+				continue;
+
+			int[] lineas = red.lineasDeParada(p);
+			int[] posiciones = red.posicionesDeParada(p);
+			for (int k = 0; k < lineas.length; k++) {
+				if (lineas[k] != a)
+					conexiones.add(new Conexion(lineas[k], i, posiciones[k], null));
+			}
+
+			Tramo[] caminatasAqui = red.caminatasDesde(p);
+			if (caminatasAqui == null)
+				continue;
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int c = 0; c < caminatasAqui.length; c++) {
+				int q = destinos[c];
+				int[] lineasFin = red.lineasDeParada(q);
+				int[] posicionesFin = red.posicionesDeParada(q);
+				for (int k = 0; k < lineasFin.length; k++)
+					conexiones.add(new Conexion(lineasFin[k], i, posicionesFin[k], caminatasAqui[c]));
+			}
+		}
+
+		Conexion[] resultado = conexiones.toArray(new Conexion[0]);
+		Arrays.sort(resultado, (x, y) -> x.linea != y.linea ? Integer.compare(x.linea, y.linea)
+				: x.bajada != y.bajada ? Integer.compare(x.bajada, y.bajada) : Integer.compare(x.subida, y.subida));
+		return resultado;
+	}
+
+	/**
+	 * Returns the first position of a stop on a line.
+	 * 
+	 * @param red The network.
+	 * @param p   The stop index.
+	 * @param l   The line index.
+	 * @return The position, or -1 if the line does not serve the stop.
+	 */
+	static int posicionEn(RedTransporte red, int p, int l) {
+		int[] lineas = red.lineasDeParada(p);
+		for (int k = 0; k < lineas.length; k++) {
+			if (lineas[k] == l)
+				return red.posicionesDeParada(p)[k];
+		}
+		return -1;
+	}
+
+	/**
+	 * Calculates, with a breadth-first search over the incoming edges, the minimum
+	 * number of transfers from every line to a line serving the given stop.
+	 * 
+	 * @param red     The network the graph was built from.
+	 * @param destino The destination stop index.
+	 * @return For each line index, the minimum number of transfers, or -1 if the
+	 *         stop cannot be reached from that line.
+	 */
+	public int[] transbordosHasta(RedTransporte red, int destino) {
+		int[] distancias = new int[cantidadLineas];
+		Arrays.fill(distancias, -1);
+		int[] cola = new int[cantidadLineas];
+		int fin = 0;
+
+		for (int l : red.lineasDeParada(destino)) {
+			distancias[l] = 0;
+			cola[fin++] = l;
+		}
+		for (int inicio = 0; inicio < fin; inicio++) {
+			int b = cola[inicio];
+			for (int e = filasEntrantes[b]; e < filasEntrantes[b + 1]; e++) {
+				int a = origenesEntrantes[e];
+				if (distancias[a] < 0) {
+					distancias[a] = distancias[b] + 1;
+					cola[fin++] = a;
+				}
+			}
+		}
+		return distancias;
+	}
+
+	/** @return The number of lines (nodes). */
+	public int getCantidadLineas() {
+		return cantidadLineas;
+	}
+
+	/** @return The number of edges between lines. */
+	public int getCantidadAristas() {
+		return vecinos.length;
+	}
+
+	/**
+	 * @param l The line index.
+	 * @return The position of the first edge leaving the line.
+	 */
+	public int inicioAristas(int l) {
+		return filas[l];
+	}
+
+	/**
+	 * @param l The line index.
+	 * @return The position after the last edge leaving the line.
+	 */
+	public int finAristas(int l) {
+		return filas[l + 1];
+	}
+
+	/**
+	 * @param e The edge position.
+	 * @return The destination line of the edge.
+	 */
+	public int vecino(int e) {
+		return vecinos[e];
+	}
+
+	/**
+	 * @param e The edge position.
+	 * @return The position of the first connection of the edge.
+	 */
+	public int inicioConexiones(int e) {
+		return filasConexiones[e];
+	}
+
+	/**
+	 * @param e The edge position.
+	 * @return The position after the last connection of the edge.
+	 */
+	public int finConexiones(int e) {
+		return filasConexiones[e + 1];
+	}
+
+	/**
+	 * @param c The connection position.
+	 * @return The position on the source line of the stop where it is left.
+	 */
+	public int bajada(int c) {
+		return bajadas[c];
+	}
+
+	/**
+	 * @param c The connection position.
+	 * @return The position on the destination line of the stop where it is
+	 *         boarded.
+	 */
+	public int subida(int c) {
+		return subidas[c];
+	}
+
+	/**
+	 * @param c The connection position.
+	 * @return The walking segment of the connection, or null for a shared stop.
+	 */
+	public Tramo caminata(int c) {
+		return caminatas[c];
+	}
+
+	/**
+	 * A connection found while building the graph.
+	 */
+	private static final class Conexion {
+
+		/** The destination line. */
+		private final int linea;
+
+		/** Position on the source line of the stop where it is left. */
+		private final int bajada;
+
+		/** Position on the destination line of the stop where it is boarded. */
+		private final int subida;
+
+		/** The walking segment, or null for a shared stop. */
+		private final Tramo caminata;
+
+		/**
+		 * Constructor for a new connection.
+		 * 
+		 * @param linea    The destination line.
+		 * @param bajada   The position where the source line is left.
+		 * @param subida   The position where the destination line is boarded.
+		 * @param caminata The walking segment, or null.
+		 */
+		private Conexion(int linea, int bajada, int subida, Tramo caminata) {
+			this.linea = linea;
+			this.bajada = bajada;
+			this.subida = subida;
+			this.caminata = caminata;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,413 @@
+package colectivo.logica;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Tramo;
+
+/**
+ * Time-expanded graph of a {@code RedTransporte}, built from the trips of its
+ * {@code RedViajes}. Every node is an event at a fixed time:
+ * <ul>
+ * <li>a departure node for each trip at each position it leaves,</li>
+ * <li>an arrival node for each trip at each position it reaches, and</li>
+ * <li>a transfer node for each departure that can be boarded at a stop (the
+ * first occurrence of the stop on the line).</li>
+ * </ul>
+ * The transfer nodes of a stop form one waiting chain per day block, sorted by
+ * time, and each one boards its departure. A trip rides from a departure to the
+ * next arrival and an arrival can stay on board to the departure of the same
+ * position. Alighting links an arrival to the first transfer node of each
+ * chain that can still be boarded, at the same stop after the minimum transfer
+ * time or at the end of a walking segment, so those rules are modelled once
+ * while building the graph instead of in every query. As in {@code RedViajes},
+ * a chain of a later day block than the passenger's time cannot be entered.
+ * 
+ * Since every node has a fixed time, the earliest arrival is a Dijkstra search
+ * that settles the nodes by time. The edges are stored in CSR form ({@code int}
+ * row pointers, targets and weights), so the search runs on primitive arrays
+ * only; it uses more memory than the trip-based search and is meant as the
+ * graph to extend with per-edge costs.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class GrafoTiempoExpandido {
+
+	/** Number of seconds in a day. */
+	private static final int SEGUNDOS_DIA = HoraServicio.SEGUNDOS_DIA;
+
+	/** Number of day blocks of the timeline. */
+	private static final int BLOQUES = RedViajes.BLOQUES;
+
+	/** Receives the edges leaving a node, while the graph is built. */
+	@FunctionalInterface
+	private interface Arista {
+		void agregar(int destino, int peso);
+	}
+
+	/** The trips the graph was expanded from. */
+	private final RedViajes viajes;
+
+	/** Minimum time between alighting and boarding at the same stop, in seconds. */
+	private final int segundosTransbordo;
+
+	/** Factor applied to the time of the walking segments. */
+	private final double factorCaminata;
+
+	/** Number of transfer nodes; departure nodes start here. */
+	private final int cantidadTransbordos;
+
+	/** Number of stop events; arrival nodes start at {@code cantidadTransbordos + cantidadEventos}. */
+	private final int cantidadEventos;
+
+	/** Time of each node, in absolute seconds. */
+	private final int[] tiempos;
+
+	/** Stop of each transfer node. */
+	private final int[] paradasTransbordo;
+
+	/** First transfer node of each chain, indexed by {@code p * BLOQUES + b}. */
+	private final int[] inicioCadenas;
+
+	/** Start of the edges of each node (CSR row pointers). */
+	private final int[] filas;
+
+	/** Target node of each edge. */
+	private final int[] destinos;
+
+	/** Weight of each edge, in seconds. */
+	private final int[] pesos;
+
+	/**
+	 * Constructor that expands the trips of a network into the graph.
+	 * 
+	 * @param red                The network.
+	 * @param segundosTransbordo The minimum time between alighting and boarding
+	 *                           at the same stop, in seconds.
+	 * @param factorCaminata     The factor applied to the time of the walking
+	 *                           segments.
+	 */
+	GrafoTiempoExpandido(RedTransporte red, int segundosTransbordo, double factorCaminata) {
+		this.viajes = red.getRedViajes();
+		this.segundosTransbordo = segundosTransbordo;
+		this.factorCaminata = factorCaminata;
+		this.cantidadEventos = viajes.getCantidadEventos();
+
+		int cantidadParadas = red.getCantidadParadas();
+		long[][] porParada = new long[cantidadParadas][];
+		IntStream.range(0, cantidadParadas).parallel().forEach(p -> porParada[p] = salidasDeParada(red, p));
+
+		this.inicioCadenas = new int[cantidadParadas * BLOQUES + 1];
+		int total = 0;
+		for (int p = 0; p < cantidadParadas; p++) {
+			for (long salida : porParada[p])
+				inicioCadenas[p * BLOQUES + (int) (salida >>> 52) + 1]++;
+			total += porParada[p].length;
+		}
+		for (int c = 0; c < cantidadParadas * BLOQUES; c++)
+			inicioCadenas[c + 1] += inicioCadenas[c];
+		this.cantidadTransbordos = total;
+
+		int cantidadNodos = cantidadTransbordos + 2 * cantidadEventos;
+		this.tiempos = new int[cantidadNodos];
+		this.paradasTransbordo = new int[cantidadTransbordos];
+		int[] salidasTransbordo = new int[cantidadTransbordos];
+		int k = 0;
+		for (int p = 0; p < cantidadParadas; p++) {
+			for (long salida : porParada[p]) {
+				tiempos[k] = (int) (salida >>> 32) & 0xFFFFF;
+				paradasTransbordo[k] = p;
+				salidasTransbordo[k] = (int) salida;
+				k++;
+			}
+		}
+		for (int t = 0; t < viajes.getCantidadViajes(); t++) {
+			int largo = red.paradasDeLinea(viajes.lineaDe(t)).length;
+			int e = viajes.primerEvento(t);
+			for (int i = 0; i < largo; i++) {
+				int paso = viajes.paso(t, i);
+				tiempos[nodoSalida(e + i)] = paso;
+				tiempos[nodoLlegada(e + i)] = paso;
+			}
+		}
+
+		this.filas = new int[cantidadNodos + 1];
+		int[] cantidades = new int[1];
+		for (int n = 0; n < cantidadNodos; n++) {
+			cantidades[0] = 0;
+			aristasDe(red, n, salidasTransbordo, (destino, peso) -> cantidades[0]++);
+			filas[n + 1] = filas[n] + cantidades[0];
+		}
+		this.destinos = new int[filas[cantidadNodos]];
+		this.pesos = new int[filas[cantidadNodos]];
+		IntStream.range(0, cantidadNodos).parallel().forEach(n -> {
+			int[] siguiente = { filas[n] };
+			aristasDe(red, n, salidasTransbordo, (destino, peso) -> {
+				destinos[siguiente[0]] = destino;
+				pesos[siguiente[0]] = peso;
+				siguiente[0]++;
+			});
+		});
+	}
+
+	/**
+	 * Collects the departures that can be boarded at a stop.
+	 * 
+	 * @param red The network.
+	 * @param p   The stop index.
+	 * @return The departures, as {@code block << 52 | time << 32 | event}, sorted
+	 *         by block and time.
+	 */
+	private long[] salidasDeParada(RedTransporte red, int p) {
+		int[] lineas = red.lineasDeParada(p);
+		int[] posiciones = red.posicionesDeParada(p);
+		int cantidad = 0;
+		for (int x = 0; x < lineas.length; x++) {
+			if (posiciones[x] + 1 < red.paradasDeLinea(lineas[x]).length)
+				cantidad += viajes.finViajesDeLinea(lineas[x]) - viajes.primerViajeDeLinea(lineas[x]);
+		}
+
+		long[] salidas = new long[cantidad];
+		int k = 0;
+		for (int x = 0; x < lineas.length; x++) {
+			int j = posiciones[x];
+			if (j + 1 >= red.paradasDeLinea(lineas[x]).length)
+				continue;
+			for (int t = viajes.primerViajeDeLinea(lineas[x]); t < viajes.finViajesDeLinea(lineas[x]); t++) {
+				salidas[k++] = (long) viajes.bloqueDe(t) << 52 | (long) viajes.paso(t, j) << 32
+						| (viajes.primerEvento(t) + j);
+			}
+		}
+		Arrays.sort(salidas);
+		return salidas;
+	}
+
+	/**
+	 * Enumerates the edges leaving a node.
+	 * 
+	 * @param red               The network.
+	 * @param n                 The node.
+	 * @param salidasTransbordo The stop event boarded by each transfer node.
+	 * @param arista            Receives each edge.
+	 */
+	private void aristasDe(RedTransporte red, int n, int[] salidasTransbordo, Arista arista) {
+		if (n < cantidadTransbordos) {
+			arista.agregar(nodoSalida(salidasTransbordo[n]), 0);
+			if (n + 1 < cantidadTransbordos && esMismaCadena(n, n + 1))
+				arista.agregar(n + 1, tiempos[n + 1] - tiempos[n]);
+			return;
+		}
+
+		boolean esSalida = n < cantidadTransbordos + cantidadEventos;
+		int e = esSalida ? n - cantidadTransbordos : n - cantidadTransbordos - cantidadEventos;
+		int t = viajes.viajeDeEvento(e);
+		int i = e - viajes.primerEvento(t);
+		int[] paradas = red.paradasDeLinea(viajes.lineaDe(t));
+
+		if (esSalida) {
+			if (i + 1 < paradas.length)
+				arista.agregar(nodoLlegada(e + 1), tiempos[nodoLlegada(e + 1)] - tiempos[n]);
+			return;
+		}
+		if (i == 0)
+			return;
+
+		int llegada = tiempos[n];
+		if (i + 1 < paradas.length)
+			arista.agregar(nodoSalida(e), 0);
+		enlazarCadenas(paradas[i], llegada, llegada + segundosTransbordo, arista);
+		Tramo[] caminatas = red.caminatasDesde(paradas[i]);
+		if (caminatas != null) {
+			int[] destinos = red.destinosCaminatasDesde(paradas[i]);
+			for (int k = 0; k < caminatas.length; k++)
+				enlazarCadenas(destinos[k], llegada, llegada + tiempoCaminata(caminatas[k]), arista);
+		}
+	}
+
+	/**
+	 * Checks whether a transfer node belongs to the waiting chain of an earlier
+	 * one.
+	 * 
+	 * @param n A transfer node.
+	 * @param m A later transfer node.
+	 * @return true if both are in the same chain.
+	 */
+	private boolean esMismaCadena(int n, int m) {
+		int c = Arrays.binarySearch(inicioCadenas, n);
+		if (c < 0)
+			c = -c - 2;
+		while (inicioCadenas[c + 1] == n)
+			c++;
+		return m < inicioCadenas[c + 1];
+	}
+
+	/**
+	 * Links a time at a stop to the first node of every chain of the stop that
+	 * can be boarded from then on.
+	 * 
+	 * @param p      The stop index.
+	 * @param desde  The time of the node the edges leave from.
+	 * @param hora   The time the passenger is ready to board at the stop.
+	 * @param arista Receives each edge.
+	 */
+	private void enlazarCadenas(int p, int desde, int hora, Arista arista) {
+		int ultimo = Math.min(BLOQUES - 1, Math.floorDiv(hora, SEGUNDOS_DIA));
+		for (int b = 0; b <= ultimo; b++) {
+			int nodo = primeroEnCadena(p, b, hora);
+			if (nodo >= 0)
+				arista.agregar(nodo, tiempos[nodo] - desde);
+		}
+	}
+
+	/**
+	 * Finds the first transfer node of a chain at or after a time.
+	 * 
+	 * @param p    The stop index.
+	 * @param b    The day block of the chain.
+	 * @param hora The time, in absolute seconds.
+	 * @return The transfer node, or -1 if the chain has none left.
+	 */
+	int primeroEnCadena(int p, int b, int hora) {
+		int inicio = inicioCadenas[p * BLOQUES + b];
+		int fin = inicioCadenas[p * BLOQUES + b + 1];
+		int limite = fin;
+		while (inicio < fin) {
+			int medio = (inicio + fin) >>> 1;
+			if (tiempos[medio] < hora)
+				inicio = medio + 1;
+			else
+				fin = medio;
+		}
+		return inicio < limite ? inicio : -1;
+	}
+
+	/**
+	 * @param caminata A walking segment.
+	 * @return Its time with the walking factor applied, in seconds.
+	 */
+	int tiempoCaminata(Tramo caminata) {
+		return (int) Math.round(caminata.getTiempo() * factorCaminata);
+	}
+
+	/**
+	 * @param e A stop event.
+	 * @return The departure node of the event.
+	 */
+	int nodoSalida(int e) {
+		return cantidadTransbordos + e;
+	}
+
+	/**
+	 * @param e A stop event.
+	 * @return The arrival node of the event.
+	 */
+	int nodoLlegada(int e) {
+		return cantidadTransbordos + cantidadEventos + e;
+	}
+
+	/**
+	 * @param n A node.
+	 * @return true if the node is a transfer node.
+	 */
+	boolean esTransbordo(int n) {
+		return n < cantidadTransbordos;
+	}
+
+	/**
+	 * @param n A node.
+	 * @return true if the node is a departure node.
+	 */
+	boolean esSalida(int n) {
+		return n >= cantidadTransbordos && n < cantidadTransbordos + cantidadEventos;
+	}
+
+	/**
+	 * @param n A departure or arrival node.
+	 * @return The stop event of the node.
+	 */
+	int eventoDe(int n) {
+		return esSalida(n) ? n - cantidadTransbordos : n - cantidadTransbordos - cantidadEventos;
+	}
+
+	/**
+	 * @param n A transfer node.
+	 * @return The stop index of the node.
+	 */
+	int paradaTransbordo(int n) {
+		return paradasTransbordo[n];
+	}
+
+	/**
+	 * @param n A node.
+	 * @return The time of the node, in absolute seconds.
+	 */
+	int tiempo(int n) {
+		return tiempos[n];
+	}
+
+	/**
+	 * @param n A node.
+	 * @return The first edge leaving the node.
+	 */
+	int inicioAristas(int n) {
+		return filas[n];
+	}
+
+	/**
+	 * @param n A node.
+	 * @return The end (exclusive) of the edges leaving the node.
+	 */
+	int finAristas(int n) {
+		return filas[n + 1];
+	}
+
+	/**
+	 * @param k An edge.
+	 * @return The target node of the edge.
+	 */
+	int destino(int k) {
+		return destinos[k];
+	}
+
+	/**
+	 * @param k An edge.
+	 * @return The weight of the edge, in seconds.
+	 */
+	int peso(int k) {
+		return pesos[k];
+	}
+
+	/** @return The trips the graph was expanded from. */
+	public RedViajes getViajes() {
+		return viajes;
+	}
+
+	/** @return The minimum transfer time at the same stop, in seconds. */
+	public int getSegundosTransbordo() {
+		return segundosTransbordo;
+	}
+
+	/** @return The factor applied to the time of the walking segments. */
+	public double getFactorCaminata() {
+		return factorCaminata;
+	}
+
+	/** @return The number of nodes. */
+	public int getCantidadNodos() {
+		return tiempos.length;
+	}
+
+	/** @return The number of edges. */
+	public int getCantidadAristas() {
+		return destinos.length;
+	}
+
+	/** @return The approximate size of the graph arrays, in bytes. */
+	public long getBytes() {
+		return 4L * (tiempos.length + paradasTransbordo.length + inicioCadenas.length + filas.length
+				+ destinos.length + pesos.length);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,522 @@
+package colectivo.logica;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import colectivo.modelo.CatalogoHorarios;
+import colectivo.modelo.Ciudad;
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Linea;
+import colectivo.modelo.MapaTramos;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Estimate of the heap retained by a loaded {@code Ciudad} and by the
+ * {@code RedTransporte} precalculated from it, broken down by structure: the
+ * {@code Parada} objects and their line and walking lists, the stop lists of
+ * the lines, the shared timetables, the {@code Linea} and {@code Tramo}
+ * objects, the maps of the city and each index of the network.
+ * 
+ * The object graph is walked by reflection and each object is counted once, in
+ * the first structure that reaches it; stops, lines, segments and timetable
+ * catalogs are only entered from their own structure. Sizes follow the layout
+ * of the running JVM (header and reference size, alignment). JDK collections
+ * are walked field by field when {@code java.util} is open to reflection
+ * ({@code --add-opens java.base/java.util=ALL-UNNAMED}); otherwise hash maps and
+ * sets are estimated from their size and {@code ArrayList} backing arrays as
+ * if they were filled one by one from the default capacity.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class HuellaCiudad implements HuellaCiudadMBean {
+
+	/** Size of a reference, in bytes. */
+	private static final int REFERENCIA = "true".equals(opcionVm("UseCompressedOops", "true")) ? 4 : 8;
+
+	/** Size of an object header, in bytes. */
+	private static final int CABECERA = "true".equals(opcionVm("UseCompressedClassPointers", "true")) ? 12 : 16;
+
+	/** Alignment of the objects, in bytes. */
+	private static final int ALINEACION = Integer.parseInt(opcionVm("ObjectAlignmentInBytes", "8"));
+
+	/** Classes that are only entered as roots of their own structure. */
+	private static final Set<Class<?>> FRONTERA = Set.of(Parada.class, Linea.class, Tramo.class,
+			CatalogoHorarios.class, Ciudad.class, MapaTramos.class, RedTransporte.class);
+
+	/** Layout of each class, computed once. */
+	private static final ClassValue<Disposicion> DISPOSICIONES = new ClassValue<>() {
+		@Override
+		protected Disposicion computeValue(Class<?> clase) {
+			return new Disposicion(clase);
+		}
+	};
+
+	/** Source of the city to measure. */
+	private final Supplier<Ciudad> ciudad;
+
+	/** Source of the network to measure; it may supply null. */
+	private final Supplier<RedTransporte> red;
+
+	/**
+	 * Constructor that sets where the city and the network are read from each
+	 * time they are measured.
+	 * 
+	 * @param ciudad Source of the city.
+	 * @param red    Source of the network, which may supply null.
+	 */
+	public HuellaCiudad(Supplier<Ciudad> ciudad, Supplier<RedTransporte> red) {
+		this.ciudad = ciudad;
+		this.red = red;
+	}
+
+	@Override
+	public String getInforme() {
+		return medir(ciudad.get(), red.get()).toString();
+	}
+
+	@Override
+	public long getBytesModelo() {
+		return medir(ciudad.get(), null).getBytesModelo();
+	}
+
+	@Override
+	public long getBytesRed() {
+		return medir(ciudad.get(), red.get()).getBytesRed();
+	}
+
+	/**
+	 * Measures a city and, if given, its network.
+	 * 
+	 * @param ciudad The loaded city.
+	 * @param red    The network precalculated from the city, or null.
+	 * @return The estimated footprint of each structure.
+	 */
+	public static Informe medir(Ciudad ciudad, RedTransporte red) {
+		Contador contador = new Contador();
+		Informe informe = new Informe(ciudad);
+		Collection<Parada> paradas = ciudad.getParadas().values();
+		Collection<Linea> lineas = ciudad.getLineas().values();
+
+		List<Object> listasParadas = new ArrayList<>(paradas.size() * 2);
+		for (Parada parada : paradas) {
+			listasParadas.add(parada.getLineas());
+			listasParadas.add(parada.getParadaCaminando());
+		}
+		informe.agregar("paradas.listas", contador.medir(listasParadas), false);
+		informe.agregar("paradas", contador.medir(paradas), false);
+
+		List<Object> listasLineas = new ArrayList<>(lineas.size());
+		List<Object> catalogos = new ArrayList<>();
+		for (Linea linea : lineas) {
+			listasLineas.add(linea.getParadas());
+			catalogos.add(linea.getCatalogoHorarios());
+		}
+		informe.agregar("lineas.paradas", contador.medir(listasLineas), false);
+		informe.agregar("horarios", contador.medir(catalogos), false);
+		informe.agregar("lineas", contador.medir(lineas), false);
+		informe.agregar("tramos", contador.medir(ciudad.getTramos().values()), false);
+
+		informe.agregar("ciudad.paradas", contador.medir(List.of(ciudad.getParadas())), false);
+		informe.agregar("ciudad.lineas", contador.medir(List.of(ciudad.getLineas())), false);
+		informe.agregar("ciudad.tramos", contador.medir(List.of(ciudad.getTramos())), false);
+		if (ciudad.getMapaTramos() != ciudad.getTramos())
+			informe.agregar("ciudad.mapaTramos", contador.medir(List.of(ciudad.getMapaTramos())), false);
+		informe.agregar("ciudad", contador.medir(List.of(ciudad)), false);
+
+		if (red != null) {
+			for (Field campo : DISPOSICIONES.get(RedTransporte.class).todas) {
+				if (campo.getType().isPrimitive())
+					continue;
+				long[] medida = contador.medir(Collections.singletonList(leer(campo, red)));
+				if (medida[0] > 0)
+					informe.agregar("red." + campo.getName(), medida, true);
+			}
+			informe.agregar("red", contador.medir(List.of(red)), true);
+		}
+		return informe;
+	}
+
+	/**
+	 * Reads an option of the running JVM.
+	 * 
+	 * @param nombre     The name of the option.
+	 * @param porDefecto The value assumed if it cannot be read.
+	 * @return The value of the option.
+	 */
+	private static String opcionVm(String nombre, String porDefecto) {
+		try {
+			HotSpotDiagnosticMXBean diagnostico = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+			return diagnostico == null ? porDefecto : diagnostico.getVMOption(nombre).getValue();
+		} catch (IllegalArgumentException ex) {
+			return porDefecto;
+		}
+	}
+
+	/**
+	 * Reads a field made accessible by {@code Disposicion}.
+	 * 
+	 * @param campo  The field.
+	 * @param objeto The object.
+	 * @return The value of the field.
+	 */
+	private static Object leer(Field campo, Object objeto) {
+		try {
+			return campo.get(objeto);
+		} catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Campo no accesible: " + campo, ex);
+		}
+	}
+
+	/**
+	 * Rounds a size up to the object alignment.
+	 * 
+	 * @param bytes The size.
+	 * @return The aligned size.
+	 */
+	private static long alinear(long bytes) {
+		return (bytes + ALINEACION - 1) / ALINEACION * ALINEACION;
+	}
+
+	/**
+	 * Returns the size of a field or array element of the given type.
+	 * 
+	 * @param tipo The type.
+	 * @return Its size, in bytes.
+	 */
+	private static int tamanoCampo(Class<?> tipo) {
+		if (tipo == long.class || tipo == double.class)
+			return 8;
+		if (tipo == int.class || tipo == float.class)
+			return 4;
+		if (tipo == short.class || tipo == char.class)
+			return 2;
+		if (tipo == byte.class || tipo == boolean.class)
+			return 1;
+		return REFERENCIA;
+	}
+
+	/**
+	 * Returns the size of an array.
+	 * 
+	 * @param tipo     The type of its elements.
+	 * @param longitud Its length.
+	 * @return Its size, in bytes.
+	 */
+	private static long tamanoArreglo(Class<?> tipo, long longitud) {
+		return alinear(alinear(CABECERA + 4) + longitud * tamanoCampo(tipo));
+	}
+
+	/**
+	 * Layout of a class: the size of its instances and its reference fields.
+	 */
+	private static final class Disposicion {
+
+		/** Size of an instance, in bytes. */
+		private final long tamano;
+
+		/**
+		 * Instance reference fields, or null if some cannot be read. Fields that
+		 * an application class inherits from a JDK class, such as the cached views
+		 * of {@code AbstractMap}, are skipped instead.
+		 */
+		private final Field[] referencias;
+
+		/** Every instance field declared by the class itself, if readable. */
+		private final Field[] todas;
+
+		/**
+		 * Constructor that computes the layout.
+		 * 
+		 * @param clase The class.
+		 */
+		private Disposicion(Class<?> clase) {
+			long campos = 0;
+			boolean accesible = true;
+			List<Field> referencias = new ArrayList<>();
+			List<Field> todas = new ArrayList<>();
+			for (Class<?> c = clase; c != null; c = c.getSuperclass()) {
+				for (Field campo : c.getDeclaredFields()) {
+					if (Modifier.isStatic(campo.getModifiers()))
+						continue;
+					campos += tamanoCampo(campo.getType());
+					boolean legible = campo.trySetAccessible();
+					boolean heredadoDelJdk = c.getModule().isNamed() && !clase.getModule().isNamed();
+					if (!campo.getType().isPrimitive()) {
+						if (legible)
+							referencias.add(campo);
+						else if (!heredadoDelJdk)
+							accesible = false;
+					}
+					if (c == clase && legible)
+						todas.add(campo);
+				}
+			}
+			this.tamano = alinear(CABECERA + campos);
+			this.referencias = accesible ? referencias.toArray(new Field[0]) : null;
+			this.todas = todas.toArray(new Field[0]);
+		}
+	}
+
+	/**
+	 * Walker of the object graph that counts each object once.
+	 */
+	private static final class Contador {
+
+		/** Objects already counted. */
+		private final Set<Object> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		/** Objects reached and not yet counted. */
+		private final ArrayDeque<Object> pendientes = new ArrayDeque<>();
+
+		/** Number of objects counted. */
+		private long objetos;
+
+		/** Bytes counted. */
+		private long bytes;
+
+		/**
+		 * Counts the given roots and every object they reach that was not counted
+		 * before, without entering other instances of the frontier classes.
+		 * 
+		 * @param raices The roots.
+		 * @return The objects and bytes counted, as {objects, bytes}.
+		 */
+		private long[] medir(Iterable<?> raices) {
+			long objetosAntes = objetos;
+			long bytesAntes = bytes;
+			for (Object raiz : raices) {
+				if (raiz != null && vistos.add(raiz))
+					pendientes.push(raiz);
+				while (!pendientes.isEmpty())
+					contar(pendientes.pop());
+			}
+			return new long[] { objetos - objetosAntes, bytes - bytesAntes };
+		}
+
+		/**
+		 * Queues an object reached from another one.
+		 * 
+		 * @param objeto The object, or null.
+		 */
+		private void alcanzar(Object objeto) {
+			if (objeto == null || objeto instanceof Class || objeto instanceof Enum
+					|| FRONTERA.contains(objeto.getClass()))
+				return;
+			if (vistos.add(objeto))
+				pendientes.push(objeto);
+		}
+
+		/**
+		 * Counts an object and queues the objects it references.
+		 * 
+		 * @param objeto The object.
+		 */
+		private void contar(Object objeto) {
+			objetos++;
+			Class<?> clase = objeto.getClass();
+			if (clase.isArray()) {
+				Class<?> tipo = clase.getComponentType();
+				bytes += tamanoArreglo(tipo, Array.getLength(objeto));
+				if (!tipo.isPrimitive())
+					for (Object elemento : (Object[]) objeto)
+						alcanzar(elemento);
+				return;
+			}
+
+			Disposicion disposicion = DISPOSICIONES.get(clase);
+			bytes += disposicion.tamano;
+			if (disposicion.referencias != null) {
+				for (Field campo : disposicion.referencias)
+					alcanzar(leer(campo, objeto));
+			} else if (objeto instanceof String texto) {
+				estimarArreglo(byte.class, texto.chars().allMatch(c -> c < 256) ? texto.length() : 2 * texto.length());
+			} else if (objeto instanceof Map<?, ?> mapa) {
+				estimarTabla(mapa, mapa.size());
+				mapa.forEach((clave, valor) -> {
+					alcanzar(clave);
+					alcanzar(valor);
+				});
+			} else if (objeto instanceof Collection<?> coleccion) {
+				if (objeto instanceof ArrayList<?> && !coleccion.isEmpty()) {
+					long capacidad = 10;
+					while (capacidad < coleccion.size())
+						capacidad += capacidad >> 1;
+					estimarArreglo(Object.class, capacidad);
+				} else if (objeto instanceof HashSet<?>) {
+					bytes += DISPOSICIONES.get(HashMap.class).tamano;
+					objetos++;
+					estimarTabla(objeto instanceof LinkedHashSet<?> ? new LinkedHashMap<>() : new HashMap<>(),
+							coleccion.size());
+				}
+				for (Object elemento : coleccion)
+					alcanzar(elemento);
+			}
+		}
+
+		/**
+		 * Adds an array that could not be read.
+		 * 
+		 * @param tipo     The type of its elements.
+		 * @param longitud Its length.
+		 */
+		private void estimarArreglo(Class<?> tipo, long longitud) {
+			objetos++;
+			bytes += tamanoArreglo(tipo, longitud);
+		}
+
+		/**
+		 * Adds the table and entries of a map that could not be read. Only hash
+		 * and tree maps are estimated; other maps, such as unmodifiable views,
+		 * have no entries of their own.
+		 * 
+		 * @param tipo     The map, used for its kind.
+		 * @param cantidad The number of entries.
+		 */
+		private void estimarTabla(Map<?, ?> tipo, int cantidad) {
+			boolean hash = tipo instanceof HashMap<?, ?> || tipo instanceof ConcurrentHashMap<?, ?>;
+			if (cantidad == 0 || !hash && !(tipo instanceof TreeMap<?, ?>))
+				return;
+			int referenciasEntrada = hash && !(tipo instanceof LinkedHashMap<?, ?>) ? 3 : 5;
+			objetos += cantidad;
+			bytes += cantidad * alinear(CABECERA + 4 + referenciasEntrada * REFERENCIA);
+			if (hash) {
+				int tabla = Integer.highestOneBit(Math.max(1, (int) (cantidad / 0.75f)) * 2 - 1);
+				estimarArreglo(Object.class, Math.max(16, tabla));
+			}
+		}
+	}
+
+	/**
+	 * Estimated footprint of a city: the objects and bytes of each structure,
+	 * in the order they were measured, with the totals per stop, line and
+	 * departure.
+	 */
+	public static final class Informe {
+
+		/** Objects and bytes of each structure, as {objects, bytes}. */
+		private final Map<String, long[]> estructuras = new LinkedHashMap<>();
+
+		/** Number of stops. */
+		private final int paradas;
+
+		/** Number of lines. */
+		private final int lineas;
+
+		/** Number of segments. */
+		private final int tramos;
+
+		/** Number of departures in a week, over every line. */
+		private final long salidas;
+
+		/** Bytes of the city model. */
+		private long bytesModelo;
+
+		/** Bytes of the network. */
+		private long bytesRed;
+
+		/**
+		 * Constructor that counts the elements of the city.
+		 * 
+		 * @param ciudad The city.
+		 */
+		private Informe(Ciudad ciudad) {
+			this.paradas = ciudad.getParadas().size();
+			this.lineas = ciudad.getLineas().size();
+			this.tramos = ciudad.getTramos().size();
+			long cantidad = 0;
+			for (Linea linea : ciudad.getLineas().values())
+				for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++)
+					cantidad += linea.getHorario(dia).salidas().length;
+			this.salidas = cantidad;
+		}
+
+		/**
+		 * Adds a measured structure.
+		 * 
+		 * @param estructura The name of the structure.
+		 * @param medida     Its objects and bytes.
+		 * @param deRed      Whether it belongs to the network.
+		 */
+		private void agregar(String estructura, long[] medida, boolean deRed) {
+			estructuras.put(estructura, medida);
+			if (deRed)
+				bytesRed += medida[1];
+			else
+				bytesModelo += medida[1];
+		}
+
+		/** @return The structures, in order, mapped to {objects, bytes}. */
+		public Map<String, long[]> getEstructuras() {
+			return Collections.unmodifiableMap(estructuras);
+		}
+
+		/** @return The estimated bytes of the city model. */
+		public long getBytesModelo() {
+			return bytesModelo;
+		}
+
+		/** @return The estimated bytes of the network, or 0 if not measured. */
+		public long getBytesRed() {
+			return bytesRed;
+		}
+
+		/** @return The number of departures in a week, over every line. */
+		public long getSalidas() {
+			return salidas;
+		}
+
+		/** @return The bytes of the model and the network per stop. */
+		public double getBytesPorParada() {
+			return (bytesModelo + bytesRed) / (double) Math.max(1, paradas);
+		}
+
+		/** @return The bytes of the model and the network per line. */
+		public double getBytesPorLinea() {
+			return (bytesModelo + bytesRed) / (double) Math.max(1, lineas);
+		}
+
+		/** @return The bytes of the timetables per weekly departure. */
+		public double getBytesPorSalida() {
+			long[] horarios = estructuras.get("horarios");
+			return (horarios == null ? 0 : horarios[1]) / (double) Math.max(1, salidas);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(String.format(Locale.ROOT, "%d paradas, %d líneas, %d tramos, %d salidas semanales%n",
+					paradas, lineas, tramos, salidas));
+			sb.append(String.format(Locale.ROOT, "%-28s %12s %14s%n", "estructura", "objetos", "bytes"));
+			estructuras.forEach((nombre, medida) -> sb
+					.append(String.format(Locale.ROOT, "%-28s %12d %14d%n", nombre, medida[0], medida[1])));
+			sb.append(String.format(Locale.ROOT, "modelo %.2f MB, red %.2f MB%n", bytesModelo / 1048576.0,
+					bytesRed / 1048576.0));
+			sb.append(String.format(Locale.ROOT, "%.1f bytes por parada, %.1f por línea, %.2f de horario por salida",
+					getBytesPorParada(), getBytesPorLinea(), getBytesPorSalida()));
+			return sb.toString();
+		}
+	}
+}
\ No newline at end of file
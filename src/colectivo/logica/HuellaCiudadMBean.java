@@ -0,0 +1,27 @@
+package colectivo.logica;
+
+/**
+ * Management interface of {@code HuellaCiudad}, to measure the memory
+ * footprint of the city loaded in a running instance from JConsole or JMC.
+ * Each call walks the city again.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public interface HuellaCiudadMBean {
+
+	/**
+	 * Returns the estimated bytes of each structure, with the totals per stop,
+	 * line and departure.
+	 * 
+	 * @return The report as text.
+	 */
+	String getInforme();
+
+	/** @return The estimated bytes of the city model. */
+	long getBytesModelo();
+
+	/** @return The estimated bytes of the network, or 0 if it is not built. */
+	long getBytesRed();
+}
\ No newline at end of file
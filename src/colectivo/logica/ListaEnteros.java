@@ -0,0 +1,37 @@
+package colectivo.logica;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of {@code int} values, used by the precalculations that gather
+ * an unknown number of entries before copying them to their final arrays. The
+ * fields are accessed directly by the classes of the package.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+final class ListaEnteros {
+
+	/** The values; only the first {@code cantidad} are in use. */
+	int[] valores = new int[16];
+
+	/** Number of values in use. */
+	int cantidad;
+
+	/**
+	 * Appends a value.
+	 * 
+	 * @param valor The value.
+	 */
+	void agregar(int valor) {
+		if (cantidad == valores.length)
+			valores = Arrays.copyOf(valores, cantidad * 2);
+		valores[cantidad++] = valor;
+	}
+
+	/** @return A copy of the values in use. */
+	int[] recortar() {
+		return Arrays.copyOf(valores, cantidad);
+	}
+}
\ No newline at end of file
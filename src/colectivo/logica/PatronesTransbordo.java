@@ -0,0 +1,799 @@
+package colectivo.logica;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Linea;
+import colectivo.modelo.Tramo;
+
+/**
+ * Transfer patterns of a {@code RedTransporte}. For every origin stop, the
+ * journeys that are optimal in arrival and number of transfers are calculated
+ * for every departure of the week, and only their patterns are kept: the
+ * sequence of stops where the passenger boards, gets off or starts and ends a
+ * walk. The patterns of one origin are stored as a tree of prefixes (a node per
+ * stop, sharing the common beginnings) plus, for every destination, the nodes
+ * where its patterns end. Queries then only evaluate those few stop sequences
+ * against the timetables ({@code CalculoPatronesService}).
+ * 
+ * The profile of each origin is obtained with one trip-based search over
+ * {@code RedViajes} per departure from the origin (or from the end of a walking
+ * segment leaving it), labelling every stop with its earliest arrival for each
+ * number of transfers. Days whose service, together with the previous and
+ * following days, is the same for every line are calculated once, and the
+ * origins are processed in parallel. The result takes a few seconds for a city
+ * and can be saved to disk and loaded again; the file records a fingerprint of
+ * the network, so patterns of a different network are never used.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class PatronesTransbordo {
+
+	/** Logger instance for logging events, errors and exceptions. */
+	private static final Logger LOGGER = LogManager.getLogger(PatronesTransbordo.class);
+
+	/** Identifier written at the start of the files. */
+	private static final int FIRMA = 0x50415452;
+
+	/** Version of the file format. */
+	private static final int VERSION = 1;
+
+	/** Number of seconds in a day. */
+	private static final int SEGUNDOS_DIA = HoraServicio.SEGUNDOS_DIA;
+
+	/** The network the patterns belong to. */
+	private final RedTransporte red;
+
+	/** Fingerprint of the network. */
+	private final long huella;
+
+	/** Stop index of each node, by origin; node 0 is the origin itself. */
+	private final int[][] paradasNodo;
+
+	/** Parent node of each node, by origin (-1 for the origin). */
+	private final int[][] padresNodo;
+
+	/** Destination stop of each pattern end, by origin, sorted. */
+	private final int[][] destinosTerminal;
+
+	/** Node where each pattern ends, parallel to {@code destinosTerminal}. */
+	private final int[][] nodosTerminal;
+
+	/**
+	 * Private constructor; patterns are obtained with {@code calcular} or
+	 * {@code cargar}.
+	 * 
+	 * @param red              The network.
+	 * @param huella           The fingerprint of the network.
+	 * @param paradasNodo      The stop of each node, by origin.
+	 * @param padresNodo       The parent of each node, by origin.
+	 * @param destinosTerminal The destination of each pattern end, by origin.
+	 * @param nodosTerminal    The node of each pattern end, by origin.
+	 */
+	private PatronesTransbordo(RedTransporte red, long huella, int[][] paradasNodo, int[][] padresNodo,
+			int[][] destinosTerminal, int[][] nodosTerminal) {
+		this.red = red;
+		this.huella = huella;
+		this.paradasNodo = paradasNodo;
+		this.padresNodo = padresNodo;
+		this.destinosTerminal = destinosTerminal;
+		this.nodosTerminal = nodosTerminal;
+	}
+
+	/**
+	 * Calculates the transfer patterns of every origin of a network.
+	 * 
+	 * @param red The network.
+	 * @return The patterns.
+	 */
+	public static PatronesTransbordo calcular(RedTransporte red) {
+		long inicio = System.nanoTime();
+		int cantidadParadas = red.getCantidadParadas();
+		int[] dias = diasRepresentativos(red);
+
+		int[][] paradasNodo = new int[cantidadParadas][];
+		int[][] padresNodo = new int[cantidadParadas][];
+		int[][] destinosTerminal = new int[cantidadParadas][];
+		int[][] nodosTerminal = new int[cantidadParadas][];
+		IntStream.range(0, cantidadParadas).parallel().forEach(o -> {
+			Arbol arbol = new Perfil(red, o).calcular(dias);
+			paradasNodo[o] = arbol.paradas.recortar();
+			padresNodo[o] = arbol.padres.recortar();
+			long[] terminales = arbol.terminales();
+			destinosTerminal[o] = new int[terminales.length];
+			nodosTerminal[o] = new int[terminales.length];
+			for (int k = 0; k < terminales.length; k++) {
+				destinosTerminal[o][k] = (int) (terminales[k] >>> 32);
+				nodosTerminal[o][k] = (int) terminales[k];
+			}
+		});
+
+		PatronesTransbordo patrones = new PatronesTransbordo(red, huella(red), paradasNodo, padresNodo,
+				destinosTerminal, nodosTerminal);
+		LOGGER.info("Patrones de transbordo calculados en {} ms: {} días distintos, {} nodos, {} patrones.",
+				(System.nanoTime() - inicio) / 1_000_000, dias.length, patrones.getCantidadNodos(),
+				patrones.getCantidadPatrones());
+		return patrones;
+	}
+
+	/**
+	 * Chooses one day of the week for every group of days with the same service.
+	 * Two days are equivalent when every line has the same timetable on them and
+	 * on the days before and after them, since journeys may use trips running
+	 * past midnight.
+	 * 
+	 * @param red The network.
+	 * @return The representative days (1 to 7).
+	 */
+	private static int[] diasRepresentativos(RedTransporte red) {
+		Map<List<Integer>, Integer> grupos = new HashMap<>();
+		for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+			List<Integer> clave = new ArrayList<>();
+			for (int l = 0; l < red.getCantidadLineas(); l++) {
+				Linea linea = red.getLinea(l);
+				for (int desplazamiento = -1; desplazamiento <= 1; desplazamiento++)
+					clave.add(linea.getPatron(HoraServicio.desplazarDia(dia, desplazamiento)));
+			}
+			grupos.putIfAbsent(clave, dia);
+		}
+		return grupos.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+	}
+
+	/**
+	 * Calculates the fingerprint of a network: a hash of its stops, the routes
+	 * and travel times of its lines, their timetables and the walking segments.
+	 * 
+	 * @param red The network.
+	 * @return The fingerprint.
+	 */
+	public static long huella(RedTransporte red) {
+		long huella = 0xcbf29ce484222325L;
+		huella = mezclar(huella, red.getCantidadParadas());
+		for (int p = 0; p < red.getCantidadParadas(); p++) {
+			huella = mezclar(huella, red.getParada(p).getCodigo());
+			Tramo[] caminatas = red.caminatasDesde(p);
+			if (caminatas == null)
+				continue;
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int k = 0; k < caminatas.length; k++) {
+				huella = mezclar(huella, destinos[k]);
+				huella = mezclar(huella, caminatas[k].getTiempo());
+			}
+		}
+		huella = mezclar(huella, red.getCantidadLineas());
+		for (int l = 0; l < red.getCantidadLineas(); l++) {
+			huella = mezclar(huella, red.getLinea(l).getCodigo().hashCode());
+			int[] ids = red.paradasDeLinea(l);
+			for (int i = 0; i < ids.length; i++) {
+				huella = mezclar(huella, ids[i]);
+				huella = mezclar(huella, red.tiempoEntre(l, 0, i));
+			}
+			for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+				for (int salida : red.getLinea(l).getHorario(dia).salidas())
+					huella = mezclar(huella, salida);
+				huella = mezclar(huella, -dia);
+			}
+		}
+		return huella;
+	}
+
+	/**
+	 * Adds a value to a FNV-1a style hash.
+	 * 
+	 * @param huella The hash so far.
+	 * @param valor  The value.
+	 * @return The new hash.
+	 */
+	private static long mezclar(long huella, int valor) {
+		return (huella ^ valor) * 0x100000001b3L;
+	}
+
+	/**
+	 * Saves the patterns to a file. The file is written next to its final name
+	 * and then moved, so readers never see a partial file.
+	 * 
+	 * @param archivo The file.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void guardar(Path archivo) throws IOException {
+		Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+		try (DataOutputStream salida = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+			salida.writeInt(FIRMA);
+			salida.writeInt(VERSION);
+			salida.writeLong(huella);
+			salida.writeInt(paradasNodo.length);
+			for (int o = 0; o < paradasNodo.length; o++) {
+				escribir(salida, paradasNodo[o]);
+				escribir(salida, padresNodo[o]);
+				escribir(salida, destinosTerminal[o]);
+				escribir(salida, nodosTerminal[o]);
+			}
+		}
+		Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Loads the patterns of a network from a file.
+	 * 
+	 * @param archivo The file.
+	 * @param red     The network.
+	 * @return The patterns, or null if the file does not exist or was written
+	 *         for a different network.
+	 * @throws IOException if the file exists but cannot be read.
+	 */
+	public static PatronesTransbordo cargar(Path archivo, RedTransporte red) throws IOException {
+		try (DataInputStream entrada = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(archivo)))) {
+			if (entrada.readInt() != FIRMA || entrada.readInt() != VERSION) {
+				LOGGER.warn("El archivo de patrones {} no tiene un formato válido.", archivo);
+				return null;
+			}
+			long huella = entrada.readLong();
+			if (huella != huella(red) || entrada.readInt() != red.getCantidadParadas()) {
+				LOGGER.info("El archivo de patrones {} corresponde a otra red.", archivo);
+				return null;
+			}
+
+			int cantidadParadas = red.getCantidadParadas();
+			int[][] paradasNodo = new int[cantidadParadas][];
+			int[][] padresNodo = new int[cantidadParadas][];
+			int[][] destinosTerminal = new int[cantidadParadas][];
+			int[][] nodosTerminal = new int[cantidadParadas][];
+			for (int o = 0; o < cantidadParadas; o++) {
+				paradasNodo[o] = leer(entrada);
+				padresNodo[o] = leer(entrada);
+				destinosTerminal[o] = leer(entrada);
+				nodosTerminal[o] = leer(entrada);
+			}
+			return new PatronesTransbordo(red, huella, paradasNodo, padresNodo, destinosTerminal, nodosTerminal);
+		} catch (NoSuchFileException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes an array preceded by its length.
+	 * 
+	 * @param salida  The stream.
+	 * @param valores The array.
+	 * @throws IOException if the stream fails.
+	 */
+	private static void escribir(DataOutputStream salida, int[] valores) throws IOException {
+		salida.writeInt(valores.length);
+		for (int valor : valores)
+			salida.writeInt(valor);
+	}
+
+	/**
+	 * Reads an array written by {@code escribir}.
+	 * 
+	 * @param entrada The stream.
+	 * @return The array.
+	 * @throws IOException if the stream fails.
+	 */
+	private static int[] leer(DataInputStream entrada) throws IOException {
+		int[] valores = new int[entrada.readInt()];
+		for (int k = 0; k < valores.length; k++)
+			valores[k] = entrada.readInt();
+		return valores;
+	}
+
+	/**
+	 * @param red A network.
+	 * @return true if these patterns were calculated or loaded for it.
+	 */
+	public boolean esDe(RedTransporte red) {
+		return this.red == red;
+	}
+
+	/**
+	 * Returns the position of the first pattern end from an origin to a
+	 * destination. The ends of the pair are consecutive and end at
+	 * {@code finPatrones(o, d, inicio)}.
+	 * 
+	 * @param o The origin stop index.
+	 * @param d The destination stop index.
+	 * @return The position of the first pattern end.
+	 */
+	public int inicioPatrones(int o, int d) {
+		int[] destinos = destinosTerminal[o];
+		int pos = Arrays.binarySearch(destinos, d);
+		if (pos < 0)
+			return -pos - 1;
+		while (pos > 0 && destinos[pos - 1] == d)
+			pos--;
+		return pos;
+	}
+
+	/**
+	 * @param o      The origin stop index.
+	 * @param d      The destination stop index.
+	 * @param inicio The value returned by {@code inicioPatrones(o, d)}.
+	 * @return The position after the last pattern end from the origin to the
+	 *         destination.
+	 */
+	public int finPatrones(int o, int d, int inicio) {
+		int[] destinos = destinosTerminal[o];
+		int pos = inicio;
+		while (pos < destinos.length && destinos[pos] == d)
+			pos++;
+		return pos;
+	}
+
+	/**
+	 * @param o The origin stop index.
+	 * @param k The position of a pattern end.
+	 * @return The node where the pattern ends.
+	 */
+	public int nodoPatron(int o, int k) {
+		return nodosTerminal[o][k];
+	}
+
+	/**
+	 * @param o The origin stop index.
+	 * @return The number of nodes of the origin's patterns.
+	 */
+	public int getCantidadNodos(int o) {
+		return paradasNodo[o].length;
+	}
+
+	/**
+	 * @param o The origin stop index.
+	 * @param n The node.
+	 * @return The stop index of the node.
+	 */
+	public int paradaNodo(int o, int n) {
+		return paradasNodo[o][n];
+	}
+
+	/**
+	 * @param o The origin stop index.
+	 * @param n The node.
+	 * @return The parent node, or -1 for the origin.
+	 */
+	public int padreNodo(int o, int n) {
+		return padresNodo[o][n];
+	}
+
+	/** @return The total number of nodes. */
+	public long getCantidadNodos() {
+		long cantidad = 0;
+		for (int[] paradas : paradasNodo)
+			cantidad += paradas.length;
+		return cantidad;
+	}
+
+	/** @return The total number of patterns. */
+	public long getCantidadPatrones() {
+		long cantidad = 0;
+		for (int[] destinos : destinosTerminal)
+			cantidad += destinos.length;
+		return cantidad;
+	}
+
+	/**
+	 * Tree of prefixes of the patterns of one origin.
+	 */
+	private static final class Arbol {
+
+		/** Stop index of each node. */
+		private final ListaEnteros paradas = new ListaEnteros();
+
+		/** Parent of each node. */
+		private final ListaEnteros padres = new ListaEnteros();
+
+		/** Child of each node for each stop, keyed by {@code node << 32 | stop}. */
+		private final Map<Long, Integer> hijos = new HashMap<>();
+
+		/** Pattern ends, as {@code destination << 32 | node}. */
+		private final Set<Long> terminales = new HashSet<>();
+
+		/**
+		 * Constructor for a tree with only the origin.
+		 * 
+		 * @param origen The origin stop index.
+		 */
+		private Arbol(int origen) {
+			paradas.agregar(origen);
+			padres.agregar(-1);
+		}
+
+		/**
+		 * Adds a pattern.
+		 * 
+		 * @param patron   The stops of the pattern after the origin, in reverse
+		 *                 order (destination first).
+		 * @param cantidad The number of stops.
+		 */
+		private void agregar(int[] patron, int cantidad) {
+			int nodo = 0;
+			for (int k = cantidad - 1; k >= 0; k--) {
+				long clave = (long) nodo << 32 | patron[k];
+				Integer hijo = hijos.get(clave);
+				if (hijo == null) {
+					hijo = paradas.cantidad;
+					paradas.agregar(patron[k]);
+					padres.agregar(nodo);
+					hijos.put(clave, hijo);
+				}
+				nodo = hijo;
+			}
+			terminales.add((long) patron[0] << 32 | nodo);
+		}
+
+		/** @return The pattern ends, sorted by destination and node. */
+		private long[] terminales() {
+			long[] resultado = terminales.stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(resultado);
+			return resultado;
+		}
+	}
+
+	/**
+	 * Trip-based profile search from one origin to every stop.
+	 */
+	private static final class Perfil {
+
+		/** Arrival of a stop not reached yet. */
+		private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+		/** The network. */
+		private final RedTransporte red;
+
+		/** The trips of the network. */
+		private final RedViajes viajes;
+
+		/** The origin stop index. */
+		private final int origen;
+
+		/** The tree where the patterns are added. */
+		private final Arbol arbol;
+
+		/** Earliest position from which each trip was reached. */
+		private final int[] alcanzados;
+
+		/** Earliest arrival at each stop over the levels searched. */
+		private final int[] llegadas;
+
+		/** Label of the current level of each stop, or -1. */
+		private final int[] etiquetas;
+
+		/** Stops labelled in the current level. */
+		private final ListaEnteros etiquetadas = new ListaEnteros();
+
+		/** Segment of each label. */
+		private final ListaEnteros segmentosEtiqueta = new ListaEnteros();
+
+		/** Position where the trip of each label is left. */
+		private final ListaEnteros bajadasEtiqueta = new ListaEnteros();
+
+		/** End stop of the final walk of each label, or -1. */
+		private final ListaEnteros caminatasEtiqueta = new ListaEnteros();
+
+		/** Trip of each segment. */
+		private final ListaEnteros viajesSegmento = new ListaEnteros();
+
+		/** Boarding position of each segment. */
+		private final ListaEnteros iniciosSegmento = new ListaEnteros();
+
+		/** Position after the last one covered by each segment. */
+		private final ListaEnteros finesSegmento = new ListaEnteros();
+
+		/** Parent segment of each segment, or -1. */
+		private final ListaEnteros padresSegmento = new ListaEnteros();
+
+		/** Position where the parent segment's trip was left. */
+		private final ListaEnteros bajadasSegmento = new ListaEnteros();
+
+		/** Scratch array for the stops of a pattern. */
+		private int[] patron = new int[16];
+
+		/**
+		 * Constructor for the profile of an origin.
+		 * 
+		 * @param red    The network.
+		 * @param origen The origin stop index.
+		 */
+		private Perfil(RedTransporte red, int origen) {
+			this.red = red;
+			this.viajes = red.getRedViajes();
+			this.origen = origen;
+			this.arbol = new Arbol(origen);
+			this.alcanzados = new int[viajes.getCantidadViajes()];
+			this.llegadas = new int[red.getCantidadParadas()];
+			this.etiquetas = new int[red.getCantidadParadas()];
+			Arrays.fill(etiquetas, -1);
+		}
+
+		/**
+		 * Runs a search for every departure from the origin on the given days and
+		 * gathers the patterns of the optimal journeys.
+		 * 
+		 * @param dias The days of the week to search.
+		 * @return The tree of patterns.
+		 */
+		private Arbol calcular(int[] dias) {
+			int[] destinos = red.destinosCaminatasDesde(origen);
+			if (destinos != null) {
+				for (int q : destinos)
+					agregarPatron(-1, 0, q);
+			}
+			for (int dia : dias) {
+				for (int inicio : salidas(dia))
+					buscar(inicio);
+			}
+			return arbol;
+		}
+
+		/**
+		 * Lists the times at which a passenger at the origin can leave on a day: the
+		 * times a trip can be boarded there, or at the end of a walking segment
+		 * leaving it minus the walk.
+		 * 
+		 * @param dia The day of the week.
+		 * @return The distinct departure times, in absolute seconds.
+		 */
+		private int[] salidas(int dia) {
+			int base = dia * SEGUNDOS_DIA;
+			ListaEnteros horas = new ListaEnteros();
+			agregarSalidas(origen, 0, base, horas);
+			Tramo[] caminatas = red.caminatasDesde(origen);
+			if (caminatas != null) {
+				int[] destinos = red.destinosCaminatasDesde(origen);
+				for (int k = 0; k < caminatas.length; k++)
+					agregarSalidas(destinos[k], caminatas[k].getTiempo(), base, horas);
+			}
+			return Arrays.stream(horas.recortar()).distinct().sorted().toArray();
+		}
+
+		/**
+		 * Adds the times at which the trips serving a stop pass through it during a
+		 * service day.
+		 * 
+		 * @param p      The stop index.
+		 * @param espera The time needed to reach the stop from the origin.
+		 * @param base   The start of the service day, in absolute seconds.
+		 * @param horas  The departure times found.
+		 */
+		private void agregarSalidas(int p, int espera, int base, ListaEnteros horas) {
+			int[] lineas = red.lineasDeParada(p);
+			int[] posiciones = red.posicionesDeParada(p);
+			for (int k = 0; k < lineas.length; k++) {
+				int l = lineas[k];
+				if (posiciones[k] + 1 >= red.paradasDeLinea(l).length)
+					continue;
+				for (int t = viajes.primerViajeDeLinea(l); t < viajes.finViajesDeLinea(l); t++) {
+					int hora = viajes.paso(t, posiciones[k]) - espera;
+					if (hora >= base && hora < base + SEGUNDOS_DIA)
+						horas.agregar(hora);
+				}
+			}
+		}
+
+		/**
+		 * Runs the search for one departure time and adds the patterns of the
+		 * journeys that improve the arrival at some stop.
+		 * 
+		 * @param inicio The departure time, in absolute seconds.
+		 */
+		private void buscar(int inicio) {
+			Arrays.fill(alcanzados, Integer.MAX_VALUE);
+			Arrays.fill(llegadas, SIN_LLEGADA);
+			viajesSegmento.cantidad = 0;
+			iniciosSegmento.cantidad = 0;
+			finesSegmento.cantidad = 0;
+			padresSegmento.cantidad = 0;
+			bajadasSegmento.cantidad = 0;
+
+			llegadas[origen] = inicio;
+			Tramo[] caminatas = red.caminatasDesde(origen);
+			abordar(origen, inicio, -1, -1);
+			if (caminatas != null) {
+				int[] destinos = red.destinosCaminatasDesde(origen);
+				for (int k = 0; k < caminatas.length; k++) {
+					int q = destinos[k];
+					llegadas[q] = Math.min(llegadas[q], inicio + caminatas[k].getTiempo());
+					abordar(q, inicio + caminatas[k].getTiempo(), -1, -1);
+				}
+			}
+
+			int desde = 0;
+			for (int nivel = 0; nivel <= CalculoViajesService.MAX_TRANSBORDOS
+					&& desde < viajesSegmento.cantidad; nivel++) {
+				int hasta = viajesSegmento.cantidad;
+				for (int s = desde; s < hasta; s++)
+					etiquetar(s);
+				agregarPatrones();
+				if (nivel < CalculoViajesService.MAX_TRANSBORDOS) {
+					for (int s = desde; s < hasta; s++)
+						expandir(s);
+				}
+				desde = hasta;
+			}
+		}
+
+		/**
+		 * Boards the earliest trip of every line serving a stop.
+		 * 
+		 * @param p      The stop index.
+		 * @param hora   The time the passenger is at the stop.
+		 * @param padre  The segment left to reach the stop, or -1.
+		 * @param bajada The position where the parent segment's trip was left.
+		 */
+		private void abordar(int p, int hora, int padre, int bajada) {
+			int[] lineas = red.lineasDeParada(p);
+			int[] posiciones = red.posicionesDeParada(p);
+			for (int k = 0; k < lineas.length; k++) {
+				int j = posiciones[k];
+				if (j + 1 >= red.paradasDeLinea(lineas[k]).length)
+					continue;
+				int u = viajes.primerViaje(lineas[k], j, hora);
+				if (u >= 0)
+					encolar(u, j, padre, bajada);
+			}
+		}
+
+		/**
+		 * Queues the uncovered part of a trip from a position.
+		 * 
+		 * @param u      The trip.
+		 * @param j      The boarding position.
+		 * @param padre  The parent segment, or -1.
+		 * @param bajada The position where the parent segment's trip was left.
+		 */
+		private void encolar(int u, int j, int padre, int bajada) {
+			if (j >= alcanzados[u])
+				return;
+			int l = viajes.lineaDe(u);
+			viajesSegmento.agregar(u);
+			iniciosSegmento.agregar(j);
+			finesSegmento.agregar(Math.min(alcanzados[u], red.paradasDeLinea(l).length));
+			padresSegmento.agregar(padre);
+			bajadasSegmento.agregar(bajada);
+			int fin = viajes.finViajesDeLinea(l);
+			for (int v = u; v < fin && alcanzados[v] > j; v++)
+				alcanzados[v] = j;
+		}
+
+		/**
+		 * Labels the stops that a segment, or a walk from its stops, reaches
+		 * earlier than before.
+		 * 
+		 * @param s The segment.
+		 */
+		private void etiquetar(int s) {
+			int t = viajesSegmento.valores[s];
+			int[] ids = red.paradasDeLinea(viajes.lineaDe(t));
+			for (int i = iniciosSegmento.valores[s] + 1; i < finesSegmento.valores[s]; i++) {
+				int llegada = viajes.paso(t, i);
+				mejorar(ids[i], llegada, s, i, -1);
+				Tramo[] caminatas = red.caminatasDesde(ids[i]);
+				if (caminatas == null)
+					continue;
+				int[] destinos = red.destinosCaminatasDesde(ids[i]);
+				for (int k = 0; k < caminatas.length; k++)
+					mejorar(destinos[k], llegada + caminatas[k].getTiempo(), s, i, destinos[k]);
+			}
+		}
+
+		/**
+		 * Labels a stop if the arrival improves it.
+		 * 
+		 * @param p        The stop index.
+		 * @param llegada  The arrival.
+		 * @param s        The segment.
+		 * @param i        The position where its trip is left.
+		 * @param caminata The end stop of the final walk, or -1.
+		 */
+		private void mejorar(int p, int llegada, int s, int i, int caminata) {
+			if (llegada >= llegadas[p])
+				return;
+			llegadas[p] = llegada;
+			int e = etiquetas[p];
+			if (e < 0) {
+				e = segmentosEtiqueta.cantidad;
+				segmentosEtiqueta.agregar(s);
+				bajadasEtiqueta.agregar(i);
+				caminatasEtiqueta.agregar(caminata);
+				etiquetas[p] = e;
+				etiquetadas.agregar(p);
+			} else {
+				segmentosEtiqueta.valores[e] = s;
+				bajadasEtiqueta.valores[e] = i;
+				caminatasEtiqueta.valores[e] = caminata;
+			}
+		}
+
+		/** Adds the patterns of the labels of the current level and clears them. */
+		private void agregarPatrones() {
+			for (int k = 0; k < etiquetadas.cantidad; k++) {
+				int e = etiquetas[etiquetadas.valores[k]];
+				agregarPatron(segmentosEtiqueta.valores[e], bajadasEtiqueta.valores[e],
+						caminatasEtiqueta.valores[e]);
+				etiquetas[etiquetadas.valores[k]] = -1;
+			}
+			etiquetadas.cantidad = 0;
+			segmentosEtiqueta.cantidad = 0;
+			bajadasEtiqueta.cantidad = 0;
+			caminatasEtiqueta.cantidad = 0;
+		}
+
+		/**
+		 * Adds the pattern of a journey to the tree.
+		 * 
+		 * @param s        The last segment, or -1 for a journey that only walks.
+		 * @param i        The position where its trip is left.
+		 * @param caminata The end stop of the final walk, or -1.
+		 */
+		private void agregarPatron(int s, int i, int caminata) {
+			int cantidad = 0;
+			if (caminata >= 0)
+				cantidad = anotar(cantidad, caminata);
+			while (s >= 0) {
+				int t = viajesSegmento.valores[s];
+				int[] ids = red.paradasDeLinea(viajes.lineaDe(t));
+				cantidad = anotar(cantidad, ids[i]);
+				cantidad = anotar(cantidad, ids[iniciosSegmento.valores[s]]);
+				i = bajadasSegmento.valores[s];
+				s = padresSegmento.valores[s];
+			}
+			if (cantidad > 0 && patron[cantidad - 1] == origen)
+				cantidad--;
+			if (cantidad > 0)
+				arbol.agregar(patron, cantidad);
+		}
+
+		/**
+		 * Appends a stop to the pattern being built, unless it repeats the last
+		 * one.
+		 * 
+		 * @param cantidad The number of stops so far.
+		 * @param p        The stop index.
+		 * @return The new number of stops.
+		 */
+		private int anotar(int cantidad, int p) {
+			if (cantidad > 0 && patron[cantidad - 1] == p)
+				return cantidad;
+			if (cantidad == patron.length)
+				patron = Arrays.copyOf(patron, cantidad * 2);
+			patron[cantidad] = p;
+			return cantidad + 1;
+		}
+
+		/**
+		 * Follows the transfers of the stop events of a segment.
+		 * 
+		 * @param s The segment.
+		 */
+		private void expandir(int s) {
+			int t = viajesSegmento.valores[s];
+			for (int i = iniciosSegmento.valores[s] + 1; i < finesSegmento.valores[s]; i++) {
+				int fin = viajes.finTransbordos(t, i);
+				for (int k = viajes.inicioTransbordos(t, i); k < fin; k++)
+					encolar(viajes.viajeTransbordo(k), viajes.posicionTransbordo(k), s, i);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,261 @@
+package colectivo.logica;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import colectivo.modelo.Tramo;
+
+/**
+ * ALT (A*, landmarks and triangle inequality) preprocessing of a
+ * {@code RedTransporte}. A few stops far apart from each other are chosen as
+ * landmarks, and the minimum travel time from every landmark to every stop and
+ * from every stop to every landmark is calculated over the static segment
+ * graph: one edge per pair of consecutive stops of a line, with the bus travel
+ * time, and one per walking segment. Waiting times are ignored, so these times
+ * never exceed the time-dependent ones.
+ * 
+ * By the triangle inequality, for any landmark {@code L} the time from a stop
+ * {@code v} to a stop {@code t} is at least {@code d(L, t) - d(L, v)} and at
+ * least {@code d(v, L) - d(t, L)}; the largest of these values is an admissible
+ * and consistent lower bound for goal-directed searches. The distances are
+ * stored as one {@code int[]} per landmark and direction, and each landmark is
+ * processed in parallel.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class PuntosReferencia {
+
+	/** Default number of landmarks. */
+	public static final int CANTIDAD_POR_DEFECTO = 8;
+
+	/** Distance to a stop that cannot be reached. */
+	private static final int INALCANZABLE = Integer.MAX_VALUE;
+
+	/** Stop index of each landmark. */
+	private final int[] marcas;
+
+	/** Minimum travel time from each landmark to every stop. */
+	private final int[][] desde;
+
+	/** Minimum travel time from every stop to each landmark. */
+	private final int[][] hacia;
+
+	/**
+	 * Constructor that chooses the landmarks and calculates their distances.
+	 * 
+	 * @param red      The network, with its lines, stops and walking segments
+	 *                 already indexed.
+	 * @param cantidad The number of landmarks (limited to the number of stops).
+	 */
+	PuntosReferencia(RedTransporte red, int cantidad) {
+		int cantidadParadas = red.getCantidadParadas();
+		this.marcas = elegirMarcas(red, Math.min(cantidad, cantidadParadas));
+
+		Grafo directo = new Grafo(red, false);
+		Grafo inverso = new Grafo(red, true);
+		this.desde = new int[marcas.length][];
+		this.hacia = new int[marcas.length][];
+		IntStream.range(0, marcas.length).parallel().forEach(k -> {
+			desde[k] = directo.distancias(marcas[k]);
+			hacia[k] = inverso.distancias(marcas[k]);
+		});
+	}
+
+	/**
+	 * Chooses landmarks spread over the city: the first one is the stop farthest
+	 * from an arbitrary stop, and each next one is the stop farthest from the
+	 * landmarks already chosen.
+	 * 
+	 * @param red      The network.
+	 * @param cantidad The number of landmarks.
+	 * @return The stop indexes of the landmarks.
+	 */
+	private static int[] elegirMarcas(RedTransporte red, int cantidad) {
+		int cantidadParadas = red.getCantidadParadas();
+		int[] elegidas = new int[cantidad];
+		if (cantidad == 0)
+			return elegidas;
+
+		double[] cercania = new double[cantidadParadas];
+		Arrays.fill(cercania, Double.MAX_VALUE);
+		int siguiente = masLejana(red, new int[] { 0 }, 1);
+		for (int k = 0; k < cantidad; k++) {
+			elegidas[k] = siguiente;
+			double maxima = -1;
+			for (int p = 0; p < cantidadParadas; p++) {
+				cercania[p] = Math.min(cercania[p], red.distancia(p, elegidas[k]));
+				if (cercania[p] > maxima) {
+					maxima = cercania[p];
+					siguiente = p;
+				}
+			}
+		}
+		return elegidas;
+	}
+
+	/**
+	 * Returns the stop farthest from a set of stops.
+	 * 
+	 * @param red      The network.
+	 * @param paradas  The stop indexes.
+	 * @param cantidad The number of stops of {@code paradas} to consider.
+	 * @return The farthest stop index.
+	 */
+	private static int masLejana(RedTransporte red, int[] paradas, int cantidad) {
+		int lejana = 0;
+		double maxima = -1;
+		for (int p = 0; p < red.getCantidadParadas(); p++) {
+			double cercania = Double.MAX_VALUE;
+			for (int k = 0; k < cantidad; k++)
+				cercania = Math.min(cercania, red.distancia(p, paradas[k]));
+			if (cercania > maxima) {
+				maxima = cercania;
+				lejana = p;
+			}
+		}
+		return lejana;
+	}
+
+	/**
+	 * Returns a lower bound of the travel time between two stops.
+	 * 
+	 * @param v The current stop index.
+	 * @param t The destination stop index.
+	 * @return The lower bound in seconds (0 if no landmark gives one).
+	 */
+	public int cota(int v, int t) {
+		int cota = 0;
+		for (int k = 0; k < marcas.length; k++) {
+			int[] d = desde[k];
+			if (d[t] != INALCANZABLE && d[v] != INALCANZABLE)
+				cota = Math.max(cota, d[t] - d[v]);
+			int[] h = hacia[k];
+			if (h[v] != INALCANZABLE && h[t] != INALCANZABLE)
+				cota = Math.max(cota, h[v] - h[t]);
+		}
+		return cota;
+	}
+
+	/** @return The number of landmarks. */
+	public int getCantidad() {
+		return marcas.length;
+	}
+
+	/**
+	 * @param k The landmark number.
+	 * @return The stop index of the landmark.
+	 */
+	public int getMarca(int k) {
+		return marcas[k];
+	}
+
+	/**
+	 * Static segment graph over the stops, in CSR form.
+	 */
+	private static final class Grafo {
+
+		/** Start of the edges of each stop. */
+		private final int[] filas;
+
+		/** Target stop of each edge. */
+		private final int[] destinos;
+
+		/** Travel time of each edge, in seconds. */
+		private final int[] tiempos;
+
+		/**
+		 * Constructor that builds the graph of a network.
+		 * 
+		 * @param red       The network.
+		 * @param invertido true to build the graph with every edge reversed.
+		 */
+		private Grafo(RedTransporte red, boolean invertido) {
+			int cantidadParadas = red.getCantidadParadas();
+			int[] grados = new int[cantidadParadas + 1];
+			recorrerAristas(red, (a, b, tiempo) -> grados[(invertido ? b : a) + 1]++);
+
+			for (int p = 0; p < cantidadParadas; p++)
+				grados[p + 1] += grados[p];
+			this.filas = grados.clone();
+			this.destinos = new int[grados[cantidadParadas]];
+			this.tiempos = new int[grados[cantidadParadas]];
+			recorrerAristas(red, (a, b, tiempo) -> {
+				int desde = invertido ? b : a;
+				int pos = grados[desde]++;
+				destinos[pos] = invertido ? a : b;
+				tiempos[pos] = tiempo;
+			});
+		}
+
+		/**
+		 * Calls an action for every edge of the static graph.
+		 * 
+		 * @param red    The network.
+		 * @param accion The action, receiving the start stop, the end stop and the
+		 *               travel time.
+		 */
+		private static void recorrerAristas(RedTransporte red, Arista accion) {
+			for (int l = 0; l < red.getCantidadLineas(); l++) {
+				int[] ids = red.paradasDeLinea(l);
+				for (int i = 1; i < ids.length; i++)
+					accion.aceptar(ids[i - 1], ids[i], red.tiempoEntre(l, i - 1, i));
+			}
+			for (int p = 0; p < red.getCantidadParadas(); p++) {
+				Tramo[] caminatas = red.caminatasDesde(p);
+				if (caminatas == null)
+					continue;
+				int[] destinos = red.destinosCaminatasDesde(p);
+				for (int k = 0; k < caminatas.length; k++)
+					accion.aceptar(p, destinos[k], caminatas[k].getTiempo());
+			}
+		}
+
+		/**
+		 * Calculates the minimum travel time from a stop to every stop with
+		 * Dijkstra's algorithm.
+		 * 
+		 * @param origen The start stop index.
+		 * @return The travel times, {@code INALCANZABLE} for unreachable stops.
+		 */
+		private int[] distancias(int origen) {
+			int[] distancias = new int[filas.length - 1];
+			Arrays.fill(distancias, INALCANZABLE);
+			ColaPrioridad cola = new ColaPrioridad();
+			distancias[origen] = 0;
+			cola.agregar(0, origen);
+
+			while (!cola.isEmpty()) {
+				long entrada = cola.quitar();
+				int p = ColaPrioridad.elemento(entrada);
+				int distancia = ColaPrioridad.prioridad(entrada);
+				if (distancia > distancias[p])
+					continue;
+				for (int e = filas[p]; e < filas[p + 1]; e++) {
+					int q = destinos[e];
+					int nueva = distancia + tiempos[e];
+					if (nueva < distancias[q]) {
+						distancias[q] = nueva;
+						cola.agregar(nueva, q);
+					}
+				}
+			}
+			return distancias;
+		}
+	}
+
+	/**
+	 * Receiver of the edges of the static graph.
+	 */
+	@FunctionalInterface
+	private interface Arista {
+
+		/**
+		 * @param inicio The start stop index.
+		 * @param fin    The end stop index.
+		 * @param tiempo The travel time, in seconds.
+		 */
+		void aceptar(int inicio, int fin, int tiempo);
+	}
+}
\ No newline at end of file
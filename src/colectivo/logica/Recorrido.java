@@ -1,8 +1,10 @@
 package colectivo.logica;
 
 import java.time.LocalTime;
+import java.util.Collections;
 import java.util.List;
 
+import colectivo.modelo.HoraServicio;
 import colectivo.modelo.Linea;
 import colectivo.modelo.Parada;
 
@@ -10,6 +12,11 @@ import colectivo.modelo.Parada;
  * Represents a route in the system. Each route has a line, a duration, a list
  * of stops and a departure time.
  * 
+ * A bus segment can be stored as a range of stop indexes over its line's route
+ * instead of a copy of the stops. In that case {@code getParadas()} returns a
+ * read-only view of the line's stops, which must not change while the segment
+ * is in use.
+ * 
  * @author Juliana Martin
  * @author Ezequiel Ramos
  * @author Nerea Toledo
@@ -23,12 +30,22 @@ public class Recorrido {
 	private Linea linea;
 
 	/**
-	 * The sequential list of stops (or segment endpoints) covered by this segment.
+	 * The sequential list of stops (or segment endpoints) covered by this segment,
+	 * or {@code null} if the segment is stored as an index range over its line.
 	 */
 	private List<Parada> paradas;
 
-	/** The calculated departure time from the first stop of this segment. */
-	private LocalTime horaSalida;
+	/** Index of the first stop of the segment on the line's route. */
+	private int idxInicio;
+
+	/** Index of the last stop of the segment on the line's route. */
+	private int idxFin;
+
+	/**
+	 * The calculated departure time from the first stop, in seconds since the
+	 * start of the service day of the query (may be 24:00 or later).
+	 */
+	private int salida;
 
 	/** The total duration of this segment in seconds. */
 	private int duracion;
@@ -42,10 +59,45 @@ public class Recorrido {
 	 * @param duracion   The total duration of the segment in seconds.
 	 */
 	public Recorrido(Linea linea, List<Parada> paradas, LocalTime horaSalida, int duracion) {
+		this(linea, paradas, HoraServicio.desde(horaSalida), duracion);
+	}
+
+	/**
+	 * Constructor for creating a new route segment with its departure time in
+	 * service-day seconds.
+	 * 
+	 * @param linea    The bus line used, or null for walking segments.
+	 * @param paradas  The list of stops/endpoints included in this segment.
+	 * @param salida   The departure time from the start stop of the segment, in
+	 *                 seconds since the start of the service day.
+	 * @param duracion The total duration of the segment in seconds.
+	 */
+	public Recorrido(Linea linea, List<Parada> paradas, int salida, int duracion) {
 		super();
 		this.linea = linea;
 		this.paradas = paradas;
-		this.horaSalida = horaSalida;
+		this.salida = salida;
+		this.duracion = duracion;
+	}
+
+	/**
+	 * Constructor for a bus segment stored as a range of stop indexes over the
+	 * line's route. No list of stops is copied.
+	 * 
+	 * @param linea     The bus line used.
+	 * @param idxInicio Index of the first stop of the segment on the line.
+	 * @param idxFin    Index of the last stop of the segment on the line
+	 *                  (inclusive).
+	 * @param salida    The departure time from the first stop, in seconds since
+	 *                  the start of the service day.
+	 * @param duracion  The total duration of the segment in seconds.
+	 */
+	public Recorrido(Linea linea, int idxInicio, int idxFin, int salida, int duracion) {
+		super();
+		this.linea = linea;
+		this.idxInicio = idxInicio;
+		this.idxFin = idxFin;
+		this.salida = salida;
 		this.duracion = duracion;
 	}
 
@@ -59,9 +111,16 @@ public class Recorrido {
 		this.linea = linea;
 	}
 
-	/** @return The list of stops/endpoints covered by this segment. */
+	/**
+	 * Returns the stops covered by this segment. For segments stored as an index
+	 * range, the list is a read-only view over the line's route.
+	 * 
+	 * @return The list of stops/endpoints covered by this segment.
+	 */
 	public List<Parada> getParadas() {
-		return paradas;
+		if (paradas != null)
+			return paradas;
+		return Collections.unmodifiableList(linea.getParadas().subList(idxInicio, idxFin + 1));
 	}
 
 	/** @param paradas The list of stops/endpoints to set. */
@@ -69,14 +128,59 @@ public class Recorrido {
 		this.paradas = paradas;
 	}
 
-	/** @return The calculated departure time for this segment. */
+	/** @return The number of stops covered by this segment. */
+	public int getCantidadParadas() {
+		return paradas != null ? paradas.size() : idxFin - idxInicio + 1;
+	}
+
+	/**
+	 * Returns a stop of this segment by position, without creating any list.
+	 * 
+	 * @param posicion The position within the segment (0 is the first stop).
+	 * @return The stop at that position.
+	 */
+	public Parada getParada(int posicion) {
+		return paradas != null ? paradas.get(posicion) : linea.getParadas().get(idxInicio + posicion);
+	}
+
+	/** @return The first stop of this segment. */
+	public Parada getParadaInicio() {
+		return getParada(0);
+	}
+
+	/** @return The last stop of this segment. */
+	public Parada getParadaFin() {
+		return getParada(getCantidadParadas() - 1);
+	}
+
+	/**
+	 * Returns the departure time as shown on a clock. Departures after midnight
+	 * wrap to the following day; use {@link #getSalida()} to tell them apart.
+	 * 
+	 * @return The calculated departure time for this segment.
+	 */
 	public LocalTime getHoraSalida() {
-		return horaSalida;
+		return HoraServicio.aLocalTime(salida);
 	}
 
 	/** @param horaSalida The departure time to set. */
 	public void setHoraSalida(LocalTime horaSalida) {
-		this.horaSalida = horaSalida;
+		this.salida = HoraServicio.desde(horaSalida);
+	}
+
+	/** @return The calculated departure time, in service-day seconds. */
+	public int getSalida() {
+		return salida;
+	}
+
+	/** @param salida The departure time to set, in service-day seconds. */
+	public void setSalida(int salida) {
+		this.salida = salida;
+	}
+
+	/** @return The arrival time at the last stop, in service-day seconds. */
+	public int getLlegada() {
+		return salida + duracion;
 	}
 
 	/** @return The total duration of the segment in seconds. */
@@ -96,7 +200,7 @@ public class Recorrido {
 	 */
 	@Override
 	public String toString() {
-		return "Recorrido{" + "linea=" + linea + ", paradas=" + paradas + ", horaSalida=" + horaSalida + ", duracion="
-				+ duracion + " minutos" + '}';
+		return "Recorrido{" + "linea=" + linea + ", paradas=" + getParadas() + ", horaSalida="
+				+ HoraServicio.formatear(salida) + ", duracion=" + duracion + " minutos" + '}';
 	}
 }
\ No newline at end of file
@@ -0,0 +1,731 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import colectivo.controlador.Constantes;
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Linea;
+import colectivo.modelo.MapaTramos;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Immutable snapshot of the transportation network, precalculated once from the
+ * system's lines and segment map and shared by every strategy and thread.
+ * 
+ * Lines are numbered in the iteration order of the line map (the same order as
+ * {@code EstrategiaCalculoBase.lineas}) and stops are given dense indexes, so
+ * the search can work on primitive arrays: the stops of each line, the lines
+ * serving each stop, the cumulative bus travel time along each line, the walking
+ * segments leaving each stop, the direct-connection index, the transfer graph
+ * between lines ({@code GrafoLineas}), the per-day reachability summaries
+ * ({@code Alcanzabilidad}), the coordinates and landmark distances
+ * ({@code PuntosReferencia}) used for lower bounds of the travel time, and the
+ * trips expanded from the frequencies with their transfers ({@code RedViajes}).
+ * 
+ * The transfer graph, the landmark distances and the trips are only read by
+ * the fewest-transfers, A* and trip-based strategies and take far longer to
+ * build than the rest of the network, so they are built the first time they
+ * are requested ({@code Diferido}).
+ * 
+ * The direct-connection index lists, for every origin stop, each destination
+ * that can be reached without changing bus together with the line and the
+ * positions of both stops on it. It is stored as a CSR (compressed sparse row)
+ * structure: the entries of origin {@code o} are the positions
+ * {@code filasDirectas[o]} to {@code filasDirectas[o + 1] - 1} of the entry
+ * arrays, sorted by destination and then by line.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class RedTransporte {
+
+	/** Logger instance for logging events, errors and exceptions. */
+	private static final Logger LOGGER = LogManager.getLogger(RedTransporte.class);
+
+	/** Mean radius of the Earth, in meters. */
+	private static final double RADIO_TIERRA = 6_371_000;
+
+	/** The segment map this network was built from. */
+	private final MapaTramos tramos;
+
+	/** The system's lines, by line index. */
+	private final Linea[] lineas;
+
+	/** The stops of the network, by stop index. */
+	private final Parada[] paradas;
+
+	/** Stop index of each stop. */
+	private final Map<Parada, Integer> indices;
+
+	/** Stop indexes of the route of each line, by line index. */
+	private final int[][] paradasLinea;
+
+	/** Cumulative bus travel time from the first stop, by line and position. */
+	private final int[][] acumulados;
+
+	/** Latest frequency of each line over all days, in service-day seconds. */
+	private final int[] ultimasFrecuencias;
+
+	/** Latest departure of each line on each day (1 to 7 at index 0 to 6). */
+	private final int[][] ultimasSalidas;
+
+	/** Line indexes serving each stop, in line order. */
+	private final int[][] lineasParada;
+
+	/** First position of each stop on the lines of {@code lineasParada}. */
+	private final int[][] posicionesParada;
+
+	/**
+	 * Walking segments leaving each stop, by stop index, in the order of the
+	 * segment map; null if there are none.
+	 */
+	private final Tramo[][] caminatas;
+
+	/**
+	 * Stop index of the end of each walking segment of {@code caminatas}, so the
+	 * precalculations can follow them without looking up the stop.
+	 */
+	private final int[][] destinosCaminatas;
+
+	/** Start of the entries of each origin stop (CSR row pointers). */
+	private final int[] filasDirectas;
+
+	/** Destination stop index of each direct entry. */
+	private final int[] destinosDirectos;
+
+	/** Line index of each direct entry. */
+	private final int[] lineasDirectas;
+
+	/** Position of the origin stop on the line, for each direct entry. */
+	private final int[] origenesDirectos;
+
+	/** Position of the destination stop on the line, for each direct entry. */
+	private final int[] finesDirectos;
+
+	/** Latitude of each stop, in radians. */
+	private final double[] latitudes;
+
+	/** Longitude of each stop, in radians. */
+	private final double[] longitudes;
+
+	/**
+	 * Fastest speed observed between consecutive stops, by bus or walking, in
+	 * meters per second.
+	 */
+	private final double velocidadMaxima;
+
+	/** Landmark distances used for ALT lower bounds. */
+	private final Diferido<PuntosReferencia> puntosReferencia;
+
+	/** Transfer graph between the lines of the network. */
+	private final Diferido<GrafoLineas> grafoLineas;
+
+	/** Per-day reachability summaries of the network. */
+	private final Alcanzabilidad alcanzabilidad;
+
+	/** Trips expanded from the frequencies, with their transfers. */
+	private final Diferido<RedViajes> redViajes;
+
+	/**
+	 * Private constructor; networks are created with {@code construir}.
+	 * 
+	 * @param lineasDelSistema The system's lines.
+	 * @param tramos           The segment map.
+	 */
+	private RedTransporte(Map<String, Linea> lineasDelSistema, MapaTramos tramos) {
+		this.tramos = tramos;
+		this.lineas = lineasDelSistema.values().toArray(new Linea[0]);
+
+		Map<Parada, Integer> indicesParadas = new LinkedHashMap<>();
+		for (Linea linea : lineas) {
+			for (Parada parada : linea.getParadas())
+				indicesParadas.putIfAbsent(parada, indicesParadas.size());
+		}
+		for (Tramo tramo : tramos.values()) {
+			indicesParadas.putIfAbsent(tramo.getInicio(), indicesParadas.size());
+			indicesParadas.putIfAbsent(tramo.getFin(), indicesParadas.size());
+		}
+		this.indices = new HashMap<>(indicesParadas);
+		this.paradas = indicesParadas.keySet().toArray(new Parada[0]);
+
+		this.paradasLinea = new int[lineas.length][];
+		this.acumulados = new int[lineas.length][];
+		this.ultimasFrecuencias = new int[lineas.length];
+		this.ultimasSalidas = new int[lineas.length][];
+		IntStream.range(0, lineas.length).parallel().forEach(this::prepararLinea);
+
+		this.caminatas = new Tramo[paradas.length][];
+		this.destinosCaminatas = new int[paradas.length][];
+		prepararCaminatas();
+
+		this.lineasParada = new int[paradas.length][];
+		this.posicionesParada = new int[paradas.length][];
+		boolean[][] primeraVez = agruparLineasPorParada();
+
+		this.filasDirectas = new int[paradas.length + 1];
+		int[] cantidades = new int[paradas.length];
+		IntStream.range(0, paradas.length).parallel().forEach(o -> cantidades[o] = contarFila(o, primeraVez));
+		for (int o = 0; o < paradas.length; o++)
+			filasDirectas[o + 1] = filasDirectas[o] + cantidades[o];
+
+		int total = filasDirectas[paradas.length];
+		this.destinosDirectos = new int[total];
+		this.lineasDirectas = new int[total];
+		this.origenesDirectos = new int[total];
+		this.finesDirectos = new int[total];
+		IntStream.range(0, paradas.length).parallel().forEach(o -> construirFila(o, primeraVez));
+
+		this.latitudes = new double[paradas.length];
+		this.longitudes = new double[paradas.length];
+		for (int p = 0; p < paradas.length; p++) {
+			latitudes[p] = Math.toRadians(paradas[p].getLatitud());
+			longitudes[p] = Math.toRadians(paradas[p].getLongitud());
+		}
+		this.velocidadMaxima = calcularVelocidadMaxima();
+		this.puntosReferencia = new Diferido<>(this::construirPuntosReferencia);
+
+		this.grafoLineas = new Diferido<>(this::construirGrafoLineas);
+		this.alcanzabilidad = new Alcanzabilidad(this);
+		this.redViajes = new Diferido<>(this::construirRedViajes);
+	}
+
+	/**
+	 * Builds the network for the given lines and segments. The work is split
+	 * among the available processors.
+	 * 
+	 * @param lineasDelSistema A map of all available {@code Linea} objects.
+	 * @param tramos           The segment map.
+	 * @return The precalculated network.
+	 */
+	public static RedTransporte construir(Map<String, Linea> lineasDelSistema, MapaTramos tramos) {
+		long inicio = System.nanoTime();
+		RedTransporte red = new RedTransporte(lineasDelSistema, tramos);
+		LOGGER.info(
+				"Red precalculada en {} ms: {} líneas, {} paradas, {} conexiones directas, {} tablas de alcance.",
+				(System.nanoTime() - inicio) / 1_000_000, red.lineas.length, red.paradas.length,
+				red.destinosDirectos.length, red.alcanzabilidad.getCantidadTablas());
+		return red;
+	}
+
+	/**
+	 * Builds the transfer graph between the lines of the network.
+	 * 
+	 * @return The transfer graph.
+	 */
+	private GrafoLineas construirGrafoLineas() {
+		long inicio = System.nanoTime();
+		GrafoLineas grafo = new GrafoLineas(this);
+		LOGGER.info("Grafo de líneas construido en {} ms: {} aristas.", (System.nanoTime() - inicio) / 1_000_000,
+				grafo.getCantidadAristas());
+		return grafo;
+	}
+
+	/**
+	 * Chooses the landmarks of the network and calculates their distances.
+	 * 
+	 * @return The landmark distances.
+	 */
+	private PuntosReferencia construirPuntosReferencia() {
+		long inicio = System.nanoTime();
+		PuntosReferencia puntos = new PuntosReferencia(this, PuntosReferencia.CANTIDAD_POR_DEFECTO);
+		LOGGER.info("Puntos de referencia calculados en {} ms: {} marcas.", (System.nanoTime() - inicio) / 1_000_000,
+				puntos.getCantidad());
+		return puntos;
+	}
+
+	/**
+	 * Expands the trips of the network and calculates their transfers.
+	 * 
+	 * @return The trips.
+	 */
+	private RedViajes construirRedViajes() {
+		long inicio = System.nanoTime();
+		RedViajes viajes = new RedViajes(this);
+		LOGGER.info("Viajes expandidos en {} ms: {} viajes, {} transbordos entre viajes.",
+				(System.nanoTime() - inicio) / 1_000_000, viajes.getCantidadViajes(),
+				viajes.getCantidadTransbordos());
+		return viajes;
+	}
+
+	/**
+	 * Calculates the stop indexes, cumulative bus times and latest departures of a
+	 * line.
+	 * 
+	 * @param l The line index.
+	 */
+	private void prepararLinea(int l) {
+		List<Parada> recorrido = lineas[l].getParadas();
+		int[] ids = new int[recorrido.size()];
+		int[] acumulado = new int[recorrido.size()];
+
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = indices.get(recorrido.get(i));
+			if (i > 0) {
+				Tramo tramo = tramos.buscar(recorrido.get(i - 1), recorrido.get(i));
+				int tiempo = tramo != null && tramo.getTipo() == Constantes.COLECTIVO ? tramo.getTiempo() : 0;
+				acumulado[i] = acumulado[i - 1] + tiempo;
+			}
+		}
+
+		int[] ultimas = new int[HoraServicio.DIAS_SEMANA];
+		int ultima = -1;
+		for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+			ultimas[dia - 1] = lineas[l].getHorario(dia).ultimaSalida();
+			ultima = Math.max(ultima, ultimas[dia - 1]);
+		}
+
+		paradasLinea[l] = ids;
+		acumulados[l] = acumulado;
+		ultimasSalidas[l] = ultimas;
+		ultimasFrecuencias[l] = ultima;
+	}
+
+	/** Groups the walking segments by start stop, keeping the map order. */
+	private void prepararCaminatas() {
+		List<List<Tramo>> porParada = new ArrayList<>();
+		for (int p = 0; p < paradas.length; p++)
+			porParada.add(null);
+
+		for (Tramo tramo : tramos.values()) {
+			if (tramo.getTipo() == Constantes.CAMINANDO) {
+				int p = indices.get(tramo.getInicio());
+				if (porParada.get(p) == null)
+					porParada.set(p, new ArrayList<>());
+				porParada.get(p).add(tramo);
+			}
+		}
+		for (int p = 0; p < paradas.length; p++) {
+			if (porParada.get(p) == null)
+				continue;
+			caminatas[p] = porParada.get(p).toArray(new Tramo[0]);
+			destinosCaminatas[p] = new int[caminatas[p].length];
+			for (int k = 0; k < caminatas[p].length; k++)
+				destinosCaminatas[p][k] = indices.get(caminatas[p][k].getFin());
+		}
+	}
+
+	/**
+	 * Lists, for every stop, the lines that serve it and the position of its first
+	 * occurrence on each one, in line order. Each route is scanned once: a stop
+	 * is seen for the first time on a line when it was last marked by another
+	 * line.
+	 * 
+	 * @return For each line and position, whether it is the first occurrence of
+	 *         its stop on the line.
+	 */
+	private boolean[][] agruparLineasPorParada() {
+		boolean[][] primeraVez = new boolean[lineas.length][];
+		int[] marcas = new int[paradas.length];
+		Arrays.fill(marcas, -1);
+		int[] cantidades = new int[paradas.length];
+		for (int l = 0; l < lineas.length; l++) {
+			int[] ids = paradasLinea[l];
+			primeraVez[l] = new boolean[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				if (marcas[ids[i]] != l) {
+					marcas[ids[i]] = l;
+					primeraVez[l][i] = true;
+					cantidades[ids[i]]++;
+				}
+			}
+		}
+		for (int p = 0; p < paradas.length; p++) {
+			lineasParada[p] = new int[cantidades[p]];
+			posicionesParada[p] = new int[cantidades[p]];
+			cantidades[p] = 0;
+		}
+		for (int l = 0; l < lineas.length; l++) {
+			int[] ids = paradasLinea[l];
+			for (int i = 0; i < ids.length; i++) {
+				if (!primeraVez[l][i])
+					continue;
+				int p = ids[i];
+				lineasParada[p][cantidades[p]] = l;
+				posicionesParada[p][cantidades[p]++] = i;
+			}
+		}
+		return primeraVez;
+	}
+
+	/**
+	 * Counts the direct entries of one origin stop. As in the original search,
+	 * only the first occurrence of each stop on a line is considered, and the
+	 * destination must come after the origin.
+	 * 
+	 * @param o          The origin stop index.
+	 * @param primeraVez The first occurrences built by
+	 *                   {@code agruparLineasPorParada}.
+	 * @return The number of entries.
+	 */
+	private int contarFila(int o, boolean[][] primeraVez) {
+		int cantidad = 0;
+		for (int k = 0; k < lineasParada[o].length; k++) {
+			int l = lineasParada[o][k];
+			for (int j = posicionesParada[o][k] + 1; j < paradasLinea[l].length; j++) {
+				if (primeraVez[l][j])
+					cantidad++;
+			}
+		}
+		return cantidad;
+	}
+
+	/**
+	 * Fills the direct entries of one origin stop in the CSR arrays, sorted by
+	 * destination and line. The entries are generated in line order and sorted
+	 * by a packed key {destination, generation order}, so equal destinations keep
+	 * the line order.
+	 * 
+	 * @param o          The origin stop index.
+	 * @param primeraVez The first occurrences built by
+	 *                   {@code agruparLineasPorParada}.
+	 */
+	private void construirFila(int o, boolean[][] primeraVez) {
+		int base = filasDirectas[o];
+		int cantidad = filasDirectas[o + 1] - base;
+		long[] claves = new long[cantidad];
+		int[] lineasFila = new int[cantidad];
+		int[] origenesFila = new int[cantidad];
+		int[] finesFila = new int[cantidad];
+
+		int n = 0;
+		for (int k = 0; k < lineasParada[o].length; k++) {
+			int l = lineasParada[o][k];
+			int idxOrigen = posicionesParada[o][k];
+			int[] ids = paradasLinea[l];
+			for (int j = idxOrigen + 1; j < ids.length; j++) {
+				if (!primeraVez[l][j])
+					continue;
+				claves[n] = (long) ids[j] << 32 | n;
+				lineasFila[n] = l;
+				origenesFila[n] = idxOrigen;
+				finesFila[n++] = j;
+			}
+		}
+		Arrays.sort(claves);
+
+		for (int k = 0; k < cantidad; k++) {
+			int e = (int) claves[k];
+			destinosDirectos[base + k] = (int) (claves[k] >>> 32);
+			lineasDirectas[base + k] = lineasFila[e];
+			origenesDirectos[base + k] = origenesFila[e];
+			finesDirectos[base + k] = finesFila[e];
+		}
+	}
+
+	/**
+	 * Calculates the fastest speed between consecutive stops of the lines and
+	 * between the ends of the walking segments. Consecutive stops without a bus
+	 * segment in the map (which count as no travel time) are not observations and
+	 * are skipped.
+	 * 
+	 * @return The speed in meters per second.
+	 */
+	private double calcularVelocidadMaxima() {
+		double maxima = 0;
+		for (int l = 0; l < lineas.length; l++) {
+			int[] ids = paradasLinea[l];
+			for (int i = 1; i < ids.length; i++)
+				maxima = Math.max(maxima, velocidad(distancia(ids[i - 1], ids[i]), tiempoEntre(l, i - 1, i)));
+		}
+		for (int p = 0; p < paradas.length; p++) {
+			if (caminatas[p] == null)
+				continue;
+			for (int k = 0; k < caminatas[p].length; k++)
+				maxima = Math.max(maxima,
+						velocidad(distancia(p, destinosCaminatas[p][k]), caminatas[p][k].getTiempo()));
+		}
+		return maxima;
+	}
+
+	/**
+	 * @param metros   A distance in meters.
+	 * @param segundos The time taken to cover it.
+	 * @return The speed in meters per second, or 0 if no time is recorded.
+	 */
+	private static double velocidad(double metros, int segundos) {
+		return segundos > 0 ? metros / segundos : 0;
+	}
+
+	/**
+	 * Returns the great-circle (haversine) distance between two stops.
+	 * 
+	 * @param p The first stop index.
+	 * @param q The second stop index.
+	 * @return The distance in meters.
+	 */
+	public double distancia(int p, int q) {
+		double senoLatitud = Math.sin((latitudes[q] - latitudes[p]) / 2);
+		double senoLongitud = Math.sin((longitudes[q] - longitudes[p]) / 2);
+		double a = senoLatitud * senoLatitud
+				+ Math.cos(latitudes[p]) * Math.cos(latitudes[q]) * senoLongitud * senoLongitud;
+		return 2 * RADIO_TIERRA * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	/**
+	 * Returns a lower bound of the travel time between two stops: the
+	 * great-circle distance covered at the fastest speed observed in the network.
+	 * 
+	 * @param p The first stop index.
+	 * @param q The second stop index.
+	 * @return The lower bound in seconds.
+	 */
+	public int cotaGeografica(int p, int q) {
+		if (velocidadMaxima == 0)
+			return 0;
+		return (int) (distancia(p, q) / velocidadMaxima);
+	}
+
+	/** @return The segment map this network was built from. */
+	public MapaTramos getTramos() {
+		return tramos;
+	}
+
+	/** @return The number of lines. */
+	public int getCantidadLineas() {
+		return lineas.length;
+	}
+
+	/**
+	 * @param l The line index.
+	 * @return The line.
+	 */
+	public Linea getLinea(int l) {
+		return lineas[l];
+	}
+
+	/** @return The number of stops. */
+	public int getCantidadParadas() {
+		return paradas.length;
+	}
+
+	/**
+	 * @param p The stop index.
+	 * @return The stop.
+	 */
+	public Parada getParada(int p) {
+		return paradas[p];
+	}
+
+	/**
+	 * Returns the dense index of a stop.
+	 * 
+	 * @param parada The stop.
+	 * @return The stop index, or -1 if the stop is not part of the network.
+	 */
+	public int indiceDe(Parada parada) {
+		Integer indice = parada == null ? null : indices.get(parada);
+		return indice == null ? -1 : indice;
+	}
+
+	/**
+	 * Returns the stop indexes of a line's route. The array must not be modified.
+	 * 
+	 * @param l The line index.
+	 * @return The stop indexes, in route order.
+	 */
+	public int[] paradasDeLinea(int l) {
+		return paradasLinea[l];
+	}
+
+	/**
+	 * Returns the bus travel time between two stops of a line.
+	 * 
+	 * @param l         The line index.
+	 * @param idxInicio Index of the start stop.
+	 * @param idxFin    Index of the end stop.
+	 * @return The travel time in seconds.
+	 */
+	public int tiempoEntre(int l, int idxInicio, int idxFin) {
+		int[] acumulado = acumulados[l];
+		return acumulado[idxFin] - acumulado[idxInicio];
+	}
+
+	/**
+	 * Returns the latest frequency of a line over all days.
+	 * 
+	 * @param l The line index.
+	 * @return The latest departure in service-day seconds, or -1 if the line has
+	 *         no frequencies.
+	 */
+	public int ultimaFrecuencia(int l) {
+		return ultimasFrecuencias[l];
+	}
+
+	/**
+	 * Returns the latest departure of a line on a day.
+	 * 
+	 * @param l         The line index.
+	 * @param diaSemana The day of the week (1 to 7).
+	 * @return The latest departure in seconds since the start of that service
+	 *         day, or -1 if the line has no service that day.
+	 */
+	public int ultimaSalida(int l, int diaSemana) {
+		return ultimasSalidas[l][diaSemana - 1];
+	}
+
+	/**
+	 * Returns the lines serving a stop. The array must not be modified.
+	 * 
+	 * @param p The stop index.
+	 * @return The line indexes, in line order.
+	 */
+	public int[] lineasDeParada(int p) {
+		return lineasParada[p];
+	}
+
+	/**
+	 * Returns the first position of a stop on each of the lines serving it. The
+	 * array must not be modified.
+	 * 
+	 * @param p The stop index.
+	 * @return The positions, parallel to {@code lineasDeParada(p)}.
+	 */
+	public int[] posicionesDeParada(int p) {
+		return posicionesParada[p];
+	}
+
+	/**
+	 * Returns the walking segments that start at a stop.
+	 * 
+	 * @param p The start stop index.
+	 * @return The walking segments, or null if there are none.
+	 */
+	public Tramo[] caminatasDesde(int p) {
+		return caminatas[p];
+	}
+
+	/**
+	 * Returns the stop indexes of the ends of the walking segments that start at
+	 * a stop. The array must not be modified.
+	 * 
+	 * @param p The start stop index.
+	 * @return The end stop indexes, parallel to {@code caminatasDesde(p)}, or null
+	 *         if there are none.
+	 */
+	public int[] destinosCaminatasDesde(int p) {
+		return destinosCaminatas[p];
+	}
+
+	/**
+	 * Returns the walking segments that start at the given stop.
+	 * 
+	 * @param parada The start stop.
+	 * @return The walking segments, or null if there are none.
+	 */
+	public Tramo[] caminatasDesde(Parada parada) {
+		int p = indiceDe(parada);
+		return p < 0 ? null : caminatas[p];
+	}
+
+	/**
+	 * Returns the position of the first direct entry from an origin to a
+	 * destination. The entries of the pair are consecutive, in line order, and
+	 * end at {@code finDirectas(o, d)}.
+	 * 
+	 * @param o The origin stop index.
+	 * @param d The destination stop index.
+	 * @return The position of the first entry.
+	 */
+	public int inicioDirectas(int o, int d) {
+		int desde = filasDirectas[o];
+		int hasta = filasDirectas[o + 1];
+		int pos = Arrays.binarySearch(destinosDirectos, desde, hasta, d);
+		if (pos < 0)
+			return -pos - 1;
+		while (pos > desde && destinosDirectos[pos - 1] == d)
+			pos--;
+		return pos;
+	}
+
+	/**
+	 * Returns the position after the last direct entry from an origin to a
+	 * destination.
+	 * 
+	 * @param o      The origin stop index.
+	 * @param d      The destination stop index.
+	 * @param inicio The value returned by {@code inicioDirectas(o, d)}.
+	 * @return The position after the last entry.
+	 */
+	public int finDirectas(int o, int d, int inicio) {
+		int hasta = filasDirectas[o + 1];
+		int pos = inicio;
+		while (pos < hasta && destinosDirectos[pos] == d)
+			pos++;
+		return pos;
+	}
+
+	/**
+	 * @param k The position of a direct entry.
+	 * @return The line index of the entry.
+	 */
+	public int lineaDirecta(int k) {
+		return lineasDirectas[k];
+	}
+
+	/**
+	 * @param k The position of a direct entry.
+	 * @return The position of the origin stop on the entry's line.
+	 */
+	public int origenDirecto(int k) {
+		return origenesDirectos[k];
+	}
+
+	/**
+	 * @param k The position of a direct entry.
+	 * @return The position of the destination stop on the entry's line.
+	 */
+	public int destinoDirecto(int k) {
+		return finesDirectos[k];
+	}
+
+	/**
+	 * Returns the landmark distances used for ALT lower bounds, calculating them
+	 * the first time they are requested.
+	 * 
+	 * @return The landmark distances of the network.
+	 */
+	public PuntosReferencia getPuntosReferencia() {
+		return puntosReferencia.obtener();
+	}
+
+	/**
+	 * Returns the transfer graph between the lines of the network, building it
+	 * the first time it is requested.
+	 * 
+	 * @return The transfer graph of the network.
+	 */
+	public GrafoLineas getGrafoLineas() {
+		return grafoLineas.obtener();
+	}
+
+	/** @return The per-day reachability summaries of the network. */
+	public Alcanzabilidad getAlcanzabilidad() {
+		return alcanzabilidad;
+	}
+
+	/**
+	 * Returns the trips expanded from the frequencies, with their transfers,
+	 * building them the first time they are requested.
+	 * 
+	 * @return The trips of the network.
+	 */
+	public RedViajes getRedViajes() {
+		return redViajes.obtener();
+	}
+
+	/** @return The number of entries in the direct-connection index. */
+	public int getCantidadConexionesDirectas() {
+		return destinosDirectos.length;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,525 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Linea;
+import colectivo.modelo.Tramo;
+
+/**
+ * Trip-based view of a {@code RedTransporte}: the frequencies of every line
+ * expanded into individual trips, and the transfers between trips precalculated
+ * once, so that earliest-arrival queries become a breadth-first search over
+ * trip segments ({@code CalculoViajesService}).
+ * 
+ * Times are absolute seconds over a week with one extra day on each side: block
+ * {@code b} starts at {@code b * SEGUNDOS_DIA}, blocks 1 to 7 are the service
+ * days 1 to 7, block 0 repeats day 7 (for the trips of the previous day that
+ * run past midnight) and block 8 repeats day 1. A query on day {@code d} at
+ * {@code h} seconds starts at {@code d * SEGUNDOS_DIA + h}. As in
+ * {@code EstrategiaCalculoBase.buscarSalida}, a trip can only be boarded once
+ * the passenger has reached the start of its service day, so nobody waits
+ * before midnight for the next day's service.
+ * 
+ * The trips of each line are numbered consecutively, sorted by departure; since
+ * all trips of a line share its travel times they never overtake each other. A
+ * stop event is a trip at one position of its route, numbered consecutively by
+ * trip. The transfers leaving each event are stored in CSR form and go to the
+ * earliest trip that can be boarded at a stop served by another line (its first
+ * occurrence), either the same stop or one reached by a walking segment. While
+ * building them, U-turn transfers and transfers that do not improve the arrival
+ * at any stop over staying on the trip or over the transfers at later stops are
+ * dropped. Each line is processed in parallel.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class RedViajes {
+
+	/** Number of day blocks of the timeline. */
+	public static final int BLOQUES = HoraServicio.DIAS_SEMANA + 2;
+
+	/** Number of seconds in a day. */
+	private static final int SEGUNDOS_DIA = HoraServicio.SEGUNDOS_DIA;
+
+	/** Arrival at a stop not improved yet, while pruning transfers. */
+	private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+	/** The network the trips were expanded from. */
+	private final RedTransporte red;
+
+	/** First trip of each line; the trips of line {@code l} end at {@code primerosViajes[l + 1]}. */
+	private final int[] primerosViajes;
+
+	/** Line index of each trip. */
+	private final int[] lineasViaje;
+
+	/** Departure of each trip from the first stop of its line, in absolute seconds. */
+	private final int[] salidasViaje;
+
+	/** Day block of each trip. */
+	private final int[] bloquesViaje;
+
+	/** First stop event of each trip. */
+	private final int[] primerosEventos;
+
+	/** Start of the transfers of each stop event (CSR row pointers). */
+	private final int[] filasTransbordos;
+
+	/** Trip boarded by each transfer. */
+	private final int[] viajesTransbordo;
+
+	/** Position where the trip of each transfer is boarded. */
+	private final int[] posicionesTransbordo;
+
+	/** Walking segments ending at each stop, by stop index; null if there are none. */
+	private final Tramo[][] caminatasHacia;
+
+	/**
+	 * Constructor that expands the trips of a network and calculates their
+	 * transfers.
+	 * 
+	 * @param red The network, with its lines, stops and walking segments already
+	 *            indexed.
+	 */
+	RedViajes(RedTransporte red) {
+		this.red = red;
+		int cantidadLineas = red.getCantidadLineas();
+
+		long[][] porLinea = new long[cantidadLineas][];
+		IntStream.range(0, cantidadLineas).parallel().forEach(l -> porLinea[l] = expandirViajes(red.getLinea(l)));
+
+		this.primerosViajes = new int[cantidadLineas + 1];
+		for (int l = 0; l < cantidadLineas; l++)
+			primerosViajes[l + 1] = primerosViajes[l] + porLinea[l].length;
+
+		int cantidadViajes = primerosViajes[cantidadLineas];
+		this.lineasViaje = new int[cantidadViajes];
+		this.salidasViaje = new int[cantidadViajes];
+		this.bloquesViaje = new int[cantidadViajes];
+		this.primerosEventos = new int[cantidadViajes + 1];
+		for (int l = 0; l < cantidadLineas; l++) {
+			int largo = red.paradasDeLinea(l).length;
+			for (int k = 0; k < porLinea[l].length; k++) {
+				int t = primerosViajes[l] + k;
+				lineasViaje[t] = l;
+				salidasViaje[t] = (int) (porLinea[l][k] >>> 8);
+				bloquesViaje[t] = (int) (porLinea[l][k] & 0xFF);
+				primerosEventos[t + 1] = primerosEventos[t] + largo;
+			}
+		}
+
+		this.caminatasHacia = agruparCaminatasHacia(red);
+
+		int[][][] transbordos = new int[cantidadLineas][][];
+		IntStream.range(0, cantidadLineas).parallel().forEach(l -> transbordos[l] = transbordosDeLinea(l));
+
+		int cantidadEventos = primerosEventos[cantidadViajes];
+		this.filasTransbordos = new int[cantidadEventos + 1];
+		int total = 0;
+		for (int l = 0; l < cantidadLineas; l++) {
+			int[] cantidades = transbordos[l][0];
+			int base = primerosEventos[primerosViajes[l]];
+			for (int e = 0; e < cantidades.length; e++) {
+				total += cantidades[e];
+				filasTransbordos[base + e + 1] = total;
+			}
+		}
+		this.viajesTransbordo = new int[total];
+		this.posicionesTransbordo = new int[total];
+		for (int l = 0; l < cantidadLineas; l++) {
+			int desde = filasTransbordos[primerosEventos[primerosViajes[l]]];
+			int[] viajes = transbordos[l][1];
+			int[] posiciones = transbordos[l][2];
+			System.arraycopy(viajes, 0, viajesTransbordo, desde, viajes.length);
+			System.arraycopy(posiciones, 0, posicionesTransbordo, desde, posiciones.length);
+		}
+	}
+
+	/**
+	 * Expands the frequencies of a line into trips over every day block.
+	 * 
+	 * @param linea The line.
+	 * @return The trips, as absolute departure {@code << 8 | block}, sorted by
+	 *         departure and then by block.
+	 */
+	private static long[] expandirViajes(Linea linea) {
+		int cantidad = 0;
+		int[][] salidas = new int[BLOQUES][];
+		for (int b = 0; b < BLOQUES; b++) {
+			salidas[b] = linea.getHorario(diaDeBloque(b)).salidas();
+			cantidad += salidas[b].length;
+		}
+
+		long[] viajes = new long[cantidad];
+		int k = 0;
+		for (int b = 0; b < BLOQUES; b++) {
+			for (int salida : salidas[b])
+				viajes[k++] = (long) (b * SEGUNDOS_DIA + salida) << 8 | b;
+		}
+		Arrays.sort(viajes);
+		return viajes;
+	}
+
+	/**
+	 * @param bloque A day block of the timeline.
+	 * @return The day of the week (1 to 7) whose service the block repeats.
+	 */
+	public static int diaDeBloque(int bloque) {
+		return HoraServicio.desplazarDia(1, bloque - 1);
+	}
+
+	/**
+	 * Groups the walking segments by end stop.
+	 * 
+	 * @param red The network.
+	 * @return The walking segments ending at each stop, or null for stops without
+	 *         any.
+	 */
+	private static Tramo[][] agruparCaminatasHacia(RedTransporte red) {
+		List<List<Tramo>> porParada = new ArrayList<>();
+		for (int p = 0; p < red.getCantidadParadas(); p++)
+			porParada.add(null);
+
+		for (int p = 0; p < red.getCantidadParadas(); p++) {
+			Tramo[] caminatas = red.caminatasDesde(p);
+			if (caminatas == null)
+				continue;
+			int[] destinos = red.destinosCaminatasDesde(p);
+			for (int k = 0; k < caminatas.length; k++) {
+				int q = destinos[k];
+				if (porParada.get(q) == null)
+					porParada.set(q, new ArrayList<>());
+				porParada.get(q).add(caminatas[k]);
+			}
+		}
+
+		Tramo[][] hacia = new Tramo[red.getCantidadParadas()][];
+		for (int p = 0; p < hacia.length; p++) {
+			if (porParada.get(p) != null)
+				hacia[p] = porParada.get(p).toArray(new Tramo[0]);
+		}
+		return hacia;
+	}
+
+	/**
+	 * Calculates the transfers leaving the stop events of every trip of a line.
+	 * The stops of each trip are visited from the last to the first, keeping the
+	 * earliest arrival found at every stop; a transfer is kept only if riding the
+	 * boarded trip (and walking from its stops) improves one of them.
+	 * 
+	 * @param l The line index.
+	 * @return Three arrays: the number of transfers of each stop event of the
+	 *         line, and the boarded trip and position of each transfer, in event
+	 *         order.
+	 */
+	private int[][] transbordosDeLinea(int l) {
+		int[] ids = red.paradasDeLinea(l);
+		int cantidadViajes = primerosViajes[l + 1] - primerosViajes[l];
+		int[] cantidades = new int[cantidadViajes * ids.length];
+		ListaEnteros viajes = new ListaEnteros();
+		ListaEnteros posiciones = new ListaEnteros();
+
+		int[] llegadas = new int[red.getCantidadParadas()];
+		Arrays.fill(llegadas, SIN_LLEGADA);
+		ListaEnteros tocadas = new ListaEnteros();
+
+		for (int t = primerosViajes[l]; t < primerosViajes[l + 1]; t++) {
+			int evento = (t - primerosViajes[l]) * ids.length;
+			int desdeViaje = viajes.cantidad;
+			for (int i = ids.length - 1; i >= 1; i--) {
+				int p = ids[i];
+				int llegada = paso(t, i);
+				mejorar(p, llegada, llegadas, tocadas);
+				Tramo[] caminatas = red.caminatasDesde(p);
+				int[] destinos = red.destinosCaminatasDesde(p);
+				if (caminatas != null) {
+					for (int k = 0; k < caminatas.length; k++)
+						mejorar(destinos[k], llegada + caminatas[k].getTiempo(), llegadas, tocadas);
+				}
+
+				int desdeEvento = viajes.cantidad;
+				agregarTransbordos(t, i, p, llegada, llegadas, tocadas, viajes, posiciones);
+				if (caminatas != null) {
+					for (int k = 0; k < caminatas.length; k++)
+						agregarTransbordos(t, i, destinos[k], llegada + caminatas[k].getTiempo(), llegadas, tocadas,
+								viajes, posiciones);
+				}
+				cantidades[evento + i] = viajes.cantidad - desdeEvento;
+			}
+
+			ordenarPorEvento(cantidades, evento, ids.length, viajes, posiciones, desdeViaje);
+			for (int k = 0; k < tocadas.cantidad; k++)
+				llegadas[tocadas.valores[k]] = SIN_LLEGADA;
+			tocadas.cantidad = 0;
+		}
+		return new int[][] { cantidades, viajes.recortar(), posiciones.recortar() };
+	}
+
+	/**
+	 * Adds the transfers from a trip to the lines serving a stop, if they improve
+	 * the arrival at some stop.
+	 * 
+	 * @param t          The trip being left.
+	 * @param i          The position where it is left.
+	 * @param q          The stop where the other trip is boarded.
+	 * @param hora       The time the passenger reaches {@code q}.
+	 * @param llegadas   The earliest arrival found at every stop.
+	 * @param tocadas    The stops whose arrival was set.
+	 * @param viajes     The boarded trips of the kept transfers.
+	 * @param posiciones The boarding positions of the kept transfers.
+	 */
+	private void agregarTransbordos(int t, int i, int q, int hora, int[] llegadas, ListaEnteros tocadas, ListaEnteros viajes,
+			ListaEnteros posiciones) {
+		int l = lineasViaje[t];
+		int[] ids = red.paradasDeLinea(l);
+		int[] lineas = red.lineasDeParada(q);
+		int[] posicionesAqui = red.posicionesDeParada(q);
+
+		for (int k = 0; k < lineas.length; k++) {
+			int m = lineas[k];
+			int j = posicionesAqui[k];
+			int[] idsOtra = red.paradasDeLinea(m);
+			if (j + 1 >= idsOtra.length)
+				continue;
+
+			int u = primerViaje(m, j, hora);
+			if (u < 0 || (m == l && u >= t && j >= i))
+				continue;
+			if (q == ids[i] && idsOtra[j + 1] == ids[i - 1] && puedeAbordar(u, paso(t, i - 1)))
+				continue;
+
+			boolean mejora = false;
+			for (int jj = j + 1; jj < idsOtra.length; jj++) {
+				int llegada = paso(u, jj);
+				mejora |= mejorar(idsOtra[jj], llegada, llegadas, tocadas);
+				Tramo[] caminatas = red.caminatasDesde(idsOtra[jj]);
+				if (caminatas == null)
+					continue;
+				int[] destinos = red.destinosCaminatasDesde(idsOtra[jj]);
+				for (int kk = 0; kk < caminatas.length; kk++)
+					mejora |= mejorar(destinos[kk], llegada + caminatas[kk].getTiempo(), llegadas, tocadas);
+			}
+			if (mejora) {
+				viajes.agregar(u);
+				posiciones.agregar(j);
+			}
+		}
+	}
+
+	/**
+	 * Lowers the earliest arrival at a stop.
+	 * 
+	 * @param p        The stop index.
+	 * @param llegada  The new arrival.
+	 * @param llegadas The earliest arrival found at every stop.
+	 * @param tocadas  The stops whose arrival was set.
+	 * @return true if the arrival was improved.
+	 */
+	private static boolean mejorar(int p, int llegada, int[] llegadas, ListaEnteros tocadas) {
+		if (llegada >= llegadas[p])
+			return false;
+		if (llegadas[p] == SIN_LLEGADA)
+			tocadas.agregar(p);
+		llegadas[p] = llegada;
+		return true;
+	}
+
+	/**
+	 * Reorders the transfers of one trip, added from its last stop to its first,
+	 * so that they follow the order of its stop events.
+	 * 
+	 * @param cantidades The number of transfers of each stop event.
+	 * @param evento     The first stop event of the trip, relative to its line.
+	 * @param largo      The number of stops of the trip.
+	 * @param viajes     The boarded trips.
+	 * @param posiciones The boarding positions.
+	 * @param desde      The first transfer of the trip.
+	 */
+	private static void ordenarPorEvento(int[] cantidades, int evento, int largo, ListaEnteros viajes,
+			ListaEnteros posiciones, int desde) {
+		int[] copiaViajes = Arrays.copyOfRange(viajes.valores, desde, viajes.cantidad);
+		int[] copiaPosiciones = Arrays.copyOfRange(posiciones.valores, desde, posiciones.cantidad);
+
+		int fin = copiaViajes.length;
+		int destino = desde;
+		for (int i = 0; i < largo; i++) {
+			int cantidad = cantidades[evento + i];
+			System.arraycopy(copiaViajes, fin - cantidad, viajes.valores, destino, cantidad);
+			System.arraycopy(copiaPosiciones, fin - cantidad, posiciones.valores, destino, cantidad);
+			fin -= cantidad;
+			destino += cantidad;
+		}
+	}
+
+	/**
+	 * Finds the earliest trip of a line that can be boarded at a position at or
+	 * after the given time. Trips of a later day block than the one containing
+	 * {@code hora} cannot be boarded.
+	 * 
+	 * @param l    The line index.
+	 * @param j    The position where the trip is boarded.
+	 * @param hora The time the passenger reaches the stop, in absolute seconds.
+	 * @return The trip, or -1 if there is none.
+	 */
+	public int primerViaje(int l, int j, int hora) {
+		int desde = hora - red.tiempoEntre(l, 0, j);
+		int inicio = primerosViajes[l];
+		int fin = primerosViajes[l + 1];
+		while (inicio < fin) {
+			int medio = (inicio + fin) >>> 1;
+			if (salidasViaje[medio] < desde)
+				inicio = medio + 1;
+			else
+				fin = medio;
+		}
+
+		int bloque = Math.floorDiv(hora, SEGUNDOS_DIA);
+		int limite = bloque * SEGUNDOS_DIA + red.ultimaFrecuencia(l);
+		for (int u = inicio; u < primerosViajes[l + 1] && salidasViaje[u] <= limite; u++) {
+			if (bloquesViaje[u] <= bloque)
+				return u;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param u    The trip.
+	 * @param hora A time, in absolute seconds.
+	 * @return true if the passenger has reached the service day of the trip.
+	 */
+	private boolean puedeAbordar(int u, int hora) {
+		return bloquesViaje[u] * SEGUNDOS_DIA <= hora;
+	}
+
+	/**
+	 * Returns the time a trip passes through a position of its line.
+	 * 
+	 * @param t The trip.
+	 * @param i The position.
+	 * @return The time in absolute seconds.
+	 */
+	public int paso(int t, int i) {
+		return salidasViaje[t] + red.tiempoEntre(lineasViaje[t], 0, i);
+	}
+
+	/** @return The network the trips were expanded from. */
+	public RedTransporte getRed() {
+		return red;
+	}
+
+	/** @return The number of trips. */
+	public int getCantidadViajes() {
+		return lineasViaje.length;
+	}
+
+	/** @return The number of transfers kept. */
+	public int getCantidadTransbordos() {
+		return viajesTransbordo.length;
+	}
+
+	/**
+	 * @param l The line index.
+	 * @return The first trip of the line.
+	 */
+	public int primerViajeDeLinea(int l) {
+		return primerosViajes[l];
+	}
+
+	/**
+	 * @param l The line index.
+	 * @return The position after the last trip of the line.
+	 */
+	public int finViajesDeLinea(int l) {
+		return primerosViajes[l + 1];
+	}
+
+	/**
+	 * @param t The trip.
+	 * @return The line index of the trip.
+	 */
+	public int lineaDe(int t) {
+		return lineasViaje[t];
+	}
+
+	/**
+	 * @param t The trip.
+	 * @return The day block of the trip.
+	 */
+	public int bloqueDe(int t) {
+		return bloquesViaje[t];
+	}
+
+	/** @return The number of stop events. */
+	public int getCantidadEventos() {
+		return primerosEventos[primerosEventos.length - 1];
+	}
+
+	/**
+	 * @param t The trip.
+	 * @return The stop event of the trip at the first position of its line; the
+	 *         event at position {@code i} is this one plus {@code i}.
+	 */
+	public int primerEvento(int t) {
+		return primerosEventos[t];
+	}
+
+	/**
+	 * @param e A stop event.
+	 * @return The trip of the stop event.
+	 */
+	public int viajeDeEvento(int e) {
+		int pos = Arrays.binarySearch(primerosEventos, e);
+		if (pos < 0)
+			return -pos - 2;
+		while (pos + 1 < primerosEventos.length && primerosEventos[pos + 1] == e)
+			pos++;
+		return pos;
+	}
+
+	/**
+	 * @param t The trip.
+	 * @param i The position on its line.
+	 * @return The position of the first transfer leaving the stop event.
+	 */
+	public int inicioTransbordos(int t, int i) {
+		return filasTransbordos[primerosEventos[t] + i];
+	}
+
+	/**
+	 * @param t The trip.
+	 * @param i The position on its line.
+	 * @return The position after the last transfer leaving the stop event.
+	 */
+	public int finTransbordos(int t, int i) {
+		return filasTransbordos[primerosEventos[t] + i + 1];
+	}
+
+	/**
+	 * @param k The transfer position.
+	 * @return The trip boarded.
+	 */
+	public int viajeTransbordo(int k) {
+		return viajesTransbordo[k];
+	}
+
+	/**
+	 * @param k The transfer position.
+	 * @return The position where the trip is boarded.
+	 */
+	public int posicionTransbordo(int k) {
+		return posicionesTransbordo[k];
+	}
+
+	/**
+	 * @param p The stop index.
+	 * @return The walking segments ending at the stop, or null if there are none.
+	 */
+	public Tramo[] caminatasHacia(int p) {
+		return caminatasHacia[p];
+	}
+}
\ No newline at end of file
@@ -0,0 +1,311 @@
+package colectivo.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded collector for the journeys found during a single route query. It
+ * keeps only the best {@code capacidad} journeys, ordered by their arrival time
+ * at the destination, in a binary max-heap whose root is the worst journey
+ * currently kept. The arrival time of each journey is computed once, when it is
+ * offered, and stored as a primitive value.
+ * 
+ * Ties are broken by insertion order, so the final ordering is the same as a
+ * stable sort by arrival time over every journey found.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class ResultadosAcotados {
+
+	/** Maximum number of journeys kept by the collector. */
+	private final int capacidad;
+
+	/** Heap of kept journeys. The root (index 0) is the worst one. */
+	private final List<List<Recorrido>> viajes;
+
+	/** Arrival time (seconds) of each journey in the heap, by heap position. */
+	private int[] llegadas;
+
+	/** Insertion sequence of each journey in the heap, by heap position. */
+	private long[] secuencias;
+
+	/** Number of journeys offered so far, used as the tie-breaker. */
+	private long contador;
+
+	/** Number of arrival checks that rejected a journey or partial journey. */
+	private long podas;
+
+	/** The cost counters of the query, or null if they are not collected. */
+	private EstadisticasConsulta estadisticas;
+
+	/**
+	 * Constructor for a collector that keeps at most {@code capacidad} journeys.
+	 * 
+	 * @param capacidad The maximum number of journeys to keep.
+	 * @throws IllegalArgumentException if {@code capacidad} is not positive.
+	 */
+	public ResultadosAcotados(int capacidad) {
+		if (capacidad <= 0)
+			throw new IllegalArgumentException("La cantidad máxima de resultados debe ser positiva.");
+
+		this.capacidad = capacidad;
+		int inicial = Math.min(capacidad, 16);
+		this.viajes = new ArrayList<>(inicial);
+		this.llegadas = new int[inicial];
+		this.secuencias = new long[inicial];
+	}
+
+	/**
+	 * Calculates the arrival time at the destination of a journey, in seconds,
+	 * from the departure time and duration of its last segment.
+	 * 
+	 * @param viaje The journey, as a list of {@code Recorrido} segments.
+	 * @return The arrival time in seconds.
+	 */
+	public static int calcularLlegada(List<Recorrido> viaje) {
+		Recorrido ultimo = viaje.get(viaje.size() - 1);
+		return ultimo.getLlegada();
+	}
+
+	/**
+	 * Returns the current pruning bound: a journey arriving at or after this time
+	 * can no longer enter the results. While the collector is not full the bound
+	 * is {@code Integer.MAX_VALUE}.
+	 * 
+	 * @return The arrival time (seconds) of the k-th best journey kept, or
+	 *         {@code Integer.MAX_VALUE}.
+	 */
+	public int getCotaLlegada() {
+		return viajes.size() < capacidad ? Integer.MAX_VALUE : llegadas[0];
+	}
+
+	/**
+	 * Checks whether a journey arriving at the given time would be kept. Search
+	 * strategies use it to discard partial journeys whose arrival time is already
+	 * a lower bound for the final one.
+	 * 
+	 * @param llegada The arrival time in seconds.
+	 * @return true if the journey would be kept, false otherwise.
+	 */
+	public boolean admite(int llegada) {
+		if (llegada < getCotaLlegada())
+			return true;
+		podas++;
+		return false;
+	}
+
+	/**
+	 * Offers a journey to the collector, computing its arrival time.
+	 * 
+	 * @param viaje The journey to offer.
+	 * @return true if the journey was kept, false if it was discarded.
+	 */
+	public boolean agregar(List<Recorrido> viaje) {
+		return agregar(viaje, calcularLlegada(viaje));
+	}
+
+	/**
+	 * Offers a journey whose arrival time is already known. If the collector is
+	 * full, the journey replaces the worst one kept only when it arrives strictly
+	 * earlier.
+	 * 
+	 * @param viaje   The journey to offer.
+	 * @param llegada The arrival time of the journey in seconds.
+	 * @return true if the journey was kept, false if it was discarded.
+	 */
+	public boolean agregar(List<Recorrido> viaje, int llegada) {
+		long secuencia = contador++;
+
+		if (viajes.size() < capacidad) {
+			asegurarEspacio(viajes.size() + 1);
+			int pos = viajes.size();
+			viajes.add(viaje);
+			llegadas[pos] = llegada;
+			secuencias[pos] = secuencia;
+			subir(pos);
+			return true;
+		}
+
+		if (llegada >= llegadas[0])
+			return false;
+
+		viajes.set(0, viaje);
+		llegadas[0] = llegada;
+		secuencias[0] = secuencia;
+		bajar(0);
+		return true;
+	}
+
+	/** @return The number of journeys kept. */
+	public int size() {
+		return viajes.size();
+	}
+
+	/** @return true if no journey has been kept. */
+	public boolean isEmpty() {
+		return viajes.isEmpty();
+	}
+
+	/** @return The maximum number of journeys kept by the collector. */
+	public int getCapacidad() {
+		return capacidad;
+	}
+
+	/**
+	 * Returns the kept journeys ordered by arrival time, earliest first. Journeys
+	 * with the same arrival time keep the order in which they were offered.
+	 * 
+	 * @return A new list with the kept journeys.
+	 */
+	public List<List<Recorrido>> ordenadosPorLlegada() {
+		int n = viajes.size();
+		int[] posiciones = new int[n];
+		for (int i = 0; i < n; i++) {
+			int pos = i;
+			int j = i - 1;
+			while (j >= 0 && esPeor(posiciones[j], pos)) {
+				posiciones[j + 1] = posiciones[j];
+				j--;
+			}
+			posiciones[j + 1] = pos;
+		}
+
+		List<List<Recorrido>> ordenados = new ArrayList<>(n);
+		for (int pos : posiciones)
+			ordenados.add(viajes.get(pos));
+		return ordenados;
+	}
+
+	/**
+	 * Returns the kept journeys in no particular order.
+	 * 
+	 * @return An unmodifiable view of the kept journeys.
+	 */
+	public List<List<Recorrido>> getViajes() {
+		return Collections.unmodifiableList(viajes);
+	}
+
+	/** @return The number of journeys offered so far. */
+	public long getCantidadOfrecidos() {
+		return contador;
+	}
+
+	/** @return The number of arrival checks that rejected a journey so far. */
+	public long getCantidadPodas() {
+		return podas;
+	}
+
+	/**
+	 * Returns the cost counters of the query, which the strategies update while
+	 * they search.
+	 * 
+	 * @return The counters, or null if the query does not collect them.
+	 */
+	public EstadisticasConsulta getEstadisticas() {
+		return estadisticas;
+	}
+
+	/**
+	 * Attaches the cost counters of the query.
+	 * 
+	 * @param estadisticas The counters, or null to stop collecting them.
+	 */
+	public void setEstadisticas(EstadisticasConsulta estadisticas) {
+		this.estadisticas = estadisticas;
+	}
+
+	/** Discards every kept journey so the collector can be reused. */
+	public void limpiar() {
+		viajes.clear();
+		contador = 0;
+		podas = 0;
+	}
+
+	/**
+	 * Checks whether the journey at position {@code a} ranks after the journey at
+	 * position {@code b}.
+	 * 
+	 * @param a Heap position of the first journey.
+	 * @param b Heap position of the second journey.
+	 * @return true if {@code a} arrives later, or at the same time but was offered
+	 *         later.
+	 */
+	private boolean esPeor(int a, int b) {
+		return llegadas[a] > llegadas[b] || (llegadas[a] == llegadas[b] && secuencias[a] > secuencias[b]);
+	}
+
+	/**
+	 * Moves the journey at the given position up until the heap property holds.
+	 * 
+	 * @param pos The heap position to fix.
+	 */
+	private void subir(int pos) {
+		while (pos > 0) {
+			int padre = (pos - 1) >>> 1;
+			if (!esPeor(pos, padre))
+				break;
+			intercambiar(pos, padre);
+			pos = padre;
+		}
+	}
+
+	/**
+	 * Moves the journey at the given position down until the heap property holds.
+	 * 
+	 * @param pos The heap position to fix.
+	 */
+	private void bajar(int pos) {
+		int n = viajes.size();
+		while (true) {
+			int izq = 2 * pos + 1;
+			if (izq >= n)
+				break;
+			int peor = izq;
+			int der = izq + 1;
+			if (der < n && esPeor(der, izq))
+				peor = der;
+			if (!esPeor(peor, pos))
+				break;
+			intercambiar(pos, peor);
+			pos = peor;
+		}
+	}
+
+	/**
+	 * Swaps two heap positions.
+	 * 
+	 * @param a The first position.
+	 * @param b The second position.
+	 */
+	private void intercambiar(int a, int b) {
+		List<Recorrido> viaje = viajes.get(a);
+		viajes.set(a, viajes.get(b));
+		viajes.set(b, viaje);
+
+		int llegada = llegadas[a];
+		llegadas[a] = llegadas[b];
+		llegadas[b] = llegada;
+
+		long secuencia = secuencias[a];
+		secuencias[a] = secuencias[b];
+		secuencias[b] = secuencia;
+	}
+
+	/**
+	 * Grows the primitive arrays when more journeys than initially expected must
+	 * be kept.
+	 * 
+	 * @param requerido The number of positions required.
+	 */
+	private void asegurarEspacio(int requerido) {
+		if (requerido <= llegadas.length)
+			return;
+		int nuevo = (int) Math.min((long) capacidad, Math.max(requerido, 2L * llegadas.length));
+		llegadas = Arrays.copyOf(llegadas, nuevo);
+		secuencias = Arrays.copyOf(secuencias, nuevo);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,283 @@
+package colectivo.logica;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import colectivo.metricas.RegistroMetricas;
+import colectivo.modelo.HoraServicio;
+
+/**
+ * Sampled, structured trace of the route queries, kept in memory in a ring
+ * buffer instead of being written to the log step by step. One query in
+ * {@code muestreo}, chosen at random, collects its {@code EstadisticasConsulta}
+ * and is stored as an {@code Entrada}; once the buffer is full each new entry
+ * replaces the oldest one. The trace is dumped on demand with {@code volcar},
+ * also available as the {@code colectivo:type=Traza,name=consultas} MBean.
+ * 
+ * The sampling rate and the capacity are read from the "trazaMuestreo" and
+ * "trazaCapacidad" keys of config.properties.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class TrazaConsultas implements TrazaConsultasMBean {
+
+	/** Default sampling rate: one query in this many is traced. */
+	public static final int MUESTREO_POR_DEFECTO = 100;
+
+	/** Default number of queries kept. */
+	public static final int CAPACIDAD_POR_DEFECTO = 1024;
+
+	/** Logger instance for logging events, errors and exceptions. */
+	private static final Logger LOGGER = LogManager.getLogger(TrazaConsultas.class);
+
+	/** The trace of the application. */
+	private static final TrazaConsultas INSTANCIA = crearConfigurada();
+
+	/** One query in how many is traced, or 0 if tracing is off. */
+	private final int muestreo;
+
+	/** The ring buffer. */
+	private final AtomicReferenceArray<Entrada> anillo;
+
+	/** Number of entries written so far; the next one goes to this modulo the capacity. */
+	private final AtomicLong escritas = new AtomicLong();
+
+	/**
+	 * Constructor for a trace with the given sampling rate and capacity.
+	 * 
+	 * @param muestreo  One query in how many is traced, or 0 to turn it off.
+	 * @param capacidad The number of queries kept.
+	 * @throws IllegalArgumentException if the rate is negative or the capacity
+	 *                                  is not positive.
+	 */
+	public TrazaConsultas(int muestreo, int capacidad) {
+		if (muestreo < 0)
+			throw new IllegalArgumentException("El muestreo de la traza no puede ser negativo.");
+		if (capacidad <= 0)
+			throw new IllegalArgumentException("La capacidad de la traza debe ser positiva.");
+		this.muestreo = muestreo;
+		this.anillo = new AtomicReferenceArray<>(capacidad);
+	}
+
+	/**
+	 * Returns the trace of the application, configured from config.properties
+	 * and published as an MBean.
+	 * 
+	 * @return The shared trace.
+	 */
+	public static TrazaConsultas getInstancia() {
+		return INSTANCIA;
+	}
+
+	/**
+	 * Creates the shared trace from config.properties, falling back to the
+	 * defaults when the keys are missing or invalid.
+	 * 
+	 * @return The new trace.
+	 */
+	private static TrazaConsultas crearConfigurada() {
+		int muestreo = MUESTREO_POR_DEFECTO;
+		int capacidad = CAPACIDAD_POR_DEFECTO;
+		Properties prop = new Properties();
+		try (InputStream input = TrazaConsultas.class.getClassLoader().getResourceAsStream("config.properties")) {
+			if (input != null) {
+				prop.load(input);
+				String valor = prop.getProperty("trazaMuestreo");
+				if (valor != null && Integer.parseInt(valor.trim()) >= 0)
+					muestreo = Integer.parseInt(valor.trim());
+				valor = prop.getProperty("trazaCapacidad");
+				if (valor != null && Integer.parseInt(valor.trim()) > 0)
+					capacidad = Integer.parseInt(valor.trim());
+			}
+		} catch (IOException | NumberFormatException ex) {
+			LOGGER.warn("Configuración de la traza inválida en config.properties, se usan los valores por defecto.",
+					ex);
+		}
+
+		TrazaConsultas traza = new TrazaConsultas(muestreo, capacidad);
+		RegistroMetricas.publicar("Traza", "consultas", traza);
+		return traza;
+	}
+
+	/**
+	 * Decides whether the query about to run is traced.
+	 * 
+	 * @return true for about one query in {@code muestreo}.
+	 */
+	public boolean muestrear() {
+		return muestreo > 0 && (muestreo == 1 || ThreadLocalRandom.current().nextInt(muestreo) == 0);
+	}
+
+	/**
+	 * Stores a traced query, replacing the oldest one if the buffer is full.
+	 * 
+	 * @param origen       The code of the origin stop.
+	 * @param destino      The code of the destination stop.
+	 * @param diaSemana    The day of the week.
+	 * @param horaMinima   The time of the query, in service-day seconds.
+	 * @param resultados   The number of journeys returned.
+	 * @param estadisticas The finished cost counters of the query.
+	 */
+	public void registrar(int origen, int destino, int diaSemana, int horaMinima, int resultados,
+			EstadisticasConsulta estadisticas) {
+		Entrada entrada = new Entrada(Instant.now(), Thread.currentThread().getName(), origen, destino, diaSemana,
+				horaMinima, resultados, estadisticas);
+		long posicion = escritas.getAndIncrement();
+		anillo.set((int) (posicion % anillo.length()), entrada);
+	}
+
+	/**
+	 * Returns the queries in the ring buffer, oldest first. Entries written while
+	 * the copy is made may or may not be included.
+	 * 
+	 * @return A new list with the entries.
+	 */
+	public List<Entrada> getEntradas() {
+		long fin = escritas.get();
+		int capacidad = anillo.length();
+		long inicio = Math.max(0, fin - capacidad);
+		List<Entrada> entradas = new ArrayList<>((int) (fin - inicio));
+		for (long i = inicio; i < fin; i++) {
+			Entrada entrada = anillo.get((int) (i % capacidad));
+			if (entrada != null)
+				entradas.add(entrada);
+		}
+		return entradas;
+	}
+
+	@Override
+	public String volcar() {
+		StringBuilder sb = new StringBuilder();
+		for (Entrada entrada : getEntradas())
+			sb.append(entrada).append(System.lineSeparator());
+		return sb.toString();
+	}
+
+	@Override
+	public int getMuestreo() {
+		return muestreo;
+	}
+
+	@Override
+	public int getCapacidad() {
+		return anillo.length();
+	}
+
+	@Override
+	public long getRegistradas() {
+		return escritas.get();
+	}
+
+	/**
+	 * A traced query: its parameters, its outcome and its cost counters.
+	 */
+	public static final class Entrada {
+
+		/** When the query ended. */
+		private final Instant instante;
+
+		/** Name of the thread that ran the query. */
+		private final String hilo;
+
+		/** Code of the origin stop. */
+		private final int origen;
+
+		/** Code of the destination stop. */
+		private final int destino;
+
+		/** Day of the week. */
+		private final int diaSemana;
+
+		/** Time of the query, in service-day seconds. */
+		private final int horaMinima;
+
+		/** Number of journeys returned. */
+		private final int resultados;
+
+		/** Cost counters of the query. */
+		private final EstadisticasConsulta estadisticas;
+
+		/**
+		 * Constructor that sets every field.
+		 * 
+		 * @param instante     When the query ended.
+		 * @param hilo         The thread that ran the query.
+		 * @param origen       The code of the origin stop.
+		 * @param destino      The code of the destination stop.
+		 * @param diaSemana    The day of the week.
+		 * @param horaMinima   The time of the query, in service-day seconds.
+		 * @param resultados   The number of journeys returned.
+		 * @param estadisticas The cost counters of the query.
+		 */
+		private Entrada(Instant instante, String hilo, int origen, int destino, int diaSemana, int horaMinima,
+				int resultados, EstadisticasConsulta estadisticas) {
+			this.instante = instante;
+			this.hilo = hilo;
+			this.origen = origen;
+			this.destino = destino;
+			this.diaSemana = diaSemana;
+			this.horaMinima = horaMinima;
+			this.resultados = resultados;
+			this.estadisticas = estadisticas;
+		}
+
+		/** @return When the query ended. */
+		public Instant getInstante() {
+			return instante;
+		}
+
+		/** @return The name of the thread that ran the query. */
+		public String getHilo() {
+			return hilo;
+		}
+
+		/** @return The code of the origin stop. */
+		public int getOrigen() {
+			return origen;
+		}
+
+		/** @return The code of the destination stop. */
+		public int getDestino() {
+			return destino;
+		}
+
+		/** @return The day of the week. */
+		public int getDiaSemana() {
+			return diaSemana;
+		}
+
+		/** @return The time of the query, in service-day seconds. */
+		public int getHoraMinima() {
+			return horaMinima;
+		}
+
+		/** @return The number of journeys returned. */
+		public int getResultados() {
+			return resultados;
+		}
+
+		/** @return The cost counters of the query. */
+		public EstadisticasConsulta getEstadisticas() {
+			return estadisticas;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%s [%s] origen=%d destino=%d dia=%d hora=%s resultados=%d %s", instante,
+					hilo, origen, destino, diaSemana, HoraServicio.formatear(horaMinima), resultados, estadisticas);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package colectivo.logica;
+
+/**
+ * Management interface of {@code TrazaConsultas}, to read the sampled query
+ * trace of a running instance from JConsole or JMC.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public interface TrazaConsultasMBean {
+
+	/** @return One query in how many is traced, or 0 if tracing is off. */
+	int getMuestreo();
+
+	/** @return The number of queries the ring buffer holds. */
+	int getCapacidad();
+
+	/** @return The number of queries traced since the start. */
+	long getRegistradas();
+
+	/**
+	 * Returns the queries in the ring buffer, oldest first, one per line.
+	 * 
+	 * @return The trace as text.
+	 */
+	String volcar();
+}
\ No newline at end of file
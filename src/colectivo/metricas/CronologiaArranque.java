@@ -0,0 +1,357 @@
+package colectivo.metricas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Timeline of the application startup. Each step of the startup (creating the
+ * DAOs through the {@code Factory}, the phases of the city load, building the
+ * {@code Calculo}, loading the FXML, initializing the controller, loading the
+ * map page in the WebView) is recorded as a {@code Fase} with its start and
+ * end, measured from the start of the JVM, and the number of classes loaded
+ * meanwhile. The first phase, "jvm", goes from the start of the JVM to the
+ * creation of the timeline. Instant milestones are recorded with
+ * {@code marcar}.
+ * 
+ * The startup ends with {@code finalizar}, which logs the total time, as a
+ * warning with the whole timeline if it exceeds the "arranqueUmbralMs" key of
+ * config.properties. Phases closed after that are not recorded, so reloading
+ * the interface does not change the timeline. The timeline is printed with
+ * {@code getInforme}, also available as the
+ * {@code colectivo:type=Arranque,name=cronologia} MBean.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class CronologiaArranque implements CronologiaArranqueMBean {
+
+	/** Default startup time above which a warning is logged, in milliseconds. */
+	public static final long UMBRAL_POR_DEFECTO_MS = 10_000;
+
+	/** Logger instance for logging events, errors and exceptions. */
+	private static final Logger LOGGER = LogManager.getLogger(CronologiaArranque.class);
+
+	/** JVM class loading bean, used to count the classes loaded in each phase. */
+	private static final ClassLoadingMXBean CLASES = ManagementFactory.getClassLoadingMXBean();
+
+	/** The timeline of the application. */
+	private static final CronologiaArranque INSTANCIA = crearConfigurada();
+
+	/** Number of phases open on each thread, to indent the nested ones. */
+	private static final ThreadLocal<int[]> ABIERTAS = ThreadLocal.withInitial(() -> new int[1]);
+
+	/** Startup time above which a warning is logged, in milliseconds. */
+	private final long umbralMs;
+
+	/** Value of {@code System.nanoTime} at the start of the JVM. */
+	private final long origenNanos;
+
+	/** The recorded phases and milestones, in order of end. */
+	private final List<Fase> fases = new ArrayList<>();
+
+	/** End of the startup, in nanoseconds from the start of the JVM, or -1. */
+	private long finNanos = -1;
+
+	/**
+	 * Constructor that sets the threshold. The start of the JVM is taken from
+	 * its uptime, and the time until now is recorded as the "jvm" phase, with
+	 * the classes loaded so far.
+	 * 
+	 * @param umbralMs The startup time above which a warning is logged, in ms.
+	 * @throws IllegalArgumentException if the threshold is not positive.
+	 */
+	public CronologiaArranque(long umbralMs) {
+		if (umbralMs <= 0)
+			throw new IllegalArgumentException("El umbral de arranque debe ser positivo.");
+		this.umbralMs = umbralMs;
+		long ahora = System.nanoTime();
+		this.origenNanos = ahora - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+		Fase jvm = new Fase(this, "jvm", 0, 0, 0);
+		jvm.finNanos = ahora - origenNanos;
+		jvm.clasesCargadas = CLASES.getTotalLoadedClassCount();
+		fases.add(jvm);
+	}
+
+	/**
+	 * Returns the startup timeline of the application, configured from
+	 * config.properties and published as an MBean.
+	 * 
+	 * @return The shared timeline.
+	 */
+	public static CronologiaArranque getInstancia() {
+		return INSTANCIA;
+	}
+
+	/**
+	 * Creates the shared timeline from config.properties, falling back to the
+	 * default threshold when the key is missing or invalid.
+	 * 
+	 * @return The new timeline.
+	 */
+	private static CronologiaArranque crearConfigurada() {
+		long umbral = UMBRAL_POR_DEFECTO_MS;
+		Properties prop = new Properties();
+		try (InputStream input = CronologiaArranque.class.getClassLoader()
+				.getResourceAsStream("config.properties")) {
+			if (input != null) {
+				prop.load(input);
+				String valor = prop.getProperty("arranqueUmbralMs");
+				if (valor != null && Long.parseLong(valor.trim()) > 0)
+					umbral = Long.parseLong(valor.trim());
+			}
+		} catch (IOException | NumberFormatException ex) {
+			LOGGER.warn("No se pudo leer 'arranqueUmbralMs' de config.properties. Se usa el valor por defecto.", ex);
+		}
+
+		CronologiaArranque cronologia = new CronologiaArranque(umbral);
+		RegistroMetricas.publicar("Arranque", "cronologia", cronologia);
+		return cronologia;
+	}
+
+	/**
+	 * Opens a phase of the startup, to be closed by the same thread when it
+	 * ends, in a {@code finally} block. Steps that throw no checked exception
+	 * are simpler to time with {@code medir} or {@code ejecutar}.
+	 * 
+	 * @param nombre The name of the phase.
+	 * @return The open phase.
+	 */
+	public Fase iniciar(String nombre) {
+		int[] abiertas = ABIERTAS.get();
+		return new Fase(this, nombre, abiertas[0]++, System.nanoTime() - origenNanos,
+				CLASES.getTotalLoadedClassCount());
+	}
+
+	/**
+	 * Runs a step of the startup as a phase and returns what it produced. The
+	 * phase is closed even if the step throws.
+	 * 
+	 * @param <T>    The type of the result.
+	 * @param nombre The name of the phase.
+	 * @param paso   The step.
+	 * @return The result of the step.
+	 */
+	public <T> T medir(String nombre, Supplier<T> paso) {
+		Fase fase = iniciar(nombre);
+		try {
+			return paso.get();
+		} finally {
+			fase.close();
+		}
+	}
+
+	/**
+	 * Runs a step of the startup that produces nothing as a phase. The phase is
+	 * closed even if the step throws.
+	 * 
+	 * @param nombre The name of the phase.
+	 * @param paso   The step.
+	 */
+	public void ejecutar(String nombre, Runnable paso) {
+		Fase fase = iniciar(nombre);
+		try {
+			paso.run();
+		} finally {
+			fase.close();
+		}
+	}
+
+	/**
+	 * Records an instant milestone of the startup.
+	 * 
+	 * @param nombre The name of the milestone.
+	 */
+	public void marcar(String nombre) {
+		long ahora = System.nanoTime() - origenNanos;
+		Fase hito = new Fase(this, nombre, ABIERTAS.get()[0], ahora, CLASES.getTotalLoadedClassCount());
+		hito.finNanos = ahora;
+		registrar(hito);
+	}
+
+	/**
+	 * Records the end of the startup with a last milestone and logs the total
+	 * time. Only the first call has an effect.
+	 * 
+	 * @param nombre The name of the last milestone.
+	 */
+	public void finalizar(String nombre) {
+		synchronized (fases) {
+			if (finNanos >= 0)
+				return;
+			marcar(nombre);
+			finNanos = System.nanoTime() - origenNanos;
+		}
+
+		if (isUmbralSuperado())
+			LOGGER.warn("Arranque completo en {} ms, supera el umbral de {} ms.{}{}", getTotalMs(), umbralMs,
+					System.lineSeparator(), getInforme());
+		else
+			LOGGER.info("Arranque completo en {} ms.", getTotalMs());
+	}
+
+	/**
+	 * Stores a closed phase, unless the startup has already finished.
+	 * 
+	 * @param fase The phase.
+	 */
+	private void registrar(Fase fase) {
+		synchronized (fases) {
+			if (finNanos < 0)
+				fases.add(fase);
+		}
+	}
+
+	/**
+	 * Returns the phases recorded so far.
+	 * 
+	 * @return A new list with the phases, in order of start.
+	 */
+	public List<Fase> getFases() {
+		List<Fase> copia;
+		synchronized (fases) {
+			copia = new ArrayList<>(fases);
+		}
+		copia.sort(Comparator.comparingLong(Fase::getInicioNanos).thenComparingInt(Fase::getNivel));
+		return copia;
+	}
+
+	@Override
+	public boolean isFinalizado() {
+		synchronized (fases) {
+			return finNanos >= 0;
+		}
+	}
+
+	@Override
+	public long getTotalMs() {
+		synchronized (fases) {
+			return finNanos < 0 ? -1 : finNanos / 1_000_000;
+		}
+	}
+
+	@Override
+	public long getUmbralMs() {
+		return umbralMs;
+	}
+
+	@Override
+	public boolean isUmbralSuperado() {
+		return getTotalMs() > umbralMs;
+	}
+
+	@Override
+	public String getInforme() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ROOT, "%10s %10s %10s %8s  %s", "inicio ms", "fin ms", "dura ms", "clases",
+				"fase"));
+		for (Fase fase : getFases())
+			sb.append(System.lineSeparator()).append(fase);
+		long total = getTotalMs();
+		sb.append(System.lineSeparator()).append(total < 0 ? "Arranque en curso."
+				: String.format(Locale.ROOT, "Total %d ms (umbral %d ms)", total, umbralMs));
+		return sb.toString();
+	}
+
+	/**
+	 * A phase of the startup, or a milestone if it has no duration. Times are in
+	 * nanoseconds from the start of the JVM.
+	 */
+	public static final class Fase implements AutoCloseable {
+
+		/** The timeline it belongs to. */
+		private final CronologiaArranque cronologia;
+
+		/** Name of the phase. */
+		private final String nombre;
+
+		/** Number of phases open on the same thread when it started. */
+		private final int nivel;
+
+		/** Start of the phase. */
+		private final long inicioNanos;
+
+		/** Classes loaded by the JVM when the phase started. */
+		private final long clasesAlInicio;
+
+		/** End of the phase, or -1 while it is open. */
+		private long finNanos = -1;
+
+		/** Classes loaded by the JVM during the phase. */
+		private long clasesCargadas;
+
+		/**
+		 * Constructor that opens the phase.
+		 * 
+		 * @param cronologia     The timeline it belongs to.
+		 * @param nombre         The name of the phase.
+		 * @param nivel          The number of phases open on the same thread.
+		 * @param inicioNanos    The start of the phase.
+		 * @param clasesAlInicio The classes loaded by the JVM at the start.
+		 */
+		private Fase(CronologiaArranque cronologia, String nombre, int nivel, long inicioNanos,
+				long clasesAlInicio) {
+			this.cronologia = cronologia;
+			this.nombre = nombre;
+			this.nivel = nivel;
+			this.inicioNanos = inicioNanos;
+			this.clasesAlInicio = clasesAlInicio;
+		}
+
+		/**
+		 * Closes the phase and records it. Closing it again has no effect.
+		 */
+		@Override
+		public void close() {
+			if (finNanos >= 0)
+				return;
+			finNanos = System.nanoTime() - cronologia.origenNanos;
+			clasesCargadas = CLASES.getTotalLoadedClassCount() - clasesAlInicio;
+			ABIERTAS.get()[0]--;
+			cronologia.registrar(this);
+		}
+
+		/** @return The name of the phase. */
+		public String getNombre() {
+			return nombre;
+		}
+
+		/** @return The number of phases open on the same thread when it started. */
+		public int getNivel() {
+			return nivel;
+		}
+
+		/** @return The start of the phase, in nanoseconds from the JVM start. */
+		public long getInicioNanos() {
+			return inicioNanos;
+		}
+
+		/** @return The end of the phase, in nanoseconds from the JVM start. */
+		public long getFinNanos() {
+			return finNanos;
+		}
+
+		/** @return The classes loaded by the JVM during the phase. */
+		public long getClasesCargadas() {
+			return clasesCargadas;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%10.1f %10.1f %10.1f %8d  %s%s", inicioNanos / 1e6, finNanos / 1e6,
+					(finNanos - inicioNanos) / 1e6, clasesCargadas, "  ".repeat(nivel), nombre);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package colectivo.metricas;
+
+/**
+ * Management interface of {@code CronologiaArranque}, to read the startup
+ * timeline of a running instance from JConsole or JMC.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public interface CronologiaArranqueMBean {
+
+	/** @return true once the startup has finished. */
+	boolean isFinalizado();
+
+	/**
+	 * @return The time from the start of the JVM to the end of the startup, in
+	 *         milliseconds, or -1 if it has not finished.
+	 */
+	long getTotalMs();
+
+	/** @return The startup time above which a warning is logged, in ms. */
+	long getUmbralMs();
+
+	/** @return true if the startup took longer than the threshold. */
+	boolean isUmbralSuperado();
+
+	/**
+	 * Returns the phases recorded so far, in order of start, one per line.
+	 * 
+	 * @return The timeline as text.
+	 */
+	String getInforme();
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package colectivo.metricas;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with the log-linear layout of HdrHistogram. Values below
+ * {@code SUBCUBETAS} nanoseconds get a bucket each; above that, every power of
+ * two is split into {@code SUBCUBETAS / 2} equal buckets, so any value is
+ * reported with a relative error below 1/64 (about 1.6%) while the whole range,
+ * up to {@code MAXIMO_NANOS}, fits in a fixed array of a few thousand counters.
+ * 
+ * Recording is lock-free and can be done from any thread; percentiles are
+ * computed when they are read, from a scan of the counters.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class HistogramaLatencia implements HistogramaLatenciaMBean {
+
+	/** Number of buckets of the first, linear, range. */
+	private static final int SUBCUBETAS = 128;
+
+	/** Bits of precision kept above the linear range, minus one. */
+	private static final int BITS_SUBCUBETA = 6;
+
+	/** Largest value recorded; larger values are counted as this one. */
+	public static final long MAXIMO_NANOS = TimeUnit.HOURS.toNanos(1);
+
+	/** Number of nanoseconds in a millisecond. */
+	private static final double NANOS_MS = 1_000_000.0;
+
+	/** Count of each bucket. */
+	private final AtomicLongArray cubetas = new AtomicLongArray(indice(MAXIMO_NANOS) + 1);
+
+	/** Number of values recorded. */
+	private final LongAdder cantidad = new LongAdder();
+
+	/** Sum of the values recorded, in nanoseconds. */
+	private final LongAdder suma = new LongAdder();
+
+	/** Largest value recorded, in nanoseconds. */
+	private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+	/** {@code System.nanoTime} of the creation or the last reset. */
+	private volatile long inicio = System.nanoTime();
+
+	/**
+	 * Records a duration.
+	 * 
+	 * @param nanos The duration, in nanoseconds. Negative values count as zero.
+	 */
+	public void registrar(long nanos) {
+		long valor = Math.min(Math.max(nanos, 0), MAXIMO_NANOS);
+		cubetas.incrementAndGet(indice(valor));
+		cantidad.increment();
+		suma.add(valor);
+		maximo.accumulate(valor);
+	}
+
+	/**
+	 * Returns the bucket of a value.
+	 * 
+	 * @param valor The value, between 0 and {@code MAXIMO_NANOS}.
+	 * @return The bucket index.
+	 */
+	private static int indice(long valor) {
+		if (valor < SUBCUBETAS)
+			return (int) valor;
+		int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+		return (desplazamiento << BITS_SUBCUBETA) + (int) (valor >>> desplazamiento);
+	}
+
+	/**
+	 * Returns the largest value that falls into a bucket.
+	 * 
+	 * @param indice The bucket index.
+	 * @return The upper bound of the bucket, in nanoseconds.
+	 */
+	private static long limiteSuperior(int indice) {
+		if (indice < SUBCUBETAS)
+			return indice;
+		int desplazamiento = (indice >>> BITS_SUBCUBETA) - 1;
+		long sub = (indice & ((1 << BITS_SUBCUBETA) - 1)) + (1 << BITS_SUBCUBETA);
+		return ((sub + 1) << desplazamiento) - 1;
+	}
+
+	/**
+	 * Returns a percentile of the values recorded.
+	 * 
+	 * @param percentil The percentile, between 0 and 100.
+	 * @return The value at that percentile, in nanoseconds, or 0 if nothing was
+	 *         recorded.
+	 */
+	public long percentil(double percentil) {
+		long total = 0;
+		int n = cubetas.length();
+		long[] copia = new long[n];
+		for (int i = 0; i < n; i++) {
+			copia[i] = cubetas.get(i);
+			total += copia[i];
+		}
+		if (total == 0)
+			return 0;
+
+		long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+		long acumulado = 0;
+		for (int i = 0; i < n; i++) {
+			acumulado += copia[i];
+			if (acumulado >= objetivo)
+				return Math.min(limiteSuperior(i), maximo.get());
+		}
+		return maximo.get();
+	}
+
+	@Override
+	public long getCantidad() {
+		return cantidad.sum();
+	}
+
+	@Override
+	public double getTasaPorSegundo() {
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		return segundos <= 0 ? 0 : cantidad.sum() / segundos;
+	}
+
+	@Override
+	public double getMediaMs() {
+		long n = cantidad.sum();
+		return n == 0 ? 0 : suma.sum() / NANOS_MS / n;
+	}
+
+	@Override
+	public double getP50Ms() {
+		return percentil(50) / NANOS_MS;
+	}
+
+	@Override
+	public double getP90Ms() {
+		return percentil(90) / NANOS_MS;
+	}
+
+	@Override
+	public double getP99Ms() {
+		return percentil(99) / NANOS_MS;
+	}
+
+	@Override
+	public double getMaximoMs() {
+		return maximo.get() / NANOS_MS;
+	}
+
+	@Override
+	public void reiniciar() {
+		for (int i = 0; i < cubetas.length(); i++)
+			cubetas.set(i, 0);
+		cantidad.reset();
+		suma.reset();
+		maximo.reset();
+		inicio = System.nanoTime();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d, p50=%.3f ms, p90=%.3f ms, p99=%.3f ms, max=%.3f ms", getCantidad(), getP50Ms(),
+				getP90Ms(), getP99Ms(), getMaximoMs());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package colectivo.metricas;
+
+/**
+ * Management interface of {@code HistogramaLatencia}, shown by JConsole or JMC
+ * under the "colectivo" domain. Times are in milliseconds.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public interface HistogramaLatenciaMBean {
+
+	/** @return The number of values recorded since the last reset. */
+	long getCantidad();
+
+	/** @return The number of values recorded per second since the last reset. */
+	double getTasaPorSegundo();
+
+	/** @return The mean, in milliseconds. */
+	double getMediaMs();
+
+	/** @return The median, in milliseconds. */
+	double getP50Ms();
+
+	/** @return The 90th percentile, in milliseconds. */
+	double getP90Ms();
+
+	/** @return The 99th percentile, in milliseconds. */
+	double getP99Ms();
+
+	/** @return The largest value recorded, in milliseconds. */
+	double getMaximoMs();
+
+	/** Discards every value recorded. */
+	void reiniciar();
+}
\ No newline at end of file
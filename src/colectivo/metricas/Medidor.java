@@ -0,0 +1,46 @@
+package colectivo.metricas;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Gauge: a value read from its source each time it is asked for, such as the
+ * number of tasks waiting in a queue.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class Medidor implements MedidorMBean {
+
+	/** The source of the value. */
+	private volatile LongSupplier fuente;
+
+	/**
+	 * Constructor that sets the source of the value.
+	 * 
+	 * @param fuente The source of the value.
+	 */
+	Medidor(LongSupplier fuente) {
+		this.fuente = fuente;
+	}
+
+	/**
+	 * Replaces the source of the value, e.g. when the object it reads from is
+	 * created again.
+	 * 
+	 * @param fuente The new source.
+	 */
+	void setFuente(LongSupplier fuente) {
+		this.fuente = fuente;
+	}
+
+	@Override
+	public long getValor() {
+		return fuente.getAsLong();
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(getValor());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package colectivo.metricas;
+
+/**
+ * Management interface of {@code Medidor}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public interface MedidorMBean {
+
+	/** @return The current value. */
+	long getValor();
+}
\ No newline at end of file
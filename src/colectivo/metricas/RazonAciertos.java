@@ -0,0 +1,58 @@
+package colectivo.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit ratio of a cache: how many lookups were answered with the cached value
+ * and how many had to build it.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class RazonAciertos implements RazonAciertosMBean {
+
+	/** Lookups answered from the cache. */
+	private final LongAdder aciertos = new LongAdder();
+
+	/** Lookups that built the value. */
+	private final LongAdder fallos = new LongAdder();
+
+	/** Records a lookup answered from the cache. */
+	public void acierto() {
+		aciertos.increment();
+	}
+
+	/** Records a lookup that built the value. */
+	public void fallo() {
+		fallos.increment();
+	}
+
+	@Override
+	public long getAciertos() {
+		return aciertos.sum();
+	}
+
+	@Override
+	public long getFallos() {
+		return fallos.sum();
+	}
+
+	@Override
+	public double getRazon() {
+		long a = aciertos.sum();
+		long total = a + fallos.sum();
+		return total == 0 ? 0 : (double) a / total;
+	}
+
+	@Override
+	public void reiniciar() {
+		aciertos.reset();
+		fallos.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("aciertos=%d, fallos=%d, razón=%.3f", getAciertos(), getFallos(), getRazon());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package colectivo.metricas;
+
+/**
+ * Management interface of {@code RazonAciertos}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public interface RazonAciertosMBean {
+
+	/** @return The number of lookups answered from the cache. */
+	long getAciertos();
+
+	/** @return The number of lookups that had to build the value. */
+	long getFallos();
+
+	/** @return The fraction of lookups answered from the cache, 0 to 1. */
+	double getRazon();
+
+	/** Sets both counters back to zero. */
+	void reiniciar();
+}
\ No newline at end of file
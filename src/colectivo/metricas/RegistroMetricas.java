@@ -0,0 +1,137 @@
+package colectivo.metricas;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Registry of the application metrics. Each metric is created on first use,
+ * kept for the rest of the run and published as a platform MBean named
+ * {@code colectivo:type=<kind>,name=<name>}, so a running instance (desktop or
+ * headless) can be watched with JConsole or JMC. Metric names are dotted
+ * paths such as {@code consulta.CalculoDirectoService} or
+ * {@code carga.tramos}.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class RegistroMetricas {
+
+	/** JMX domain of the metrics. */
+	public static final String DOMINIO = "colectivo";
+
+	/** The metrics created, by name. */
+	private static final ConcurrentHashMap<String, Object> METRICAS = new ConcurrentHashMap<>();
+
+	/** Logger instance for logging events, errors and exceptions. */
+	private static final Logger LOGGER = LogManager.getLogger(RegistroMetricas.class);
+
+	/** Private constructor to prevent instantiation. */
+	private RegistroMetricas() {
+		throw new AssertionError("No instanciable");
+	}
+
+	/**
+	 * Returns the latency histogram with the given name, creating it on first
+	 * use.
+	 * 
+	 * @param nombre The name of the metric.
+	 * @return The histogram.
+	 * @throws ClassCastException if the name belongs to another kind of metric.
+	 */
+	public static HistogramaLatencia histograma(String nombre) {
+		return obtener(nombre, HistogramaLatencia.class, "Histograma", HistogramaLatencia::new);
+	}
+
+	/**
+	 * Returns the cache hit ratio with the given name, creating it on first use.
+	 * 
+	 * @param nombre The name of the metric.
+	 * @return The hit ratio.
+	 * @throws ClassCastException if the name belongs to another kind of metric.
+	 */
+	public static RazonAciertos razonAciertos(String nombre) {
+		return obtener(nombre, RazonAciertos.class, "RazonAciertos", RazonAciertos::new);
+	}
+
+	/**
+	 * Publishes a gauge with the given name. If it already exists, its source is
+	 * replaced, so objects created again (e.g. a new {@code AsyncService}) take
+	 * over the gauge.
+	 * 
+	 * @param nombre The name of the metric.
+	 * @param fuente The source of the value.
+	 * @return The gauge.
+	 * @throws ClassCastException if the name belongs to another kind of metric.
+	 */
+	public static Medidor medidor(String nombre, LongSupplier fuente) {
+		Medidor medidor = obtener(nombre, Medidor.class, "Medidor", () -> new Medidor(fuente));
+		medidor.setFuente(fuente);
+		return medidor;
+	}
+
+	/**
+	 * Returns every metric created, for reports outside JMX.
+	 * 
+	 * @return The metrics, sorted by name.
+	 */
+	public static Map<String, Object> getMetricas() {
+		return Collections.unmodifiableMap(new TreeMap<>(METRICAS));
+	}
+
+	/**
+	 * Returns the metric with the given name, creating and publishing it on first
+	 * use.
+	 * 
+	 * @param nombre  The name of the metric.
+	 * @param tipo    The expected class of the metric.
+	 * @param tipoJmx The kind shown in the MBean name.
+	 * @param crear   Creates the metric.
+	 * @return The metric.
+	 */
+	private static <T> T obtener(String nombre, Class<T> tipo, String tipoJmx, Supplier<T> crear) {
+		Object metrica = METRICAS.get(nombre);
+		if (metrica == null) {
+			metrica = METRICAS.computeIfAbsent(nombre, n -> {
+				T nueva = crear.get();
+				publicar(tipoJmx, n, nueva);
+				return nueva;
+			});
+		}
+		return tipo.cast(metrica);
+	}
+
+	/**
+	 * Registers an object in the platform MBean server under the "colectivo"
+	 * domain, replacing any previous one with the same name. It is used for the
+	 * metrics and for other monitoring views, such as the query trace. A failure
+	 * only loses the JMX view, so it is logged and the object is still used.
+	 * 
+	 * @param tipoJmx The kind shown in the MBean name.
+	 * @param nombre  The name of the object.
+	 * @param metrica The object, a standard MBean.
+	 */
+	public static void publicar(String tipoJmx, String nombre, Object metrica) {
+		try {
+			MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objeto = new ObjectName(DOMINIO + ":type=" + tipoJmx + ",name=" + nombre);
+			if (servidor.isRegistered(objeto))
+				servidor.unregisterMBean(objeto);
+			servidor.registerMBean(metrica, objeto);
+		} catch (JMException | SecurityException ex) {
+			LOGGER.warn("No se pudo publicar la métrica '{}' por JMX.", nombre, ex);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package colectivo.modelo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collector of the timetable entries read by the line DAOs. The entries of a
+ * line and day may come in several rows and in any order, so they are gathered
+ * in one {@code Horario.Acumulador} per line and day, and the timetables are
+ * built and set on the lines once every row has been read. Both the file and
+ * the database DAOs load their frequencies through this class, so they accept
+ * the same syntax and build the same timetables.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class CargaHorarios {
+
+	/** The collectors of each line, indexed by day. */
+	private final Map<Linea, Horario.Acumulador[]> acumuladores = new LinkedHashMap<>();
+
+	/**
+	 * Adds the entries of one row of a line and day, written in the compact
+	 * syntax of {@code Horario.Acumulador.agregar(String)}. The row is added
+	 * whole or not at all: if one of its entries is not valid, none of them is
+	 * added, so the caller can skip the row and keep loading.
+	 * 
+	 * @param linea     The line.
+	 * @param diaSemana The day of the week (1 to 7).
+	 * @param entradas  The entries of the row.
+	 * @throws IllegalArgumentException if the day or an entry is not valid.
+	 */
+	public void agregar(Linea linea, int diaSemana, String... entradas) {
+		Horario.Acumulador prueba = new Horario.Acumulador();
+		for (String entrada : entradas)
+			prueba.agregar(entrada);
+
+		Horario.Acumulador acumulador = obtenerAcumulador(linea, diaSemana);
+		for (String entrada : entradas)
+			acumulador.agregar(entrada);
+	}
+
+	/**
+	 * Returns the collector of a line and day, creating it if needed.
+	 * 
+	 * @param linea     The line.
+	 * @param diaSemana The day of the week (1 to 7).
+	 * @return The collector for that line and day.
+	 * @throws IllegalArgumentException if the day is not valid.
+	 */
+	private Horario.Acumulador obtenerAcumulador(Linea linea, int diaSemana) {
+		if (diaSemana < 1 || diaSemana > HoraServicio.DIAS_SEMANA)
+			throw new IllegalArgumentException("Día de la semana inválido: " + diaSemana);
+
+		Horario.Acumulador[] porDia = acumuladores.computeIfAbsent(linea,
+				l -> new Horario.Acumulador[HoraServicio.DIAS_SEMANA]);
+		if (porDia[diaSemana - 1] == null)
+			porDia[diaSemana - 1] = new Horario.Acumulador();
+		return porDia[diaSemana - 1];
+	}
+
+	/**
+	 * Builds the collected timetables and sets them on their lines. The days
+	 * without entries keep the timetable the line already had.
+	 */
+	public void asignar() {
+		for (Map.Entry<Linea, Horario.Acumulador[]> entrada : acumuladores.entrySet()) {
+			Horario.Acumulador[] porDia = entrada.getValue();
+			for (int dia = 1; dia <= porDia.length; dia++) {
+				if (porDia[dia - 1] != null)
+					entrada.getKey().setHorario(dia, porDia[dia - 1].construir());
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package colectivo.modelo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of the distinct day timetables of a transportation system. Equal
+ * timetables (same runs and exceptions) are stored once and identified by a
+ * pattern id, so the days of a line (e.g. Monday to Friday) and different lines that share a
+ * timetable reference the same {@code Horario}. The id 0 is always the empty
+ * timetable.
+ * 
+ * Lines loaded together should share one catalog; it is filled while loading
+ * and is not meant to be modified concurrently.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class CatalogoHorarios {
+
+	/** Pattern id of the empty timetable. */
+	public static final int SIN_SERVICIO = 0;
+
+	/** Distinct timetables, indexed by pattern id. */
+	private final List<Horario> horarios = new ArrayList<>();
+
+	/** Pattern id of each timetable, keyed by its runs and exceptions. */
+	private final Map<Horario, Integer> ids = new HashMap<>();
+
+	/** Constructor that registers the empty timetable as pattern 0. */
+	public CatalogoHorarios() {
+		horarios.add(Horario.VACIO);
+		ids.put(Horario.VACIO, SIN_SERVICIO);
+	}
+
+	/**
+	 * Returns the pattern id of a timetable, registering it if no equal timetable
+	 * (same runs and exceptions) exists yet.
+	 * 
+	 * @param horario The timetable.
+	 * @return The pattern id of the timetable.
+	 */
+	public int internar(Horario horario) {
+		if (horario == null || horario.isEmpty())
+			return SIN_SERVICIO;
+
+		Integer id = ids.get(horario);
+		if (id == null) {
+			id = horarios.size();
+			horarios.add(horario);
+			ids.put(horario, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the timetable of a pattern id.
+	 * 
+	 * @param id The pattern id.
+	 * @return The shared timetable.
+	 */
+	public Horario obtener(int id) {
+		return horarios.get(id);
+	}
+
+	/** @return The number of distinct timetables, including the empty one. */
+	public int size() {
+		return horarios.size();
+	}
+}
\ No newline at end of file
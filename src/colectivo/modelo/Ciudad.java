@@ -32,6 +32,12 @@ public class Ciudad {
 	 */
 	private final Map<String, Tramo> tramos;
 
+	/**
+	 * The route segments keyed by the packed codes of their stops. It is the same
+	 * object as {@code tramos} when the segments were loaded by a DAO.
+	 */
+	private final MapaTramos mapaTramos;
+
 	/**
 	 * Constructor for creating the city model. It initializes the core collections
 	 * using {@code Objects.requireNonNull} to enforce that these components cannot
@@ -45,6 +51,7 @@ public class Ciudad {
 		this.paradas = Objects.requireNonNull(paradas);
 		this.lineas = Objects.requireNonNull(lineas);
 		this.tramos = Objects.requireNonNull(tramos);
+		this.mapaTramos = MapaTramos.de(tramos);
 	}
 
 	/** @return The map of all available stops. */
@@ -61,4 +68,9 @@ public class Ciudad {
 	public Map<String, Tramo> getTramos() {
 		return tramos;
 	}
+
+	/** @return The segments keyed by the packed codes of their stops. */
+	public MapaTramos getMapaTramos() {
+		return mapaTramos;
+	}
 }
\ No newline at end of file
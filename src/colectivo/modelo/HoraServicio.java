@@ -0,0 +1,102 @@
+package colectivo.modelo;
+
+import java.time.LocalTime;
+
+/**
+ * Utility methods for the time model used by the routing layer. Times are
+ * stored as an {@code int} number of seconds since the start of a service day,
+ * and may be 24:00 or later: a trip leaving at 23:50 and taking 20 minutes
+ * arrives at 24:10 of the same service day instead of wrapping to 00:10.
+ * {@code LocalTime} is only used when times are shown to the user.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class HoraServicio {
+
+	/** Number of seconds in a day. */
+	public static final int SEGUNDOS_DIA = 24 * 60 * 60;
+
+	/** Number of days in a week; days are numbered from 1 to this value. */
+	public static final int DIAS_SEMANA = 7;
+
+	/** Private constructor to prevent instantiation. */
+	private HoraServicio() {
+	}
+
+	/**
+	 * Converts a time of the day to seconds since the start of the service day.
+	 * 
+	 * @param hora The time of the day.
+	 * @return The number of seconds since midnight.
+	 */
+	public static int desde(LocalTime hora) {
+		return hora.toSecondOfDay();
+	}
+
+	/**
+	 * Converts a service-day time to the time shown on a clock. Times of 24:00 or
+	 * later wrap to the following day.
+	 * 
+	 * @param segundos Seconds since the start of the service day (non-negative).
+	 * @return The equivalent time of the day.
+	 */
+	public static LocalTime aLocalTime(int segundos) {
+		return LocalTime.ofSecondOfDay(segundos % SEGUNDOS_DIA);
+	}
+
+	/**
+	 * Parses a time written as {@code HH:mm} or {@code HH:mm:ss}. Unlike
+	 * {@code LocalTime.parse}, the hour may be 24 or greater so that trips
+	 * belonging to a service day can be scheduled after midnight (e.g.
+	 * {@code 25:10}).
+	 * 
+	 * @param texto The text to parse.
+	 * @return The number of seconds since the start of the service day.
+	 * @throws IllegalArgumentException if the text is not a valid time.
+	 */
+	public static int parsear(String texto) {
+		String[] partes = texto.trim().split(":");
+		if (partes.length < 2 || partes.length > 3)
+			throw new IllegalArgumentException("Hora inválida: " + texto);
+
+		try {
+			int horas = Integer.parseInt(partes[0]);
+			int minutos = Integer.parseInt(partes[1]);
+			int segundos = partes.length == 3 ? Integer.parseInt(partes[2]) : 0;
+
+			if (horas < 0 || minutos < 0 || minutos > 59 || segundos < 0 || segundos > 59)
+				throw new IllegalArgumentException("Hora inválida: " + texto);
+			return horas * 3600 + minutos * 60 + segundos;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Hora inválida: " + texto, e);
+		}
+	}
+
+	/**
+	 * Formats a service-day time as {@code HH:mm} (with seconds only when they are
+	 * not zero), adding {@code (+n)} when the time falls {@code n} days after the
+	 * start of the service day.
+	 * 
+	 * @param segundos Seconds since the start of the service day (non-negative).
+	 * @return The formatted time.
+	 */
+	public static String formatear(int segundos) {
+		String texto = aLocalTime(segundos).toString();
+		int dias = segundos / SEGUNDOS_DIA;
+		return dias == 0 ? texto : texto + " (+" + dias + ")";
+	}
+
+	/**
+	 * Returns the day of the week that is a number of days away from the given
+	 * one, wrapping around the week.
+	 * 
+	 * @param diaSemana The day of the week (1 to 7).
+	 * @param dias      The number of days to move (may be negative).
+	 * @return The resulting day of the week (1 to 7).
+	 */
+	public static int desplazarDia(int diaSemana, int dias) {
+		return Math.floorMod(diaSemana - 1 + dias, DIAS_SEMANA) + 1;
+	}
+}
\ No newline at end of file
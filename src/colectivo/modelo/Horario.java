@@ -0,0 +1,459 @@
+package colectivo.modelo;
+
+import java.util.Arrays;
+
+/**
+ * Immutable timetable of a line for one service day. Instead of one entry per
+ * departure, the timetable is stored as runs of departures with a constant
+ * headway ({@code inicio}, {@code fin}, {@code intervalo}), plus two sorted
+ * lists of exceptions: single departures that do not belong to any run, and
+ * departures that are omitted from the runs. All times are seconds since the
+ * start of the service day (see {@code HoraServicio}).
+ * 
+ * The next departure after a given time is found with a little arithmetic per
+ * run and a binary search over the exceptions, regardless of how many
+ * departures the timetable has.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public final class Horario {
+
+	/** Timetable without departures. */
+	public static final Horario VACIO = new Horario(new int[0], new int[0], new int[0], new int[0], new int[0]);
+
+	/** Start of each run, sorted in ascending order. */
+	private final int[] inicios;
+
+	/** Last departure of each run (inclusive). */
+	private final int[] fines;
+
+	/** Headway of each run, in seconds (always positive). */
+	private final int[] intervalos;
+
+	/** Sorted departures that do not belong to any run. */
+	private final int[] sueltas;
+
+	/** Sorted departures omitted from the runs. */
+	private final int[] omitidas;
+
+	/**
+	 * Private constructor; timetables are created with {@code Acumulador} or
+	 * {@code desdeSalidas}.
+	 * 
+	 * @param inicios    Start of each run, sorted.
+	 * @param fines      Last departure of each run.
+	 * @param intervalos Headway of each run.
+	 * @param sueltas    Sorted single departures.
+	 * @param omitidas   Sorted omitted departures.
+	 */
+	private Horario(int[] inicios, int[] fines, int[] intervalos, int[] sueltas, int[] omitidas) {
+		this.inicios = inicios;
+		this.fines = fines;
+		this.intervalos = intervalos;
+		this.sueltas = sueltas;
+		this.omitidas = omitidas;
+	}
+
+	/**
+	 * Builds a compressed timetable from a list of departures, detecting the runs
+	 * with a constant headway.
+	 * 
+	 * @param salidas The departures, in service-day seconds, in any order.
+	 * @return The compressed timetable.
+	 */
+	public static Horario desdeSalidas(int... salidas) {
+		Acumulador acumulador = new Acumulador();
+		for (int salida : salidas)
+			acumulador.agregarSalida(salida);
+		return acumulador.construir();
+	}
+
+	/**
+	 * Returns the first departure at or after the given time.
+	 * 
+	 * @param horaMinima The minimum time, in service-day seconds.
+	 * @return The departure in service-day seconds, or -1 if there is none.
+	 */
+	public int siguienteSalida(int horaMinima) {
+		int mejor = Integer.MAX_VALUE;
+
+		for (int r = 0; r < inicios.length && inicios[r] < mejor; r++) {
+			int fin = fines[r];
+			if (fin < horaMinima)
+				continue;
+
+			int inicio = inicios[r];
+			int intervalo = intervalos[r];
+			int salida = inicio;
+			if (salida < horaMinima)
+				salida += (horaMinima - inicio + intervalo - 1) / intervalo * intervalo;
+
+			while (salida <= fin && salida < mejor && estaOmitida(salida))
+				salida += intervalo;
+
+			if (salida <= fin && salida < mejor)
+				mejor = salida;
+		}
+
+		int pos = Arrays.binarySearch(sueltas, horaMinima);
+		if (pos < 0)
+			pos = -pos - 1;
+		if (pos < sueltas.length && sueltas[pos] < mejor)
+			mejor = sueltas[pos];
+
+		return mejor == Integer.MAX_VALUE ? -1 : mejor;
+	}
+
+	/**
+	 * Returns the latest departure of the timetable, ignoring omissions.
+	 * 
+	 * @return The latest departure in service-day seconds, or -1 if the timetable
+	 *         is empty.
+	 */
+	public int ultimaSalida() {
+		int ultima = sueltas.length > 0 ? sueltas[sueltas.length - 1] : -1;
+		for (int fin : fines)
+			ultima = Math.max(ultima, fin);
+		return ultima;
+	}
+
+	/** @return true if the timetable has no departures. */
+	public boolean isEmpty() {
+		return inicios.length == 0 && sueltas.length == 0;
+	}
+
+	/** @return The number of runs stored. */
+	public int getCantidadTramosRegulares() {
+		return inicios.length;
+	}
+
+	/**
+	 * Expands the timetable into the full sorted list of departures.
+	 * 
+	 * @return A new array with every departure, in ascending order.
+	 */
+	public int[] salidas() {
+		int cantidad = sueltas.length;
+		for (int r = 0; r < inicios.length; r++)
+			cantidad += (fines[r] - inicios[r]) / intervalos[r] + 1;
+
+		int[] salidas = new int[cantidad];
+		int n = 0;
+		for (int r = 0; r < inicios.length; r++) {
+			for (int salida = inicios[r]; salida <= fines[r]; salida += intervalos[r]) {
+				if (!estaOmitida(salida))
+					salidas[n++] = salida;
+			}
+		}
+		for (int salida : sueltas)
+			salidas[n++] = salida;
+
+		salidas = Arrays.copyOf(salidas, n);
+		Arrays.sort(salidas);
+
+		int unicas = 0;
+		for (int i = 0; i < salidas.length; i++) {
+			if (unicas == 0 || salidas[unicas - 1] != salidas[i])
+				salidas[unicas++] = salidas[i];
+		}
+		return Arrays.copyOf(salidas, unicas);
+	}
+
+	/**
+	 * Returns a new timetable that also includes the given departure.
+	 * 
+	 * @param salida The departure to add, in service-day seconds.
+	 * @return The new timetable.
+	 */
+	public Horario conSalida(int salida) {
+		Acumulador acumulador = new Acumulador();
+		acumulador.agregar(this);
+		acumulador.agregarSalida(salida);
+		return acumulador.construir();
+	}
+
+	/**
+	 * Checks whether a departure is omitted from the runs.
+	 * 
+	 * @param salida The departure, in service-day seconds.
+	 * @return true if the departure is omitted.
+	 */
+	private boolean estaOmitida(int salida) {
+		return omitidas.length > 0 && Arrays.binarySearch(omitidas, salida) >= 0;
+	}
+
+	/**
+	 * Compares this timetable to another object. Two timetables are equal if they
+	 * store the same runs and exceptions.
+	 * 
+	 * @param obj The object to compare with.
+	 * @return true if both timetables are equal.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Horario))
+			return false;
+		Horario other = (Horario) obj;
+		return Arrays.equals(inicios, other.inicios) && Arrays.equals(fines, other.fines)
+				&& Arrays.equals(intervalos, other.intervalos) && Arrays.equals(sueltas, other.sueltas)
+				&& Arrays.equals(omitidas, other.omitidas);
+	}
+
+	/**
+	 * Calculates the hash code from the runs and exceptions.
+	 * 
+	 * @return The hash code of the object.
+	 */
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(inicios);
+		result = 31 * result + Arrays.hashCode(fines);
+		result = 31 * result + Arrays.hashCode(intervalos);
+		result = 31 * result + Arrays.hashCode(sueltas);
+		result = 31 * result + Arrays.hashCode(omitidas);
+		return result;
+	}
+
+	/**
+	 * Returns the timetable in the compact input syntax accepted by
+	 * {@code Acumulador.agregar(String)}.
+	 * 
+	 * @return The runs, single departures and omissions separated by ";".
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int r = 0; r < inicios.length; r++) {
+			sb.append(formatear(inicios[r])).append('-').append(formatear(fines[r])).append('/')
+					.append(intervalos[r] % 60 == 0 ? String.valueOf(intervalos[r] / 60) : formatear(intervalos[r]))
+					.append(';');
+		}
+		for (int salida : sueltas)
+			sb.append(formatear(salida)).append(';');
+		for (int salida : omitidas)
+			sb.append('!').append(formatear(salida)).append(';');
+		return sb.toString();
+	}
+
+	/**
+	 * Formats a time in the input syntax ({@code HH:mm}, or {@code HH:mm:ss} when
+	 * the seconds are not zero), keeping hours of 24 or more.
+	 * 
+	 * @param segundos The time in service-day seconds.
+	 * @return The formatted time.
+	 */
+	private static String formatear(int segundos) {
+		String texto = String.format("%02d:%02d", segundos / 3600, segundos / 60 % 60);
+		return segundos % 60 == 0 ? texto : texto + String.format(":%02d", segundos % 60);
+	}
+
+	/**
+	 * Mutable collector used while loading a timetable. Departures, runs and
+	 * omissions can be added in any order; {@code construir} sorts them, detects
+	 * the runs hidden among the single departures and returns the immutable
+	 * {@code Horario}.
+	 */
+	public static final class Acumulador {
+
+		/** Runs added explicitly, as consecutive (inicio, fin, intervalo) triples. */
+		private int[] tramos = new int[12];
+
+		/** Number of values used in {@code tramos}. */
+		private int cantidadTramos;
+
+		/** Single departures added, in insertion order. */
+		private int[] salidas = new int[16];
+
+		/** Number of values used in {@code salidas}. */
+		private int cantidadSalidas;
+
+		/** Omitted departures added, in insertion order. */
+		private int[] omitidas = new int[4];
+
+		/** Number of values used in {@code omitidas}. */
+		private int cantidadOmitidas;
+
+		/**
+		 * Adds a single departure.
+		 * 
+		 * @param salida The departure, in service-day seconds.
+		 */
+		public void agregarSalida(int salida) {
+			if (salida < 0)
+				throw new IllegalArgumentException("La hora de salida no puede ser negativa.");
+			if (cantidadSalidas == salidas.length)
+				salidas = Arrays.copyOf(salidas, salidas.length * 2);
+			salidas[cantidadSalidas++] = salida;
+		}
+
+		/**
+		 * Adds a run of departures from {@code inicio} to {@code fin} (inclusive if
+		 * it falls on the headway) every {@code intervalo} seconds.
+		 * 
+		 * @param inicio    The first departure, in service-day seconds.
+		 * @param fin       The end of the run, in service-day seconds.
+		 * @param intervalo The headway, in seconds.
+		 */
+		public void agregarServicio(int inicio, int fin, int intervalo) {
+			if (inicio < 0 || fin < inicio || intervalo <= 0)
+				throw new IllegalArgumentException("Servicio inválido: " + inicio + "-" + fin + "/" + intervalo);
+			if (cantidadTramos == tramos.length)
+				tramos = Arrays.copyOf(tramos, tramos.length * 2);
+			tramos[cantidadTramos++] = inicio;
+			tramos[cantidadTramos++] = fin - (fin - inicio) % intervalo;
+			tramos[cantidadTramos++] = intervalo;
+		}
+
+		/**
+		 * Omits a departure from the runs of the timetable.
+		 * 
+		 * @param salida The omitted departure, in service-day seconds.
+		 */
+		public void omitirSalida(int salida) {
+			if (cantidadOmitidas == omitidas.length)
+				omitidas = Arrays.copyOf(omitidas, omitidas.length * 2);
+			omitidas[cantidadOmitidas++] = salida;
+		}
+
+		/**
+		 * Adds every run and exception of an existing timetable.
+		 * 
+		 * @param horario The timetable to copy.
+		 */
+		public void agregar(Horario horario) {
+			for (int r = 0; r < horario.inicios.length; r++)
+				agregarServicio(horario.inicios[r], horario.fines[r], horario.intervalos[r]);
+			for (int salida : horario.sueltas)
+				agregarSalida(salida);
+			for (int salida : horario.omitidas)
+				omitirSalida(salida);
+		}
+
+		/**
+		 * Adds one entry written in the compact input syntax:
+		 * <ul>
+		 * <li>{@code HH:mm} or {@code HH:mm:ss}: a single departure.</li>
+		 * <li>{@code HH:mm-HH:mm/N}: a run every {@code N} minutes, or every
+		 * {@code HH:mm:ss} if the headway is written as a time.</li>
+		 * <li>{@code !HH:mm}: a departure omitted from the runs.</li>
+		 * </ul>
+		 * Hours may be 24 or greater (see {@code HoraServicio.parsear}). Blank
+		 * entries are ignored.
+		 * 
+		 * @param texto The entry to parse.
+		 * @throws IllegalArgumentException if the entry is not valid.
+		 */
+		public void agregar(String texto) {
+			String entrada = texto.trim();
+			if (entrada.isEmpty())
+				return;
+
+			if (entrada.startsWith("!")) {
+				omitirSalida(HoraServicio.parsear(entrada.substring(1)));
+				return;
+			}
+
+			int guion = entrada.indexOf('-');
+			if (guion < 0) {
+				agregarSalida(HoraServicio.parsear(entrada));
+				return;
+			}
+
+			int barra = entrada.indexOf('/', guion);
+			if (barra < 0)
+				throw new IllegalArgumentException("Falta el intervalo del servicio: " + texto);
+
+			int inicio = HoraServicio.parsear(entrada.substring(0, guion));
+			int fin = HoraServicio.parsear(entrada.substring(guion + 1, barra));
+			String intervalo = entrada.substring(barra + 1).trim();
+			try {
+				int segundos = intervalo.indexOf(':') >= 0 ? HoraServicio.parsear(intervalo)
+						: Integer.parseInt(intervalo) * 60;
+				agregarServicio(inicio, fin, segundos);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Intervalo inválido: " + texto, e);
+			}
+		}
+
+		/** @return true if nothing has been added. */
+		public boolean isEmpty() {
+			return cantidadTramos == 0 && cantidadSalidas == 0;
+		}
+
+		/**
+		 * Builds the immutable timetable. Runs of three or more single departures
+		 * with the same headway are stored as runs; the rest are kept as single
+		 * departures.
+		 * 
+		 * @return The compressed timetable.
+		 */
+		public Horario construir() {
+			if (isEmpty())
+				return VACIO;
+
+			int[] omitidasOrdenadas = ordenarSinRepetidos(omitidas, cantidadOmitidas);
+			int[] ordenadas = ordenarSinRepetidos(salidas, cantidadSalidas);
+
+			int[] nuevos = Arrays.copyOf(tramos, cantidadTramos + ordenadas.length * 3);
+			int cantidad = cantidadTramos;
+			int[] sueltas = new int[ordenadas.length];
+			int cantidadSueltas = 0;
+
+			int i = 0;
+			while (i < ordenadas.length) {
+				int j = i;
+				if (i + 2 < ordenadas.length && ordenadas[i + 1] - ordenadas[i] == ordenadas[i + 2] - ordenadas[i + 1]) {
+					int intervalo = ordenadas[i + 1] - ordenadas[i];
+					j = i + 2;
+					while (j + 1 < ordenadas.length && ordenadas[j + 1] - ordenadas[j] == intervalo)
+						j++;
+					nuevos[cantidad++] = ordenadas[i];
+					nuevos[cantidad++] = ordenadas[j];
+					nuevos[cantidad++] = intervalo;
+				} else if (Arrays.binarySearch(omitidasOrdenadas, ordenadas[i]) < 0) {
+					sueltas[cantidadSueltas++] = ordenadas[i];
+				}
+				i = j + 1;
+			}
+
+			long[] orden = new long[cantidad / 3];
+			for (int r = 0; r < orden.length; r++)
+				orden[r] = (long) nuevos[r * 3] << 32 | r;
+			Arrays.sort(orden);
+
+			int[] inicios = new int[orden.length];
+			int[] fines = new int[orden.length];
+			int[] intervalos = new int[orden.length];
+			for (int r = 0; r < orden.length; r++) {
+				int k = (int) orden[r] * 3;
+				inicios[r] = nuevos[k];
+				fines[r] = nuevos[k + 1];
+				intervalos[r] = nuevos[k + 2];
+			}
+			return new Horario(inicios, fines, intervalos, Arrays.copyOf(sueltas, cantidadSueltas), omitidasOrdenadas);
+		}
+
+		/**
+		 * Returns a sorted copy of the first values of an array, without repeated
+		 * values.
+		 * 
+		 * @param valores  The array.
+		 * @param cantidad The number of values used.
+		 * @return The sorted values.
+		 */
+		private static int[] ordenarSinRepetidos(int[] valores, int cantidad) {
+			int[] ordenados = Arrays.copyOf(valores, cantidad);
+			Arrays.sort(ordenados);
+			int unicos = 0;
+			for (int i = 0; i < ordenados.length; i++) {
+				if (unicos == 0 || ordenados[unicos - 1] != ordenados[i])
+					ordenados[unicos++] = ordenados[i];
+			}
+			return Arrays.copyOf(ordenados, unicos);
+		}
+	}
+}
\ No newline at end of file
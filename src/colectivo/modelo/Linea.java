@@ -6,7 +6,8 @@ import java.util.List;
 
 /**
  * Represents a bus line withing the transporation system. Each line has a code,
- * a name, a list of stops and a list of frequencies (schedules).
+ * a name, a list of stops and a list of frequencies (schedules), stored as the
+ * id of a shared {@code Horario} for each day of the week.
  * 
  * @author Juliana Martin
  * @author Ezequiel Ramos
@@ -23,8 +24,22 @@ public class Linea {
 	/** The ordered list of stops (the route) this line serves. */
 	private List<Parada> paradas;
 
-	/** The list of scheduled departure times (frequencies) for this line. */
-	private List<Frecuencia> frecuencias;
+	/** The catalog holding the timetables referenced by {@code patrones}. */
+	private CatalogoHorarios catalogoHorarios;
+
+	/**
+	 * The timetable pattern id of each day of the week, indexed by
+	 * {@code diaSemana - 1}.
+	 */
+	private int[] patrones;
+
+	/**
+	 * The departures added with {@code agregarFrecuencia} that are not yet in the
+	 * catalog, indexed like {@code patrones}, or null if there are none. They are
+	 * interned when a timetable is first read, so only the final timetable of
+	 * each day is stored in the shared catalog.
+	 */
+	private volatile Horario.Acumulador[] pendientes;
 
 	/**
 	 * Default constructor. Initializes the internal collections (stops and
@@ -32,7 +47,8 @@ public class Linea {
 	 */
 	public Linea() {
 		this.paradas = new ArrayList<Parada>();
-		this.frecuencias = new ArrayList<Frecuencia>();
+		this.catalogoHorarios = new CatalogoHorarios();
+		this.patrones = new int[HoraServicio.DIAS_SEMANA];
 	}
 
 	/**
@@ -42,11 +58,24 @@ public class Linea {
 	 * @param nombre The name of the line.
 	 */
 	public Linea(String codigo, String nombre) {
+		this(codigo, nombre, new CatalogoHorarios());
+	}
+
+	/**
+	 * Constructor for creating a line whose timetables are interned in a catalog
+	 * shared with other lines.
+	 * 
+	 * @param codigo           The unique code for the line.
+	 * @param nombre           The name of the line.
+	 * @param catalogoHorarios The shared catalog of day timetables.
+	 */
+	public Linea(String codigo, String nombre, CatalogoHorarios catalogoHorarios) {
 		super();
 		this.codigo = codigo;
 		this.nombre = nombre;
 		this.paradas = new ArrayList<Parada>();
-		this.frecuencias = new ArrayList<Frecuencia>();
+		this.catalogoHorarios = catalogoHorarios;
+		this.patrones = new int[HoraServicio.DIAS_SEMANA];
 	}
 
 	/**
@@ -60,15 +89,100 @@ public class Linea {
 	}
 
 	/**
-	 * Adds a frequency for this line. Creates a new {@code Frecuencia} object and
-	 * adds it to the list.
+	 * Adds a frequency for this line to the timetable of the given day. The
+	 * departure is collected and the day's timetable is built and interned when it
+	 * is first read.
 	 * 
 	 * @param diaSemana Day of the week.
 	 * @param hora      The scheduled departure time from the route's starting
 	 *                  point.
 	 */
 	public void agregarFrecuencia(int diaSemana, LocalTime hora) {
-		frecuencias.add(new Frecuencia(diaSemana, hora));
+		agregarFrecuencia(diaSemana, HoraServicio.desde(hora));
+	}
+
+	/**
+	 * Adds a frequency for this line given as seconds since the start of the
+	 * service day. The time may be 24:00 or later for trips that run after
+	 * midnight but belong to the service of {@code diaSemana}.
+	 * 
+	 * @param diaSemana Day of the week.
+	 * @param segundos  The scheduled departure time from the route's starting
+	 *                  point, in seconds since the start of the service day.
+	 */
+	public void agregarFrecuencia(int diaSemana, int segundos) {
+		int indice = indiceDia(diaSemana);
+		Horario.Acumulador[] porDia = pendientes;
+		if (porDia == null)
+			pendientes = porDia = new Horario.Acumulador[HoraServicio.DIAS_SEMANA];
+		if (porDia[indice] == null) {
+			porDia[indice] = new Horario.Acumulador();
+			porDia[indice].agregar(catalogoHorarios.obtener(patrones[indice]));
+		}
+		porDia[indice].agregarSalida(segundos);
+	}
+
+	/**
+	 * Returns the timetable of a day of the week.
+	 * 
+	 * @param diaSemana Day of the week (1 to 7).
+	 * @return The day's timetable, or {@code Horario.VACIO} if the line has no
+	 *         service that day or the day is not valid.
+	 */
+	public Horario getHorario(int diaSemana) {
+		return catalogoHorarios.obtener(getPatron(diaSemana));
+	}
+
+	/**
+	 * Replaces the timetable of a day of the week. The timetable is interned in
+	 * the line's catalog, so days and lines with the same departures share it.
+	 * 
+	 * @param diaSemana Day of the week (1 to 7).
+	 * @param horario   The new timetable.
+	 */
+	public void setHorario(int diaSemana, Horario horario) {
+		int indice = indiceDia(diaSemana);
+		Horario.Acumulador[] porDia = pendientes;
+		if (porDia != null)
+			porDia[indice] = null;
+		patrones[indice] = catalogoHorarios.internar(horario);
+	}
+
+	/**
+	 * Returns the timetable pattern id of a day of the week. Days with the same
+	 * pattern id have the same departures, so it can be used as a cache key
+	 * instead of the day.
+	 * 
+	 * @param diaSemana Day of the week (1 to 7).
+	 * @return The pattern id in the line's catalog, or
+	 *         {@code CatalogoHorarios.SIN_SERVICIO} if the day is not valid.
+	 */
+	public int getPatron(int diaSemana) {
+		if (diaSemana < 1 || diaSemana > HoraServicio.DIAS_SEMANA)
+			return CatalogoHorarios.SIN_SERVICIO;
+		if (pendientes != null)
+			internarPendientes();
+		return patrones[diaSemana - 1];
+	}
+
+	/**
+	 * Builds the timetables of the departures added with
+	 * {@code agregarFrecuencia} and interns them in the catalog.
+	 */
+	private synchronized void internarPendientes() {
+		Horario.Acumulador[] porDia = pendientes;
+		if (porDia == null)
+			return;
+		for (int i = 0; i < porDia.length; i++) {
+			if (porDia[i] != null)
+				patrones[i] = catalogoHorarios.internar(porDia[i].construir());
+		}
+		pendientes = null;
+	}
+
+	/** @return The catalog holding this line's timetables. */
+	public CatalogoHorarios getCatalogoHorarios() {
+		return catalogoHorarios;
 	}
 
 	/** @return The unique code of the line. */
@@ -96,11 +210,35 @@ public class Linea {
 		return paradas;
 	}
 
-	/** @return The list of schedule frequencies. */
+	/**
+	 * Returns every departure of the line as a list of frequencies, expanded from
+	 * the compressed timetables. The list is a new copy on each call; changes to
+	 * it do not affect the line.
+	 * 
+	 * @return The list of schedule frequencies, ordered by day and time.
+	 */
 	public List<Frecuencia> getFrecuencias() {
+		List<Frecuencia> frecuencias = new ArrayList<>();
+		for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+			for (int salida : getHorario(dia).salidas())
+				frecuencias.add(new Frecuencia(dia, salida));
+		}
 		return frecuencias;
 	}
 
+	/**
+	 * Converts a day of the week to its position in {@code patrones}.
+	 * 
+	 * @param diaSemana Day of the week (1 to 7).
+	 * @return The position of the day.
+	 * @throws IllegalArgumentException if the day is not valid.
+	 */
+	private static int indiceDia(int diaSemana) {
+		if (diaSemana < 1 || diaSemana > HoraServicio.DIAS_SEMANA)
+			throw new IllegalArgumentException("Día de la semana inválido: " + diaSemana);
+		return diaSemana - 1;
+	}
+
 	/**
 	 * Calculates the hash code based on the unique line code.
 	 * 
@@ -149,16 +287,22 @@ public class Linea {
 	}
 
 	/**
-	 * Inner class representing a single instance of a schedule departure from the
-	 * line's initial stop for a specific say of the week.
+	 * Nested class representing a single instance of a schedule departure from
+	 * the line's initial stop for a specific say of the week. The line stores its
+	 * departures in compressed {@code Horario} objects; frequencies are only
+	 * created when the expanded list is requested. The class is static, so a
+	 * frequency does not keep a reference to its line.
 	 */
-	public class Frecuencia {
+	public static class Frecuencia {
 
 		/** The integer code for the day of the week (e.g., 1=Mon, 7=Sun). */
 		private int diaSemana;
 
-		/** The scheduled departure time from the starting stop (LocalTime). */
-		private LocalTime hora;
+		/**
+		 * The scheduled departure time from the starting stop, in seconds since the
+		 * start of the service day (may be 24:00 or later).
+		 */
+		private int segundos;
 
 		/**
 		 * Constructor for a new frequency entry.
@@ -167,9 +311,20 @@ public class Linea {
 		 * @param hora      Departure time.
 		 */
 		public Frecuencia(int diaSemana, LocalTime hora) {
+			this(diaSemana, HoraServicio.desde(hora));
+		}
+
+		/**
+		 * Constructor for a new frequency entry given in service-day seconds.
+		 * 
+		 * @param diaSemana Day of the week.
+		 * @param segundos  Departure time, in seconds since the start of the
+		 *                  service day.
+		 */
+		public Frecuencia(int diaSemana, int segundos) {
 			super();
 			this.diaSemana = diaSemana;
-			this.hora = hora;
+			this.segundos = segundos;
 		}
 
 		/** @return The integer code for the day of the week. */
@@ -182,14 +337,24 @@ public class Linea {
 			this.diaSemana = diaSemana;
 		}
 
-		/** @return The scheduled departure time. */
+		/** @return The scheduled departure time, as shown on a clock. */
 		public LocalTime getHora() {
-			return hora;
+			return HoraServicio.aLocalTime(segundos);
 		}
 
 		/** @param hora The departure time to set. */
 		public void setHora(LocalTime hora) {
-			this.hora = hora;
+			this.segundos = HoraServicio.desde(hora);
+		}
+
+		/** @return The scheduled departure time, in service-day seconds. */
+		public int getSegundos() {
+			return segundos;
+		}
+
+		/** @param segundos The departure time to set, in service-day seconds. */
+		public void setSegundos(int segundos) {
+			this.segundos = segundos;
 		}
 
 		/**
@@ -199,7 +364,7 @@ public class Linea {
 		 */
 		@Override
 		public String toString() {
-			return "Frecuencia [diaSemana=" + diaSemana + ", hora=" + hora + "]";
+			return "Frecuencia [diaSemana=" + diaSemana + ", hora=" + HoraServicio.formatear(segundos) + "]";
 		}
 	}
 }
\ No newline at end of file
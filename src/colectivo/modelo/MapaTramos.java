@@ -0,0 +1,363 @@
+package colectivo.modelo;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map of route segments keyed by the codes of their start and end stops,
+ * packed into a single {@code long}. Lookups by stop codes do not build any
+ * String nor box any key: the map uses open addressing with linear probing over
+ * primitive arrays.
+ * 
+ * For compatibility the class is also a {@code Map<String, Tramo>} keyed by
+ * {@code "inicio-fin"}, as the segment maps of the DAOs have always been. The
+ * iteration order is the insertion order. Segments can be added or replaced
+ * but not removed.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+public class MapaTramos extends AbstractMap<String, Tramo> {
+
+	/** Marker of an empty slot in {@code tabla}. */
+	private static final int LIBRE = -1;
+
+	/** Keys of the segments, in insertion order. */
+	private long[] claves;
+
+	/** Segments, in insertion order. */
+	private Tramo[] tramos;
+
+	/** Number of segments stored. */
+	private int cantidad;
+
+	/** Hash table holding positions in {@code claves}/{@code tramos}. */
+	private int[] tabla;
+
+	/** Mask applied to hashes ({@code tabla.length - 1}). */
+	private int mascara;
+
+	/** View of the segments, created on first use. */
+	private Collection<Tramo> valores;
+
+	/** View of the entries, created on first use. */
+	private Set<Map.Entry<String, Tramo>> entradas;
+
+	/** Constructor for an empty map. */
+	public MapaTramos() {
+		this(16);
+	}
+
+	/**
+	 * Constructor for an empty map sized for the given number of segments.
+	 * 
+	 * @param capacidadInicial The expected number of segments.
+	 */
+	public MapaTramos(int capacidadInicial) {
+		int capacidad = Math.max(4, capacidadInicial);
+		this.claves = new long[capacidad];
+		this.tramos = new Tramo[capacidad];
+		crearTabla(Integer.highestOneBit(capacidad * 2 - 1) * 2);
+	}
+
+	/**
+	 * Returns the given map as a {@code MapaTramos}: the same object if it already
+	 * is one, or a copy otherwise.
+	 * 
+	 * @param tramos The segment map, keyed by {@code "inicio-fin"}.
+	 * @return A {@code MapaTramos} with the same segments.
+	 */
+	public static MapaTramos de(Map<String, Tramo> tramos) {
+		if (tramos instanceof MapaTramos)
+			return (MapaTramos) tramos;
+
+		MapaTramos mapa = new MapaTramos(tramos.size());
+		for (Map.Entry<String, Tramo> entrada : tramos.entrySet())
+			mapa.put(entrada.getKey(), entrada.getValue());
+		return mapa;
+	}
+
+	/**
+	 * Packs the codes of two stops into a key.
+	 * 
+	 * @param codigoInicio The code of the start stop.
+	 * @param codigoFin    The code of the end stop.
+	 * @return The key of the segment.
+	 */
+	public static long clave(int codigoInicio, int codigoFin) {
+		return ((long) codigoInicio << 32) | (codigoFin & 0xffffffffL);
+	}
+
+	/**
+	 * Returns the segment between two stops.
+	 * 
+	 * @param codigoInicio The code of the start stop.
+	 * @param codigoFin    The code of the end stop.
+	 * @return The segment, or null if there is none.
+	 */
+	public Tramo buscar(int codigoInicio, int codigoFin) {
+		int pos = posicion(clave(codigoInicio, codigoFin));
+		return pos < 0 ? null : tramos[pos];
+	}
+
+	/**
+	 * Returns the segment between two stops.
+	 * 
+	 * @param inicio The start stop.
+	 * @param fin    The end stop.
+	 * @return The segment, or null if there is none.
+	 */
+	public Tramo buscar(Parada inicio, Parada fin) {
+		return buscar(inicio.getCodigo(), fin.getCodigo());
+	}
+
+	/**
+	 * Adds a segment keyed by the codes of its stops, replacing any segment
+	 * between the same stops.
+	 * 
+	 * @param tramo The segment to add.
+	 * @return The replaced segment, or null.
+	 */
+	public Tramo agregar(Tramo tramo) {
+		return agregar(clave(tramo.getInicio().getCodigo(), tramo.getFin().getCodigo()), tramo);
+	}
+
+	/**
+	 * Returns a segment by its insertion position.
+	 * 
+	 * @param indice The position, from 0 to {@code size() - 1}.
+	 * @return The segment.
+	 */
+	public Tramo obtener(int indice) {
+		if (indice < 0 || indice >= cantidad)
+			throw new IndexOutOfBoundsException(indice);
+		return tramos[indice];
+	}
+
+	@Override
+	public int size() {
+		return cantidad;
+	}
+
+	@Override
+	public Tramo get(Object clave) {
+		long valor = convertirClave(clave);
+		if (valor == Long.MIN_VALUE)
+			return null;
+		int pos = posicion(valor);
+		return pos < 0 ? null : tramos[pos];
+	}
+
+	@Override
+	public boolean containsKey(Object clave) {
+		long valor = convertirClave(clave);
+		return valor != Long.MIN_VALUE && posicion(valor) >= 0;
+	}
+
+	/**
+	 * Adds a segment under a {@code "inicio-fin"} key.
+	 * 
+	 * @param clave The key, made of the codes of the start and end stops.
+	 * @param tramo The segment.
+	 * @return The replaced segment, or null.
+	 * @throws IllegalArgumentException if the key is not valid.
+	 */
+	@Override
+	public Tramo put(String clave, Tramo tramo) {
+		long valor = convertirClave(clave);
+		if (valor == Long.MIN_VALUE)
+			throw new IllegalArgumentException("Clave de tramo inválida: " + clave);
+		return agregar(valor, tramo);
+	}
+
+	@Override
+	public Collection<Tramo> values() {
+		if (valores == null) {
+			valores = new AbstractCollection<Tramo>() {
+				@Override
+				public Iterator<Tramo> iterator() {
+					return new Recorredor<Tramo>() {
+						@Override
+						Tramo elemento(int indice) {
+							return tramos[indice];
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return cantidad;
+				}
+			};
+		}
+		return valores;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Tramo>> entrySet() {
+		if (entradas == null) {
+			entradas = new AbstractSet<Map.Entry<String, Tramo>>() {
+				@Override
+				public Iterator<Map.Entry<String, Tramo>> iterator() {
+					return new Recorredor<Map.Entry<String, Tramo>>() {
+						@Override
+						Map.Entry<String, Tramo> elemento(int indice) {
+							long clave = claves[indice];
+							String texto = (int) (clave >> 32) + "-" + (int) clave;
+							return new AbstractMap.SimpleImmutableEntry<>(texto, tramos[indice]);
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return cantidad;
+				}
+			};
+		}
+		return entradas;
+	}
+
+	/**
+	 * Adds or replaces the segment stored under a key.
+	 * 
+	 * @param clave The packed key.
+	 * @param tramo The segment.
+	 * @return The replaced segment, or null.
+	 */
+	private Tramo agregar(long clave, Tramo tramo) {
+		int pos = posicion(clave);
+		if (pos >= 0) {
+			Tramo anterior = tramos[pos];
+			tramos[pos] = tramo;
+			return anterior;
+		}
+
+		if (cantidad == claves.length) {
+			claves = Arrays.copyOf(claves, cantidad * 2);
+			tramos = Arrays.copyOf(tramos, cantidad * 2);
+		}
+		claves[cantidad] = clave;
+		tramos[cantidad] = tramo;
+		if ((cantidad + 1) * 2 > tabla.length)
+			crearTabla(tabla.length * 2);
+		insertarEnTabla(cantidad);
+		cantidad++;
+		return null;
+	}
+
+	/**
+	 * Returns the position of a key in {@code claves}.
+	 * 
+	 * @param clave The packed key.
+	 * @return The position, or -1 if the key is not present.
+	 */
+	private int posicion(long clave) {
+		int i = dispersar(clave) & mascara;
+		while (true) {
+			int pos = tabla[i];
+			if (pos == LIBRE)
+				return -1;
+			if (claves[pos] == clave)
+				return pos;
+			i = (i + 1) & mascara;
+		}
+	}
+
+	/**
+	 * Creates a new hash table of the given size and inserts every stored key.
+	 * 
+	 * @param tamano The size of the table (a power of two).
+	 */
+	private void crearTabla(int tamano) {
+		tabla = new int[tamano];
+		Arrays.fill(tabla, LIBRE);
+		mascara = tamano - 1;
+		for (int pos = 0; pos < cantidad; pos++)
+			insertarEnTabla(pos);
+	}
+
+	/**
+	 * Inserts the key stored at a position into the hash table.
+	 * 
+	 * @param pos The position in {@code claves}.
+	 */
+	private void insertarEnTabla(int pos) {
+		int i = dispersar(claves[pos]) & mascara;
+		while (tabla[i] != LIBRE)
+			i = (i + 1) & mascara;
+		tabla[i] = pos;
+	}
+
+	/**
+	 * Spreads the bits of a key so that consecutive stop codes do not collide.
+	 * 
+	 * @param clave The packed key.
+	 * @return The hash of the key.
+	 */
+	private static int dispersar(long clave) {
+		long h = clave * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Converts a {@code "inicio-fin"} key to its packed form.
+	 * 
+	 * @param clave The key.
+	 * @return The packed key, or {@code Long.MIN_VALUE} if the key is not valid.
+	 */
+	private static long convertirClave(Object clave) {
+		if (!(clave instanceof String))
+			return Long.MIN_VALUE;
+
+		String texto = (String) clave;
+		int guion = texto.indexOf('-', 1);
+		if (guion < 0)
+			return Long.MIN_VALUE;
+		try {
+			return clave(Integer.parseInt(texto, 0, guion, 10),
+					Integer.parseInt(texto, guion + 1, texto.length(), 10));
+		} catch (NumberFormatException e) {
+			return Long.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * Read-only iterator over the stored positions, in insertion order.
+	 * 
+	 * @param <E> The type of the elements returned.
+	 */
+	private abstract class Recorredor<E> implements Iterator<E> {
+
+		/** The next position to return. */
+		private int siguiente;
+
+		@Override
+		public boolean hasNext() {
+			return siguiente < cantidad;
+		}
+
+		@Override
+		public E next() {
+			if (siguiente >= cantidad)
+				throw new NoSuchElementException();
+			return elemento(siguiente++);
+		}
+
+		/**
+		 * Returns the element stored at a position.
+		 * 
+		 * @param indice The position.
+		 * @return The element.
+		 */
+		abstract E elemento(int indice);
+	}
+}
\ No newline at end of file
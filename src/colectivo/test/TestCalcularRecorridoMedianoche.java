@@ -0,0 +1,175 @@
+package colectivo.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import colectivo.controlador.Constantes;
+import colectivo.logica.Calculo;
+import colectivo.logica.Recorrido;
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Linea;
+import colectivo.modelo.MapaTramos;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Unit test for the trips of the {@code Calculo} service that run around
+ * midnight. It uses a small city built in memory: a night line N (stops 1, 2
+ * and 3) that leaves its first stop at 23:50, or at 23:45 on Sunday, and takes
+ * 40 minutes to reach stop 3, and a day line M (stops 3 and 4) with departures
+ * at 06:00 and 22:00 from Monday to Friday and at 08:00 and 21:00 on the
+ * weekend. The timetables differ between Sunday and Monday so that a search
+ * that looks up the wrong day fails. Times are seconds since the start of the
+ * query's service day, so a time after midnight is 24:00 or greater.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+class TestCalcularRecorridoMedianoche {
+
+	/** Departure of line N from its first stop: 23:50. */
+	private static final int SALIDA_NOCTURNA = HoraServicio.parsear("23:50");
+
+	/** Departure of line N from its first stop on Sunday: 23:45. */
+	private static final int SALIDA_NOCTURNA_DOMINGO = HoraServicio.parsear("23:45");
+
+	/** Travel time of each bus segment of line N, in seconds. */
+	private static final int TIEMPO_N = 20 * 60;
+
+	/** Travel time of the bus segment of line M, in seconds. */
+	private static final int TIEMPO_M = 10 * 60;
+
+	/** Map containing the stops of the city, keyed by their integer code. */
+	private Map<Integer, Parada> paradas;
+
+	/** Map containing the route segments of the city. */
+	private MapaTramos tramos;
+
+	/** The main business logic service under test. */
+	private Calculo calculo;
+
+	/**
+	 * Builds the city before each test method runs.
+	 */
+	@BeforeEach
+	void setUp() {
+		paradas = new LinkedHashMap<>();
+		for (int codigo = 1; codigo <= 4; codigo++)
+			paradas.put(codigo, new Parada(codigo, "Parada " + codigo, -35.66, -63.75 + codigo * 0.01));
+
+		tramos = new MapaTramos();
+		tramos.agregar(new Tramo(paradas.get(1), paradas.get(2), TIEMPO_N, Constantes.COLECTIVO));
+		tramos.agregar(new Tramo(paradas.get(2), paradas.get(3), TIEMPO_N, Constantes.COLECTIVO));
+		tramos.agregar(new Tramo(paradas.get(3), paradas.get(4), TIEMPO_M, Constantes.COLECTIVO));
+
+		Linea nocturna = new Linea("N", "Nocturna");
+		nocturna.agregarParada(paradas.get(1));
+		nocturna.agregarParada(paradas.get(2));
+		nocturna.agregarParada(paradas.get(3));
+
+		Linea diurna = new Linea("M", "Diurna");
+		diurna.agregarParada(paradas.get(3));
+		diurna.agregarParada(paradas.get(4));
+
+		for (int dia = 1; dia <= HoraServicio.DIAS_SEMANA; dia++) {
+			boolean finDeSemana = dia >= 6;
+			nocturna.agregarFrecuencia(dia, dia == 7 ? SALIDA_NOCTURNA_DOMINGO : SALIDA_NOCTURNA);
+			diurna.agregarFrecuencia(dia, LocalTime.of(finDeSemana ? 8 : 6, 0));
+			diurna.agregarFrecuencia(dia, LocalTime.of(finDeSemana ? 21 : 22, 0));
+		}
+
+		Map<String, Linea> lineas = new LinkedHashMap<>();
+		lineas.put(nocturna.getCodigo(), nocturna);
+		lineas.put(diurna.getCodigo(), diurna);
+		calculo = new Calculo(lineas);
+	}
+
+	/**
+	 * Test case for a trip that departs before midnight and arrives after it.
+	 * Verifies that the arrival is kept on the same service day, past 24:00,
+	 * while the clock time of the departure is unchanged.
+	 */
+	@Test
+	void testViajeCruzaMedianoche() {
+		List<List<Recorrido>> recorridos = calculo.calcularRecorrido(paradas.get(1), paradas.get(3), 1,
+				HoraServicio.parsear("23:00"), tramos);
+
+		assertEquals(1, recorridos.size());
+		assertEquals(1, recorridos.get(0).size());
+
+		Recorrido recorrido = recorridos.get(0).get(0);
+		assertEquals("N", recorrido.getLinea().getCodigo());
+		assertEquals(SALIDA_NOCTURNA, recorrido.getSalida());
+		assertEquals(LocalTime.of(23, 50), recorrido.getHoraSalida());
+		assertEquals(HoraServicio.parsear("24:30"), recorrido.getLlegada());
+		assertEquals("00:30 (+1)", HoraServicio.formatear(recorrido.getLlegada()));
+	}
+
+	/**
+	 * Test case for a query made just after midnight. Verifies that the late trip
+	 * of the previous service day is boarded at stop 2: on Tuesday the Monday
+	 * trip, which passes at 00:10, and on Monday the Sunday trip, which passes at
+	 * 00:05.
+	 */
+	@Test
+	void testConsultaTrasMedianocheTomaViajeDelDiaAnterior() {
+		List<List<Recorrido>> martes = calculo.calcularRecorrido(paradas.get(2), paradas.get(3), 2,
+				HoraServicio.parsear("00:05"), tramos);
+
+		assertEquals(1, martes.size());
+		assertEquals("N", martes.get(0).get(0).getLinea().getCodigo());
+		assertEquals(HoraServicio.parsear("00:10"), martes.get(0).get(0).getSalida());
+		assertEquals(HoraServicio.parsear("00:30"), martes.get(0).get(0).getLlegada());
+
+		List<List<Recorrido>> lunes = calculo.calcularRecorrido(paradas.get(2), paradas.get(3), 1,
+				HoraServicio.parsear("00:05"), tramos);
+
+		assertEquals(1, lunes.size());
+		assertEquals(HoraServicio.parsear("00:05"), lunes.get(0).get(0).getSalida());
+		assertEquals(HoraServicio.parsear("00:25"), lunes.get(0).get(0).getLlegada());
+	}
+
+	/**
+	 * Test case for a query after the last departure of the day. Verifies that
+	 * the search rolls over to the first departure of the next service day, from
+	 * Sunday to Monday (06:00, not the 08:00 of Sunday): both when the query
+	 * itself is after midnight and when the transfer stop is reached after
+	 * midnight.
+	 */
+	@Test
+	void testDespuesDeUltimaSalidaPasaAlDiaSiguiente() {
+		assertEquals(1, HoraServicio.desplazarDia(7, 1));
+		assertEquals(7, HoraServicio.desplazarDia(1, -1));
+
+		List<List<Recorrido>> directo = calculo.calcularRecorrido(paradas.get(3), paradas.get(4), 7,
+				HoraServicio.parsear("24:30"), tramos);
+
+		assertEquals(1, directo.size());
+		assertEquals(HoraServicio.parsear("30:00"), directo.get(0).get(0).getSalida());
+		assertEquals(LocalTime.of(6, 0), directo.get(0).get(0).getHoraSalida());
+
+		List<List<Recorrido>> conexion = calculo.calcularRecorrido(paradas.get(1), paradas.get(4), 7,
+				HoraServicio.parsear("23:40"), tramos);
+
+		assertEquals(1, conexion.size());
+		assertEquals(2, conexion.get(0).size());
+
+		Recorrido tramo1 = conexion.get(0).get(0);
+		Recorrido tramo2 = conexion.get(0).get(1);
+		assertEquals("N", tramo1.getLinea().getCodigo());
+		assertEquals(SALIDA_NOCTURNA_DOMINGO, tramo1.getSalida());
+		assertEquals("M", tramo2.getLinea().getCodigo());
+		assertTrue(tramo2.getSalida() >= tramo1.getLlegada());
+		assertEquals(HoraServicio.parsear("30:00"), tramo2.getSalida());
+		assertEquals("06:10 (+1)", HoraServicio.formatear(tramo2.getLlegada()));
+	}
+}
\ No newline at end of file
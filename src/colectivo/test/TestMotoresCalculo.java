@@ -0,0 +1,269 @@
+package colectivo.test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import colectivo.conexion.Factory;
+import colectivo.dao.LineaDAO;
+import colectivo.dao.ParadaDAO;
+import colectivo.dao.TramoDAO;
+import colectivo.logica.Calculo;
+import colectivo.logica.CalculoAEstrellaService;
+import colectivo.logica.CalculoEstrategia;
+import colectivo.logica.CalculoPatronesService;
+import colectivo.logica.CalculoTiempoExpandidoService;
+import colectivo.logica.CalculoViajesService;
+import colectivo.logica.PuntosReferencia;
+import colectivo.logica.Recorrido;
+import colectivo.logica.RedTransporte;
+import colectivo.modelo.HoraServicio;
+import colectivo.modelo.Linea;
+import colectivo.modelo.Parada;
+import colectivo.modelo.Tramo;
+
+/**
+ * Unit test for the alternative routing engines, on the city loaded by the
+ * DAOs. Each engine is run on a fixed sample of queries next to the default
+ * strategies of {@code Calculo} (direct, {@code CalculoBusBusService} and
+ * {@code CalculoCaminandoService}), which are the reference: whenever the
+ * reference finds a journey, the engine must find one that arrives no later.
+ * The engines may arrive earlier, since they are not limited to one transfer.
+ * 
+ * @author Juliana Martin
+ * @author Ezequiel Ramos
+ * @author Nerea Toledo
+ */
+class TestMotoresCalculo {
+
+	/** Number of queries of the sample. */
+	private static final int CANTIDAD_CONSULTAS = 1500;
+
+	/** Seed of the sample, fixed so every run checks the same queries. */
+	private static final long SEMILLA = 42;
+
+	/** Maximum number of journeys kept by each query. */
+	private static final int MAX_RESULTADOS = 10;
+
+	/** Arrival of a query without journeys. */
+	private static final int SIN_LLEGADA = Integer.MAX_VALUE;
+
+	/** Map containing all available stops, keyed by their integer code. */
+	private Map<Integer, Parada> paradas;
+
+	/** Map containing all available lines, keyed by their string code. */
+	private Map<String, Linea> lineas;
+
+	/** Map containing all available route segments, keyed by composite string. */
+	private Map<String, Tramo> tramos;
+
+	/** The default strategies, used as the reference. */
+	private Calculo referencia;
+
+	/** The sampled queries, as {origin code, destination code, day, time}. */
+	private List<int[]> consultas;
+
+	/**
+	 * Sets up the test environment before each test method runs. Loads the city
+	 * through the DAOs of the {@code Factory} and samples the queries.
+	 * 
+	 * @throws Exception if data loading fails.
+	 */
+	@BeforeEach
+	void setUp() throws Exception {
+		paradas = (Factory.getInstancia("PARADA", ParadaDAO.class)).buscarTodos();
+		tramos = (Factory.getInstancia("TRAMO", TramoDAO.class)).buscarTodos();
+		lineas = (Factory.getInstancia("LINEA", LineaDAO.class)).buscarTodos();
+
+		referencia = new Calculo(lineas, MAX_RESULTADOS);
+
+		List<Integer> codigos = new ArrayList<>(paradas.keySet());
+		Random azar = new Random(SEMILLA);
+		consultas = new ArrayList<>(CANTIDAD_CONSULTAS);
+		while (consultas.size() < CANTIDAD_CONSULTAS) {
+			int origen = codigos.get(azar.nextInt(codigos.size()));
+			int destino = codigos.get(azar.nextInt(codigos.size()));
+			if (origen != destino)
+				consultas.add(new int[] { origen, destino, 1 + azar.nextInt(HoraServicio.DIAS_SEMANA),
+						azar.nextInt(24 * 60) * 60 });
+		}
+	}
+
+	/**
+	 * Test case for the fewest-transfers query over the line graph. Verifies that
+	 * it answers every query the reference answers, with no more buses than the
+	 * reference journey with the fewest, and that its journeys are consistent:
+	 * each segment starts where the previous one ended, not before its arrival,
+	 * and the last one ends at the destination.
+	 */
+	@Test
+	void testMenosTransbordos() {
+		int comparadas = 0;
+		for (int[] consulta : consultas) {
+			Parada origen = paradas.get(consulta[0]);
+			Parada destino = paradas.get(consulta[1]);
+			List<List<Recorrido>> esperados = referencia.calcularRecorrido(origen, destino, consulta[2], consulta[3],
+					tramos);
+			if (esperados.isEmpty())
+				continue;
+			comparadas++;
+
+			int minimo = Integer.MAX_VALUE;
+			for (List<Recorrido> viaje : esperados)
+				minimo = Math.min(minimo, colectivos(viaje));
+
+			List<List<Recorrido>> viajes = referencia.calcularRecorridoMenosTransbordos(origen, destino, consulta[2],
+					LocalTime.ofSecondOfDay(consulta[3]), tramos);
+			assertFalse(viajes.isEmpty(), describir(consulta));
+			for (List<Recorrido> viaje : viajes) {
+				assertTrue(colectivos(viaje) <= minimo, describir(consulta));
+				int hora = consulta[3];
+				Parada actual = origen;
+				for (Recorrido tramo : viaje) {
+					assertTrue(tramo.getParadaInicio().equals(actual) && tramo.getSalida() >= hora,
+							describir(consulta));
+					hora = tramo.getLlegada();
+					actual = tramo.getParadaFin();
+				}
+				assertTrue(actual.equals(destino), describir(consulta));
+			}
+		}
+		assertTrue(comparadas > 0);
+	}
+
+	/**
+	 * Test case for the time-dependent A* strategy. Verifies that its journey
+	 * never arrives later than the reference.
+	 */
+	@Test
+	void testAEstrella() {
+		compararLlegadas(new CalculoAEstrellaService(lineas));
+	}
+
+	/**
+	 * Test case for the landmark bounds of {@code PuntosReferencia} used by A*.
+	 * Verifies that the bound between origin and destination never exceeds the
+	 * travel time of the earliest journey of the reference, so that A* stays
+	 * exact.
+	 */
+	@Test
+	void testCotaPuntosReferencia() {
+		int comparadas = 0;
+		RedTransporte red = null;
+		for (int[] consulta : consultas) {
+			Parada origen = paradas.get(consulta[0]);
+			Parada destino = paradas.get(consulta[1]);
+			int llegada = mejorLlegada(
+					referencia.calcularRecorrido(origen, destino, consulta[2], consulta[3], tramos));
+			if (llegada == SIN_LLEGADA)
+				continue;
+			comparadas++;
+
+			if (red == null)
+				red = referencia.getRed();
+			PuntosReferencia marcas = red.getPuntosReferencia();
+			int cota = marcas.cota(red.indiceDe(origen), red.indiceDe(destino));
+			assertTrue(cota <= llegada - consulta[3], describir(consulta) + ": cota " + cota);
+		}
+		assertTrue(comparadas > 0);
+	}
+
+	/**
+	 * Test case for the trip-based strategy. Verifies that its journeys never
+	 * arrive later than the reference.
+	 */
+	@Test
+	void testViajes() {
+		compararLlegadas(new CalculoViajesService(lineas));
+	}
+
+	/**
+	 * Test case for the transfer patterns strategy, with the patterns computed
+	 * in memory. Verifies that its journeys never arrive later than the
+	 * reference.
+	 */
+	@Test
+	void testPatrones() {
+		compararLlegadas(new CalculoPatronesService(lineas, null));
+	}
+
+	/**
+	 * Test case for the strategy over the time-expanded graph. Verifies that its
+	 * journey never arrives later than the reference.
+	 */
+	@Test
+	void testTiempoExpandido() {
+		compararLlegadas(new CalculoTiempoExpandidoService(lineas));
+	}
+
+	/**
+	 * Runs every sampled query through the reference and through a
+	 * {@code Calculo} with only the given engine, and checks that the engine
+	 * answers every query the reference answers, arriving no later.
+	 * 
+	 * @param motor The engine under test.
+	 */
+	private void compararLlegadas(CalculoEstrategia motor) {
+		Calculo calculo = new Calculo(lineas, MAX_RESULTADOS, List.of(motor));
+		int comparadas = 0;
+		for (int[] consulta : consultas) {
+			Parada origen = paradas.get(consulta[0]);
+			Parada destino = paradas.get(consulta[1]);
+			int esperada = mejorLlegada(
+					referencia.calcularRecorrido(origen, destino, consulta[2], consulta[3], tramos));
+			if (esperada == SIN_LLEGADA)
+				continue;
+			comparadas++;
+
+			int llegada = mejorLlegada(calculo.calcularRecorrido(origen, destino, consulta[2], consulta[3], tramos));
+			assertTrue(llegada <= esperada, describir(consulta) + ": llega " + HoraServicio.formatear(llegada)
+					+ ", la referencia " + HoraServicio.formatear(esperada));
+		}
+		assertTrue(comparadas > 0);
+	}
+
+	/**
+	 * Returns the earliest arrival among the journeys of a query.
+	 * 
+	 * @param viajes The journeys.
+	 * @return The arrival in service-day seconds, or {@code SIN_LLEGADA}.
+	 */
+	private static int mejorLlegada(List<List<Recorrido>> viajes) {
+		int mejor = SIN_LLEGADA;
+		for (List<Recorrido> viaje : viajes)
+			mejor = Math.min(mejor, viaje.get(viaje.size() - 1).getLlegada());
+		return mejor;
+	}
+
+	/**
+	 * Counts the bus segments of a journey.
+	 * 
+	 * @param viaje The journey.
+	 * @return The number of segments with a line.
+	 */
+	private static int colectivos(List<Recorrido> viaje) {
+		int cantidad = 0;
+		for (Recorrido tramo : viaje)
+			if (tramo.getLinea() != null)
+				cantidad++;
+		return cantidad;
+	}
+
+	/**
+	 * Describes a query for the assertion messages.
+	 * 
+	 * @param consulta The query, as {origin code, destination code, day, time}.
+	 * @return The description.
+	 */
+	private static String describir(int[] consulta) {
+		return consulta[0] + " -> " + consulta[1] + " día " + consulta[2] + " " + HoraServicio.formatear(consulta[3]);
+	}
+}
\ No newline at end of file